@@ -18,6 +18,7 @@ package com.alibaba.cloud.ai.autoconfigure.dashscope;
 
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
 import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingModel;
+import com.alibaba.cloud.ai.dashscope.embedding.EmbeddingCache;
 import io.micrometer.observation.ObservationRegistry;
 import org.springframework.ai.embedding.observation.EmbeddingModelObservationConvention;
 import org.springframework.ai.retry.autoconfigure.SpringAiRetryAutoConfiguration;
@@ -63,7 +64,8 @@ public class DashScopeEmbeddingAutoConfiguration {
 			ObjectProvider<WebClient.Builder> webClientBuilderProvider,
 			ObjectProvider<RestClient.Builder> restClientBuilderProvider, RetryTemplate retryTemplate,
 			ResponseErrorHandler responseErrorHandler, ObjectProvider<ObservationRegistry> observationRegistry,
-			ObjectProvider<EmbeddingModelObservationConvention> observationConvention) {
+			ObjectProvider<EmbeddingModelObservationConvention> observationConvention,
+			ObjectProvider<EmbeddingCache> embeddingCache) {
 
 		var dashScopeApi = dashscopeEmbeddingApi(commonProperties, embeddingProperties,
 				restClientBuilderProvider.getIfAvailable(RestClient::builder),
@@ -74,6 +76,7 @@ public class DashScopeEmbeddingAutoConfiguration {
 				observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP));
 
 		observationConvention.ifAvailable(embeddingModel::setObservationConvention);
+		embeddingCache.ifAvailable(embeddingModel::setEmbeddingCache);
 
 		return embeddingModel;
 	}
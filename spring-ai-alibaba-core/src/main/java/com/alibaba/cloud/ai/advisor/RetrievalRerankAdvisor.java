@@ -16,25 +16,38 @@
 
 package com.alibaba.cloud.ai.advisor;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import com.alibaba.cloud.ai.document.DocumentWithScore;
 import com.alibaba.cloud.ai.model.RerankModel;
 import com.alibaba.cloud.ai.model.RerankRequest;
 import com.alibaba.cloud.ai.model.RerankResponse;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.ai.chat.client.ChatClientRequest;
 import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.AdvisorUtils;
 import org.springframework.ai.chat.client.advisor.api.AdvisorChain;
 import org.springframework.ai.chat.client.advisor.api.BaseAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.preretrieval.query.expansion.QueryExpander;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.filter.Filter;
@@ -42,6 +55,9 @@ import org.springframework.ai.vectorstore.filter.FilterExpressionTextParser;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Title Content rerank advisor.<br>
@@ -87,6 +103,16 @@ public class RetrievalRerankAdvisor implements BaseAdvisor {
 
 	public static final String FILTER_EXPRESSION = "qa_filter_expression";
 
+	private static final Duration DEFAULT_RERANK_CACHE_TTL = Duration.ofMinutes(5);
+
+	private static final int DEFAULT_RERANK_CACHE_SIZE = 1024;
+
+	private QueryExpander queryExpander;
+
+	private Executor executor = task -> Schedulers.boundedElastic().schedule(task);
+
+	private RerankCache rerankCache = new RerankCache(DEFAULT_RERANK_CACHE_TTL, DEFAULT_RERANK_CACHE_SIZE);
+
 	public RetrievalRerankAdvisor(VectorStore vectorStore, RerankModel rerankModel) {
 		this(vectorStore, rerankModel, SearchRequest.builder().build(), DEFAULT_PROMPT_TEMPLATE, DEFAULT_MIN_SCORE);
 	}
@@ -157,29 +183,152 @@ public class RetrievalRerankAdvisor implements BaseAdvisor {
 
 	@Override
 	public ChatClientRequest before(ChatClientRequest request, AdvisorChain advisorChain) {
+		try {
+			return beforeAsync(request).join();
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw ex;
+		}
+	}
+
+	/**
+	 * Streams once retrieval and rerank have completed on the retrieval executor, so no
+	 * Reactor thread is blocked while they run.
+	 */
+	@Override
+	public Flux<ChatClientResponse> adviseStream(ChatClientRequest chatClientRequest,
+			StreamAdvisorChain streamAdvisorChain) {
+		Assert.notNull(chatClientRequest, "chatClientRequest cannot be null");
+		Assert.notNull(streamAdvisorChain, "streamAdvisorChain cannot be null");
+
+		return Mono.fromFuture(() -> beforeAsync(chatClientRequest))
+			.flatMapMany(streamAdvisorChain::nextStream)
+			.map(response -> {
+				if (AdvisorUtils.onFinishReason().test(response)) {
+					response = after(response, streamAdvisorChain);
+				}
+				return response;
+			})
+			.onErrorResume(error -> Flux.error(new IllegalStateException("Stream processing failed", error)));
+	}
 
+	/**
+	 * Retrieve and rerank without blocking the caller. Each query of the expansion is
+	 * searched in parallel, the candidates are deduplicated by document id, and the
+	 * rerank result is served from the cache when the same query saw the same candidates,
+	 * with the same text, recently.
+	 * @param request the chat client request
+	 * @return a future completed with the request carrying the augmented user message
+	 */
+	public CompletableFuture<ChatClientRequest> beforeAsync(ChatClientRequest request) {
 		var context = request.context();
 		var userMessage = request.prompt().getUserMessage();
+		Filter.Expression filterExpression = doGetFilterExpression(context);
 
-		var searchRequestToUse = SearchRequest.from(this.searchRequest)
-			.query(userMessage.getText())
-			.filterExpression(doGetFilterExpression(context))
-			.build();
+		CompletableFuture<List<String>> queries = this.queryExpander == null
+				? CompletableFuture.completedFuture(List.of(userMessage.getText()))
+				: CompletableFuture.supplyAsync(() -> expandQueries(userMessage.getText()), this.executor);
+
+		return queries.thenCompose(texts -> retrieveAll(texts, filterExpression)).thenApplyAsync(candidates -> {
+			context.put(RETRIEVED_DOCUMENTS, candidates);
+
+			List<Document> documents = rerankWithCache(request, candidates);
+
+			String documentContext = documents.stream()
+				.map(Document::getText)
+				.collect(Collectors.joining(System.lineSeparator()));
+
+			String augmentedUserText = this.promptTemplate
+				.render(Map.of("query", userMessage.getText(), "question_answer_context", documentContext));
+
+			// Update ChatClientRequest with augmented prompt.
+			return request.mutate()
+				.prompt(request.prompt().augmentUserMessage(augmentedUserText))
+				.context(context)
+				.build();
+		}, this.executor);
+	}
+
+	private List<String> expandQueries(String userText) {
+		Set<String> texts = new LinkedHashSet<>();
+		texts.add(userText);
+		for (Query query : this.queryExpander.expand(new Query(userText))) {
+			if (StringUtils.hasText(query.text())) {
+				texts.add(query.text());
+			}
+		}
+		return List.copyOf(texts);
+	}
 
-		List<Document> documents = this.vectorStore.similaritySearch(searchRequestToUse);
-		context.put(RETRIEVED_DOCUMENTS, documents);
+	private CompletableFuture<List<Document>> retrieveAll(List<String> queries, Filter.Expression filterExpression) {
+		List<CompletableFuture<List<Document>>> searches = queries.stream()
+			.map(query -> CompletableFuture.supplyAsync(() -> this.vectorStore.similaritySearch(
+					SearchRequest.from(this.searchRequest).query(query).filterExpression(filterExpression).build()),
+					this.executor))
+			.toList();
+
+		return CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+			// keep the first occurrence: results of the original query come first
+			Map<String, Document> candidates = new LinkedHashMap<>();
+			for (CompletableFuture<List<Document>> search : searches) {
+				List<Document> documents = search.join();
+				if (documents != null) {
+					documents.forEach(document -> candidates.putIfAbsent(document.getId(), document));
+				}
+			}
+			return new ArrayList<>(candidates.values());
+		});
+	}
 
-		documents = doRerank(request, documents);
+	private List<Document> rerankWithCache(ChatClientRequest request, List<Document> candidates) {
+		if (this.rerankCache == null || CollectionUtils.isEmpty(candidates)) {
+			return doRerank(request, candidates);
+		}
+		// a re-indexed document keeps its id, so the key also covers the text that is reranked
+		RerankCacheKey key = new RerankCacheKey(request.prompt().getUserMessage().getText(),
+				candidates.stream()
+					.collect(Collectors.toUnmodifiableMap(Document::getId,
+							document -> DigestUtils.sha256Hex(String.valueOf(document.getText())))));
+		List<Document> cached = this.rerankCache.get(key);
+		if (cached != null) {
+			logger.debug("rerank cache hit for query: {}", key.query());
+			return cached;
+		}
+		List<Document> reranked = List.copyOf(doRerank(request, candidates));
+		this.rerankCache.put(key, reranked);
+		return reranked;
+	}
 
-		String documentContext = documents.stream()
-			.map(Document::getText)
-			.collect(Collectors.joining(System.lineSeparator()));
+	/**
+	 * Expand the user query into several queries that are retrieved in parallel, e.g. a
+	 * {@code MultiQueryExpander}. The original query is always searched.
+	 */
+	public void setQueryExpander(QueryExpander queryExpander) {
+		this.queryExpander = queryExpander;
+	}
 
-		String augmentedUserText = this.promptTemplate
-			.render(Map.of("query", userMessage.getText(), "question_answer_context", documentContext));
+	/**
+	 * Executor running query expansion, vector searches and rerank. Defaults to
+	 * {@link Schedulers#boundedElastic()}.
+	 */
+	public void setExecutor(Executor executor) {
+		Assert.notNull(executor, "executor cannot be null");
+		this.executor = executor;
+	}
 
-		// Update ChatClientRequest with augmented prompt.
-		return request.mutate().prompt(request.prompt().augmentUserMessage(augmentedUserText)).context(context).build();
+	/**
+	 * Cache rerank results by query and candidate documents, identified by id and a hash
+	 * of their text.
+	 * @param ttl how long a rerank result is reused
+	 * @param maxEntries the number of cached results, {@code 0} disables the cache
+	 */
+	public void setRerankCache(Duration ttl, int maxEntries) {
+		Assert.notNull(ttl, "ttl cannot be null");
+		Assert.isTrue(maxEntries >= 0, "maxEntries must not be negative");
+		this.rerankCache = maxEntries == 0 || ttl.isZero() ? null : new RerankCache(ttl, maxEntries);
 	}
 
 	@Override
@@ -198,4 +347,50 @@ public class RetrievalRerankAdvisor implements BaseAdvisor {
 			.build();
 	}
 
+	/**
+	 * @param documentTextHashes SHA-256 of the text of each candidate, by document id
+	 */
+	private record RerankCacheKey(String query, Map<String, String> documentTextHashes) {
+	}
+
+	/**
+	 * Small LRU cache with a time-to-live per entry.
+	 */
+	private static final class RerankCache {
+
+		private final long ttlNanos;
+
+		private final Map<RerankCacheKey, CachedRerank> entries;
+
+		private RerankCache(Duration ttl, int maxEntries) {
+			this.ttlNanos = ttl.toNanos();
+			this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<RerankCacheKey, CachedRerank> eldest) {
+					return size() > maxEntries;
+				}
+			};
+		}
+
+		synchronized List<Document> get(RerankCacheKey key) {
+			CachedRerank cached = this.entries.get(key);
+			if (cached == null) {
+				return null;
+			}
+			if (System.nanoTime() - cached.createdNanos() > this.ttlNanos) {
+				this.entries.remove(key);
+				return null;
+			}
+			return cached.documents();
+		}
+
+		synchronized void put(RerankCacheKey key, List<Document> documents) {
+			this.entries.put(key, new CachedRerank(documents, System.nanoTime()));
+		}
+
+	}
+
+	private record CachedRerank(List<Document> documents, long createdNanos) {
+	}
+
 }
@@ -17,6 +17,8 @@ package com.alibaba.cloud.ai.dashscope.api;
 
 import com.alibaba.cloud.ai.dashscope.common.DashScopeApiConstants;
 import com.alibaba.cloud.ai.dashscope.common.DashScopeException;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeRateLimiter;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeRateLimiter.Priority;
 import com.alibaba.cloud.ai.dashscope.common.ErrorCodeEnum;
 import com.alibaba.cloud.ai.dashscope.rag.DashScopeDocumentRetrieverOptions;
 import com.alibaba.cloud.ai.dashscope.rag.DashScopeDocumentTransformerOptions;
@@ -38,10 +40,8 @@ import org.springframework.ai.model.NoopApiKey;
 import org.springframework.ai.model.SimpleApiKey;
 import org.springframework.ai.retry.RetryUtils;
 import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.http.HttpEntity;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
@@ -51,22 +51,20 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestClient;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.io.File;
-import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -77,8 +75,6 @@ import java.util.stream.Collectors;
  */
 public class DashScopeApi {
 
-	private static final Predicate<String> SSE_DONE_PREDICATE = "[DONE]"::equals;
-
 	// Store config fields for mutate/copy
 	private final String baseUrl;
 
@@ -105,6 +101,19 @@ public class DashScopeApi {
 
 	private final ResponseErrorHandler responseErrorHandler;
 
+	/**
+	 * Client for the pre-signed upload and download URLs of the data center. It carries
+	 * no DashScope credentials and is kept for the lifetime of the api so repeated
+	 * uploads and parse result downloads reuse connections.
+	 */
+	private final OkHttpClient fileTransferClient;
+
+	/**
+	 * Optional client-side limiter for chat, embedding and rerank calls, {@code null}
+	 * when calls go out unthrottled.
+	 */
+	private final DashScopeRateLimiter rateLimiter;
+
 	/**
 	 * Returns a builder pre-populated with the current configuration for mutation.
 	 */
@@ -141,6 +150,36 @@ public class DashScopeApi {
 			WebClient.Builder webClientBuilder,
 			ResponseErrorHandler responseErrorHandler
 	) {
+		this(baseUrl, apiKey, header, completionsPath, embeddingsPath, workSpaceId, restClientBuilder,
+				webClientBuilder, responseErrorHandler, null);
+	}
+
+	/**
+	 * Create a new chat completion api.
+	 * @param baseUrl api base URL.
+	 * @param apiKey OpenAI apiKey.
+	 * @param header the http headers to use.
+	 * @param completionsPath the path to the chat completions endpoint.
+	 * @param embeddingsPath the path to the embeddings endpoint.
+	 * @param workSpaceId the workspace ID to use.
+	 * @param restClientBuilder RestClient builder.
+	 * @param webClientBuilder WebClient builder.
+	 * @param responseErrorHandler Response error handler.
+	 * @param rateLimiter client-side limiter for model calls, may be {@code null}.
+	 */
+	public DashScopeApi(
+			String baseUrl,
+			ApiKey apiKey,
+			MultiValueMap<String, String> header,
+			String completionsPath,
+			String embeddingsPath,
+			// Add request header.
+			String workSpaceId,
+			RestClient.Builder restClientBuilder,
+			WebClient.Builder webClientBuilder,
+			ResponseErrorHandler responseErrorHandler,
+			DashScopeRateLimiter rateLimiter
+	) {
 
 		this.baseUrl = baseUrl;
 		this.apiKey = apiKey;
@@ -148,6 +187,11 @@ public class DashScopeApi {
 		this.completionsPath = completionsPath;
 		this.embeddingsPath = embeddingsPath;
 		this.responseErrorHandler = responseErrorHandler;
+		this.rateLimiter = rateLimiter;
+		this.fileTransferClient = new OkHttpClient.Builder().connectTimeout(60, TimeUnit.SECONDS)
+			.writeTimeout(60, TimeUnit.SECONDS)
+			.readTimeout(60, TimeUnit.SECONDS)
+			.build();
 
 		// For DashScope API, the workspace ID is passed in the headers.
 		if (StringUtils.hasText(workSpaceId)) {
@@ -164,15 +208,31 @@ public class DashScopeApi {
 			h.addAll(headers);
 		};
 
+		// Builders copied through mutate() already carry the previous limiter.
+		DashScopeRateLimitInterceptor rateLimitInterceptor = rateLimiter != null
+				? new DashScopeRateLimitInterceptor(rateLimiter) : null;
+
 		this.restClient = restClientBuilder.clone()
 				.baseUrl(baseUrl)
 				.defaultHeaders(finalHeaders)
 				.defaultStatusHandler(responseErrorHandler)
+				.requestInterceptors(interceptors -> {
+					interceptors.removeIf(DashScopeRateLimitInterceptor.class::isInstance);
+					if (rateLimitInterceptor != null) {
+						interceptors.add(rateLimitInterceptor);
+					}
+				})
 				.build();
 
-		this.webClient = webClientBuilder
+		this.webClient = webClientBuilder.clone()
 				.baseUrl(baseUrl)
 				.defaultHeaders(finalHeaders)
+				.filters(filters -> {
+					filters.removeIf(DashScopeRateLimitInterceptor.class::isInstance);
+					if (rateLimitInterceptor != null) {
+						filters.add(rateLimitInterceptor);
+					}
+				})
 				.build();
 	}
 	// @formatter:on
@@ -506,15 +566,34 @@ public class DashScopeApi {
 	}
 
 	public ResponseEntity<EmbeddingList> embeddings(EmbeddingRequest embeddingRequest) {
+		Assert.notNull(embeddingRequest, "The request body can not be null.");
+		Assert.notNull(embeddingRequest.input(), "The input can not be null.");
+
+		List<String> texts = embeddingRequest.input().texts();
+		String textType = embeddingRequest.parameters() != null ? embeddingRequest.parameters().textType() : null;
+		return embeddings(embeddingRequest, embeddingPriority(texts != null ? texts.size() : 0, textType));
+	}
+
+	/**
+	 * Creates embeddings, admitted by the rate limiter with the given priority.
+	 * @param embeddingRequest the embedding request
+	 * @param priority {@link Priority#INTERACTIVE} when a user waits for the result, e.g.
+	 * to embed a search query, {@link Priority#BATCH} for ingestion
+	 * @return the embeddings
+	 */
+	public ResponseEntity<EmbeddingList> embeddings(EmbeddingRequest embeddingRequest, Priority priority) {
 
 		Assert.notNull(embeddingRequest, "The request body can not be null.");
 		Assert.notNull(embeddingRequest.input(), "The input can not be null.");
 		Assert.isTrue(!CollectionUtils.isEmpty(embeddingRequest.input().texts()), "The input texts can not be empty.");
 		Assert.isTrue(embeddingRequest.input().texts().size() <= 25, "The input texts limit 25.");
+		Assert.notNull(priority, "The priority can not be null.");
 
 		return this.restClient.post()
 			.uri(this.embeddingsPath)
 			.headers(this::addDefaultHeadersIfMissing)
+			.attributes(rateLimitAttributes(embeddingRequest.model(), priority,
+					() -> estimateTokens(embeddingRequest.input().texts())))
 			.body(embeddingRequest)
 			.retrieve()
 			.toEntity(EmbeddingList.class);
@@ -632,16 +711,19 @@ public class DashScopeApi {
 		}
 		CommonResponse<QueryFileParseResultData> commonResponse = fileParseResponse.getBody();
 
-		RestTemplate restTemplate = new RestTemplate();
-		HttpHeaders headers = new HttpHeaders();
+		okhttp3.Headers.Builder headersBuilder = new okhttp3.Headers.Builder();
 		for (String key : commonResponse.data.param.headers.keySet()) {
-			headers.set(key, commonResponse.data.param.headers.get(key));
-		}
-		try {
-			HttpEntity<InputStreamResource> requestEntity = new HttpEntity<>(null, headers);
-			ResponseEntity<String> response = restTemplate.exchange(new URI(commonResponse.data.param.url),
-					HttpMethod.GET, requestEntity, String.class);
-			return response.getBody();
+			headersBuilder.add(key, commonResponse.data.param.headers.get(key));
+		}
+		Request downloadRequest = new Request.Builder().url(commonResponse.data.param.url)
+			.headers(headersBuilder.build())
+			.get()
+			.build();
+		try (Response response = this.fileTransferClient.newCall(downloadRequest).execute()) {
+			if (!response.isSuccessful() || response.body() == null) {
+				throw new DashScopeException("GetDocumentParseResultError");
+			}
+			return response.body().string();
 		}
 		catch (Exception ex) {
 			throw new DashScopeException("GetDocumentParseResultError");
@@ -673,11 +755,6 @@ public class DashScopeApi {
 	private void uploadFile(File file, UploadLeaseResponse uploadLeaseResponse) {
 		try {
 			UploadLeaseResponse.UploadLeaseParamData uploadParam = uploadLeaseResponse.data.param;
-			OkHttpClient client = new OkHttpClient.Builder().connectTimeout(60, TimeUnit.SECONDS)
-				.writeTimeout(60, TimeUnit.SECONDS)
-				.readTimeout(60, TimeUnit.SECONDS)
-				.build();
-
 			okhttp3.Headers.Builder headersBuilder = new okhttp3.Headers.Builder();
 			String contentType = uploadParam.header.remove("Content-Type");
 
@@ -699,7 +776,7 @@ public class DashScopeApi {
 				.put(requestBody)
 				.build();
 
-			try (Response response = client.newCall(request).execute()) {
+			try (Response response = this.fileTransferClient.newCall(request).execute()) {
 				if (!response.isSuccessful()) {
 					throw new Exception("Unexpected response code: " + response.code());
 				}
@@ -1590,6 +1667,8 @@ public class DashScopeApi {
 					headers.addAll(additionalHttpHeader);
 					addDefaultHeadersIfMissing(headers);
 				})
+				.attributes(rateLimitAttributes(chatRequest.model(), Priority.INTERACTIVE,
+						() -> estimateTokens(chatRequest)))
 				.body(chatRequest)
 				.retrieve()
 				.toEntity(ChatCompletion.class);
@@ -1628,48 +1707,56 @@ public class DashScopeApi {
 		Assert.notNull(chatRequest, "The request body can not be null.");
 		Assert.isTrue(chatRequest.stream(), "Request must set the stream property to true.");
 
-		AtomicBoolean isInsideTool = new AtomicBoolean(false);
 		boolean incrementalOutput = chatRequest.parameters() != null
 				&& chatRequest.parameters().incrementalOutput != null && chatRequest.parameters().incrementalOutput;
-		DashScopeAiStreamFunctionCallingHelper chunkMerger = new DashScopeAiStreamFunctionCallingHelper(
-				incrementalOutput);
 
 		var chatCompletionUri = this.completionsPath;
 		if (chatRequest.multiModel()) {
 			chatCompletionUri = "/api/v1/services/aigc/multimodal-generation/generation";
 		}
 
-		return this.webClient.post().uri(chatCompletionUri).headers(headers -> {
+		Flux<DataBuffer> body = this.webClient.post().uri(chatCompletionUri).headers(headers -> {
 			headers.addAll(additionalHttpHeader);
 			// For Dashscope stream
 			headers.add("X-DashScope-SSE", "enable");
 			addDefaultHeadersIfMissing(headers);
 		})
+			.attributes(
+					rateLimitAttributes(chatRequest.model(), Priority.INTERACTIVE, () -> estimateTokens(chatRequest)))
 			.body(Mono.just(chatRequest), ChatCompletionRequest.class)
 			.retrieve()
-			.bodyToFlux(String.class)
-			.takeUntil(SSE_DONE_PREDICATE)
-			.filter(SSE_DONE_PREDICATE.negate())
-			.map(content -> ModelOptionsUtils.jsonToObject(content, ChatCompletionChunk.class))
-			.map(chunk -> {
-				if (chunkMerger.isStreamingToolFunctionCall(chunk)) {
-					isInsideTool.set(true);
-				}
-				return chunk;
-			})
-			.windowUntil(chunk -> {
-				if (isInsideTool.get() && chunkMerger.isStreamingToolFunctionCallFinish(chunk)) {
-					isInsideTool.set(false);
-					return true;
+			.bodyToFlux(DataBuffer.class);
+
+		return decodeChatCompletionStream(body, incrementalOutput);
+	}
+
+	/**
+	 * Decode a DashScope SSE response body into chat completion chunks, merging the
+	 * chunks of streamed tool calls.
+	 * @param body the raw response body
+	 * @param incrementalOutput whether the request enabled incremental output
+	 * @return the decoded chunks
+	 */
+	static Flux<ChatCompletionChunk> decodeChatCompletionStream(Flux<DataBuffer> body, boolean incrementalOutput) {
+		return Flux.defer(() -> {
+			DashScopeSseChunkDecoder decoder = new DashScopeSseChunkDecoder();
+			DashScopeStreamChunkAccumulator accumulator = new DashScopeStreamChunkAccumulator(incrementalOutput);
+			return body.<List<ChatCompletionChunk>>handle((buffer, sink) -> {
+				sink.next(decoder.decode(buffer));
+				if (decoder.isDone()) {
+					sink.complete();
 				}
-				return !isInsideTool.get();
 			})
-			.concatMapIterable(window -> {
-				Mono<ChatCompletionChunk> monoChunk = window.reduce(new ChatCompletionChunk(null, null, null),
-						chunkMerger::merge);
-				return List.of(monoChunk);
-			})
-			.flatMap(mono -> mono);
+				.concatMapIterable(Function.identity())
+				.concatWith(Mono.fromSupplier(decoder::flush))
+				.<ChatCompletionChunk>handle((chunk, sink) -> {
+					ChatCompletionChunk merged = accumulator.accept(chunk);
+					if (merged != null) {
+						sink.next(merged);
+					}
+				})
+				.concatWith(Mono.fromSupplier(accumulator::complete));
+		});
 	}
 
 	/**
@@ -1683,11 +1770,78 @@ public class DashScopeApi {
 
 		return this.restClient.post()
 			.uri("/api/v1/services/rerank/text-rerank/text-rerank")
+			.attributes(rateLimitAttributes(rerankRequest.model(), Priority.INTERACTIVE,
+					() -> estimateTokens(rerankRequest)))
 			.body(rerankRequest)
 			.retrieve()
 			.toEntity(RerankResponse.class);
 	}
 
+	/**
+	 * Default rate limit priority of an embedding call: a query embedding or a single
+	 * text usually has a user waiting for it, while larger batches are ingestion.
+	 * @param textCount the number of texts embedded by the caller
+	 * @param textType the text type, may be {@code null}
+	 * @return the priority
+	 */
+	public static Priority embeddingPriority(int textCount, String textType) {
+		return textCount == 1 || EmbeddingTextType.QUERY.getValue().equals(textType) ? Priority.INTERACTIVE
+				: Priority.BATCH;
+	}
+
+	/**
+	 * Request attributes that route a model call through the rate limiter. The token
+	 * estimate is only computed when a limiter is configured.
+	 */
+	private Consumer<Map<String, Object>> rateLimitAttributes(String model, Priority priority,
+			Supplier<Integer> estimatedTokens) {
+		return attributes -> {
+			if (this.rateLimiter != null) {
+				attributes.put(DashScopeRateLimitInterceptor.MODEL, model);
+				attributes.put(DashScopeRateLimitInterceptor.PRIORITY, priority);
+				attributes.put(DashScopeRateLimitInterceptor.ESTIMATED_TOKENS, estimatedTokens.get());
+			}
+		};
+	}
+
+	private static int estimateTokens(ChatCompletionRequest chatRequest) {
+		if (chatRequest.input() == null || chatRequest.input().messages() == null) {
+			return 0;
+		}
+		int tokens = 0;
+		for (ChatCompletionMessage message : chatRequest.input().messages()) {
+			if (message.rawContent() instanceof String text) {
+				tokens += DashScopeRateLimiter.estimateTokens(text);
+			}
+			else if (message.rawContent() instanceof List<?> parts) {
+				for (Object part : parts) {
+					if (part instanceof Map<?, ?> map && map.get("text") != null) {
+						tokens += DashScopeRateLimiter.estimateTokens(map.get("text").toString());
+					}
+				}
+			}
+		}
+		return tokens;
+	}
+
+	private static int estimateTokens(RerankRequest rerankRequest) {
+		if (rerankRequest.input() == null) {
+			return 0;
+		}
+		int tokens = DashScopeRateLimiter.estimateTokens(rerankRequest.input().query());
+		return tokens + estimateTokens(rerankRequest.input().documents());
+	}
+
+	private static int estimateTokens(List<String> texts) {
+		int tokens = 0;
+		if (texts != null) {
+			for (String text : texts) {
+				tokens += DashScopeRateLimiter.estimateTokens(text);
+			}
+		}
+		return tokens;
+	}
+
 	@JsonInclude(JsonInclude.Include.NON_NULL)
 	public record SearchOptions(@JsonProperty("enable_source") Boolean enableSource,
 			@JsonProperty("enable_citation") Boolean enableCitation,
@@ -1758,6 +1912,10 @@ public class DashScopeApi {
 		return this.responseErrorHandler;
 	}
 
+	DashScopeRateLimiter getRateLimiter() {
+		return this.rateLimiter;
+	}
+
 	public static class Builder {
 
 		public Builder() {
@@ -1771,6 +1929,7 @@ public class DashScopeApi {
 			this.restClientBuilder = api.restClient != null ? api.restClient.mutate() : RestClient.builder();
 			this.webClientBuilder = api.webClient != null ? api.webClient.mutate() : WebClient.builder();
 			this.responseErrorHandler = api.getResponseErrorHandler();
+			this.rateLimiter = api.getRateLimiter();
 		}
 
 		private String baseUrl = DashScopeApiConstants.DEFAULT_BASE_URL;
@@ -1791,6 +1950,8 @@ public class DashScopeApi {
 
 		private ResponseErrorHandler responseErrorHandler = RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER;
 
+		private DashScopeRateLimiter rateLimiter;
+
 		public Builder baseUrl(String baseUrl) {
 
 			Assert.notNull(baseUrl, "Base URL cannot be null");
@@ -1849,13 +2010,23 @@ public class DashScopeApi {
 			return this;
 		}
 
+		/**
+		 * Limit chat, embedding and rerank calls on the client side, e.g. with a
+		 * {@link com.alibaba.cloud.ai.dashscope.common.TokenBucketRateLimiter}.
+		 */
+		public Builder rateLimiter(DashScopeRateLimiter rateLimiter) {
+			this.rateLimiter = rateLimiter;
+			return this;
+		}
+
 		public DashScopeApi build() {
 
 			Assert.notNull(apiKey, "API key cannot be null");
 
 			return new DashScopeApi(this.baseUrl, this.apiKey, this.headers, this.completionsPath, this.embeddingsPath,
 					// Add request header.
-					this.workSpaceId, this.restClientBuilder, this.webClientBuilder, this.responseErrorHandler);
+					this.workSpaceId, this.restClientBuilder, this.webClientBuilder, this.responseErrorHandler,
+					this.rateLimiter);
 		}
 
 	}
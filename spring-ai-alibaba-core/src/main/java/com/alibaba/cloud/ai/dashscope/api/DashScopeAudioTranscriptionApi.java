@@ -113,7 +113,21 @@ public class DashScopeAudioTranscriptionApi {
 	}
 
 	public Flux<RealtimeResponse> realtimeStream(Flux<ByteBuffer> audio) {
-		return this.webSocketClient.streamTextOut(audio).handle((msg, sink) -> {
+		return toRealtimeResponses(this.webSocketClient.streamTextOut(audio));
+	}
+
+	/**
+	 * Stream the audio of the task started with the given task id.
+	 * @param taskId the task id of the run-task request
+	 * @param audio the audio frames
+	 * @return the recognition results of the task
+	 */
+	public Flux<RealtimeResponse> realtimeStream(String taskId, Flux<ByteBuffer> audio) {
+		return toRealtimeResponses(this.webSocketClient.streamTextOut(taskId, audio));
+	}
+
+	private Flux<RealtimeResponse> toRealtimeResponses(Flux<String> messages) {
+		return messages.handle((msg, sink) -> {
 			try {
 				sink.next((new ObjectMapper()).readValue(msg, RealtimeResponse.class));
 			}
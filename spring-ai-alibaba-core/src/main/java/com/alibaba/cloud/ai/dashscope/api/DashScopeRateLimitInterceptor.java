@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import com.alibaba.cloud.ai.dashscope.common.DashScopeRateLimiter;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeRateLimiter.Priority;
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+/**
+ * Applies a {@link DashScopeRateLimiter} to the {@code RestClient} and {@code WebClient}
+ * of {@link DashScopeApi}. Only requests carrying the {@link #MODEL} attribute are
+ * limited; the data center and pipeline calls pass straight through.
+ *
+ * <p>
+ * The blocking {@code RestClient} path waits on the calling thread, which is already
+ * blocked for the response. The {@code WebClient} path subscribes to the exchange once
+ * the permit future completes, so no event loop thread waits.
+ */
+final class DashScopeRateLimitInterceptor implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+	static final String MODEL = DashScopeRateLimitInterceptor.class.getName() + ".model";
+
+	static final String ESTIMATED_TOKENS = DashScopeRateLimitInterceptor.class.getName() + ".estimatedTokens";
+
+	static final String PRIORITY = DashScopeRateLimitInterceptor.class.getName() + ".priority";
+
+	private final DashScopeRateLimiter rateLimiter;
+
+	DashScopeRateLimitInterceptor(DashScopeRateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		Map<String, Object> attributes = request.getAttributes();
+		if (!attributes.containsKey(MODEL)) {
+			return execution.execute(request, body);
+		}
+		String model = (String) attributes.get(MODEL);
+		CompletableFuture<Void> permit = acquire(model, attributes);
+		try {
+			permit.get();
+		}
+		catch (InterruptedException ex) {
+			permit.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a DashScope rate limit permit");
+		}
+		catch (ExecutionException | CancellationException ex) {
+			throw new IOException("Failed to acquire a DashScope rate limit permit", ex);
+		}
+
+		ClientHttpResponse response = execution.execute(request, body);
+		this.rateLimiter.onResponse(model, response.getStatusCode().value(), response.getHeaders());
+		return response;
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		Map<String, Object> attributes = request.attributes();
+		if (!attributes.containsKey(MODEL)) {
+			return next.exchange(request);
+		}
+		String model = (String) attributes.get(MODEL);
+		return Mono.fromFuture(() -> acquire(model, attributes))
+			.then(Mono.defer(() -> next.exchange(request)))
+			.doOnNext(response -> this.rateLimiter.onResponse(model, response.statusCode().value(),
+					response.headers().asHttpHeaders()));
+	}
+
+	private CompletableFuture<Void> acquire(String model, Map<String, Object> attributes) {
+		Object tokens = attributes.get(ESTIMATED_TOKENS);
+		Object priority = attributes.get(PRIORITY);
+		return this.rateLimiter.acquire(model, tokens instanceof Integer count ? count : 0,
+				priority instanceof Priority value ? value : Priority.INTERACTIVE);
+	}
+
+}
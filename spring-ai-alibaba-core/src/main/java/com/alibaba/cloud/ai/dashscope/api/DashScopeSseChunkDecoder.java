@@ -0,0 +1,193 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.api;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionChunk;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+/**
+ * Decodes a DashScope server-sent event stream from raw bytes into
+ * {@link ChatCompletionChunk}s. Lines are scanned at byte level into reusable buffers and
+ * the {@code data} payload of each event is handed to Jackson as a byte range, so no
+ * intermediate {@link String} is created per event.
+ * <p>
+ * Instances are stateful and must be used for a single stream only.
+ *
+ * @see DashScopeStreamChunkAccumulator
+ */
+public class DashScopeSseChunkDecoder {
+
+	private static final ObjectReader CHUNK_READER = ModelOptionsUtils.OBJECT_MAPPER
+		.readerFor(ChatCompletionChunk.class);
+
+	private static final byte[] DATA_FIELD = { 'd', 'a', 't', 'a' };
+
+	private static final byte[] DONE = { '[', 'D', 'O', 'N', 'E', ']' };
+
+	private byte[] line = new byte[1024];
+
+	private int lineLength;
+
+	private byte[] data = new byte[4096];
+
+	private int dataLength = -1;
+
+	private byte[] scratch = new byte[8192];
+
+	private boolean lastWasCarriageReturn;
+
+	private boolean done;
+
+	/**
+	 * Decode the given buffer and release it.
+	 * @param buffer the next part of the response body
+	 * @return the chunks completed by this buffer, possibly empty
+	 */
+	public List<ChatCompletionChunk> decode(DataBuffer buffer) {
+		try {
+			int length = buffer.readableByteCount();
+			if (this.scratch.length < length) {
+				this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+			}
+			buffer.read(this.scratch, 0, length);
+			return decode(this.scratch, 0, length);
+		}
+		finally {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+	/**
+	 * Decode the given bytes.
+	 * @param bytes the bytes
+	 * @param offset the offset of the first byte to decode
+	 * @param length the number of bytes to decode
+	 * @return the chunks completed by these bytes, possibly empty
+	 */
+	public List<ChatCompletionChunk> decode(byte[] bytes, int offset, int length) {
+		List<ChatCompletionChunk> chunks = null;
+		int end = offset + length;
+		for (int i = offset; i < end && !this.done; i++) {
+			byte b = bytes[i];
+			if (b == '\n' && this.lastWasCarriageReturn) {
+				this.lastWasCarriageReturn = false;
+				continue;
+			}
+			this.lastWasCarriageReturn = b == '\r';
+			if (b == '\n' || b == '\r') {
+				ChatCompletionChunk chunk = processLine();
+				if (chunk != null) {
+					chunks = chunks != null ? chunks : new ArrayList<>(2);
+					chunks.add(chunk);
+				}
+			}
+			else {
+				if (this.lineLength == this.line.length) {
+					this.line = Arrays.copyOf(this.line, this.line.length * 2);
+				}
+				this.line[this.lineLength++] = b;
+			}
+		}
+		return chunks != null ? chunks : List.of();
+	}
+
+	/**
+	 * Dispatch an event left without a terminating blank line when the stream ends.
+	 * @return the last chunk, or {@code null} if none is pending
+	 */
+	public ChatCompletionChunk flush() {
+		if (this.done) {
+			return null;
+		}
+		ChatCompletionChunk chunk = this.lineLength > 0 ? processLine() : null;
+		return chunk != null ? chunk : dispatch();
+	}
+
+	/**
+	 * @return whether the {@code [DONE]} marker has been received
+	 */
+	public boolean isDone() {
+		return this.done;
+	}
+
+	private ChatCompletionChunk processLine() {
+		int length = this.lineLength;
+		this.lineLength = 0;
+		if (length == 0) {
+			return dispatch();
+		}
+		if (length < DATA_FIELD.length || this.line[0] == ':'
+				|| !Arrays.equals(this.line, 0, DATA_FIELD.length, DATA_FIELD, 0, DATA_FIELD.length)) {
+			// comments and the id, event and retry fields are not needed
+			return null;
+		}
+		int start = DATA_FIELD.length;
+		if (start < length) {
+			if (this.line[start] != ':') {
+				return null;
+			}
+			start++;
+			if (start < length && this.line[start] == ' ') {
+				start++;
+			}
+		}
+		appendData(start, length);
+		return null;
+	}
+
+	private void appendData(int start, int end) {
+		int needed = (this.dataLength > 0 ? this.dataLength + 1 : 0) + (end - start);
+		if (needed > this.data.length) {
+			this.data = Arrays.copyOf(this.data, Math.max(needed, this.data.length * 2));
+		}
+		if (this.dataLength < 0) {
+			this.dataLength = 0;
+		}
+		else if (this.dataLength > 0) {
+			this.data[this.dataLength++] = '\n';
+		}
+		System.arraycopy(this.line, start, this.data, this.dataLength, end - start);
+		this.dataLength += end - start;
+	}
+
+	private ChatCompletionChunk dispatch() {
+		int length = this.dataLength;
+		this.dataLength = -1;
+		if (length <= 0) {
+			return null;
+		}
+		if (Arrays.equals(this.data, 0, length, DONE, 0, DONE.length)) {
+			this.done = true;
+			return null;
+		}
+		try {
+			return CHUNK_READER.readValue(this.data, 0, length);
+		}
+		catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+}
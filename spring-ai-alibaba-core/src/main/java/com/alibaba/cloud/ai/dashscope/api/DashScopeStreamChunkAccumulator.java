@@ -0,0 +1,269 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionChunk;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionFinishReason;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionMessage;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionMessage.ChatCompletionFunction;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionMessage.Role;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionMessage.ToolCall;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionOutput;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionOutput.Choice;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.TokenUsage;
+
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Stateful, per-stream replacement for windowing and reducing streamed chunks with
+ * {@link DashScopeAiStreamFunctionCallingHelper#merge}. Chunks outside a tool call are
+ * passed through, chunks of a streaming tool call are folded into a single chunk that is
+ * emitted once the tool call finishes. With incremental output the argument fragments of
+ * the current tool call are appended to one {@link StringBuilder} instead of rebuilding
+ * the message for every chunk.
+ *
+ * @see DashScopeSseChunkDecoder
+ */
+public class DashScopeStreamChunkAccumulator {
+
+	private static final ChatCompletionChunk EMPTY_CHUNK = new ChatCompletionChunk(null, null, null);
+
+	private final boolean incrementalOutput;
+
+	private final DashScopeAiStreamFunctionCallingHelper helper;
+
+	private boolean insideTool;
+
+	/**
+	 * Chunks folded into the current tool call window.
+	 */
+	private int windowSize;
+
+	/**
+	 * Reduced window, used for the first chunk of a window and when incremental output is
+	 * disabled.
+	 */
+	private ChatCompletionChunk reduced;
+
+	private String requestId;
+
+	private TokenUsage usage;
+
+	private ChatCompletionFinishReason finishReason;
+
+	private String content;
+
+	private Role role;
+
+	private String name;
+
+	private String toolCallId;
+
+	private String reasoningContent;
+
+	private final List<ToolCall> toolCalls = new ArrayList<>();
+
+	private ToolCall lastToolCall;
+
+	private boolean lastToolCallMerged;
+
+	private String lastToolCallId;
+
+	private String lastToolCallType;
+
+	private String lastFunctionName;
+
+	private StringBuilder lastArguments;
+
+	public DashScopeStreamChunkAccumulator(boolean incrementalOutput) {
+		this.incrementalOutput = incrementalOutput;
+		this.helper = new DashScopeAiStreamFunctionCallingHelper(incrementalOutput);
+	}
+
+	/**
+	 * Accept the next chunk of the stream.
+	 * @param chunk the decoded chunk
+	 * @return the chunk to emit downstream, or {@code null} while a tool call is still
+	 * being streamed
+	 */
+	public ChatCompletionChunk accept(ChatCompletionChunk chunk) {
+		if (this.helper.isStreamingToolFunctionCall(chunk)) {
+			this.insideTool = true;
+		}
+		if (!this.insideTool) {
+			return this.helper.merge(EMPTY_CHUNK, chunk);
+		}
+		add(chunk);
+		if (this.helper.isStreamingToolFunctionCallFinish(chunk)) {
+			this.insideTool = false;
+			return finish();
+		}
+		return null;
+	}
+
+	/**
+	 * Complete the stream.
+	 * @return the pending tool call chunk if the stream ended inside a tool call, or
+	 * {@code null}
+	 */
+	public ChatCompletionChunk complete() {
+		this.insideTool = false;
+		return this.windowSize > 0 ? finish() : null;
+	}
+
+	private void add(ChatCompletionChunk chunk) {
+		this.windowSize++;
+		if (this.windowSize == 1 || !this.incrementalOutput) {
+			this.reduced = this.helper.merge(this.reduced != null ? this.reduced : EMPTY_CHUNK, chunk);
+			if (this.windowSize == 1 && this.incrementalOutput) {
+				start(this.reduced);
+			}
+			return;
+		}
+		this.requestId = chunk.requestId() != null ? chunk.requestId() : this.requestId;
+		this.usage = chunk.usage() != null ? chunk.usage() : this.usage;
+		Choice choice = firstChoice(chunk);
+		if (choice == null) {
+			return;
+		}
+		this.finishReason = choice.finishReason() != null ? choice.finishReason() : this.finishReason;
+		ChatCompletionMessage message = choice.message();
+		if (message == null) {
+			return;
+		}
+		this.content = message.content() != null ? message.content() : (this.content != null ? this.content : "");
+		this.role = message.role() != null ? message.role() : this.role;
+		this.name = StringUtils.hasText(message.name()) ? message.name() : this.name;
+		this.toolCallId = StringUtils.hasText(message.toolCallId()) ? message.toolCallId() : this.toolCallId;
+		this.reasoningContent = message.reasoningContent() != null ? message.reasoningContent() : this.reasoningContent;
+		if (!CollectionUtils.isEmpty(message.toolCalls())) {
+			if (message.toolCalls().size() > 1) {
+				throw new IllegalStateException("Currently only one tool call is supported per message!");
+			}
+			ToolCall current = message.toolCalls().get(0);
+			if (StringUtils.hasText(current.id()) || this.lastToolCall == null) {
+				if (this.lastToolCall != null) {
+					this.toolCalls.add(buildLastToolCall());
+				}
+				setLastToolCall(current);
+			}
+			else {
+				appendToLastToolCall(current);
+			}
+		}
+	}
+
+	private void start(ChatCompletionChunk first) {
+		this.requestId = first.requestId();
+		this.usage = first.usage();
+		Choice choice = firstChoice(first);
+		ChatCompletionMessage message = choice != null ? choice.message() : null;
+		this.finishReason = choice != null ? choice.finishReason() : null;
+		this.content = message != null ? message.content() : null;
+		this.role = message != null ? message.role() : null;
+		this.name = message != null ? message.name() : null;
+		this.toolCallId = message != null ? message.toolCallId() : null;
+		this.reasoningContent = message != null ? message.reasoningContent() : null;
+		if (message != null && !CollectionUtils.isEmpty(message.toolCalls())) {
+			List<ToolCall> calls = message.toolCalls();
+			this.toolCalls.addAll(calls.subList(0, calls.size() - 1));
+			setLastToolCall(calls.get(calls.size() - 1));
+		}
+	}
+
+	private void setLastToolCall(ToolCall toolCall) {
+		this.lastToolCall = toolCall;
+		this.lastToolCallId = toolCall.id();
+		this.lastToolCallType = toolCall.type();
+		this.lastFunctionName = toolCall.function() != null ? toolCall.function().name() : null;
+		this.lastArguments = null;
+		this.lastToolCallMerged = false;
+	}
+
+	private void appendToLastToolCall(ToolCall current) {
+		this.lastToolCallMerged = true;
+		this.lastToolCallId = StringUtils.hasText(current.id()) ? current.id() : this.lastToolCallId;
+		this.lastToolCallType = StringUtils.hasText(current.type()) ? current.type() : this.lastToolCallType;
+		ChatCompletionFunction function = current.function();
+		if (function == null) {
+			return;
+		}
+		if (this.lastToolCall.function() == null && this.lastArguments == null) {
+			// nothing to merge with yet, take the fragment as is
+			this.lastToolCall = new ToolCall(this.lastToolCallId, this.lastToolCallType, function);
+			this.lastFunctionName = function.name();
+			return;
+		}
+		this.lastFunctionName = StringUtils.hasText(function.name()) ? function.name() : this.lastFunctionName;
+		if (this.lastArguments == null) {
+			String previous = this.lastToolCall.function().arguments();
+			this.lastArguments = new StringBuilder(previous != null ? previous : "");
+		}
+		if (function.arguments() != null) {
+			this.lastArguments.append(function.arguments());
+		}
+	}
+
+	private ToolCall buildLastToolCall() {
+		if (!this.lastToolCallMerged) {
+			return this.lastToolCall;
+		}
+		ChatCompletionFunction function = this.lastArguments != null
+				? new ChatCompletionFunction(this.lastFunctionName, this.lastArguments.toString())
+				: this.lastToolCall.function();
+		return new ToolCall(this.lastToolCallId, this.lastToolCallType, function);
+	}
+
+	private ChatCompletionChunk finish() {
+		ChatCompletionChunk result;
+		if (this.windowSize == 1 || !this.incrementalOutput) {
+			result = this.reduced;
+		}
+		else {
+			List<ToolCall> calls = new ArrayList<>(this.toolCalls.size() + 1);
+			calls.addAll(this.toolCalls);
+			if (this.lastToolCall != null) {
+				calls.add(buildLastToolCall());
+			}
+			ChatCompletionMessage message = new ChatCompletionMessage(this.content,
+					this.role != null ? this.role : Role.ASSISTANT, this.name, this.toolCallId, calls,
+					this.reasoningContent);
+			result = new ChatCompletionChunk(this.requestId,
+					new ChatCompletionOutput(null, List.of(new Choice(this.finishReason, message))), this.usage);
+		}
+		reset();
+		return result;
+	}
+
+	private void reset() {
+		this.windowSize = 0;
+		this.reduced = null;
+		this.toolCalls.clear();
+		this.lastToolCall = null;
+		this.lastArguments = null;
+		this.lastToolCallMerged = false;
+	}
+
+	private static Choice firstChoice(ChatCompletionChunk chunk) {
+		return chunk.output() == null || CollectionUtils.isEmpty(chunk.output().choices()) ? null
+				: chunk.output().choices().get(0);
+	}
+
+}
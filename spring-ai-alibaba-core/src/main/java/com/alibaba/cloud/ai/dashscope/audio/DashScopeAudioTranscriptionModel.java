@@ -141,8 +141,9 @@ public class DashScopeAudioTranscriptionModel implements AudioTranscriptionModel
 
 	@Override
 	public Flux<AudioTranscriptionResponse> stream(AudioTranscriptionPrompt prompt) {
+		String taskId = UUID.randomUUID().toString();
 		DashScopeAudioTranscriptionApi.RealtimeRequest run_request = createRealtimeRequest(prompt,
-				DashScopeWebSocketClient.EventType.RUN_TASK);
+				DashScopeWebSocketClient.EventType.RUN_TASK, taskId);
 
 		logger.info("send run-task");
 		this.api.realtimeControl(run_request);
@@ -160,13 +161,13 @@ public class DashScopeAudioTranscriptionModel implements AudioTranscriptionModel
 			.delayElements(Duration.ofMillis(100), Schedulers.boundedElastic())
 			.doOnComplete(() -> {
 				DashScopeAudioTranscriptionApi.RealtimeRequest finish_request = createRealtimeRequest(prompt,
-						DashScopeWebSocketClient.EventType.FINISH_TASK);
+						DashScopeWebSocketClient.EventType.FINISH_TASK, taskId);
 
 				logger.info("send finish-task");
 				this.api.realtimeControl(finish_request);
 			});
 
-		return this.api.realtimeStream(audio).map(this::toResponse);
+		return this.api.realtimeStream(taskId, audio).map(this::toResponse);
 	}
 
 	private DashScopeAudioTranscriptionApi.Request createRequest(AudioTranscriptionPrompt prompt) {
@@ -189,12 +190,11 @@ public class DashScopeAudioTranscriptionModel implements AudioTranscriptionModel
 	}
 
 	private DashScopeAudioTranscriptionApi.RealtimeRequest createRealtimeRequest(AudioTranscriptionPrompt prompt,
-			DashScopeWebSocketClient.EventType action) {
+			DashScopeWebSocketClient.EventType action, String taskId) {
 		DashScopeAudioTranscriptionOptions options = mergeOptions(prompt);
 
 		return new DashScopeAudioTranscriptionApi.RealtimeRequest(
-				new DashScopeAudioTranscriptionApi.RealtimeRequest.Header(action, UUID.randomUUID().toString(),
-						"duplex"),
+				new DashScopeAudioTranscriptionApi.RealtimeRequest.Header(action, taskId, "duplex"),
 				new DashScopeAudioTranscriptionApi.RealtimeRequest.Payload(options.getModel(), "audio", "asr",
 						"recognition", new DashScopeAudioTranscriptionApi.RealtimeRequest.Payload.Input(),
 						new DashScopeAudioTranscriptionApi.RealtimeRequest.Payload.Parameters(options.getSampleRate(),
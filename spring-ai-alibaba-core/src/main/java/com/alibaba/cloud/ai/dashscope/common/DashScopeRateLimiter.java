@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.common;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Client-side admission control for DashScope model calls.
+ *
+ * <p>
+ * {@code DashScopeApi} asks the limiter for a permit before each chat, embedding and
+ * rerank request and reports every response back, so an implementation can shape bursts
+ * before the server answers with {@code 429 Too Many Requests} and slow down when it
+ * does. See {@link TokenBucketRateLimiter} for the default implementation.
+ */
+public interface DashScopeRateLimiter {
+
+	/**
+	 * Request a permit for one call.
+	 * @param model the model the call is addressed to
+	 * @param estimatedTokens estimated input tokens of the call, see
+	 * {@link #estimateTokens(CharSequence)}
+	 * @param priority the scheduling class of the call
+	 * @return a future completed once the call may be sent; cancelling it withdraws the
+	 * request
+	 */
+	CompletableFuture<Void> acquire(String model, int estimatedTokens, Priority priority);
+
+	/**
+	 * Feed back the outcome of a call that was admitted by {@link #acquire}.
+	 * @param model the model the call was addressed to
+	 * @param statusCode the HTTP status code of the response
+	 * @param headers the response headers
+	 */
+	void onResponse(String model, int statusCode, HttpHeaders headers);
+
+	/**
+	 * Rough input token count of a text: one token per non-ASCII character (CJK text is
+	 * close to that) and one per four ASCII characters.
+	 */
+	static int estimateTokens(CharSequence text) {
+		if (text == null) {
+			return 0;
+		}
+		int ascii = 0;
+		int other = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) < 0x80) {
+				ascii++;
+			}
+			else {
+				other++;
+			}
+		}
+		return other + (ascii + 3) / 4;
+	}
+
+	/**
+	 * Scheduling class of a call. Waiting {@link #INTERACTIVE} calls are always admitted
+	 * before waiting {@link #BATCH} calls of the same model.
+	 */
+	enum Priority {
+
+		/**
+		 * A user is waiting for the answer, e.g. chat and rerank.
+		 */
+		INTERACTIVE,
+
+		/**
+		 * Throughput work such as embedding documents for ingestion.
+		 */
+		BATCH
+
+	}
+
+}
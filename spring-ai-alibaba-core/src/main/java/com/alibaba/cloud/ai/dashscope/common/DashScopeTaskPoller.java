@@ -0,0 +1,264 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.common;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * Polls DashScope long-running tasks (image generation, document parsing, ...) without
+ * pinning a caller thread per task.
+ *
+ * <p>
+ * Each task is a {@link TaskCheck} that is invoked until it returns a non-null result,
+ * throws, or runs out of attempts. Waits between attempts are timed on a single scheduler
+ * thread and grow exponentially with random jitter, see {@link Backoff}. The checks
+ * themselves run on a worker executor, and at most {@code maxConcurrentPolls} of them are
+ * in flight at any time across all tasks of this poller; ready tasks beyond the cap wait
+ * in a queue until a permit is released.
+ *
+ * <p>
+ * Callers get a {@link CompletableFuture} that completes with the check result, with the
+ * exception thrown by the check, or with a {@link TimeoutException} once
+ * {@link Backoff#maxAttempts()} checks returned {@code null}. Cancelling the future stops
+ * further polling.
+ */
+public class DashScopeTaskPoller {
+
+	private static final Logger logger = LoggerFactory.getLogger(DashScopeTaskPoller.class);
+
+	public static final int DEFAULT_MAX_CONCURRENT_POLLS = 16;
+
+	private static final DashScopeTaskPoller SHARED = new DashScopeTaskPoller(
+			newScheduler("dashscope-task-poller-scheduler"), newWorkers("dashscope-task-poller-"),
+			DEFAULT_MAX_CONCURRENT_POLLS);
+
+	private final ScheduledExecutorService scheduler;
+
+	private final Executor workers;
+
+	private final Semaphore permits;
+
+	private final Queue<PollingTask<?>> ready = new ConcurrentLinkedQueue<>();
+
+	public DashScopeTaskPoller(ScheduledExecutorService scheduler, Executor workers, int maxConcurrentPolls) {
+		Assert.notNull(scheduler, "scheduler must not be null");
+		Assert.notNull(workers, "workers must not be null");
+		Assert.isTrue(maxConcurrentPolls > 0, "maxConcurrentPolls must be positive");
+		this.scheduler = scheduler;
+		this.workers = workers;
+		this.permits = new Semaphore(maxConcurrentPolls);
+	}
+
+	/**
+	 * The process-wide poller used by the DashScope models and readers unless another one
+	 * is configured. Its threads are daemons.
+	 */
+	public static DashScopeTaskPoller shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Start polling a task. The first check runs as soon as a permit is available.
+	 * @param backoff the wait between attempts and the attempt limit
+	 * @param check returns the task result once it is done, {@code null} while pending
+	 * @return a future completed with the first non-null result of {@code check}
+	 */
+	public <T> CompletableFuture<T> poll(Backoff backoff, TaskCheck<T> check) {
+		Assert.notNull(backoff, "backoff must not be null");
+		Assert.notNull(check, "check must not be null");
+		PollingTask<T> task = new PollingTask<>(backoff, check);
+		enqueue(task);
+		return task.result;
+	}
+
+	/**
+	 * Number of checks currently allowed to start before the cap is reached.
+	 */
+	public int availablePermits() {
+		return this.permits.availablePermits();
+	}
+
+	private void schedule(PollingTask<?> task, long delayMillis) {
+		try {
+			this.scheduler.schedule(() -> enqueue(task), delayMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException ex) {
+			task.result.completeExceptionally(ex);
+		}
+	}
+
+	private void enqueue(PollingTask<?> task) {
+		if (task.result.isDone()) {
+			return;
+		}
+		this.ready.offer(task);
+		drain();
+	}
+
+	private void drain() {
+		while (!this.ready.isEmpty() && this.permits.tryAcquire()) {
+			PollingTask<?> task = this.ready.poll();
+			if (task == null || task.result.isDone()) {
+				this.permits.release();
+				continue;
+			}
+			try {
+				this.workers.execute(() -> runCheck(task));
+			}
+			catch (RejectedExecutionException ex) {
+				this.permits.release();
+				task.result.completeExceptionally(ex);
+			}
+		}
+	}
+
+	private <T> void runCheck(PollingTask<T> task) {
+		int attempt = task.attempts.getAndIncrement();
+		T value = null;
+		Throwable failure = null;
+		try {
+			value = task.check.check(attempt);
+		}
+		catch (Throwable ex) {
+			failure = ex;
+		}
+		finally {
+			// free the permit before completing so callers never observe it still held
+			this.permits.release();
+			drain();
+		}
+
+		if (failure != null) {
+			task.result.completeExceptionally(failure);
+		}
+		else if (value != null) {
+			task.result.complete(value);
+		}
+		else if (attempt + 1 >= task.backoff.maxAttempts()) {
+			task.result
+				.completeExceptionally(new TimeoutException("Task still pending after " + (attempt + 1) + " attempts"));
+		}
+		else if (!task.result.isDone()) {
+			long delay = task.backoff.delayMillis(attempt);
+			logger.debug("Task pending after attempt {}, next check in {} ms", attempt + 1, delay);
+			schedule(task, delay);
+		}
+	}
+
+	private static ScheduledExecutorService newScheduler(String name) {
+		return Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static ExecutorService newWorkers(String prefix) {
+		AtomicInteger counter = new AtomicInteger();
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * One status check of a long-running task.
+	 */
+	@FunctionalInterface
+	public interface TaskCheck<T> {
+
+		/**
+		 * @param attempt zero-based attempt number
+		 * @return the result once the task is done, {@code null} while it is pending
+		 */
+		T check(int attempt) throws Exception;
+
+	}
+
+	/**
+	 * Exponential backoff between polls. The wait after attempt {@code n} is
+	 * {@code initialDelay * multiplier^n}, capped at {@code maxDelay}, then spread by
+	 * {@code ±jitter} (a fraction of the wait) so tasks submitted together do not poll in
+	 * lockstep.
+	 */
+	public record Backoff(Duration initialDelay, Duration maxDelay, double multiplier, double jitter, int maxAttempts) {
+
+		public Backoff {
+			Assert.notNull(initialDelay, "initialDelay must not be null");
+			Assert.notNull(maxDelay, "maxDelay must not be null");
+			Assert.isTrue(!initialDelay.isNegative(), "initialDelay must not be negative");
+			Assert.isTrue(maxDelay.compareTo(initialDelay) >= 0, "maxDelay must not be less than initialDelay");
+			Assert.isTrue(multiplier >= 1.0, "multiplier must be at least 1");
+			Assert.isTrue(jitter >= 0.0 && jitter < 1.0, "jitter must be in [0, 1)");
+			Assert.isTrue(maxAttempts > 0, "maxAttempts must be positive");
+		}
+
+		public static Backoff of(Duration initialDelay, Duration maxDelay, int maxAttempts) {
+			return new Backoff(initialDelay, maxDelay, 2.0, 0.2, maxAttempts);
+		}
+
+		/**
+		 * Wait before the attempt following {@code attempt} (zero-based).
+		 */
+		public long delayMillis(int attempt) {
+			double base = this.initialDelay.toMillis() * Math.pow(this.multiplier, attempt);
+			double capped = Math.min(base, this.maxDelay.toMillis());
+			if (this.jitter == 0.0) {
+				return (long) capped;
+			}
+			double spread = capped * this.jitter;
+			return Math.max(0L, (long) (capped - spread + ThreadLocalRandom.current().nextDouble() * 2 * spread));
+		}
+
+	}
+
+	private static final class PollingTask<T> {
+
+		private final Backoff backoff;
+
+		private final TaskCheck<T> check;
+
+		private final AtomicInteger attempts = new AtomicInteger();
+
+		private final CompletableFuture<T> result = new CompletableFuture<>();
+
+		private PollingTask(Backoff backoff, TaskCheck<T> check) {
+			this.backoff = backoff;
+			this.check = check;
+		}
+
+	}
+
+}
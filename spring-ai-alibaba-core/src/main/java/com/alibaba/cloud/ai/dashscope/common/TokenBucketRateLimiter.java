@@ -0,0 +1,404 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.common;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link DashScopeRateLimiter} with two token buckets per model: one refilled at
+ * {@code requestsPerSecond} requests and one refilled at {@code tokensPerMinute}
+ * estimated input tokens. A call is admitted once both buckets hold enough; until then it
+ * waits in a per-model queue ordered by {@link Priority} and arrival, and no thread is
+ * held while it waits.
+ *
+ * <p>
+ * Rates adapt to server feedback: a {@code 429} response halves the effective rate of the
+ * model (down to {@code minRateFactor} of the configured rate), empties its request
+ * bucket and stops admission until {@code Retry-After} has passed. Each successful
+ * response then restores {@code recoveryStep} of the configured rate.
+ */
+public class TokenBucketRateLimiter implements DashScopeRateLimiter {
+
+	private static final Logger logger = LoggerFactory.getLogger(TokenBucketRateLimiter.class);
+
+	private static final ScheduledExecutorService SHARED_SCHEDULER = Executors
+		.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "dashscope-rate-limiter");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+	private static final Comparator<Waiter> WAITER_ORDER = Comparator.comparing(Waiter::priority)
+		.thenComparingLong(Waiter::sequence);
+
+	private final Limits defaultLimits;
+
+	private final Map<String, Limits> modelLimits;
+
+	private final double minRateFactor;
+
+	private final double recoveryStep;
+
+	private final Duration defaultRetryAfter;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final Map<String, ModelBucket> buckets = new ConcurrentHashMap<>();
+
+	private TokenBucketRateLimiter(Builder builder) {
+		this.defaultLimits = builder.defaultLimits;
+		this.modelLimits = Map.copyOf(builder.modelLimits);
+		this.minRateFactor = builder.minRateFactor;
+		this.recoveryStep = builder.recoveryStep;
+		this.defaultRetryAfter = builder.defaultRetryAfter;
+		this.scheduler = builder.scheduler;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	@Override
+	public CompletableFuture<Void> acquire(String model, int estimatedTokens, Priority priority) {
+		Assert.notNull(priority, "priority must not be null");
+		return bucket(model).acquire(Math.max(0, estimatedTokens), priority);
+	}
+
+	@Override
+	public void onResponse(String model, int statusCode, HttpHeaders headers) {
+		ModelBucket bucket = this.buckets.get(key(model));
+		if (bucket == null) {
+			return;
+		}
+		if (statusCode == HttpStatus.TOO_MANY_REQUESTS.value()) {
+			Duration retryAfter = retryAfter(headers);
+			logger.warn("DashScope throttled model {}, pausing {} ms", key(model), retryAfter.toMillis());
+			bucket.throttled(retryAfter.toNanos());
+		}
+		else if (statusCode < 400) {
+			bucket.succeeded();
+		}
+	}
+
+	/**
+	 * Current fraction of the configured rate admitted for a model, {@code 1.0} when it
+	 * has not been throttled.
+	 */
+	public double rateFactor(String model) {
+		ModelBucket bucket = this.buckets.get(key(model));
+		return bucket == null ? 1.0 : bucket.rateFactor();
+	}
+
+	/**
+	 * Number of calls of a model waiting for a permit.
+	 */
+	public int queuedRequests(String model) {
+		ModelBucket bucket = this.buckets.get(key(model));
+		return bucket == null ? 0 : bucket.queued();
+	}
+
+	private ModelBucket bucket(String model) {
+		String key = key(model);
+		return this.buckets.computeIfAbsent(key,
+				k -> new ModelBucket(this.modelLimits.getOrDefault(k, this.defaultLimits)));
+	}
+
+	private static String key(String model) {
+		return model == null ? "" : model;
+	}
+
+	private Duration retryAfter(HttpHeaders headers) {
+		String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+		if (!StringUtils.hasText(value)) {
+			return this.defaultRetryAfter;
+		}
+		try {
+			return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+		}
+		catch (NumberFormatException ex) {
+			try {
+				ZonedDateTime date = headers.getFirstZonedDateTime(HttpHeaders.RETRY_AFTER);
+				Duration wait = Duration.between(ZonedDateTime.now(date.getZone()), date);
+				return wait.isNegative() ? Duration.ZERO : wait;
+			}
+			catch (IllegalArgumentException ignored) {
+				return this.defaultRetryAfter;
+			}
+		}
+	}
+
+	/**
+	 * Configured rates of one model. A non-positive rate disables that bucket.
+	 */
+	public record Limits(double requestsPerSecond, long tokensPerMinute) {
+
+		public static final Limits UNLIMITED = new Limits(0, 0);
+
+	}
+
+	private record Waiter(Priority priority, long sequence, int tokens, CompletableFuture<Void> future) {
+	}
+
+	private final class ModelBucket {
+
+		private final Limits limits;
+
+		private final double requestCapacity;
+
+		private final double tokenCapacity;
+
+		private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(WAITER_ORDER);
+
+		private double requests;
+
+		private double tokens;
+
+		private long lastRefillNanos = System.nanoTime();
+
+		private long pausedUntilNanos = this.lastRefillNanos;
+
+		private double rateFactor = 1.0;
+
+		private long sequence;
+
+		private ScheduledFuture<?> wakeup;
+
+		private ModelBucket(Limits limits) {
+			this.limits = limits;
+			// a second worth of requests and a minute worth of tokens may be spent at
+			// once
+			this.requestCapacity = Math.max(1.0, limits.requestsPerSecond());
+			this.tokenCapacity = Math.max(1.0, limits.tokensPerMinute());
+			this.requests = this.requestCapacity;
+			this.tokens = this.tokenCapacity;
+		}
+
+		CompletableFuture<Void> acquire(int estimatedTokens, Priority priority) {
+			CompletableFuture<Void> future = new CompletableFuture<>();
+			synchronized (this) {
+				// a call larger than the bucket is admitted once the bucket is full
+				int tokens = (int) Math.min(estimatedTokens, this.tokenCapacity);
+				this.waiters.add(new Waiter(priority, this.sequence++, tokens, future));
+			}
+			dispatch();
+			return future;
+		}
+
+		synchronized void throttled(long retryAfterNanos) {
+			long now = System.nanoTime();
+			refill(now);
+			this.rateFactor = Math.max(minRateFactor, this.rateFactor / 2);
+			this.pausedUntilNanos = Math.max(this.pausedUntilNanos, now + retryAfterNanos);
+			this.requests = Math.min(this.requests, 0.0);
+		}
+
+		synchronized void succeeded() {
+			if (this.rateFactor < 1.0) {
+				refill(System.nanoTime());
+				this.rateFactor = Math.min(1.0, this.rateFactor + recoveryStep);
+			}
+		}
+
+		synchronized double rateFactor() {
+			return this.rateFactor;
+		}
+
+		synchronized int queued() {
+			return (int) this.waiters.stream().filter(waiter -> !waiter.future().isDone()).count();
+		}
+
+		private void dispatch() {
+			List<Waiter> admitted = new ArrayList<>();
+			synchronized (this) {
+				long now = System.nanoTime();
+				refill(now);
+				long waitNanos = 0;
+				while (!this.waiters.isEmpty()) {
+					Waiter head = this.waiters.peek();
+					if (head.future().isDone()) {
+						// withdrawn by the caller
+						this.waiters.poll();
+						continue;
+					}
+					if (now < this.pausedUntilNanos) {
+						waitNanos = this.pausedUntilNanos - now;
+						break;
+					}
+					waitNanos = Math.max(nanosUntil(1.0 - this.requests, requestRate()),
+							nanosUntil(head.tokens() - this.tokens, tokenRate()));
+					if (waitNanos > 0) {
+						break;
+					}
+					if (requestRate() > 0) {
+						this.requests -= 1.0;
+					}
+					if (tokenRate() > 0) {
+						this.tokens -= head.tokens();
+					}
+					admitted.add(this.waiters.poll());
+				}
+				if (waitNanos > 0 && (this.wakeup == null || this.wakeup.getDelay(TimeUnit.NANOSECONDS) > waitNanos)) {
+					if (this.wakeup != null) {
+						// a new head can go earlier than the one the wakeup was timed for
+						this.wakeup.cancel(false);
+					}
+					scheduleWakeup(waitNanos);
+				}
+			}
+			// complete outside the lock, callers may continue inline
+			admitted.forEach(waiter -> waiter.future().complete(null));
+		}
+
+		private void scheduleWakeup(long delayNanos) {
+			try {
+				this.wakeup = scheduler.schedule(() -> {
+					synchronized (this) {
+						this.wakeup = null;
+					}
+					dispatch();
+				}, delayNanos, TimeUnit.NANOSECONDS);
+			}
+			catch (RejectedExecutionException ex) {
+				this.waiters.forEach(waiter -> waiter.future().completeExceptionally(ex));
+				this.waiters.clear();
+			}
+		}
+
+		private void refill(long now) {
+			long elapsed = now - this.lastRefillNanos;
+			this.lastRefillNanos = now;
+			if (elapsed <= 0) {
+				return;
+			}
+			this.requests = Math.min(this.requestCapacity, this.requests + elapsed * requestRate());
+			this.tokens = Math.min(this.tokenCapacity, this.tokens + elapsed * tokenRate());
+		}
+
+		/** Requests per nanosecond, {@code 0} when unlimited. */
+		private double requestRate() {
+			return this.limits.requestsPerSecond() <= 0 ? 0.0
+					: this.limits.requestsPerSecond() * this.rateFactor / 1_000_000_000.0;
+		}
+
+		/** Tokens per nanosecond, {@code 0} when unlimited. */
+		private double tokenRate() {
+			return this.limits.tokensPerMinute() <= 0 ? 0.0
+					: this.limits.tokensPerMinute() * this.rateFactor / 60_000_000_000.0;
+		}
+
+	}
+
+	private static long nanosUntil(double missing, double ratePerNano) {
+		if (missing <= 0 || ratePerNano <= 0) {
+			return 0;
+		}
+		return Math.max(1L, (long) Math.ceil(missing / ratePerNano));
+	}
+
+	public static class Builder {
+
+		private Limits defaultLimits = Limits.UNLIMITED;
+
+		private final Map<String, Limits> modelLimits = new HashMap<>();
+
+		private double minRateFactor = 0.1;
+
+		private double recoveryStep = 0.05;
+
+		private Duration defaultRetryAfter = Duration.ofSeconds(1);
+
+		private ScheduledExecutorService scheduler = SHARED_SCHEDULER;
+
+		private Builder() {
+		}
+
+		/**
+		 * Limits of models without an entry of their own.
+		 */
+		public Builder defaultLimits(double requestsPerSecond, long tokensPerMinute) {
+			this.defaultLimits = new Limits(requestsPerSecond, tokensPerMinute);
+			return this;
+		}
+
+		public Builder modelLimits(String model, double requestsPerSecond, long tokensPerMinute) {
+			Assert.hasText(model, "model must not be empty");
+			this.modelLimits.put(model, new Limits(requestsPerSecond, tokensPerMinute));
+			return this;
+		}
+
+		/**
+		 * Lowest fraction of the configured rate that repeated {@code 429} responses can
+		 * reduce a model to.
+		 */
+		public Builder minRateFactor(double minRateFactor) {
+			Assert.isTrue(minRateFactor > 0 && minRateFactor <= 1, "minRateFactor must be in (0, 1]");
+			this.minRateFactor = minRateFactor;
+			return this;
+		}
+
+		/**
+		 * Fraction of the configured rate restored by each successful response.
+		 */
+		public Builder recoveryStep(double recoveryStep) {
+			Assert.isTrue(recoveryStep > 0, "recoveryStep must be positive");
+			this.recoveryStep = recoveryStep;
+			return this;
+		}
+
+		/**
+		 * Pause after a {@code 429} response that carries no {@code Retry-After} header.
+		 */
+		public Builder defaultRetryAfter(Duration defaultRetryAfter) {
+			Assert.notNull(defaultRetryAfter, "defaultRetryAfter must not be null");
+			this.defaultRetryAfter = defaultRetryAfter;
+			return this;
+		}
+
+		public Builder scheduler(ScheduledExecutorService scheduler) {
+			Assert.notNull(scheduler, "scheduler must not be null");
+			this.scheduler = scheduler;
+			return this;
+		}
+
+		public TokenBucketRateLimiter build() {
+			return new TokenBucketRateLimiter(this);
+		}
+
+	}
+
+}
@@ -15,9 +15,20 @@
  */
 package com.alibaba.cloud.ai.dashscope.embedding;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
 import com.alibaba.cloud.ai.dashscope.common.DashScopeApiConstants;
@@ -47,6 +58,11 @@ import org.springframework.util.Assert;
 
 /**
  * DashScope Embedding Model implementation.
+ * <p>
+ * Texts are split into batches no larger than the per-request input limit of the model
+ * and batches are dispatched in parallel. Identical texts requested concurrently are
+ * embedded once, and an optional {@link EmbeddingCache} avoids re-embedding texts that
+ * were already seen.
  *
  * @author nuocheng.lxm
  * @author why_ohh
@@ -60,6 +76,19 @@ public class DashScopeEmbeddingModel extends AbstractEmbeddingModel {
 
 	private static final EmbeddingModelObservationConvention DEFAULT_OBSERVATION_CONVENTION = new DefaultEmbeddingModelObservationConvention();
 
+	/**
+	 * Maximum number of texts per request accepted by text-embedding-v1/v2.
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 25;
+
+	/**
+	 * Maximum number of texts per request accepted by text-embedding-v3/v4.
+	 */
+	public static final int V3_MAX_BATCH_SIZE = 10;
+
+	private static final ExecutorService DEFAULT_BATCH_EXECUTOR = Executors.newFixedThreadPool(4,
+			new DaemonThreadFactory());
+
 	private final DashScopeEmbeddingOptions defaultOptions;
 
 	private final RetryTemplate retryTemplate;
@@ -78,6 +107,18 @@ public class DashScopeEmbeddingModel extends AbstractEmbeddingModel {
 	 */
 	private EmbeddingModelObservationConvention observationConvention = DEFAULT_OBSERVATION_CONVENTION;
 
+	/**
+	 * Texts currently being embedded, shared so concurrent callers do not request the
+	 * same text twice.
+	 */
+	private final Map<EmbeddingCacheKey, CompletableFuture<float[]>> inFlight = new ConcurrentHashMap<>();
+
+	private EmbeddingCache embeddingCache;
+
+	private Integer maxBatchSize;
+
+	private Executor batchExecutor = DEFAULT_BATCH_EXECUTOR;
+
 	public DashScopeEmbeddingModel(DashScopeApi dashScopeApi) {
 		this(dashScopeApi, MetadataMode.EMBED);
 	}
@@ -126,8 +167,7 @@ public class DashScopeEmbeddingModel extends AbstractEmbeddingModel {
 		// Before moving any further, build the final request EmbeddingRequest,
 		// merging runtime and default options.
 		EmbeddingRequest embeddingRequest = buildEmbeddingRequest(request);
-
-		DashScopeApi.EmbeddingRequest apiRequest = createRequest(embeddingRequest);
+		DashScopeEmbeddingOptions requestOptions = (DashScopeEmbeddingOptions) embeddingRequest.getOptions();
 
 		var observationContext = EmbeddingModelObservationContext.builder()
 			.embeddingRequest(embeddingRequest)
@@ -138,37 +178,50 @@ public class DashScopeEmbeddingModel extends AbstractEmbeddingModel {
 			.observation(this.observationConvention, DEFAULT_OBSERVATION_CONVENTION, () -> observationContext,
 					this.observationRegistry)
 			.observe(() -> {
-				DashScopeApi.EmbeddingList apiEmbeddingResponse = this.retryTemplate.execute(ctx -> {
-					try {
-						return this.dashScopeApi.embeddings(apiRequest).getBody();
+				List<String> texts = embeddingRequest.getInstructions();
+				List<EmbeddingCacheKey> keys = new ArrayList<>(texts.size());
+				Map<EmbeddingCacheKey, CompletableFuture<float[]>> results = new LinkedHashMap<>();
+				List<PendingText> owned = new ArrayList<>();
+
+				for (String text : texts) {
+					EmbeddingCacheKey key = EmbeddingCacheKey.of(requestOptions.getModel(),
+							requestOptions.getDimensions(), requestOptions.getTextType(), text);
+					keys.add(key);
+					if (results.containsKey(key)) {
+						continue;
 					}
-					catch (Exception e) {
-						logger.error("Error embedding request: {}", request.getInstructions(), e);
-						throw e;
+					float[] cached = this.embeddingCache != null ? this.embeddingCache.get(key) : null;
+					if (cached != null) {
+						results.put(key, CompletableFuture.completedFuture(cached));
+						continue;
+					}
+					CompletableFuture<float[]> future = new CompletableFuture<>();
+					CompletableFuture<float[]> existing = this.inFlight.putIfAbsent(key, future);
+					if (existing != null) {
+						results.put(key, existing);
+					}
+					else {
+						results.put(key, future);
+						owned.add(new PendingText(key, text, future));
 					}
-				});
-
-				if (apiEmbeddingResponse == null) {
-					logger.warn("No embeddings returned for request: {}", request);
-					return new EmbeddingResponse(List.of());
 				}
 
-				if (apiEmbeddingResponse.message() != null) {
-					logger.error("Error message returned for request: {}", apiEmbeddingResponse.message());
-					throw new RuntimeException("Embedding failed: error code:" + apiEmbeddingResponse.code()
-							+ ", message:" + apiEmbeddingResponse.message());
-				}
+				Long totalTokens = embedAll(owned, requestOptions, request);
 
-				DashScopeApi.EmbeddingUsage usage = apiEmbeddingResponse.usage();
+				// Every input keeps its position and index; a text without a vector in the
+				// response gets an embedding with a null output instead of being dropped.
+				// Vectors are copied because duplicate texts and coalesced callers share
+				// one result.
+				List<Embedding> embeddings = new ArrayList<>(keys.size());
+				for (int i = 0; i < keys.size(); i++) {
+					float[] vector = join(results.get(keys.get(i)));
+					embeddings.add(new Embedding(vector != null ? vector.clone() : null, i));
+				}
 
-				Usage embeddingUsage = usage != null ? this.getDefaultUsage(usage) : new EmptyUsage();
+				Usage embeddingUsage = totalTokens != null
+						? this.getDefaultUsage(new DashScopeApi.EmbeddingUsage(totalTokens)) : new EmptyUsage();
 
-				var metadata = generateResponseMetadata(apiRequest.model(), embeddingUsage);
-				List<Embedding> embeddings = apiEmbeddingResponse.output()
-					.embeddings()
-					.stream()
-					.map(e -> new Embedding(e.embedding(), e.textIndex()))
-					.toList();
+				var metadata = generateResponseMetadata(requestOptions.getModel(), embeddingUsage);
 
 				EmbeddingResponse embeddingResponse = new EmbeddingResponse(embeddings, metadata);
 
@@ -178,8 +231,172 @@ public class DashScopeEmbeddingModel extends AbstractEmbeddingModel {
 			});
 	}
 
+	/**
+	 * Embed the texts owned by this call in batches, dispatching all but the first batch
+	 * to the batch executor. On any failure, including a rejected dispatch, the owned
+	 * futures that are still pending are completed exceptionally and removed from the
+	 * in-flight map, so callers waiting on them do not hang.
+	 * @return the total tokens reported by the API, or {@code null} if none was reported
+	 */
+	private Long embedAll(List<PendingText> owned, DashScopeEmbeddingOptions options, EmbeddingRequest request) {
+		if (owned.isEmpty()) {
+			return null;
+		}
+		try {
+			return embedBatches(owned, options, request);
+		}
+		catch (RuntimeException | Error e) {
+			failPending(owned, e);
+			throw e;
+		}
+	}
+
+	private Long embedBatches(List<PendingText> owned, DashScopeEmbeddingOptions options,
+			EmbeddingRequest request) {
+		int batchSize = resolveMaxBatchSize(options.getModel());
+		List<List<PendingText>> batches = new ArrayList<>();
+		for (int i = 0; i < owned.size(); i += batchSize) {
+			batches.add(owned.subList(i, Math.min(i + batchSize, owned.size())));
+		}
+
+		List<CompletableFuture<Long>> dispatched = new ArrayList<>(batches.size() - 1);
+		for (List<PendingText> batch : batches.subList(1, batches.size())) {
+			dispatched
+				.add(CompletableFuture.supplyAsync(() -> embedBatch(batch, options, request), this.batchExecutor));
+		}
+
+		Long totalTokens = null;
+		RuntimeException failure = null;
+		try {
+			totalTokens = embedBatch(batches.get(0), options, request);
+		}
+		catch (RuntimeException e) {
+			failure = e;
+		}
+		for (CompletableFuture<Long> future : dispatched) {
+			try {
+				Long tokens = join(future);
+				if (tokens != null) {
+					totalTokens = totalTokens != null ? totalTokens + tokens : tokens;
+				}
+			}
+			catch (RuntimeException e) {
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return totalTokens;
+	}
+
+	private Long embedBatch(List<PendingText> batch, DashScopeEmbeddingOptions options, EmbeddingRequest request) {
+		try {
+			DashScopeApi.EmbeddingRequest apiRequest = DashScopeApi.EmbeddingRequest.builder()
+				.model(options.getModel())
+				.texts(batch.stream().map(PendingText::text).toList())
+				.textType(options.getTextType())
+				.dimension(options.getDimensions())
+				.build();
+
+			DashScopeApi.EmbeddingList apiEmbeddingResponse = this.retryTemplate.execute(ctx -> {
+				try {
+					// priority follows the whole request, not the size of this batch
+					return this.dashScopeApi
+						.embeddings(apiRequest, DashScopeApi.embeddingPriority(request.getInstructions().size(),
+								options.getTextType()))
+						.getBody();
+				}
+				catch (Exception e) {
+					logger.error("Error embedding request: {}", request.getInstructions(), e);
+					throw e;
+				}
+			});
+
+			if (apiEmbeddingResponse == null) {
+				logger.warn("No embeddings returned for request: {}", request);
+				batch.forEach(pending -> pending.future().complete(null));
+				return null;
+			}
+
+			if (apiEmbeddingResponse.message() != null) {
+				logger.error("Error message returned for request: {}", apiEmbeddingResponse.message());
+				throw new RuntimeException("Embedding failed: error code:" + apiEmbeddingResponse.code() + ", message:"
+						+ apiEmbeddingResponse.message());
+			}
+
+			if (apiEmbeddingResponse.output() != null && apiEmbeddingResponse.output().embeddings() != null) {
+				for (DashScopeApi.Embedding embedding : apiEmbeddingResponse.output().embeddings()) {
+					Integer textIndex = embedding.textIndex();
+					if (textIndex == null || textIndex < 0 || textIndex >= batch.size()
+							|| embedding.embedding() == null) {
+						continue;
+					}
+					PendingText pending = batch.get(textIndex);
+					if (this.embeddingCache != null) {
+						this.embeddingCache.put(pending.key(), embedding.embedding());
+					}
+					pending.future().complete(embedding.embedding());
+				}
+			}
+			// Texts without a vector in the response are reported as missing, not cached.
+			batch.forEach(pending -> pending.future().complete(null));
+
+			DashScopeApi.EmbeddingUsage usage = apiEmbeddingResponse.usage();
+			return usage != null ? usage.totalTokens() : null;
+		}
+		catch (RuntimeException | Error e) {
+			failPending(batch, e);
+			throw e;
+		}
+		finally {
+			batch.forEach(pending -> this.inFlight.remove(pending.key(), pending.future()));
+		}
+	}
+
+	private void failPending(List<PendingText> pending, Throwable failure) {
+		for (PendingText text : pending) {
+			text.future().completeExceptionally(failure);
+			this.inFlight.remove(text.key(), text.future());
+		}
+	}
+
+	private int resolveMaxBatchSize(String model) {
+		if (this.maxBatchSize != null) {
+			return this.maxBatchSize;
+		}
+		if (model != null && (model.startsWith("text-embedding-v3") || model.startsWith("text-embedding-v4"))) {
+			return V3_MAX_BATCH_SIZE;
+		}
+		return DEFAULT_MAX_BATCH_SIZE;
+	}
+
+	private static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for embeddings", e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+					? e.getCause().getCause() : e.getCause();
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException("Embedding failed", cause);
+		}
+	}
+
 	private DefaultUsage getDefaultUsage(DashScopeApi.EmbeddingUsage usage) {
-		return new DefaultUsage(usage.getPromptTokens(), usage.getCompletionTokens(), usage.getTotalTokens(), usage);
+		Integer totalTokens = usage.totalTokens() != null ? Math.toIntExact(usage.totalTokens()) : null;
+		return new DefaultUsage(usage.getPromptTokens(), usage.getCompletionTokens(), totalTokens, usage);
 	}
 
 	private EmbeddingRequest buildEmbeddingRequest(EmbeddingRequest embeddingRequest) {
@@ -205,16 +422,6 @@ public class DashScopeEmbeddingModel extends AbstractEmbeddingModel {
 		return new EmbeddingRequest(embeddingRequest.getInstructions(), requestOptions);
 	}
 
-	private DashScopeApi.EmbeddingRequest createRequest(EmbeddingRequest request) {
-		DashScopeEmbeddingOptions requestOptions = (DashScopeEmbeddingOptions) request.getOptions();
-		return DashScopeApi.EmbeddingRequest.builder()
-			.model(requestOptions.getModel())
-			.texts(request.getInstructions())
-			.textType(requestOptions.getTextType())
-			.dimension(requestOptions.getDimensions())
-			.build();
-	}
-
 	private EmbeddingResponseMetadata generateResponseMetadata(String model, Usage usage) {
 		Map<String, Object> map = new HashMap<>();
 		map.put("model", model);
@@ -232,4 +439,49 @@ public class DashScopeEmbeddingModel extends AbstractEmbeddingModel {
 		this.observationConvention = observationConvention;
 	}
 
+	/**
+	 * Use the provided cache to look up and store embedding vectors.
+	 * @param embeddingCache the cache, or {@code null} to disable caching
+	 */
+	public void setEmbeddingCache(EmbeddingCache embeddingCache) {
+		this.embeddingCache = embeddingCache;
+	}
+
+	/**
+	 * Override the maximum number of texts sent in a single API request. By default 10 is
+	 * used for text-embedding-v3/v4 and 25 for other models.
+	 * @param maxBatchSize the maximum batch size, between 1 and 25
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0 && maxBatchSize <= DEFAULT_MAX_BATCH_SIZE,
+				"maxBatchSize must be between 1 and " + DEFAULT_MAX_BATCH_SIZE);
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Use the provided executor to dispatch batches in parallel. Its size bounds the
+	 * number of concurrent API requests per call.
+	 * @param batchExecutor the executor
+	 */
+	public void setBatchExecutor(Executor batchExecutor) {
+		Assert.notNull(batchExecutor, "batchExecutor cannot be null");
+		this.batchExecutor = batchExecutor;
+	}
+
+	private record PendingText(EmbeddingCacheKey key, String text, CompletableFuture<float[]> future) {
+	}
+
+	private static final class DaemonThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "dashscope-embedding-" + this.counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.embedding;
+
+/**
+ * Cache of previously computed embedding vectors, consulted by
+ * {@link DashScopeEmbeddingModel} before texts are sent to the DashScope API.
+ * Implementations must be thread-safe.
+ *
+ * @see InMemoryEmbeddingCache
+ * @see MappedFileEmbeddingCache
+ */
+public interface EmbeddingCache {
+
+	/**
+	 * Return the cached vector for the given key. The returned array is owned by the
+	 * caller; modifying it must not affect the cache.
+	 * @param key the cache key
+	 * @return the cached vector, or {@code null} if absent
+	 */
+	float[] get(EmbeddingCacheKey key);
+
+	/**
+	 * Store the vector computed for the given key. The cache must not keep a reference to
+	 * the given array.
+	 * @param key the cache key
+	 * @param embedding the embedding vector
+	 */
+	void put(EmbeddingCacheKey key, float[] embedding);
+
+}
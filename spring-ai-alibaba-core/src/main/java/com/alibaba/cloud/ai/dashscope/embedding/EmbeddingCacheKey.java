@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.embedding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.util.Assert;
+
+/**
+ * Key of an {@link EmbeddingCache} entry. The text itself is represented by its SHA-256
+ * digest so keys stay small regardless of chunk size. The text type is part of the key
+ * because DashScope returns different vectors for {@code query} and {@code document}
+ * texts.
+ *
+ * @param model the embedding model name
+ * @param dimensions the requested vector dimensions, or {@code null} for the model
+ * default
+ * @param textType the text type, or {@code null}
+ * @param textHash hex encoded SHA-256 of the text
+ */
+public record EmbeddingCacheKey(String model, Integer dimensions, String textType, String textHash) {
+
+	public EmbeddingCacheKey {
+		Assert.hasText(model, "model must not be empty");
+		Assert.hasText(textHash, "textHash must not be empty");
+	}
+
+	public static EmbeddingCacheKey of(String model, Integer dimensions, String textType, String text) {
+		Assert.notNull(text, "text must not be null");
+		return new EmbeddingCacheKey(model, dimensions, textType, sha256(text));
+	}
+
+	private static String sha256(String text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not supported", e);
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.embedding;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link EmbeddingCache} keeping the most recently used vectors in memory. Vectors are
+ * copied on the way in and out, so callers can never modify a cached entry.
+ */
+public class InMemoryEmbeddingCache implements EmbeddingCache {
+
+	public static final int DEFAULT_MAX_SIZE = 10_000;
+
+	private final Map<EmbeddingCacheKey, float[]> entries;
+
+	public InMemoryEmbeddingCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public InMemoryEmbeddingCache(int maxSize) {
+		Assert.isTrue(maxSize > 0, "maxSize must be positive");
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<EmbeddingCacheKey, float[]> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	@Override
+	public synchronized float[] get(EmbeddingCacheKey key) {
+		float[] embedding = this.entries.get(key);
+		return embedding != null ? embedding.clone() : null;
+	}
+
+	@Override
+	public synchronized void put(EmbeddingCacheKey key, float[] embedding) {
+		Assert.notNull(embedding, "embedding must not be null");
+		this.entries.put(key, embedding.clone());
+	}
+
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+}
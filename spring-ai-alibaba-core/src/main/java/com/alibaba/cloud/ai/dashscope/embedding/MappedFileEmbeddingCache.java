@@ -0,0 +1,220 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.embedding;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link EmbeddingCache} persisted in a memory-mapped, append-only file so vectors
+ * survive restarts and re-ingesting unchanged chunks does not call the API again.
+ * <p>
+ * Layout: a header of {@code [int magic][int version][int writePosition]} followed by
+ * records of {@code [int keyLength][key bytes][int dimensions][float...]}. The key bytes
+ * hold the key fields in length-prefixed form, so no field value can be confused with a
+ * separator. The key to offset index is kept in memory and rebuilt by scanning the file on
+ * open; a file written in an older layout is discarded and started over. Once the file
+ * reaches its maximum size new vectors are no longer stored.
+ */
+public class MappedFileEmbeddingCache implements EmbeddingCache, Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(MappedFileEmbeddingCache.class);
+
+	private static final int MAGIC = 0x44534543;
+
+	private static final int VERSION = 2;
+
+	private static final int HEADER_SIZE = 12;
+
+	private static final int WRITE_POSITION_OFFSET = 8;
+
+	public static final int DEFAULT_MAX_BYTES = 256 * 1024 * 1024;
+
+	private final FileChannel channel;
+
+	private final MappedByteBuffer buffer;
+
+	private final Map<EmbeddingCacheKey, Integer> index = new ConcurrentHashMap<>();
+
+	private int writePosition;
+
+	private volatile boolean full;
+
+	private volatile boolean closed;
+
+	public MappedFileEmbeddingCache(Path file) throws IOException {
+		this(file, DEFAULT_MAX_BYTES);
+	}
+
+	public MappedFileEmbeddingCache(Path file, int maxBytes) throws IOException {
+		Assert.notNull(file, "file must not be null");
+		Assert.isTrue(maxBytes > HEADER_SIZE, "maxBytes must be larger than the header");
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			long existing = this.channel.size();
+			Assert.isTrue(existing <= Integer.MAX_VALUE, "cache file too large: " + file);
+			int capacity = (int) Math.max(existing, maxBytes);
+			this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+			if (existing >= HEADER_SIZE && this.buffer.getInt(0) != 0) {
+				load(file);
+			}
+			else {
+				initialize();
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	private void initialize() {
+		this.buffer.putInt(0, MAGIC);
+		this.buffer.putInt(4, VERSION);
+		this.writePosition = HEADER_SIZE;
+		this.buffer.putInt(WRITE_POSITION_OFFSET, this.writePosition);
+	}
+
+	private void load(Path file) {
+		if (this.buffer.getInt(0) != MAGIC) {
+			throw new IllegalStateException("Not an embedding cache file: " + file);
+		}
+		if (this.buffer.getInt(4) != VERSION) {
+			logger.info("Discarding embedding cache {} written with layout version {}", file, this.buffer.getInt(4));
+			initialize();
+			return;
+		}
+		int end = this.buffer.getInt(WRITE_POSITION_OFFSET);
+		int pos = HEADER_SIZE;
+		while (pos + 4 <= end) {
+			int keyLength = this.buffer.getInt(pos);
+			byte[] keyBytes = new byte[keyLength];
+			this.buffer.get(pos + 4, keyBytes);
+			int vectorOffset = pos + 4 + keyLength;
+			int dimensions = this.buffer.getInt(vectorOffset);
+			this.index.put(decodeKey(keyBytes), vectorOffset);
+			pos = vectorOffset + 4 + dimensions * Float.BYTES;
+		}
+		this.writePosition = end;
+		logger.debug("Loaded {} cached embeddings from {}", this.index.size(), file);
+	}
+
+	@Override
+	public float[] get(EmbeddingCacheKey key) {
+		Integer offset = this.index.get(key);
+		if (offset == null || this.closed) {
+			return null;
+		}
+		int dimensions = this.buffer.getInt(offset);
+		float[] vector = new float[dimensions];
+		int pos = offset + 4;
+		for (int i = 0; i < dimensions; i++, pos += Float.BYTES) {
+			vector[i] = this.buffer.getFloat(pos);
+		}
+		return vector;
+	}
+
+	@Override
+	public synchronized void put(EmbeddingCacheKey key, float[] embedding) {
+		Assert.notNull(embedding, "embedding must not be null");
+		if (this.full || this.closed || this.index.containsKey(key)) {
+			return;
+		}
+		byte[] keyBytes = encodeKey(key);
+		long recordSize = 4L + keyBytes.length + 4L + (long) embedding.length * Float.BYTES;
+		if (this.writePosition + recordSize > this.buffer.capacity()) {
+			this.full = true;
+			logger.warn("Embedding cache file is full, new embeddings will not be cached");
+			return;
+		}
+		int pos = this.writePosition;
+		this.buffer.putInt(pos, keyBytes.length);
+		this.buffer.put(pos + 4, keyBytes);
+		int vectorOffset = pos + 4 + keyBytes.length;
+		this.buffer.putInt(vectorOffset, embedding.length);
+		int floatPos = vectorOffset + 4;
+		for (float value : embedding) {
+			this.buffer.putFloat(floatPos, value);
+			floatPos += Float.BYTES;
+		}
+		// Publish the record only after it has been fully written.
+		this.writePosition = floatPos;
+		this.buffer.putInt(WRITE_POSITION_OFFSET, this.writePosition);
+		this.index.put(key, vectorOffset);
+	}
+
+	public int size() {
+		return this.index.size();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.buffer.force();
+		this.channel.close();
+	}
+
+	private static byte[] encodeKey(EmbeddingCacheKey key) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeUTF(key.model());
+			out.writeInt(key.dimensions() != null ? key.dimensions() : -1);
+			out.writeBoolean(key.textType() != null);
+			if (key.textType() != null) {
+				out.writeUTF(key.textType());
+			}
+			out.writeUTF(key.textHash());
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static EmbeddingCacheKey decodeKey(byte[] keyBytes) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(keyBytes))) {
+			String model = in.readUTF();
+			int dimensions = in.readInt();
+			String textType = in.readBoolean() ? in.readUTF() : null;
+			String textHash = in.readUTF();
+			return new EmbeddingCacheKey(model, dimensions >= 0 ? dimensions : null, textType, textHash);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("corrupt cache key", e);
+		}
+	}
+
+}
@@ -17,6 +17,7 @@ package com.alibaba.cloud.ai.dashscope.image;
 
 import com.alibaba.cloud.ai.dashscope.api.DashScopeImageApi;
 import com.alibaba.cloud.ai.dashscope.common.DashScopeApiConstants;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeTaskPoller;
 import com.alibaba.cloud.ai.dashscope.image.observation.DashScopeImageModelObservationConvention;
 import com.alibaba.cloud.ai.dashscope.image.observation.DashScopeImagePromptContentObservationHandler;
 import io.micrometer.observation.Observation;
@@ -39,15 +40,17 @@ import org.springframework.ai.image.observation.ImageModelObservationDocumentati
 import org.springframework.ai.model.ModelOptionsUtils;
 import org.springframework.ai.retry.RetryUtils;
 import org.springframework.http.ResponseEntity;
-import org.springframework.retry.backoff.FixedBackOffPolicy;
-import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @author nuocheng.lxm
@@ -64,7 +67,12 @@ public class DashScopeImageModel implements ImageModel {
 	 */
 	private static final String DEFAULT_MODEL = "wanx-v1";
 
-	private static final int MAX_RETRY_COUNT = 10;
+	/**
+	 * Default wait between task status checks: 1s doubling up to 15s, for up to about two
+	 * and a half minutes in total.
+	 */
+	public static final DashScopeTaskPoller.Backoff DEFAULT_POLLING_BACKOFF = DashScopeTaskPoller.Backoff
+		.of(Duration.ofSeconds(1), Duration.ofSeconds(15), 14);
 
 	/**
 	 * Low-level access to the DashScope Image API.
@@ -77,10 +85,20 @@ public class DashScopeImageModel implements ImageModel {
 	private final DashScopeImageOptions defaultOptions;
 
 	/**
-	 * The retry template used to retry the OpenAI Image API calls.
+	 * The retry template used to retry the task submission.
 	 */
 	private final RetryTemplate retryTemplate;
 
+	/**
+	 * Poller used to wait for submitted tasks.
+	 */
+	private DashScopeTaskPoller taskPoller = DashScopeTaskPoller.shared();
+
+	/**
+	 * Wait between task status checks.
+	 */
+	private DashScopeTaskPoller.Backoff pollingBackoff = DEFAULT_POLLING_BACKOFF;
+
 	/**
 	 * Observation registry used for instrumentation.
 	 */
@@ -122,11 +140,6 @@ public class DashScopeImageModel implements ImageModel {
 
 		this.dashScopeImageApi = dashScopeImageApi;
 		this.defaultOptions = options;
-		SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(MAX_RETRY_COUNT);
-		FixedBackOffPolicy backOff = new FixedBackOffPolicy();
-		backOff.setBackOffPeriod(15_000L);
-		retryTemplate.setRetryPolicy(retryPolicy);
-		retryTemplate.setBackOffPolicy(backOff);
 		this.retryTemplate = retryTemplate;
 		this.observationRegistry = observationRegistry;
 
@@ -142,12 +155,31 @@ public class DashScopeImageModel implements ImageModel {
 
 	@Override
 	public ImageResponse call(ImagePrompt request) {
+		try {
+			return callAsync(request).join();
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw ex;
+		}
+	}
+
+	/**
+	 * Submit the image generation task and poll its status on the shared
+	 * {@link DashScopeTaskPoller}, so no caller thread is held while the task is pending.
+	 * @param request the image prompt
+	 * @return a future completed with the generated images, or with an empty response
+	 * carrying the task status when the task failed or timed out
+	 */
+	public CompletableFuture<ImageResponse> callAsync(ImagePrompt request) {
 		Assert.notNull(request, "Prompt must not be null");
 		Assert.isTrue(!CollectionUtils.isEmpty(request.getInstructions()), "Prompt messages must " + "not be empty");
 
-		String taskId = submitImageGenTask(request);
+		String taskId = this.retryTemplate.execute(ctx -> submitImageGenTask(request));
 		if (taskId == null) {
-			return new ImageResponse(List.of(), toMetadataEmpty());
+			return CompletableFuture.completedFuture(new ImageResponse(List.of(), toMetadataEmpty()));
 		}
 
 		ImageModelObservationContext observationContext = ImageModelObservationContext.builder()
@@ -155,33 +187,42 @@ public class DashScopeImageModel implements ImageModel {
 			.provider(DashScopeApiConstants.PROVIDER_NAME)
 			.build();
 
-		Observation observation = ImageModelObservationDocumentation.IMAGE_MODEL_OPERATION.observation(
-				observationConvention, new DefaultImageModelObservationConvention(), () -> observationContext,
-				this.observationRegistry);
-
-		return observation.observe(() ->
+		Observation observation = ImageModelObservationDocumentation.IMAGE_MODEL_OPERATION
+			.observation(observationConvention, new DefaultImageModelObservationConvention(), () -> observationContext,
+					this.observationRegistry)
+			.start();
 
-		retryTemplate.execute(ctx -> {
-			observation.lowCardinalityKeyValue("retry.attempt", String.valueOf(ctx.getRetryCount()));
+		return this.taskPoller.poll(this.pollingBackoff, attempt -> {
+			observation.lowCardinalityKeyValue("retry.attempt", String.valueOf(attempt));
 
 			DashScopeImageApi.DashScopeImageAsyncReponse resp = getImageGenTask(taskId);
-			if (resp != null) {
-				String status = resp.output().taskStatus();
-				observation.lowCardinalityKeyValue("task.status", status);
-
-				switch (status) {
-					case "SUCCEEDED":
-						return toImageResponse(resp);
-					case "FAILED":
-					case "UNKNOWN":
-						return new ImageResponse(List.of(), toMetadata(resp));
-				}
+			if (resp == null) {
+				return null;
 			}
-			throw new RuntimeException("Image generation still pending");
-		}, context -> {
-			observation.lowCardinalityKeyValue("timeout", "true");
-			return new ImageResponse(List.of(), toMetadataTimeout(taskId));
-		}));
+			String status = resp.output().taskStatus();
+			observation.lowCardinalityKeyValue("task.status", status);
+
+			return switch (status) {
+				case "SUCCEEDED" -> toImageResponse(resp);
+				case "FAILED", "UNKNOWN" -> new ImageResponse(List.of(), toMetadata(resp));
+				default -> null;
+			};
+		}).exceptionally(ex -> {
+			if (ex instanceof CompletionException && ex.getCause() != null) {
+				ex = ex.getCause();
+			}
+			if (ex instanceof TimeoutException) {
+				observation.lowCardinalityKeyValue("timeout", "true");
+				return new ImageResponse(List.of(), toMetadataTimeout(taskId));
+			}
+			observation.error(ex);
+			observation.stop();
+			throw ex instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(ex);
+		}).thenApply(response -> {
+			observationContext.setResponse(response);
+			observation.stop();
+			return response;
+		});
 	}
 
 	public String submitImageGenTask(ImagePrompt request) {
@@ -305,6 +346,16 @@ public class DashScopeImageModel implements ImageModel {
 		this.observationConvention = observationConvention;
 	}
 
+	public void setTaskPoller(DashScopeTaskPoller taskPoller) {
+		Assert.notNull(taskPoller, "taskPoller cannot be null");
+		this.taskPoller = taskPoller;
+	}
+
+	public void setPollingBackoff(DashScopeTaskPoller.Backoff pollingBackoff) {
+		Assert.notNull(pollingBackoff, "pollingBackoff cannot be null");
+		this.pollingBackoff = pollingBackoff;
+	}
+
 	public static final class Builder {
 
 		private DashScopeImageApi dashScopeImageApi;
@@ -322,6 +373,10 @@ public class DashScopeImageModel implements ImageModel {
 
 		private ObservationHandler<ImageModelObservationContext> promptHandler = new DashScopeImagePromptContentObservationHandler();
 
+		private DashScopeTaskPoller taskPoller = DashScopeTaskPoller.shared();
+
+		private DashScopeTaskPoller.Backoff pollingBackoff = DEFAULT_POLLING_BACKOFF;
+
 		private Builder() {
 		}
 
@@ -355,11 +410,23 @@ public class DashScopeImageModel implements ImageModel {
 			return this;
 		}
 
+		public Builder taskPoller(DashScopeTaskPoller taskPoller) {
+			this.taskPoller = taskPoller;
+			return this;
+		}
+
+		public Builder pollingBackoff(DashScopeTaskPoller.Backoff pollingBackoff) {
+			this.pollingBackoff = pollingBackoff;
+			return this;
+		}
+
 		public DashScopeImageModel build() {
 			DashScopeImageModel model = new DashScopeImageModel(dashScopeImageApi, defaultOptions, retryTemplate,
 					observationRegistry);
 
 			model.setObservationConvention(this.observationConvention);
+			model.setTaskPoller(this.taskPoller);
+			model.setPollingBackoff(this.pollingBackoff);
 			this.observationRegistry.observationConfig().observationHandler(this.promptHandler);
 			return model;
 		}
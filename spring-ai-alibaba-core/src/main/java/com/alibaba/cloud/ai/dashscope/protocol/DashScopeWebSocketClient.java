@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.dashscope.protocol;
 
 import com.alibaba.cloud.ai.dashscope.api.ApiUtils;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeException;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -34,67 +35,142 @@ import okhttp3.logging.HttpLoggingInterceptor;
 import okio.ByteString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * WebSocket client for DashScope duplex tasks.
+ * <p>
+ * All clients share one {@link OkHttpClient}. Each task leases a connection from a pool
+ * of sockets and returns it once the task finishes, so consecutive tasks reuse open
+ * connections. Text events are routed to their task by {@code task_id}, binary frames to
+ * the task currently owning the connection. Connections that cannot be established are
+ * retried with exponential backoff.
+ *
  * @author kevinlin09
  */
-public class DashScopeWebSocketClient extends WebSocketListener {
+public class DashScopeWebSocketClient extends WebSocketListener implements AutoCloseable {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+		.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private static final OkHttpClient SHARED_HTTP_CLIENT = createHttpClient();
+
+	private static final ScheduledExecutorService RECONNECT_SCHEDULER = Executors
+		.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "dashscope-websocket-reconnect");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+	private static final Duration WRITE_POLL_INTERVAL = Duration.ofMillis(10);
 
 	private final Logger logger = LoggerFactory.getLogger(DashScopeWebSocketClient.class);
 
 	private final DashScopeWebSocketClientOptions options;
 
-	private WebSocket webSocketClient;
+	private final OkHttpClient httpClient;
 
-	private AtomicBoolean isOpen;
+	private final Deque<PooledSocket> idleSockets = new ConcurrentLinkedDeque<>();
 
-	FluxSink<ByteBuffer> emitter;
+	private final Map<WebSocket, PooledSocket> sockets = new ConcurrentHashMap<>();
 
-	FluxSink<ByteBuffer> binary_emitter;
+	private final Map<String, TaskSession> sessions = new ConcurrentHashMap<>();
 
-	FluxSink<String> text_emitter;
+	/**
+	 * Most recently started task, used by the methods that do not name a task.
+	 */
+	private volatile TaskSession lastSession;
 
 	public DashScopeWebSocketClient(DashScopeWebSocketClientOptions options) {
+		this(options, SHARED_HTTP_CLIENT);
+	}
+
+	DashScopeWebSocketClient(DashScopeWebSocketClientOptions options, OkHttpClient httpClient) {
 		this.options = options;
-		this.isOpen = new AtomicBoolean(false);
+		this.httpClient = httpClient;
 	}
 
+	/**
+	 * Send the given run-task message and stream the binary frames of that task.
+	 * @param text the run-task message
+	 * @return the binary output of the task
+	 */
 	public Flux<ByteBuffer> streamBinaryOut(String text) {
-		Flux<ByteBuffer> flux = Flux.<ByteBuffer>create(emitter -> {
-			this.binary_emitter = emitter;
-		}, FluxSink.OverflowStrategy.BUFFER);
+		TaskSession session = openSession(taskIdOf(text));
+		session.binaryConsumer = true;
+		Flux<ByteBuffer> flux = session.binary.asFlux().doOnCancel(() -> cancel(session));
 
-		sendText(text);
+		session.socket.send(text);
 
 		return flux;
 	}
 
+	/**
+	 * Upload the given binary frames for the most recently started task and stream its
+	 * text results.
+	 * @param binary the binary input
+	 * @return the result-generated events of the task
+	 */
 	public Flux<String> streamTextOut(Flux<ByteBuffer> binary) {
-		Flux<String> flux = Flux.<String>create(emitter -> {
-			this.text_emitter = emitter;
-		}, FluxSink.OverflowStrategy.BUFFER);
+		TaskSession session = this.lastSession;
+		if (session == null || session.done.get() || session.textConsumer) {
+			session = openSession(null);
+		}
+		return streamTextOut(session, binary);
+	}
+
+	/**
+	 * Upload the given binary frames for the given task and stream its text results.
+	 * @param taskId the task id used in the run-task message
+	 * @param binary the binary input
+	 * @return the result-generated events of the task
+	 */
+	public Flux<String> streamTextOut(String taskId, Flux<ByteBuffer> binary) {
+		TaskSession session = taskId != null ? this.sessions.get(taskId) : null;
+		return streamTextOut(session != null ? session : openSession(taskId), binary);
+	}
+
+	private Flux<String> streamTextOut(TaskSession session, Flux<ByteBuffer> binary) {
+		session.textConsumer = true;
+		Flux<String> flux = session.text.asFlux().doOnCancel(() -> cancel(session));
 
-		binary.subscribe(this::sendBinary);
+		session.upload = binary.concatMap(buffer -> awaitWritable(session.socket).then(Mono.fromRunnable(() -> {
+			if (!session.socket.send(ByteString.of(buffer))) {
+				logger.error("send binary failed");
+			}
+		})), 1).subscribe(null, error -> finish(session, error, false));
 
 		return flux;
 	}
 
 	public void sendText(String text) {
-		if (!isOpen.get()) {
-			establishWebSocketClient();
+		String taskId = taskIdOf(text);
+		TaskSession session = taskId != null ? this.sessions.get(taskId) : null;
+		if (session == null) {
+			session = openSession(taskId);
 		}
 
-		boolean success = webSocketClient.send(text);
+		boolean success = session.socket.send(text);
 
 		if (!success) {
 			logger.error("send text failed");
@@ -102,19 +178,132 @@ public class DashScopeWebSocketClient extends WebSocketListener {
 	}
 
 	public void sendBinary(ByteBuffer binary) {
-		// TODO
-		// if (!isOpen.get()) {
-		// establishWebSocketClient();
-		// }
-
-		boolean success = webSocketClient.send(ByteString.of(binary));
+		TaskSession session = this.lastSession;
+		boolean success = session != null && session.socket.send(ByteString.of(binary));
 
 		if (!success) {
 			logger.error("send binary failed");
 		}
 	}
 
-	private void establishWebSocketClient() {
+	/**
+	 * Close all idle connections. Connections leased by running tasks are closed when
+	 * their task ends.
+	 */
+	@Override
+	public void close() {
+		PooledSocket socket;
+		while ((socket = this.idleSockets.poll()) != null) {
+			socket.discard(1000, "client closed");
+		}
+	}
+
+	/**
+	 * Register an already connected socket as idle connection.
+	 */
+	void attach(WebSocket webSocket) {
+		PooledSocket socket = new PooledSocket();
+		socket.connected(webSocket);
+		this.idleSockets.add(socket);
+	}
+
+	int idleConnections() {
+		return this.idleSockets.size();
+	}
+
+	private TaskSession openSession(String taskId) {
+		TaskSession session = new TaskSession(taskId, leaseSocket());
+		session.socket.owner = session;
+		if (taskId != null) {
+			this.sessions.put(taskId, session);
+		}
+		this.lastSession = session;
+		return session;
+	}
+
+	private PooledSocket leaseSocket() {
+		PooledSocket socket;
+		while ((socket = this.idleSockets.poll()) != null) {
+			if (!socket.closed) {
+				return socket;
+			}
+		}
+		socket = new PooledSocket();
+		socket.connect();
+		return socket;
+	}
+
+	private void cancel(TaskSession session) {
+		finish(session, null, false);
+	}
+
+	/**
+	 * End the given task and release its connection.
+	 * @param session the task
+	 * @param error the failure, or {@code null} if the task completed
+	 * @param reusable whether the connection can serve another task
+	 */
+	private void finish(TaskSession session, Throwable error, boolean reusable) {
+		if (!session.done.compareAndSet(false, true)) {
+			return;
+		}
+		if (session.taskId != null) {
+			this.sessions.remove(session.taskId, session);
+		}
+		if (session.upload != null) {
+			session.upload.dispose();
+		}
+		synchronized (session) {
+			if (error != null) {
+				session.binary.tryEmitError(error);
+				session.text.tryEmitError(error);
+			}
+			else {
+				session.binary.tryEmitComplete();
+				session.text.tryEmitComplete();
+			}
+		}
+		PooledSocket socket = session.socket;
+		socket.owner = null;
+		if (reusable && !socket.closed && this.idleSockets.size() < this.options.getMaxIdleConnections()) {
+			this.idleSockets.add(socket);
+		}
+		else if (!socket.closed) {
+			socket.discard(1000, "task ended");
+		}
+	}
+
+	private void failSocket(PooledSocket socket, Throwable error) {
+		socket.closed = true;
+		this.idleSockets.remove(socket);
+		TaskSession owner = socket.owner;
+		if (owner != null) {
+			finish(owner, error, false);
+		}
+	}
+
+	private Mono<Void> awaitWritable(PooledSocket socket) {
+		if (socket.queueSize() < this.options.getMaxQueuedBytes()) {
+			return Mono.empty();
+		}
+		return Flux.interval(WRITE_POLL_INTERVAL)
+			.filter(tick -> socket.closed || socket.queueSize() < this.options.getMaxQueuedBytes())
+			.next()
+			.then();
+	}
+
+	private static String taskIdOf(String text) {
+		try {
+			JsonNode header = OBJECT_MAPPER.readTree(text).path("header");
+			JsonNode taskId = header.path("task_id");
+			return taskId.isTextual() && !taskId.asText().isEmpty() ? taskId.asText() : null;
+		}
+		catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static OkHttpClient createHttpClient() {
 		HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
 		logging.setLevel(HttpLoggingInterceptor.Level.valueOf(Constants.DEFAULT_HTTP_LOGGING_LEVEL));
 		Dispatcher dispatcher = new Dispatcher();
@@ -130,14 +319,7 @@ public class DashScopeWebSocketClient extends WebSocketListener {
 			.protocols(Collections.singletonList(Protocol.HTTP_1_1))
 			.connectionPool(new ConnectionPool(Constants.DEFAULT_CONNECTION_POOL_SIZE,
 					Constants.DEFAULT_CONNECTION_IDLE_TIMEOUT.getSeconds(), TimeUnit.SECONDS));
-		OkHttpClient httpClient = clientBuilder.build();
-
-		try {
-			webSocketClient = httpClient.newWebSocket(buildConnectionRequest(), this);
-		}
-		catch (Throwable ex) {
-			logger.error("create websocket failed: msg={}", ex.getMessage());
-		}
+		return clientBuilder.build();
 	}
 
 	private Request buildConnectionRequest() {
@@ -163,61 +345,97 @@ public class DashScopeWebSocketClient extends WebSocketListener {
 	@Override
 	public void onOpen(WebSocket webSocket, Response response) {
 		logger.info("receive ws event onOpen: handle={}, body={}", webSocket, getRequestBody(response));
-		isOpen.set(true);
+		PooledSocket socket = this.sockets.get(webSocket);
+		if (socket != null) {
+			socket.connected(webSocket);
+		}
 	}
 
 	@Override
 	public void onClosed(WebSocket webSocket, int code, String reason) {
 		logger.info("receive ws event onClosed: handle={}, code={}, reason={}", webSocket, code, reason);
-		isOpen.set(false);
-		emittersComplete("closed");
+		socketClosed(webSocket, "closed");
 	}
 
 	@Override
 	public void onClosing(WebSocket webSocket, int code, String reason) {
 		logger.info("receive ws event onClosing: handle={}, code={}, reason={}", webSocket.toString(), code, reason);
-		emittersComplete("closing");
+		socketClosed(webSocket, "closing");
 		webSocket.close(code, reason);
 	}
 
+	private void socketClosed(WebSocket webSocket, String event) {
+		PooledSocket socket = this.sockets.remove(webSocket);
+		if (socket == null) {
+			return;
+		}
+		socket.closed = true;
+		this.idleSockets.remove(socket);
+		TaskSession owner = socket.owner;
+		if (owner != null) {
+			logger.info("task emitter handling: complete on {}", event);
+			finish(owner, null, false);
+		}
+	}
+
 	@Override
 	public void onFailure(WebSocket webSocket, Throwable t, Response response) {
 		String failureMessage = String.format("msg=%s, cause=%s, body=%s", t.getMessage(), t.getCause(),
 				getRequestBody(response));
 		logger.error("receive ws event onFailure: handle={}, {}", webSocket, failureMessage);
-		isOpen.set(false);
-		emittersError("failure", new Exception(failureMessage, t));
+		PooledSocket socket = this.sockets.remove(webSocket);
+		if (socket == null) {
+			return;
+		}
+		boolean rejected = response != null && response.code() >= 400 && response.code() < 500;
+		if (!socket.opened && !socket.closed && !rejected && socket.attempts < this.options.getMaxReconnectAttempts()) {
+			long delay = this.options.getReconnectBackoff().toMillis() << socket.attempts;
+			socket.attempts++;
+			logger.warn("reconnecting websocket in {} ms, attempt {}", delay, socket.attempts);
+			RECONNECT_SCHEDULER.schedule(socket::connect, delay, TimeUnit.MILLISECONDS);
+			return;
+		}
+		failSocket(socket, new Exception(failureMessage, t));
 	}
 
 	@Override
 	public void onMessage(WebSocket webSocket, String text) {
 		logger.debug("receive ws event onMessage(text): handle={}, text={}", webSocket, text);
 
-		ObjectMapper objectMapper = new ObjectMapper();
-		objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-
 		try {
-			EventMessage message = objectMapper.readValue(text, EventMessage.class);
+			EventMessage message = OBJECT_MAPPER.readValue(text, EventMessage.class);
+			TaskSession session = message.header.taskId != null ? this.sessions.get(message.header.taskId) : null;
+			if (session == null) {
+				PooledSocket socket = this.sockets.get(webSocket);
+				session = socket != null ? socket.owner : null;
+			}
+			if (session == null) {
+				logger.debug("no task for message: text={}", text);
+				return;
+			}
 			switch (message.header.event) {
 				case TASK_STARTED:
 					logger.info("task started: text={}", text);
 					break;
 				case TASK_FINISHED:
 					logger.info("task finished: text={}", text);
-					emittersComplete("finished");
+					finish(session, null, true);
 					break;
 				case TASK_FAILED:
 					logger.error("task failed: text={}", text);
-					emittersError("task failed", new Exception());
+					finish(session, new DashScopeException(
+							"task failed: " + message.header.code + ", " + message.header.message), true);
 					break;
 				case RESULT_GENERATED:
-					if (this.text_emitter != null) {
-						text_emitter.next(text);
+					if (session.textConsumer) {
+						synchronized (session) {
+							session.text.tryEmitNext(text);
+						}
 					}
 					break;
 				default:
 					logger.error("task error: text={}", text);
-					emittersError("unsupported event", new Exception());
+					finish(session, new DashScopeException("unsupported event: " + message.header.event), false);
 			}
 		}
 		catch (Exception e) {
@@ -228,32 +446,181 @@ public class DashScopeWebSocketClient extends WebSocketListener {
 	@Override
 	public void onMessage(WebSocket webSocket, ByteString bytes) {
 		logger.debug("receive ws event onMessage(bytes): handle={}, size={}", webSocket, bytes.size());
-		if (this.binary_emitter != null) {
-			binary_emitter.next(bytes.asByteBuffer());
+		PooledSocket socket = this.sockets.get(webSocket);
+		TaskSession session = socket != null ? socket.owner : null;
+		if (session == null || !session.binaryConsumer) {
+			return;
+		}
+		Sinks.EmitResult result;
+		synchronized (session) {
+			result = session.binary.tryEmitNext(bytes.asByteBuffer());
+		}
+		if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+			finish(session, new DashScopeException("binary frame buffer overflow, more than "
+					+ this.options.getMaxBufferedFrames() + " frames pending"), false);
 		}
 	}
 
-	private void emittersComplete(String event) {
-		if (this.binary_emitter != null && !this.binary_emitter.isCancelled()) {
-			logger.info("binary emitter handling: complete on {}", event);
-			this.binary_emitter.complete();
+	/**
+	 * A running task and the connection it leased.
+	 */
+	private final class TaskSession {
+
+		private final String taskId;
+
+		private final PooledSocket socket;
+
+		private final Sinks.Many<ByteBuffer> binary;
+
+		private final Sinks.Many<String> text;
+
+		private final AtomicBoolean done = new AtomicBoolean();
+
+		private volatile boolean binaryConsumer;
+
+		private volatile boolean textConsumer;
+
+		private volatile Disposable upload;
+
+		private TaskSession(String taskId, PooledSocket socket) {
+			this.taskId = taskId;
+			this.socket = socket;
+			this.binary = Sinks.many()
+				.unicast()
+				.onBackpressureBuffer(Queues.<ByteBuffer>get(options.getMaxBufferedFrames()).get());
+			this.text = Sinks.many().unicast().onBackpressureBuffer();
+		}
+
+	}
+
+	/**
+	 * A pooled connection. Messages sent before the connection is open are queued and
+	 * replayed once connected, including after a reconnect.
+	 */
+	private final class PooledSocket {
+
+		private volatile WebSocket webSocket;
+
+		private volatile boolean opened;
+
+		private volatile boolean closed;
+
+		private volatile TaskSession owner;
+
+		private int attempts;
+
+		private final List<Object> pending = new ArrayList<>();
+
+		private long pendingBytes;
+
+		private void connect() {
+			if (this.closed) {
+				return;
+			}
+			try {
+				this.webSocket = httpClient.newWebSocket(buildConnectionRequest(), new SocketListener(this));
+				sockets.put(this.webSocket, this);
+			}
+			catch (Throwable ex) {
+				logger.error("create websocket failed: msg={}", ex.getMessage());
+				failSocket(this, ex);
+			}
+		}
+
+		private synchronized void connected(WebSocket webSocket) {
+			this.webSocket = webSocket;
+			sockets.put(webSocket, this);
+			this.opened = true;
+			this.attempts = 0;
+			for (Object message : this.pending) {
+				doSend(message);
+			}
+			this.pending.clear();
+			this.pendingBytes = 0;
+		}
+
+		private synchronized boolean send(Object message) {
+			if (this.closed) {
+				return false;
+			}
+			if (!this.opened) {
+				this.pending.add(message);
+				this.pendingBytes += message instanceof ByteString bytes ? bytes.size() : ((String) message).length();
+				return true;
+			}
+			return doSend(message);
+		}
+
+		private boolean doSend(Object message) {
+			return message instanceof ByteString bytes ? this.webSocket.send(bytes)
+					: this.webSocket.send((String) message);
+		}
+
+		private synchronized long queueSize() {
+			return this.opened ? this.webSocket.queueSize() : this.pendingBytes;
 		}
-		if (this.text_emitter != null && !this.text_emitter.isCancelled()) {
-			logger.info("text emitter handling: complete on {}", event);
-			this.text_emitter.complete();
-			logger.info("done");
+
+		private void discard(int code, String reason) {
+			this.closed = true;
+			WebSocket current = this.webSocket;
+			if (current != null) {
+				sockets.remove(current);
+				current.close(code, reason);
+			}
 		}
+
 	}
 
-	private void emittersError(String event, Throwable t) {
-		if (this.binary_emitter != null && !this.binary_emitter.isCancelled()) {
-			logger.info("binary emitter handling: error on {}", event);
-			this.binary_emitter.error(t);
+	/**
+	 * Registers the connection before delegating to the client, so events that arrive
+	 * before {@code newWebSocket} returns are not lost.
+	 */
+	private final class SocketListener extends WebSocketListener {
+
+		private final PooledSocket socket;
+
+		private SocketListener(PooledSocket socket) {
+			this.socket = socket;
 		}
-		if (this.text_emitter != null && !this.text_emitter.isCancelled()) {
-			logger.info("text emitter handling: error on {}", event);
-			this.text_emitter.error(t);
+
+		private void register(WebSocket webSocket) {
+			if (!this.socket.closed) {
+				sockets.putIfAbsent(webSocket, this.socket);
+			}
+		}
+
+		@Override
+		public void onOpen(WebSocket webSocket, Response response) {
+			register(webSocket);
+			DashScopeWebSocketClient.this.onOpen(webSocket, response);
+		}
+
+		@Override
+		public void onMessage(WebSocket webSocket, String text) {
+			DashScopeWebSocketClient.this.onMessage(webSocket, text);
+		}
+
+		@Override
+		public void onMessage(WebSocket webSocket, ByteString bytes) {
+			DashScopeWebSocketClient.this.onMessage(webSocket, bytes);
 		}
+
+		@Override
+		public void onClosing(WebSocket webSocket, int code, String reason) {
+			DashScopeWebSocketClient.this.onClosing(webSocket, code, reason);
+		}
+
+		@Override
+		public void onClosed(WebSocket webSocket, int code, String reason) {
+			DashScopeWebSocketClient.this.onClosed(webSocket, code, reason);
+		}
+
+		@Override
+		public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+			register(webSocket);
+			DashScopeWebSocketClient.this.onFailure(webSocket, t, response);
+		}
+
 	}
 
 	public static class Constants {
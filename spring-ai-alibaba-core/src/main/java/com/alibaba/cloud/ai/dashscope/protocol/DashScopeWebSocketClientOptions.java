@@ -15,6 +15,8 @@
  */
 package com.alibaba.cloud.ai.dashscope.protocol;
 
+import java.time.Duration;
+
 import com.alibaba.cloud.ai.dashscope.common.DashScopeApiConstants;
 
 /**
@@ -28,6 +30,31 @@ public class DashScopeWebSocketClientOptions {
 
 	private String workSpaceId = null;
 
+	/**
+	 * Maximum number of idle connections kept for reuse by later tasks.
+	 */
+	private int maxIdleConnections = 8;
+
+	/**
+	 * Maximum number of reconnect attempts when a connection cannot be established.
+	 */
+	private int maxReconnectAttempts = 3;
+
+	/**
+	 * Initial delay before reconnecting, doubled on every attempt.
+	 */
+	private Duration reconnectBackoff = Duration.ofMillis(200);
+
+	/**
+	 * Maximum number of received binary frames buffered per task before the task fails.
+	 */
+	private int maxBufferedFrames = 1024;
+
+	/**
+	 * Outgoing bytes queued on a connection above which binary uploads wait.
+	 */
+	private long maxQueuedBytes = 1024 * 1024;
+
 	public String getUrl() {
 		return url;
 	}
@@ -52,6 +79,46 @@ public class DashScopeWebSocketClientOptions {
 		this.workSpaceId = workSpaceId;
 	}
 
+	public int getMaxIdleConnections() {
+		return maxIdleConnections;
+	}
+
+	public void setMaxIdleConnections(int maxIdleConnections) {
+		this.maxIdleConnections = maxIdleConnections;
+	}
+
+	public int getMaxReconnectAttempts() {
+		return maxReconnectAttempts;
+	}
+
+	public void setMaxReconnectAttempts(int maxReconnectAttempts) {
+		this.maxReconnectAttempts = maxReconnectAttempts;
+	}
+
+	public Duration getReconnectBackoff() {
+		return reconnectBackoff;
+	}
+
+	public void setReconnectBackoff(Duration reconnectBackoff) {
+		this.reconnectBackoff = reconnectBackoff;
+	}
+
+	public int getMaxBufferedFrames() {
+		return maxBufferedFrames;
+	}
+
+	public void setMaxBufferedFrames(int maxBufferedFrames) {
+		this.maxBufferedFrames = maxBufferedFrames;
+	}
+
+	public long getMaxQueuedBytes() {
+		return maxQueuedBytes;
+	}
+
+	public void setMaxQueuedBytes(long maxQueuedBytes) {
+		this.maxQueuedBytes = maxQueuedBytes;
+	}
+
 	public static Builder builder() {
 		return new Builder();
 	}
@@ -83,6 +150,31 @@ public class DashScopeWebSocketClientOptions {
 			return this;
 		}
 
+		public Builder withMaxIdleConnections(int maxIdleConnections) {
+			options.setMaxIdleConnections(maxIdleConnections);
+			return this;
+		}
+
+		public Builder withMaxReconnectAttempts(int maxReconnectAttempts) {
+			options.setMaxReconnectAttempts(maxReconnectAttempts);
+			return this;
+		}
+
+		public Builder withReconnectBackoff(Duration reconnectBackoff) {
+			options.setReconnectBackoff(reconnectBackoff);
+			return this;
+		}
+
+		public Builder withMaxBufferedFrames(int maxBufferedFrames) {
+			options.setMaxBufferedFrames(maxBufferedFrames);
+			return this;
+		}
+
+		public Builder withMaxQueuedBytes(long maxQueuedBytes) {
+			options.setMaxQueuedBytes(maxQueuedBytes);
+			return this;
+		}
+
 		public DashScopeWebSocketClientOptions build() {
 			return options;
 		}
@@ -17,13 +17,17 @@ package com.alibaba.cloud.ai.dashscope.rag;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
-import com.alibaba.cloud.ai.dashscope.common.DashScopeApiConstants;
 import com.alibaba.cloud.ai.dashscope.common.DashScopeException;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeTaskPoller;
 import com.alibaba.cloud.ai.dashscope.common.ErrorCodeEnum;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
@@ -32,6 +36,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.document.DocumentReader;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
 
 /**
  * @author nuocheng.lxm
@@ -42,12 +47,24 @@ public class DashScopeDocumentCloudReader implements DocumentReader {
 
 	private static final Logger logger = LoggerFactory.getLogger(DashScopeDocumentCloudReader.class);
 
+	/**
+	 * Default polling backoff: the delay between status checks starts at 2 seconds and
+	 * doubles up to 30 seconds, for at most 15 checks, about five and a half minutes in
+	 * total.
+	 */
+	public static final DashScopeTaskPoller.Backoff DEFAULT_POLLING_BACKOFF = DashScopeTaskPoller.Backoff
+		.of(Duration.ofSeconds(2), Duration.ofSeconds(30), 15);
+
 	private final DashScopeApi dashScopeApi;
 
 	private DashScopeDocumentCloudReaderOptions readerConfig;
 
 	private File file;
 
+	private DashScopeTaskPoller taskPoller = DashScopeTaskPoller.shared();
+
+	private DashScopeTaskPoller.Backoff pollingBackoff = DEFAULT_POLLING_BACKOFF;
+
 	public DashScopeDocumentCloudReader(String filePath, DashScopeApi dashScopeApi,
 			DashScopeDocumentCloudReaderOptions readerConfig) {
 		file = new File(filePath);
@@ -61,44 +78,74 @@ public class DashScopeDocumentCloudReader implements DocumentReader {
 		this.dashScopeApi = dashScopeApi;
 	}
 
+	public void setTaskPoller(DashScopeTaskPoller taskPoller) {
+		Assert.notNull(taskPoller, "taskPoller cannot be null");
+		this.taskPoller = taskPoller;
+	}
+
+	public void setPollingBackoff(DashScopeTaskPoller.Backoff pollingBackoff) {
+		Assert.notNull(pollingBackoff, "pollingBackoff cannot be null");
+		this.pollingBackoff = pollingBackoff;
+	}
+
 	@Override
 	public List<Document> get() {
-		String fileMD5;
+		try {
+			return getAsync().join();
+		}
+		catch (CompletionException exception) {
+			throw new RuntimeException("ReadFile Exception", exception.getCause());
+		}
+	}
+
+	/**
+	 * Upload the file and poll its parse status asynchronously. Polling is scheduled with
+	 * exponential backoff by the shared {@link DashScopeTaskPoller}, so no caller thread
+	 * is blocked while waiting. When all polling attempts are used up the future
+	 * completes with {@code null}, matching the behaviour of {@link #get()}.
+	 */
+	public CompletableFuture<List<Document>> getAsync() {
+		String fileId;
 		try (FileInputStream fileInputStream = new FileInputStream(file)) {
-			fileMD5 = DigestUtils.md5Hex(fileInputStream);
+			String fileMD5 = DigestUtils.md5Hex(fileInputStream);
 			DashScopeApi.UploadRequest uploadRequest = new DashScopeApi.UploadRequest(readerConfig.getCategoryId(),
 					file.getName(), file.length(), fileMD5);
-			String fileId = dashScopeApi.upload(file, uploadRequest);
-			// Polling for results
-			int tryCount = 0;
-			while (tryCount < DashScopeApiConstants.MAX_TRY_COUNT) {
-				ResponseEntity<DashScopeApi.CommonResponse<DashScopeApi.QueryFileResponseData>> response = dashScopeApi
-					.queryFileInfo(readerConfig.getCategoryId(),
-							new DashScopeApi.UploadRequest.QueryFileRequest(fileId));
-				if (response != null && response.getBody() != null) {
-					DashScopeApi.QueryFileResponseData queryFileResponseData = response.getBody().data();
-					String fileStatus = queryFileResponseData.status();
-					if ("PARSE_SUCCESS".equals(fileStatus)) {
-						// download files
-						String parseResult = dashScopeApi.getFileParseResult(readerConfig.getCategoryId(),
-								new DashScopeApi.UploadRequest.QueryFileRequest(fileId));
-						return List.of(toDocument(fileId, parseResult));
-					}
-					else if ("PARSE_FAILED".equals(fileStatus)) {
-						logger.error("File:{} Read Error，ErrorCode:{},ErrorMessage:{}", file.getName(),
-								response.getBody().code(), response.getBody().message());
-						throw new DashScopeException(ErrorCodeEnum.READER_PARSE_FILE_ERROR);
-					}
-				}
-				tryCount++;
-				Thread.sleep(30000L);
-			}
-			return null;
+			fileId = dashScopeApi.upload(file, uploadRequest);
 		}
 		catch (Exception exception) {
-			throw new RuntimeException("ReadFile Exception", exception);
+			return CompletableFuture.failedFuture(exception);
 		}
 
+		// Polling for results
+		return taskPoller.poll(pollingBackoff, attempt -> {
+			ResponseEntity<DashScopeApi.CommonResponse<DashScopeApi.QueryFileResponseData>> response = dashScopeApi
+				.queryFileInfo(readerConfig.getCategoryId(), new DashScopeApi.UploadRequest.QueryFileRequest(fileId));
+			if (response == null || response.getBody() == null) {
+				return null;
+			}
+			DashScopeApi.QueryFileResponseData queryFileResponseData = response.getBody().data();
+			String fileStatus = queryFileResponseData.status();
+			if ("PARSE_SUCCESS".equals(fileStatus)) {
+				// download files
+				String parseResult = dashScopeApi.getFileParseResult(readerConfig.getCategoryId(),
+						new DashScopeApi.UploadRequest.QueryFileRequest(fileId));
+				return List.of(toDocument(fileId, parseResult));
+			}
+			else if ("PARSE_FAILED".equals(fileStatus)) {
+				logger.error("File:{} Read Error，ErrorCode:{},ErrorMessage:{}", file.getName(),
+						response.getBody().code(), response.getBody().message());
+				throw new DashScopeException(ErrorCodeEnum.READER_PARSE_FILE_ERROR);
+			}
+			return null;
+		}).exceptionally(ex -> {
+			Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+			if (cause instanceof TimeoutException) {
+				logger.warn("File:{} still not parsed after {} attempts", file.getName(), pollingBackoff.maxAttempts());
+				return null;
+			}
+			throw ex instanceof CompletionException completionException ? completionException
+					: new CompletionException(cause);
+		});
 	}
 
 	private Document toDocument(String fileId, String parseResultText) {
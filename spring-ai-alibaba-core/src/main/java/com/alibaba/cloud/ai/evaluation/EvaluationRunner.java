@@ -0,0 +1,531 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.evaluation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.evaluation.EvaluationRequest;
+import org.springframework.ai.evaluation.EvaluationResponse;
+import org.springframework.ai.evaluation.Evaluator;
+import org.springframework.util.Assert;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Title Evaluation runner.<br>
+ * Description Runs a set of evaluators over a dataset of {@link EvaluationRequest}s with
+ * bounded concurrency.<br>
+ *
+ * <p>
+ * Verdicts are cached by (evaluator id, request hash), so a sample that appears more
+ * than once in a dataset, or in several runs of the same runner, reaches the model only
+ * once. The evaluator id identifies the evaluator's configuration, not only its type: an
+ * evaluator that overrides {@code toString()} is identified by it. A
+ * {@link LaajEvaluator} is identified by its name, its evaluation prompt and its
+ * {@code ChatClient.Builder} instance, since the judge model and its options are not
+ * visible through the builder. Any other evaluator is identified by its instance. The
+ * verdicts of LLM-judged and instance-identified evaluators are therefore not resumed
+ * from a results file unless an id is supplied with {@link Builder#evaluatorId(Function)}.
+ * <p>
+ * When a results file is configured, every verdict is appended to it as one JSON line
+ * through a writer kept open for the run and flushed per line, and the file is read back
+ * before the next run, so an interrupted run resumes where it stopped. Failed evaluations
+ * are reported but neither cached nor written, and are retried by the next run.
+ *
+ * @since 1.0.0.3
+ */
+public class EvaluationRunner {
+
+	private static final Logger logger = LoggerFactory.getLogger(EvaluationRunner.class);
+
+	private final int concurrency;
+
+	private final Executor executor;
+
+	private final Path resultsFile;
+
+	private final ObjectMapper objectMapper;
+
+	private final Function<? super Evaluator, String> evaluatorId;
+
+	private final Map<String, CompletableFuture<EvaluationResponse>> verdicts = new ConcurrentHashMap<>();
+
+	private final Object resultsFileLock = new Object();
+
+	private boolean resultsLoaded;
+
+	private EvaluationRunner(Builder builder) {
+		this.concurrency = builder.concurrency;
+		this.executor = builder.executor;
+		this.resultsFile = builder.resultsFile;
+		this.objectMapper = builder.objectMapper;
+		this.evaluatorId = builder.evaluatorId;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Evaluate every request of the dataset with every evaluator.
+	 * @param dataset the samples to evaluate
+	 * @param evaluators the evaluators to apply to each sample
+	 * @return one result per (sample, evaluator) pair in dataset order, and run
+	 * statistics
+	 */
+	public Report run(List<EvaluationRequest> dataset, List<? extends Evaluator> evaluators) {
+		Assert.notNull(dataset, "dataset must not be null");
+		Assert.notEmpty(evaluators, "evaluators must not be empty");
+		loadResults();
+		BufferedWriter resultsWriter = openResultsWriter();
+
+		ExecutorService ownExecutor = this.executor == null ? Executors.newFixedThreadPool(this.concurrency,
+				new EvaluationThreadFactory()) : null;
+		Executor runExecutor = ownExecutor != null ? ownExecutor : this.executor;
+		Semaphore permits = new Semaphore(this.concurrency);
+		long start = System.nanoTime();
+		try {
+			List<CompletableFuture<Result>> futures = new ArrayList<>(dataset.size() * evaluators.size());
+			for (int i = 0; i < dataset.size(); i++) {
+				EvaluationRequest request = dataset.get(i);
+				String requestHash = requestHash(request);
+				for (Evaluator evaluator : evaluators) {
+					futures.add(evaluate(i, request, requestHash, evaluator, runExecutor, permits, resultsWriter));
+				}
+			}
+			List<Result> results = futures.stream().map(CompletableFuture::join).toList();
+			return new Report(results, Statistics.of(results, Duration.ofNanos(System.nanoTime() - start)));
+		}
+		finally {
+			if (ownExecutor != null) {
+				ownExecutor.shutdownNow();
+			}
+			closeResultsWriter(resultsWriter);
+		}
+	}
+
+	private CompletableFuture<Result> evaluate(int index, EvaluationRequest request, String requestHash,
+			Evaluator evaluator, Executor runExecutor, Semaphore permits, BufferedWriter resultsWriter) {
+		String evaluatorName = evaluatorName(evaluator);
+		String key = this.evaluatorId.apply(evaluator) + '|' + requestHash;
+
+		CompletableFuture<EvaluationResponse> verdict = new CompletableFuture<>();
+		CompletableFuture<EvaluationResponse> existing = this.verdicts.putIfAbsent(key, verdict);
+		if (existing != null) {
+			// a duplicate sample, or a verdict loaded from the results file
+			return existing.handle((response, ex) -> new Result(index, evaluatorName, requestHash, response,
+					Duration.ZERO, true, ex != null ? errorMessage(ex) : null));
+		}
+
+		// block the submitting thread instead of queueing the whole dataset
+		permits.acquireUninterruptibly();
+		long[] latency = new long[1];
+		try {
+			CompletableFuture.runAsync(() -> {
+				long start = System.nanoTime();
+				try {
+					EvaluationResponse response = evaluator.evaluate(request);
+					latency[0] = System.nanoTime() - start;
+					verdict.complete(response);
+				}
+				catch (Throwable ex) {
+					latency[0] = System.nanoTime() - start;
+					verdict.completeExceptionally(ex);
+				}
+				finally {
+					permits.release();
+				}
+			}, runExecutor);
+		}
+		catch (RuntimeException ex) {
+			permits.release();
+			verdict.completeExceptionally(ex);
+		}
+
+		return verdict.handle((response, ex) -> {
+			Duration elapsed = Duration.ofNanos(latency[0]);
+			if (ex != null) {
+				// retried by the next run
+				this.verdicts.remove(key, verdict);
+				logger.warn("Evaluator {} failed on sample {}", evaluatorName, index, ex);
+				return new Result(index, evaluatorName, requestHash, null, elapsed, false, errorMessage(ex));
+			}
+			appendResult(resultsWriter, key, response);
+			return new Result(index, evaluatorName, requestHash, response, elapsed, false, null);
+		});
+	}
+
+	private void loadResults() {
+		synchronized (this.resultsFileLock) {
+			if (this.resultsLoaded || this.resultsFile == null || !Files.exists(this.resultsFile)) {
+				this.resultsLoaded = true;
+				return;
+			}
+			int loaded = 0;
+			try (Stream<String> lines = Files.lines(this.resultsFile, StandardCharsets.UTF_8)) {
+				for (String line : (Iterable<String>) lines::iterator) {
+					if (line.isBlank()) {
+						continue;
+					}
+					try {
+						StoredVerdict stored = this.objectMapper.readValue(line, StoredVerdict.class);
+						this.verdicts.putIfAbsent(stored.key(),
+								CompletableFuture.completedFuture(new EvaluationResponse(stored.pass(),
+										stored.score(), stored.feedback(),
+										stored.metadata() != null ? stored.metadata() : Collections.emptyMap())));
+						loaded++;
+					}
+					catch (JsonProcessingException e) {
+						// the last line of an interrupted run may be truncated
+						logger.warn("Skipping unreadable line in {}", this.resultsFile);
+					}
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("Failed to read evaluation results from " + this.resultsFile, e);
+			}
+			this.resultsLoaded = true;
+			logger.info("Resuming evaluation with {} verdicts from {}", loaded, this.resultsFile);
+		}
+	}
+
+	private BufferedWriter openResultsWriter() {
+		if (this.resultsFile == null) {
+			return null;
+		}
+		try {
+			return Files.newBufferedWriter(this.resultsFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to open evaluation results file " + this.resultsFile, e);
+		}
+	}
+
+	private void closeResultsWriter(BufferedWriter writer) {
+		if (writer == null) {
+			return;
+		}
+		synchronized (this.resultsFileLock) {
+			try {
+				writer.close();
+			}
+			catch (IOException e) {
+				logger.warn("Failed to close evaluation results file {}", this.resultsFile, e);
+			}
+		}
+	}
+
+	private void appendResult(BufferedWriter writer, String key, EvaluationResponse response) {
+		if (writer == null) {
+			return;
+		}
+		StoredVerdict stored = new StoredVerdict(key, response.isPass(), response.getScore(),
+				response.getFeedback(), response.getMetadata());
+		synchronized (this.resultsFileLock) {
+			try {
+				writer.write(this.objectMapper.writeValueAsString(stored));
+				writer.newLine();
+				// flushed per line, so an interrupted run loses at most the verdict being written
+				writer.flush();
+			}
+			catch (IOException e) {
+				logger.warn("Failed to append evaluation result to {}", this.resultsFile, e);
+			}
+		}
+	}
+
+	private static String evaluatorName(Evaluator evaluator) {
+		return evaluator instanceof LaajEvaluator laajEvaluator ? laajEvaluator.getName()
+				: evaluator.getClass().getName();
+	}
+
+	/**
+	 * Default evaluator id: the name, prompt and chat client builder instance of a
+	 * {@link LaajEvaluator}, the {@code toString()} of an evaluator that overrides it, and
+	 * the instance otherwise.
+	 */
+	static String defaultEvaluatorId(Evaluator evaluator) {
+		String type = evaluator.getClass().getName();
+		if (evaluator instanceof LaajEvaluator laajEvaluator) {
+			// evaluators sharing a prompt may still be judged by different models
+			return type + ':' + laajEvaluator.getName() + ':' + sha256(laajEvaluator.getEvaluationPromptText()) + '@'
+					+ Integer.toHexString(System.identityHashCode(laajEvaluator.getChatClientBuilder()));
+		}
+		try {
+			if (evaluator.getClass().getMethod("toString").getDeclaringClass() != Object.class) {
+				return type + ':' + sha256(evaluator.toString());
+			}
+		}
+		catch (NoSuchMethodException e) {
+			// every class has toString
+		}
+		return type + '@' + Integer.toHexString(System.identityHashCode(evaluator));
+	}
+
+	private static String sha256(String value) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			update(digest, value);
+			return HexFormat.of().formatHex(digest.digest());
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not supported", e);
+		}
+	}
+
+	/**
+	 * SHA-256 over the user text, the response and the supporting documents of a
+	 * request.
+	 */
+	static String requestHash(EvaluationRequest request) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			update(digest, request.getUserText());
+			update(digest, request.getResponseContent());
+			if (request.getDataList() != null) {
+				for (Document document : request.getDataList()) {
+					update(digest, document != null ? document.getText() : null);
+				}
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not supported", e);
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		if (value != null) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+		}
+		// separator, so that ("ab", "c") and ("a", "bc") differ
+		digest.update((byte) 0);
+	}
+
+	private static String errorMessage(Throwable ex) {
+		Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+		return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+	}
+
+	/**
+	 * One line of the results file.
+	 */
+	record StoredVerdict(String key, boolean pass, float score, String feedback, Map<String, Object> metadata) {
+	}
+
+	/**
+	 * Outcome of one evaluator on one sample.
+	 * @param index index of the sample in the dataset
+	 * @param evaluator name of the evaluator
+	 * @param requestHash hash identifying the sample
+	 * @param response the verdict, {@code null} when the evaluation failed
+	 * @param latency time spent in the evaluator, zero for cached verdicts
+	 * @param cached whether the verdict was reused instead of evaluated
+	 * @param error failure message, {@code null} on success
+	 */
+	public record Result(int index, String evaluator, String requestHash, EvaluationResponse response,
+			Duration latency, boolean cached, String error) {
+
+		public boolean isSuccess() {
+			return this.error == null;
+		}
+
+	}
+
+	/**
+	 * Results of a run in dataset order, with aggregates.
+	 */
+	public record Report(List<Result> results, Statistics statistics) {
+
+		/**
+		 * Mean score per evaluator over the successful results.
+		 */
+		public Map<String, Double> meanScores() {
+			Map<String, double[]> sums = new LinkedHashMap<>();
+			for (Result result : this.results) {
+				if (result.isSuccess()) {
+					double[] sum = sums.computeIfAbsent(result.evaluator(), k -> new double[2]);
+					sum[0] += result.response().getScore();
+					sum[1]++;
+				}
+			}
+			Map<String, Double> means = new LinkedHashMap<>();
+			sums.forEach((evaluator, sum) -> means.put(evaluator, sum[0] / sum[1]));
+			return means;
+		}
+
+	}
+
+	/**
+	 * Throughput and latency of a run. Latency percentiles only cover evaluations that
+	 * were not served from the cache.
+	 */
+	public record Statistics(int total, int evaluated, int cached, int failed, int passed, Duration elapsed,
+			double throughputPerSecond, Duration meanLatency, Duration p50Latency, Duration p95Latency,
+			Duration maxLatency) {
+
+		static Statistics of(List<Result> results, Duration elapsed) {
+			int cached = 0;
+			int failed = 0;
+			int passed = 0;
+			long[] latencies = new long[results.size()];
+			int evaluated = 0;
+			for (Result result : results) {
+				if (!result.isSuccess()) {
+					failed++;
+				}
+				else if (result.response().isPass()) {
+					passed++;
+				}
+				if (result.cached()) {
+					cached++;
+				}
+				else {
+					latencies[evaluated++] = result.latency().toNanos();
+				}
+			}
+			long[] sorted = Arrays.copyOf(latencies, evaluated);
+			Arrays.sort(sorted);
+			long sum = 0;
+			for (long latency : sorted) {
+				sum += latency;
+			}
+			double seconds = elapsed.toNanos() / 1_000_000_000.0;
+			return new Statistics(results.size(), evaluated, cached, failed, passed, elapsed,
+					seconds > 0 ? results.size() / seconds : 0, Duration.ofNanos(evaluated > 0 ? sum / evaluated : 0),
+					percentile(sorted, 0.50), percentile(sorted, 0.95),
+					Duration.ofNanos(evaluated > 0 ? sorted[evaluated - 1] : 0));
+		}
+
+		private static Duration percentile(long[] sorted, double percentile) {
+			if (sorted.length == 0) {
+				return Duration.ZERO;
+			}
+			int rank = (int) Math.ceil(percentile * sorted.length) - 1;
+			return Duration.ofNanos(sorted[Math.max(0, Math.min(rank, sorted.length - 1))]);
+		}
+
+	}
+
+	private static final class EvaluationThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "evaluation-runner-" + this.counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+	public static class Builder {
+
+		private int concurrency = 4;
+
+		private Executor executor;
+
+		private Path resultsFile;
+
+		private ObjectMapper objectMapper = new ObjectMapper();
+
+		private Function<? super Evaluator, String> evaluatorId = EvaluationRunner::defaultEvaluatorId;
+
+		private Builder() {
+		}
+
+		/**
+		 * Maximum number of evaluations in flight at once.
+		 */
+		public Builder concurrency(int concurrency) {
+			Assert.isTrue(concurrency > 0, "concurrency must be positive");
+			this.concurrency = concurrency;
+			return this;
+		}
+
+		/**
+		 * Executor running the evaluations. By default each run uses its own pool of
+		 * {@code concurrency} threads.
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * JSON lines file that verdicts are appended to and resumed from.
+		 */
+		public Builder resultsFile(Path resultsFile) {
+			this.resultsFile = resultsFile;
+			return this;
+		}
+
+		public Builder objectMapper(ObjectMapper objectMapper) {
+			Assert.notNull(objectMapper, "objectMapper must not be null");
+			this.objectMapper = objectMapper;
+			return this;
+		}
+
+		/**
+		 * Derives the id that verdicts of an evaluator are cached and resumed under. It
+		 * must change whenever the evaluator's configuration (model, prompt, thresholds)
+		 * changes, and stay stable across runs for resuming to work.
+		 */
+		public Builder evaluatorId(Function<? super Evaluator, String> evaluatorId) {
+			Assert.notNull(evaluatorId, "evaluatorId must not be null");
+			this.evaluatorId = evaluatorId;
+			return this;
+		}
+
+		public EvaluationRunner build() {
+			return new EvaluationRunner(this);
+		}
+
+	}
+
+}
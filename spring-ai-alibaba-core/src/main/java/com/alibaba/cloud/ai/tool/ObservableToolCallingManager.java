@@ -18,13 +18,27 @@ package com.alibaba.cloud.ai.tool;
 import com.alibaba.cloud.ai.tool.observation.ArmsToolCallingObservationContext;
 import com.alibaba.cloud.ai.tool.observation.ArmsToolCallingObservationConvention;
 import com.alibaba.cloud.ai.tool.observation.ArmsToolCallingObservationDocumentation;
+import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +66,16 @@ import org.springframework.util.StringUtils;
 
 /**
  * Inspired from org.springframework.ai.model.tool.DefaultToolCallingManager.
+ * <p>
+ * A single tool call without a timeout runs on the requesting thread; otherwise the
+ * tool calls of an assistant message run concurrently on the tool executor. In both
+ * cases the tool observation is parented to the observation current on the requesting
+ * thread, but no other thread-local state (MDC, security context, ...) is propagated,
+ * so tools should read request state from the {@link ToolContext} only.
+ * <p>
+ * Tool calls made from within a tool running on the tool executor, and tool calls the
+ * tool executor rejects, run on threads created for the request, so that nested calls
+ * cannot deadlock a saturated executor and timeouts hold for every call.
  *
  * @author Lumian
  */
@@ -72,14 +96,30 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 
   private static final ArmsToolCallingObservationConvention DEFAULT_OBSERVATION_CONVENTION = new ArmsToolCallingObservationConvention();
 
+  private static final int DEFAULT_TOOL_EXECUTOR_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+  private static final int DEFAULT_TOOL_EXECUTOR_QUEUE_CAPACITY = 256;
+
   // @formatter:on
 
+	/**
+	 * Set while a thread runs a tool call submitted by this class, to detect nested tool
+	 * calls.
+	 */
+	private static final ThreadLocal<Boolean> RUNNING_TOOL_CALL = new ThreadLocal<>();
+
 	private final ObservationRegistry observationRegistry;
 
 	private final ToolCallbackResolver toolCallbackResolver;
 
 	private final ToolExecutionExceptionProcessor toolExecutionExceptionProcessor;
 
+	private final ExecutorService toolExecutor;
+
+	private final Duration defaultToolTimeout;
+
+	private final Map<String, Duration> toolTimeouts;
+
 	// TODO Mandatory Convention as ARMS implementation until the Spring AI project
 	// officially supports for observation
 	private final ArmsToolCallingObservationConvention observationConvention = DEFAULT_OBSERVATION_CONVENTION;
@@ -87,13 +127,34 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 	public ObservableToolCallingManager(ObservationRegistry observationRegistry,
 			ToolCallbackResolver toolCallbackResolver,
 			ToolExecutionExceptionProcessor toolExecutionExceptionProcessor) {
+		this(observationRegistry, toolCallbackResolver, toolExecutionExceptionProcessor, DefaultToolExecutor.INSTANCE,
+				null, Map.of());
+	}
+
+	/**
+	 * @param toolExecutor executor running the tool calls of one assistant message
+	 * concurrently; it should be bounded, since every tool call of every request is
+	 * submitted to it, and reject tasks when saturated rather than run them on the
+	 * submitting thread, which could not honour the timeout
+	 * @param defaultToolTimeout how long to wait for a tool result, measured from when
+	 * the tool call starts running, or {@code null} to wait indefinitely
+	 * @param toolTimeouts timeouts for individual tools by name, overriding the default
+	 */
+	public ObservableToolCallingManager(ObservationRegistry observationRegistry,
+			ToolCallbackResolver toolCallbackResolver, ToolExecutionExceptionProcessor toolExecutionExceptionProcessor,
+			ExecutorService toolExecutor, Duration defaultToolTimeout, Map<String, Duration> toolTimeouts) {
 		Assert.notNull(observationRegistry, "observationRegistry cannot be null");
 		Assert.notNull(toolCallbackResolver, "toolCallbackResolver cannot be null");
 		Assert.notNull(toolExecutionExceptionProcessor, "toolCallExceptionConverter cannot be null");
+		Assert.notNull(toolExecutor, "toolExecutor cannot be null");
+		Assert.notNull(toolTimeouts, "toolTimeouts cannot be null");
 
 		this.observationRegistry = observationRegistry;
 		this.toolCallbackResolver = toolCallbackResolver;
 		this.toolExecutionExceptionProcessor = toolExecutionExceptionProcessor;
+		this.toolExecutor = toolExecutor;
+		this.defaultToolTimeout = defaultToolTimeout;
+		this.toolTimeouts = Map.copyOf(toolTimeouts);
 	}
 
 	@Override
@@ -101,13 +162,12 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 		Assert.notNull(chatOptions, "chatOptions cannot be null");
 
 		List<ToolCallback> toolCallbacks = new ArrayList<>(chatOptions.getToolCallbacks());
+		Map<String, ToolCallback> toolCallbacksByName = indexByName(chatOptions.getToolCallbacks());
 		for (String toolName : chatOptions.getToolNames()) {
 			// Skip the tool if it is already present in the request toolCallbacks.
 			// That might happen if a tool is defined in the options
 			// both as a ToolCallback and as a tool name.
-			if (chatOptions.getToolCallbacks()
-				.stream()
-				.anyMatch(tool -> tool.getToolDefinition().name().equals(toolName))) {
+			if (toolCallbacksByName.containsKey(toolName)) {
 				continue;
 			}
 			ToolCallback toolCallback = this.toolCallbackResolver.resolve(toolName);
@@ -173,7 +233,8 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 	}
 
 	/**
-	 * Execute the tool call and return the response message.
+	 * Execute the tool calls and return the response message. Independent tool calls run
+	 * concurrently on the tool executor; responses keep the order of the tool calls.
 	 */
 	private InternalToolExecutionResult executeToolCall(Prompt prompt, AssistantMessage assistantMessage,
 			ToolContext toolContext) {
@@ -181,25 +242,25 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 		if (prompt.getOptions() instanceof ToolCallingChatOptions toolCallingChatOptions) {
 			toolCallbacks = toolCallingChatOptions.getToolCallbacks();
 		}
+		Map<String, ToolCallback> toolCallbacksByName = indexByName(toolCallbacks);
 
-		List<ToolResponseMessage.ToolResponse> toolResponses = new ArrayList<>();
+		List<AssistantMessage.ToolCall> toolCalls = assistantMessage.getToolCalls();
+		List<PendingToolCall> pendingToolCalls = new ArrayList<>(toolCalls.size());
 
 		Boolean returnDirect = null;
 
-		for (AssistantMessage.ToolCall toolCall : assistantMessage.getToolCalls()) {
-
-			logger.debug("Executing tool call: {}", toolCall.name());
-
+		// Resolve every tool before running any of them, so an unknown tool fails the
+		// whole request without side effects.
+		for (AssistantMessage.ToolCall toolCall : toolCalls) {
 			String toolName = toolCall.name();
-			String toolInputArguments = toolCall.arguments();
-
-			ToolCallback toolCallback = toolCallbacks.stream()
-				.filter(tool -> toolName.equals(tool.getToolDefinition().name()))
-				.findFirst()
-				.orElseGet(() -> this.toolCallbackResolver.resolve(toolName));
 
+			ToolCallback toolCallback = toolCallbacksByName.get(toolName);
 			if (toolCallback == null) {
-				throw new IllegalStateException("No ToolCallback found for tool name: " + toolName);
+				toolCallback = this.toolCallbackResolver.resolve(toolName);
+				if (toolCallback == null) {
+					throw new IllegalStateException("No ToolCallback found for tool name: " + toolName);
+				}
+				toolCallbacksByName.put(toolName, toolCallback);
 			}
 
 			if (returnDirect == null) {
@@ -215,27 +276,136 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 				.returnDirect(returnDirect)
 				.build();
 
-			String toolResult = ArmsToolCallingObservationDocumentation.EXECUTE_TOOL_OPERATION
-				.observation(this.observationConvention, DEFAULT_OBSERVATION_CONVENTION, () -> observationContext,
-						this.observationRegistry)
-				.observe(() -> {
-					String result;
-					try {
-						result = toolCallback.call(toolInputArguments, toolContext);
+			pendingToolCalls.add(new PendingToolCall(toolCall, toolCallback, observationContext,
+					this.toolTimeouts.getOrDefault(toolName, this.defaultToolTimeout)));
+		}
+
+		Observation parentObservation = this.observationRegistry.getCurrentObservation();
+		List<ToolResponseMessage.ToolResponse> toolResponses = new ArrayList<>(pendingToolCalls.size());
+
+		if (pendingToolCalls.size() == 1 && pendingToolCalls.get(0).timeout() == null) {
+			PendingToolCall pendingToolCall = pendingToolCalls.get(0);
+			toolResponses
+				.add(toToolResponse(pendingToolCall, observeToolCall(pendingToolCall, toolContext, parentObservation)));
+		}
+		else {
+			// a tool calling back into the shared executor could wait forever for a
+			// thread held by itself or its siblings
+			boolean nested = RUNNING_TOOL_CALL.get() != null;
+			ExecutorService requestExecutor = null;
+			List<ToolCallTask> tasks = new ArrayList<>(pendingToolCalls.size());
+			try {
+				for (PendingToolCall pendingToolCall : pendingToolCalls) {
+					ToolCallTask task = new ToolCallTask(
+							() -> observeToolCall(pendingToolCall, toolContext, parentObservation));
+					tasks.add(task);
+					if (!nested) {
+						try {
+							this.toolExecutor.execute(task);
+							continue;
+						}
+						catch (RejectedExecutionException ex) {
+							logger.debug("Tool executor saturated, running tool call {} on a request thread",
+									pendingToolCall.toolCall().name());
+						}
 					}
-					catch (ToolExecutionException ex) {
-						observationContext.setError(ex);
-						result = toolExecutionExceptionProcessor.process(ex);
+					if (requestExecutor == null) {
+						requestExecutor = newRequestExecutor();
 					}
+					requestExecutor.execute(task);
+				}
+				for (int i = 0; i < pendingToolCalls.size(); i++) {
+					PendingToolCall pendingToolCall = pendingToolCalls.get(i);
+					toolResponses
+						.add(toToolResponse(pendingToolCall, awaitToolResult(pendingToolCall, tasks.get(i), tasks)));
+				}
+			}
+			finally {
+				if (requestExecutor != null) {
+					requestExecutor.shutdown();
+				}
+			}
+		}
 
-					observationContext.setToolResult(result);
-					return result;
-				});
+		return new InternalToolExecutionResult(new ToolResponseMessage(toolResponses, Map.of()), returnDirect);
+	}
 
-			toolResponses.add(new ToolResponseMessage.ToolResponse(toolCall.id(), toolName, toolResult));
+	private static Map<String, ToolCallback> indexByName(List<ToolCallback> toolCallbacks) {
+		Map<String, ToolCallback> toolCallbacksByName = new HashMap<>(toolCallbacks.size() * 2);
+		for (ToolCallback toolCallback : toolCallbacks) {
+			// the first callback registered under a name wins, as with a linear search
+			toolCallbacksByName.putIfAbsent(toolCallback.getToolDefinition().name(), toolCallback);
 		}
+		return toolCallbacksByName;
+	}
 
-		return new InternalToolExecutionResult(new ToolResponseMessage(toolResponses, Map.of()), returnDirect);
+	private String observeToolCall(PendingToolCall pendingToolCall, ToolContext toolContext,
+			Observation parentObservation) {
+		logger.debug("Executing tool call: {}", pendingToolCall.toolCall().name());
+
+		ArmsToolCallingObservationContext observationContext = pendingToolCall.observationContext();
+		return ArmsToolCallingObservationDocumentation.EXECUTE_TOOL_OPERATION
+			.observation(this.observationConvention, DEFAULT_OBSERVATION_CONVENTION, () -> observationContext,
+					this.observationRegistry)
+			.parentObservation(parentObservation)
+			.observe(() -> {
+				long startNanos = System.nanoTime();
+				String result;
+				try {
+					result = pendingToolCall.toolCallback().call(pendingToolCall.toolCall().arguments(), toolContext);
+				}
+				catch (ToolExecutionException ex) {
+					observationContext.setError(ex);
+					result = toolExecutionExceptionProcessor.process(ex);
+				}
+				finally {
+					observationContext.setDuration(Duration.ofNanos(System.nanoTime() - startNanos));
+				}
+
+				observationContext.setToolResult(result);
+				return result;
+			});
+	}
+
+	private String awaitToolResult(PendingToolCall pendingToolCall, ToolCallTask task, List<ToolCallTask> allTasks) {
+		try {
+			if (pendingToolCall.timeout() == null) {
+				return task.get();
+			}
+			// time spent queued behind other tool calls does not count against the timeout
+			long remainingNanos = pendingToolCall.timeout().toNanos() - task.awaitStart();
+			return task.get(Math.max(0L, remainingNanos), TimeUnit.NANOSECONDS);
+		}
+		catch (TimeoutException ex) {
+			task.cancel(true);
+			String toolName = pendingToolCall.toolCall().name();
+			logger.warn("Tool call {} timed out after {}", toolName, pendingToolCall.timeout());
+			ToolExecutionException timeout = new ToolExecutionException(
+					pendingToolCall.toolCallback().getToolDefinition(),
+					new TimeoutException("Tool " + toolName + " did not complete within " + pendingToolCall.timeout()));
+			pendingToolCall.observationContext().setError(timeout);
+			return toolExecutionExceptionProcessor.process(timeout);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			allTasks.forEach(t -> t.cancel(true));
+			throw new IllegalStateException("Interrupted while executing tool calls", ex);
+		}
+		catch (ExecutionException ex) {
+			allTasks.forEach(t -> t.cancel(true));
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (ex.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException(ex.getCause());
+		}
+	}
+
+	private static ToolResponseMessage.ToolResponse toToolResponse(PendingToolCall pendingToolCall, String toolResult) {
+		AssistantMessage.ToolCall toolCall = pendingToolCall.toolCall();
+		return new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), toolResult);
 	}
 
 	/**
@@ -285,6 +455,87 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 	private record InternalToolExecutionResult(ToolResponseMessage toolResponseMessage, boolean returnDirect) {
 	}
 
+	private record PendingToolCall(AssistantMessage.ToolCall toolCall, ToolCallback toolCallback,
+			ArmsToolCallingObservationContext observationContext, Duration timeout) {
+	}
+
+	/**
+	 * Creates the executor for the tool calls of one request that cannot go to the tool
+	 * executor. It only ever holds the tool calls of one assistant message.
+	 */
+	private static ExecutorService newRequestExecutor() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "tool-call-request-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * A tool call that records when it starts running, so its timeout excludes the time
+	 * spent waiting for an executor thread.
+	 */
+	private static final class ToolCallTask extends FutureTask<String> {
+
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		private volatile long startNanos;
+
+		private ToolCallTask(Callable<String> callable) {
+			super(callable);
+		}
+
+		@Override
+		public void run() {
+			this.startNanos = System.nanoTime();
+			this.started.countDown();
+			boolean outermost = RUNNING_TOOL_CALL.get() == null;
+			RUNNING_TOOL_CALL.set(Boolean.TRUE);
+			try {
+				super.run();
+			}
+			finally {
+				if (outermost) {
+					RUNNING_TOOL_CALL.remove();
+				}
+			}
+		}
+
+		/**
+		 * Waits until the tool call starts running.
+		 * @return nanoseconds elapsed since it started
+		 */
+		private long awaitStart() throws InterruptedException {
+			this.started.await();
+			return System.nanoTime() - this.startNanos;
+		}
+
+	}
+
+	/**
+	 * Shared bounded pool used when no tool executor is configured. When it is saturated
+	 * tool calls are rejected and run on request threads instead.
+	 */
+	private static final class DefaultToolExecutor {
+
+		private static final ExecutorService INSTANCE = createToolExecutor();
+
+		private static ExecutorService createToolExecutor() {
+			AtomicInteger threadNumber = new AtomicInteger();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_TOOL_EXECUTOR_THREADS,
+					DEFAULT_TOOL_EXECUTOR_THREADS, 60L, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(DEFAULT_TOOL_EXECUTOR_QUEUE_CAPACITY), runnable -> {
+						Thread thread = new Thread(runnable, "tool-call-" + threadNumber.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}, new ThreadPoolExecutor.AbortPolicy());
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
+		}
+
+	}
+
 	public static ObservableToolCallingManager.Builder builder() {
 		return new ObservableToolCallingManager.Builder();
 	}
@@ -297,6 +548,12 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 
 		private ToolExecutionExceptionProcessor toolExecutionExceptionProcessor = DEFAULT_TOOL_EXECUTION_EXCEPTION_PROCESSOR;
 
+		private ExecutorService toolExecutor;
+
+		private Duration defaultToolTimeout;
+
+		private final Map<String, Duration> toolTimeouts = new HashMap<>();
+
 		private Builder() {
 		}
 
@@ -316,9 +573,25 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 			return this;
 		}
 
+		public ObservableToolCallingManager.Builder toolExecutor(ExecutorService toolExecutor) {
+			this.toolExecutor = toolExecutor;
+			return this;
+		}
+
+		public ObservableToolCallingManager.Builder defaultToolTimeout(Duration defaultToolTimeout) {
+			this.defaultToolTimeout = defaultToolTimeout;
+			return this;
+		}
+
+		public ObservableToolCallingManager.Builder toolTimeout(String toolName, Duration timeout) {
+			this.toolTimeouts.put(toolName, timeout);
+			return this;
+		}
+
 		public ObservableToolCallingManager build() {
 			return new ObservableToolCallingManager(observationRegistry, toolCallbackResolver,
-					toolExecutionExceptionProcessor);
+					toolExecutionExceptionProcessor, toolExecutor != null ? toolExecutor : DefaultToolExecutor.INSTANCE,
+					defaultToolTimeout, toolTimeouts);
 		}
 
 	}
@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.tool.observation;
 
 import io.micrometer.observation.Observation.Context;
+import java.time.Duration;
 import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
 import org.springframework.util.Assert;
 
@@ -29,6 +30,8 @@ public class ArmsToolCallingObservationContext extends Context {
 
 	private String toolResult;
 
+	private Duration duration;
+
 	public static Builder builder() {
 		return new Builder();
 	}
@@ -53,6 +56,17 @@ public class ArmsToolCallingObservationContext extends Context {
 		return toolResult;
 	}
 
+	/**
+	 * Time spent inside the tool callback, excluding queueing on the tool executor.
+	 */
+	public Duration getDuration() {
+		return duration;
+	}
+
+	public void setDuration(Duration duration) {
+		this.duration = duration;
+	}
+
 	public ArmsToolCallingObservationContext(ToolCall toolCall, String description, boolean returnDirect) {
 		Assert.notNull(toolCall, "toolCall cannot be null");
 		this.toolCall = toolCall;
@@ -77,6 +77,7 @@ public class ArmsToolCallingObservationConvention implements ObservationConventi
 		// Response
 		keyValues = returnDirect(keyValues, context);
 		keyValues = outputValue(keyValues, context);
+		keyValues = toolDuration(keyValues, context);
 		return keyValues;
 	}
 
@@ -124,4 +125,12 @@ public class ArmsToolCallingObservationConvention implements ObservationConventi
 		return keyValues;
 	}
 
+	protected KeyValues toolDuration(KeyValues keyValues, ArmsToolCallingObservationContext context) {
+		if (context.getDuration() != null) {
+			return keyValues.and(HighCardinalityKeyNames.TOOL_DURATION.asString(),
+					String.valueOf(context.getDuration().toMillis()));
+		}
+		return keyValues;
+	}
+
 }
@@ -70,6 +70,8 @@ public enum ArmsToolCallingObservationDocumentation implements ObservationDocume
 
 	public static final String OUTPUT_VALUE = "output.value";
 
+	public static final String TOOL_DURATION = "tool.duration.ms";
+
 	/**
 	 * Low-cardinality observation key names for execute tool operations.
 	 */
@@ -192,6 +194,16 @@ public enum ArmsToolCallingObservationDocumentation implements ObservationDocume
 			public String asString() {
 				return ArmsToolCallingObservationDocumentation.OUTPUT_VALUE;
 			}
+		},
+
+		/**
+		 * Time spent executing the tool, in milliseconds.
+		 */
+		TOOL_DURATION {
+			@Override
+			public String asString() {
+				return ArmsToolCallingObservationDocumentation.TOOL_DURATION;
+			}
 		}
 
 	}
@@ -21,6 +21,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import com.knuddels.jtokkit.Encodings;
 import com.knuddels.jtokkit.api.Encoding;
@@ -29,6 +30,7 @@ import com.knuddels.jtokkit.api.EncodingType;
 import opennlp.tools.sentdetect.SentenceDetectorME;
 import opennlp.tools.sentdetect.SentenceModel;
 
+import org.springframework.ai.document.Document;
 import org.springframework.ai.transformer.splitter.TextSplitter;
 import org.springframework.util.Assert;
 
@@ -42,56 +44,100 @@ import org.springframework.util.Assert;
 
 public class SentenceSplitter extends TextSplitter {
 
-	private final EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+	private static final EncodingRegistry REGISTRY = Encodings.newLazyEncodingRegistry();
 
-	private final Encoding encoding = registry.getEncoding(EncodingType.CL100K_BASE);
+	private static final Encoding ENCODING = REGISTRY.getEncoding(EncodingType.CL100K_BASE);
 
 	private static final int DEFAULT_CHUNK_SIZE = 1024;
 
-	private final SentenceModel sentenceModel;
+	/**
+	 * The sentence model is immutable and thread-safe, so it is loaded once. The detector
+	 * built on it keeps per-call state and is therefore kept per thread.
+	 */
+	private static volatile SentenceModel sharedSentenceModel;
+
+	private static final ThreadLocal<SentenceDetectorME> SENTENCE_DETECTOR = ThreadLocal
+		.withInitial(() -> new SentenceDetectorME(loadSentenceModel()));
 
 	private final int chunkSize;
 
+	private boolean parallel = true;
+
 	public SentenceSplitter() {
 		this(DEFAULT_CHUNK_SIZE);
 	}
 
 	public SentenceSplitter(int chunkSize) {
 		this.chunkSize = chunkSize;
-		this.sentenceModel = getSentenceModel();
+		loadSentenceModel();
+	}
+
+	/**
+	 * Whether {@link #apply(List)} splits the documents of a list in parallel. Chunks are
+	 * returned in document order either way.
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	@Override
+	public List<Document> apply(List<Document> documents) {
+		if (!this.parallel || documents.size() < 2) {
+			return super.apply(documents);
+		}
+		return documents.parallelStream()
+			.map(document -> super.apply(List.of(document)))
+			.flatMap(List::stream)
+			.collect(Collectors.toList());
 	}
 
+	/**
+	 * Greedily packs sentences into chunks of at most {@code chunkSize} tokens. Each
+	 * sentence is encoded once and the chunk size is the sum of its sentence counts, so
+	 * the cost is linear in the text length.
+	 */
 	@Override
 	protected List<String> splitText(String text) {
-		SentenceDetectorME sentenceDetector = new SentenceDetectorME(sentenceModel);
-		String[] texts = sentenceDetector.sentDetect(text);
+		String[] texts = SENTENCE_DETECTOR.get().sentDetect(text);
 		if (texts == null || texts.length == 0) {
 			return Collections.emptyList();
 		}
 
 		List<String> chunks = new ArrayList<>();
 		StringBuilder chunk = new StringBuilder();
-		for (int i = 0; i < texts.length; i++) {
-			int currentChunkSize = getEncodedTokens(chunk.toString()).size();
-			int textTokenSize = getEncodedTokens(texts[i]).size();
-			if (currentChunkSize + textTokenSize > chunkSize) {
-				chunks.add(chunk.toString());
-				chunk = new StringBuilder(texts[i]);
-			}
-			else {
-				chunk.append(texts[i]);
-			}
-
-			if (i == texts.length - 1) {
+		int currentChunkSize = 0;
+		for (String sentence : texts) {
+			int textTokenSize = countTokens(sentence);
+			if (currentChunkSize + textTokenSize > chunkSize && chunk.length() > 0) {
 				chunks.add(chunk.toString());
+				chunk.setLength(0);
+				currentChunkSize = 0;
 			}
+			chunk.append(sentence);
+			currentChunkSize += textTokenSize;
 		}
+		chunks.add(chunk.toString());
 
 		return chunks;
 	}
 
-	private SentenceModel getSentenceModel() {
-		try (InputStream is = getClass().getResourceAsStream("/opennlp/opennlp-en-ud-ewt-sentence-1.2-2.5.0.bin")) {
+	private static SentenceModel loadSentenceModel() {
+		SentenceModel model = sharedSentenceModel;
+		if (model == null) {
+			synchronized (SentenceSplitter.class) {
+				model = sharedSentenceModel;
+				if (model == null) {
+					model = readSentenceModel();
+					sharedSentenceModel = model;
+				}
+			}
+		}
+		return model;
+	}
+
+	private static SentenceModel readSentenceModel() {
+		try (InputStream is = SentenceSplitter.class
+			.getResourceAsStream("/opennlp/opennlp-en-ud-ewt-sentence-1.2-2.5.0.bin")) {
 			if (is == null) {
 				throw new RuntimeException("sentence model is invalid");
 			}
@@ -103,9 +149,9 @@ public class SentenceSplitter extends TextSplitter {
 		}
 	}
 
-	private List<Integer> getEncodedTokens(String text) {
+	private static int countTokens(String text) {
 		Assert.notNull(text, "Text must not be null");
-		return this.encoding.encode(text).boxed();
+		return ENCODING.countTokens(text);
 	}
 
 }
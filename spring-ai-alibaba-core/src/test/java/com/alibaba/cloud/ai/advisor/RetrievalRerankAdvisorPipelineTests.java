@@ -0,0 +1,223 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.advisor;
+
+import com.alibaba.cloud.ai.document.DocumentWithScore;
+import com.alibaba.cloud.ai.model.RerankModel;
+import com.alibaba.cloud.ai.model.RerankRequest;
+import com.alibaba.cloud.ai.model.RerankResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the asynchronous retrieve-then-rerank pipeline of
+ * {@link RetrievalRerankAdvisor}, using an in-memory {@link SimpleVectorStore} and a stub
+ * rerank model.
+ */
+class RetrievalRerankAdvisorPipelineTests {
+
+	private static final String USER_TEXT = "spring ai alibaba";
+
+	private SimpleVectorStore vectorStore;
+
+	private final List<RerankRequest> rerankRequests = new CopyOnWriteArrayList<>();
+
+	private final RerankModel rerankModel = request -> {
+		rerankRequests.add(request);
+		List<DocumentWithScore> results = new ArrayList<>();
+		List<Document> documents = request.getInstructions();
+		for (int i = 0; i < documents.size(); i++) {
+			// reverse the retrieval order so reranking is observable
+			results.add(DocumentWithScore.builder().withDocument(documents.get(i)).withScore(0.2 + 0.1 * i).build());
+		}
+		return new RerankResponse(results);
+	};
+
+	private RetrievalRerankAdvisor advisor;
+
+	@BeforeEach
+	void setUp() {
+		vectorStore = SimpleVectorStore.builder(new LetterEmbeddingModel()).build();
+		vectorStore.add(List.of(new Document("doc-1", "spring ai alibaba framework", Map.of()),
+				new Document("doc-2", "alibaba cloud model service", Map.of()),
+				new Document("doc-3", "spring boot auto configuration", Map.of()),
+				new Document("doc-4", "vector store retrieval", Map.of())));
+		advisor = new RetrievalRerankAdvisor(vectorStore, rerankModel, SearchRequest.builder().topK(2).build());
+	}
+
+	@Test
+	void expandedQueriesAreRetrievedInParallelAndDeduplicated() {
+		AtomicInteger expansions = new AtomicInteger();
+		advisor.setQueryExpander(query -> {
+			expansions.incrementAndGet();
+			return List.of(new Query(query.text()), new Query("alibaba cloud model"), new Query("spring boot"));
+		});
+
+		ChatClientRequest augmented = advisor.before(request(), null);
+
+		assertThat(expansions).hasValue(1);
+		assertThat(rerankRequests).hasSize(1);
+		List<String> candidateIds = rerankRequests.get(0).getInstructions().stream().map(Document::getId).toList();
+		assertThat(candidateIds).doesNotHaveDuplicates();
+		assertThat(candidateIds).contains("doc-1", "doc-2", "doc-3");
+		assertThat(augmented.prompt().getUserMessage().getText()).contains("spring ai alibaba framework",
+				"alibaba cloud model service");
+	}
+
+	@Test
+	void rerankResultIsCachedForSameQueryAndCandidates() {
+		ChatClientRequest first = advisor.before(request(), null);
+		ChatClientRequest second = advisor.before(request(), null);
+
+		assertThat(rerankRequests).hasSize(1);
+		assertThat(second.prompt().getUserMessage().getText()).isEqualTo(first.prompt().getUserMessage().getText());
+
+		advisor.setRerankCache(Duration.ofMinutes(1), 0);
+		advisor.before(request(), null);
+		assertThat(rerankRequests).hasSize(2);
+	}
+
+	@Test
+	void changedDocumentTextIsReranked() {
+		advisor.before(request(), null);
+		vectorStore.add(List.of(new Document("doc-1", "spring ai alibaba framework updated", Map.of())));
+
+		ChatClientRequest augmented = advisor.before(request(), null);
+
+		assertThat(rerankRequests).hasSize(2);
+		assertThat(augmented.prompt().getUserMessage().getText()).contains("spring ai alibaba framework updated");
+	}
+
+	@Test
+	void expiredRerankResultIsRecomputed() throws InterruptedException {
+		advisor.setRerankCache(Duration.ofMillis(20), 16);
+
+		advisor.before(request(), null);
+		Thread.sleep(50);
+		advisor.before(request(), null);
+
+		assertThat(rerankRequests).hasSize(2);
+	}
+
+	@Test
+	void streamStartsAfterRerankWithoutBlockingReactorThreads() {
+		List<String> retrievalThreads = new CopyOnWriteArrayList<>();
+		advisor.setExecutor(task -> Schedulers.boundedElastic().schedule(() -> {
+			retrievalThreads.add(Thread.currentThread().getName());
+			task.run();
+		}));
+		StreamAdvisorChain chain = Mockito.mock(StreamAdvisorChain.class);
+		when(chain.nextStream(any())).thenAnswer(invocation -> {
+			ChatClientRequest augmented = invocation.getArgument(0);
+			assertThat(augmented.prompt().getUserMessage().getText()).contains("Context information");
+			return Flux.just(response("partial", null, augmented), response("done", "STOP", augmented));
+		});
+
+		StepVerifier.create(advisor.adviseStream(request(), chain).subscribeOn(Schedulers.parallel()))
+			.assertNext(response -> assertThat(
+					response.chatResponse().getMetadata().containsKey(RetrievalRerankAdvisor.RETRIEVED_DOCUMENTS))
+				.isFalse())
+			.assertNext(response -> assertThat(
+					(List<?>) response.chatResponse().getMetadata().get(RetrievalRerankAdvisor.RETRIEVED_DOCUMENTS))
+				.isNotEmpty())
+			.verifyComplete();
+
+		assertThat(rerankRequests).hasSize(1);
+		assertThat(retrievalThreads).isNotEmpty().allSatisfy(name -> assertThat(name).startsWith("boundedElastic"));
+	}
+
+	private static ChatClientRequest request() {
+		return ChatClientRequest.builder().prompt(new Prompt(USER_TEXT)).context(new HashMap<>()).build();
+	}
+
+	private static ChatClientResponse response(String text, String finishReason, ChatClientRequest request) {
+		ChatGenerationMetadata metadata = finishReason == null ? ChatGenerationMetadata.NULL
+				: ChatGenerationMetadata.builder().finishReason(finishReason).build();
+		return ChatClientResponse.builder()
+			.chatResponse(new ChatResponse(List.of(new Generation(new AssistantMessage(text), metadata))))
+			.context(request.context())
+			.build();
+	}
+
+	/**
+	 * Embeds text as letter frequencies, enough for deterministic similarity search.
+	 */
+	private static final class LetterEmbeddingModel implements EmbeddingModel {
+
+		private static final Set<Character> VOWELS = Set.of('a', 'e', 'i', 'o', 'u');
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			List<Embedding> embeddings = new ArrayList<>();
+			for (int i = 0; i < request.getInstructions().size(); i++) {
+				embeddings.add(new Embedding(embed(request.getInstructions().get(i)), i));
+			}
+			return new EmbeddingResponse(embeddings);
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return embed(document.getText());
+		}
+
+		@Override
+		public float[] embed(String text) {
+			float[] vector = new float[27];
+			for (char c : text.toLowerCase().toCharArray()) {
+				if (c >= 'a' && c <= 'z') {
+					vector[c - 'a'] += VOWELS.contains(c) ? 0.5f : 1f;
+				}
+			}
+			vector[26] = 0.01f;
+			return vector;
+		}
+
+	}
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.api;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionMessage;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionRequest;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionRequestInput;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.EmbeddingList;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.EmbeddingRequest;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeRateLimiter;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeRateLimiter.Priority;
+import com.alibaba.cloud.ai.dashscope.common.TokenBucketRateLimiter;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for client-side rate limiting of {@link DashScopeApi} against a stub server that
+ * throttles bursts above its quota.
+ */
+class DashScopeApiRateLimitTests {
+
+	private static final String EMBEDDING_BODY = """
+			{"request_id":"r1","output":{"embeddings":[{"text_index":0,"embedding":[0.1,0.2]}]},"usage":{"total_tokens":2}}
+			""";
+
+	private MockWebServer server;
+
+	/** Quota of the stub server: requests accepted per sliding window. */
+	private volatile int quota = 5;
+
+	private final Deque<Long> accepted = new ConcurrentLinkedDeque<>();
+
+	private final AtomicInteger throttled = new AtomicInteger();
+
+	private final AtomicInteger forcedThrottles = new AtomicInteger();
+
+	private final ExecutorService callers = Executors.newFixedThreadPool(4);
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = new MockWebServer();
+		server.setDispatcher(new Dispatcher() {
+			@Override
+			public MockResponse dispatch(RecordedRequest request) {
+				if (forcedThrottles.getAndUpdate(n -> Math.max(0, n - 1)) > 0 || !admit()) {
+					throttled.incrementAndGet();
+					return new MockResponse().setResponseCode(429)
+						.setHeader(HttpHeaders.RETRY_AFTER, "1")
+						.setBody("{\"code\":\"Throttling\",\"message\":\"Requests rate limit exceeded\"}");
+				}
+				return new MockResponse().setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+					.setBody(EMBEDDING_BODY);
+			}
+		});
+		server.start();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		callers.shutdownNow();
+		server.shutdown();
+	}
+
+	@Test
+	void burstWithinClientLimitIsNotThrottled() throws Exception {
+		// the server accepts 5 requests per 500 ms, the client sends at most 8 per second
+		DashScopeApi api = api(TokenBucketRateLimiter.builder().defaultLimits(8, 0).build());
+
+		List<CompletableFuture<EmbeddingList>> calls = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			calls.add(CompletableFuture.supplyAsync(() -> api.embeddings(new EmbeddingRequest("text")).getBody(),
+					callers));
+		}
+		CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+		assertThat(calls).allSatisfy(call -> assertThat(call.join().output().embeddings()).hasSize(1));
+		assertThat(throttled).hasValue(0);
+	}
+
+	@Test
+	void burstWithoutLimiterIsThrottled() {
+		DashScopeApi api = api(null);
+
+		List<CompletableFuture<EmbeddingList>> calls = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			calls.add(CompletableFuture.supplyAsync(() -> api.embeddings(new EmbeddingRequest("text")).getBody(),
+					callers));
+		}
+
+		assertThatThrownBy(() -> CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join())
+			.hasCauseInstanceOf(NonTransientAiException.class);
+		assertThat(throttled.get()).isPositive();
+	}
+
+	@Test
+	void throttledResponseSlowsDownFollowingCalls() {
+		TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().defaultLimits(50, 0).build();
+		DashScopeApi api = api(limiter);
+		forcedThrottles.set(1);
+
+		assertThatThrownBy(() -> api.embeddings(new EmbeddingRequest("text")))
+			.isInstanceOf(NonTransientAiException.class);
+		assertThat(limiter.rateFactor(DashScopeApi.DEFAULT_EMBEDDING_MODEL)).isEqualTo(0.5);
+
+		long start = System.nanoTime();
+		assertThat(api.embeddings(new EmbeddingRequest("text")).getBody()).isNotNull();
+		// Retry-After: 1 is honoured before the next request goes out
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(900));
+		assertThat(throttled).hasValue(1);
+	}
+
+	@Test
+	void modelCallsCarryModelPriorityAndTokenEstimate() {
+		RecordingRateLimiter limiter = new RecordingRateLimiter();
+		DashScopeApi api = api(limiter);
+
+		api.embeddings(new EmbeddingRequest(List.of("first text", "second text"), "text-embedding-v3"));
+
+		assertThat(limiter.acquired).containsExactly("text-embedding-v3:BATCH:6");
+		assertThat(limiter.responses).containsExactly("text-embedding-v3:200");
+	}
+
+	@Test
+	void singleQueryEmbeddingIsInteractiveUnlessCallerSetsPriority() {
+		RecordingRateLimiter limiter = new RecordingRateLimiter();
+		DashScopeApi api = api(limiter);
+
+		api.embeddings(new EmbeddingRequest("first text", "text-embedding-v3", "query"));
+		api.embeddings(new EmbeddingRequest("first text", "text-embedding-v3", "query"), Priority.BATCH);
+
+		assertThat(limiter.acquired).containsExactly("text-embedding-v3:INTERACTIVE:3",
+				"text-embedding-v3:BATCH:3");
+	}
+
+	@Test
+	void streamingCallIsLimitedAndReportsThrottling() {
+		RecordingRateLimiter limiter = new RecordingRateLimiter();
+		DashScopeApi api = api(limiter);
+		forcedThrottles.set(1);
+		ChatCompletionRequest request = new ChatCompletionRequest("qwen-plus", new ChatCompletionRequestInput(
+				List.of(new ChatCompletionMessage("你好，介绍一下你自己", ChatCompletionMessage.Role.USER))), true);
+
+		assertThatThrownBy(() -> api.chatCompletionStream(request, new LinkedMultiValueMap<>()).blockLast())
+			.isInstanceOf(WebClientResponseException.TooManyRequests.class);
+		assertThat(limiter.acquired).containsExactly("qwen-plus:INTERACTIVE:10");
+		assertThat(limiter.responses).containsExactly("qwen-plus:429");
+	}
+
+	@Test
+	void mutatedApiKeepsSingleLimiter() {
+		RecordingRateLimiter limiter = new RecordingRateLimiter();
+		DashScopeApi api = api(limiter).mutate().build();
+
+		api.embeddings(new EmbeddingRequest("text"));
+
+		assertThat(limiter.acquired).hasSize(1);
+	}
+
+	private DashScopeApi api(DashScopeRateLimiter rateLimiter) {
+		return DashScopeApi.builder()
+			.apiKey("test-key")
+			.baseUrl(server.url("/").toString())
+			.rateLimiter(rateLimiter)
+			.build();
+	}
+
+	private boolean admit() {
+		synchronized (accepted) {
+			long now = System.nanoTime();
+			while (!accepted.isEmpty() && now - accepted.peekFirst() > TimeUnit.MILLISECONDS.toNanos(500)) {
+				accepted.pollFirst();
+			}
+			if (accepted.size() >= quota) {
+				return false;
+			}
+			accepted.addLast(now);
+			return true;
+		}
+	}
+
+	private static final class RecordingRateLimiter implements DashScopeRateLimiter {
+
+		private final List<String> acquired = new CopyOnWriteArrayList<>();
+
+		private final List<String> responses = new CopyOnWriteArrayList<>();
+
+		@Override
+		public CompletableFuture<Void> acquire(String model, int estimatedTokens, Priority priority) {
+			acquired.add(model + ":" + priority + ":" + estimatedTokens);
+			return CompletableFuture.completedFuture(null);
+		}
+
+		@Override
+		public void onResponse(String model, int statusCode, HttpHeaders headers) {
+			responses.add(model + ":" + statusCode);
+		}
+
+	}
+
+}
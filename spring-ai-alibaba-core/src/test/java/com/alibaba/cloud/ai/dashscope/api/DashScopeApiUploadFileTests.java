@@ -87,8 +87,6 @@ class DashScopeApiUploadFileTests {
 
 		mockUploadLeaseResponse = new DashScopeApi.UploadLeaseResponse("SUCCESS", "success", responseData);
 
-		dashScopeApi = DashScopeApi.builder().apiKey("test-api-key").build();
-
 		mockCall = Mockito.mock(Call.class);
 		mockResponse = Mockito.mock(Response.class);
 	}
@@ -103,6 +101,7 @@ class DashScopeApiUploadFileTests {
 				(mockOkHttpClient, context) -> {
 					when(mockOkHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
 				})) {
+			dashScopeApi = DashScopeApi.builder().apiKey("test-api-key").build();
 			when(mockCall.execute()).thenReturn(mockResponse);
 			when(mockResponse.isSuccessful()).thenReturn(true);
 
@@ -140,6 +139,7 @@ class DashScopeApiUploadFileTests {
 				(mockOkHttpClient, context) -> {
 					when(mockOkHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
 				})) {
+			dashScopeApi = DashScopeApi.builder().apiKey("test-api-key").build();
 			when(mockCall.execute()).thenReturn(mockResponse);
 			when(mockResponse.isSuccessful()).thenReturn(true);
 
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionChunk;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionFinishReason;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionMessage.ToolCall;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import reactor.core.publisher.Flux;
+
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEventHttpMessageReader;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.mock.http.client.reactive.MockClientHttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link DashScopeSseChunkDecoder} and {@link DashScopeStreamChunkAccumulator}
+ * replaying recorded DashScope streams. Results are compared with the previous
+ * {@code String} based pipeline that windowed and reduced chunks with
+ * {@link DashScopeAiStreamFunctionCallingHelper}.
+ */
+class DashScopeSseChunkDecoderTests {
+
+	@ParameterizedTest
+	@CsvSource({ "chat-stream-text.sse, true", "chat-stream-text.sse, false", "chat-stream-tool-call.sse, true",
+			"chat-stream-tool-call.sse, false" })
+	void decodesRecordedStreamsLikeStringPipeline(String resource, boolean incrementalOutput) throws IOException {
+		String stream = load(resource);
+		List<ChatCompletionChunk> expected = legacyPipeline(dataPayloads(stream), incrementalOutput).collectList()
+			.block();
+
+		Random random = new Random(42);
+		for (String variant : List.of(stream, stream.replace("\n", "\r\n"))) {
+			for (int maxSplit : new int[] { 1, 7, 64, Integer.MAX_VALUE }) {
+				List<ChatCompletionChunk> actual = DashScopeApi
+					.decodeChatCompletionStream(split(variant.getBytes(StandardCharsets.UTF_8), maxSplit, random),
+							incrementalOutput)
+					.collectList()
+					.block();
+				assertEquals(expected, actual, resource + " split at " + maxSplit);
+			}
+		}
+	}
+
+	@Test
+	void accumulatesToolCallArgumentsInPlace() throws IOException {
+		String stream = load("chat-stream-tool-call.sse");
+		List<ChatCompletionChunk> chunks = DashScopeApi
+			.decodeChatCompletionStream(split(stream.getBytes(StandardCharsets.UTF_8), 16, new Random(1)), true)
+			.collectList()
+			.block();
+
+		assertEquals(1, chunks.size());
+		var choice = chunks.get(0).output().choices().get(0);
+		assertEquals(ChatCompletionFinishReason.TOOL_CALLS, choice.finishReason());
+		List<ToolCall> toolCalls = choice.message().toolCalls();
+		assertEquals(2, toolCalls.size());
+		assertEquals("get_current_weather", toolCalls.get(0).function().name());
+		assertEquals("{\"location\": \"杭州市\", \"unit\": \"celsius\"}", toolCalls.get(0).function().arguments());
+		assertEquals("call_9e8d7c6b", toolCalls.get(1).id());
+		assertEquals("{\"timezone\": \"Asia/Shanghai\"}", toolCalls.get(1).function().arguments());
+	}
+
+	@Test
+	void stopsAtDoneMarkerAndJoinsMultiLineData() {
+		String stream = "data:{\"request_id\":\"r1\",\n" + "data: \"output\":{\"choices\":[]}}\n\n" + "data:[DONE]\n\n"
+				+ "data:{\"request_id\":\"ignored\"}\n\n";
+		AtomicBoolean cancelled = new AtomicBoolean();
+		Flux<DataBuffer> body = split(stream.getBytes(StandardCharsets.UTF_8), 8, new Random(7))
+			.concatWith(Flux.never())
+			.doOnCancel(() -> cancelled.set(true));
+
+		List<ChatCompletionChunk> chunks = DashScopeApi.decodeChatCompletionStream(body, true).collectList().block();
+
+		assertEquals(1, chunks.size());
+		assertEquals("r1", chunks.get(0).requestId());
+		assertTrue(cancelled.get());
+	}
+
+	@Test
+	void decodesTrailingEventWithoutBlankLine() {
+		DashScopeSseChunkDecoder decoder = new DashScopeSseChunkDecoder();
+		byte[] bytes = ":comment\nid:1\ndata:{\"request_id\":\"r2\"}".getBytes(StandardCharsets.UTF_8);
+
+		assertTrue(decoder.decode(bytes, 0, bytes.length).isEmpty());
+		assertEquals("r2", decoder.flush().requestId());
+	}
+
+	/**
+	 * Replays the recorded streams, followed by a tool call streamed in many argument
+	 * fragments, through the previous and the byte level pipeline. Run with
+	 * {@code -Dbenchmark=true}.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkRecordedStreams() throws IOException {
+		StringBuilder longToolCall = new StringBuilder();
+		longToolCall.append(
+				event("{\"id\":\"call_1\",\"type\":\"function\",\"function\":{\"name\":\"write\",\"arguments\":\"\"}}",
+						"null"));
+		for (int i = 0; i < 400; i++) {
+			longToolCall
+				.append(event("{\"id\":\"\",\"type\":\"function\",\"function\":{\"arguments\":\"fragment\"}}", "null"));
+		}
+		longToolCall
+			.append(event("{\"id\":\"\",\"type\":\"function\",\"function\":{\"arguments\":\"\"}}", "tool_calls"));
+
+		Map<String, String> streams = new LinkedHashMap<>();
+		streams.put("recorded", load("chat-stream-tool-call.sse") + load("chat-stream-text.sse"));
+		streams.put("long tool call", longToolCall.toString());
+		ServerSentEventHttpMessageReader reader = new ServerSentEventHttpMessageReader(new Jackson2JsonDecoder());
+		for (Map.Entry<String, String> stream : streams.entrySet()) {
+			byte[] bytes = stream.getValue().getBytes(StandardCharsets.UTF_8);
+			int iterations = 2_000_000 / bytes.length;
+			for (int round = 0; round < 3; round++) {
+				long start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+					response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+					response.setBody(split(bytes, 512, null));
+					Flux<String> payloads = reader.read(ResolvableType.forClass(String.class), response, Map.of())
+						.cast(String.class);
+					legacyPipeline(payloads, true).blockLast();
+				}
+				long legacy = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					DashScopeApi.decodeChatCompletionStream(split(bytes, 512, null), true).blockLast();
+				}
+				long decoded = System.nanoTime() - start;
+				System.out.printf("%s round %d (%d streams): string pipeline %d ms, byte pipeline %d ms%n",
+						stream.getKey(), round, iterations, legacy / 1_000_000, decoded / 1_000_000);
+			}
+		}
+	}
+
+	private static String event(String toolCall, String finishReason) {
+		return "id:1\nevent:result\n:HTTP_STATUS/200\ndata:{\"output\":{\"choices\":[{\"message\":{\"content\":\"\",\"role\":\"assistant\",\"tool_calls\":["
+				+ toolCall + "]},\"finish_reason\":\"" + finishReason + "\"}]},\"request_id\":\"r\"}\n\n";
+	}
+
+	private static Flux<ChatCompletionChunk> legacyPipeline(Flux<String> payloads, boolean incrementalOutput) {
+		AtomicBoolean isInsideTool = new AtomicBoolean(false);
+		DashScopeAiStreamFunctionCallingHelper chunkMerger = new DashScopeAiStreamFunctionCallingHelper(
+				incrementalOutput);
+		return payloads.takeUntil("[DONE]"::equals)
+			.filter(content -> !"[DONE]".equals(content))
+			.map(content -> ModelOptionsUtils.jsonToObject(content, ChatCompletionChunk.class))
+			.map(chunk -> {
+				if (chunkMerger.isStreamingToolFunctionCall(chunk)) {
+					isInsideTool.set(true);
+				}
+				return chunk;
+			})
+			.windowUntil(chunk -> {
+				if (isInsideTool.get() && chunkMerger.isStreamingToolFunctionCallFinish(chunk)) {
+					isInsideTool.set(false);
+					return true;
+				}
+				return !isInsideTool.get();
+			})
+			.concatMapIterable(
+					window -> List.of(window.reduce(new ChatCompletionChunk(null, null, null), chunkMerger::merge)))
+			.flatMap(mono -> mono);
+	}
+
+	private static Flux<String> dataPayloads(String stream) {
+		List<String> payloads = new ArrayList<>();
+		for (String line : stream.split("\n")) {
+			if (line.startsWith("data:")) {
+				payloads.add(line.substring(5));
+			}
+		}
+		return Flux.fromIterable(payloads);
+	}
+
+	private static Flux<DataBuffer> split(byte[] bytes, int maxSplit, Random random) {
+		List<byte[]> parts = new ArrayList<>();
+		int pos = 0;
+		while (pos < bytes.length) {
+			int size = random == null || maxSplit == Integer.MAX_VALUE ? Math.min(maxSplit, bytes.length - pos)
+					: Math.min(1 + random.nextInt(maxSplit), bytes.length - pos);
+			byte[] part = new byte[size];
+			System.arraycopy(bytes, pos, part, 0, size);
+			parts.add(part);
+			pos += size;
+		}
+		return Flux.fromIterable(parts).map(DefaultDataBufferFactory.sharedInstance::wrap);
+	}
+
+	private static String load(String resource) throws IOException {
+		try (InputStream in = DashScopeSseChunkDecoderTests.class.getResourceAsStream("/stream/" + resource)) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+}
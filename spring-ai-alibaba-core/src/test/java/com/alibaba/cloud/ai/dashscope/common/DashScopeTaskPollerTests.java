@@ -0,0 +1,200 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.common;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link DashScopeTaskPoller} against a stub task server whose tasks finish
+ * after a fixed number of status queries.
+ */
+class DashScopeTaskPollerTests {
+
+	private static final DashScopeTaskPoller.Backoff FAST = new DashScopeTaskPoller.Backoff(Duration.ofMillis(5),
+			Duration.ofMillis(20), 2.0, 0.2, 10);
+
+	private MockWebServer server;
+
+	private RestClient restClient;
+
+	private ScheduledExecutorService scheduler;
+
+	private ExecutorService workers;
+
+	private final Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = new MockWebServer();
+		server.setDispatcher(new Dispatcher() {
+			@Override
+			public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+				// /tasks/{id}?pending={n}: PENDING for the first n queries, then
+				// SUCCEEDED
+				String taskId = request.getRequestUrl().pathSegments().get(1);
+				int pending = Integer.parseInt(request.getRequestUrl().queryParameter("pending"));
+				int current = inFlight.incrementAndGet();
+				maxInFlight.accumulateAndGet(current, Math::max);
+				try {
+					Thread.sleep(10);
+				}
+				finally {
+					inFlight.decrementAndGet();
+				}
+				int query = queries.computeIfAbsent(taskId, k -> new AtomicInteger()).incrementAndGet();
+				String status = query > pending ? "SUCCEEDED" : "PENDING";
+				return new MockResponse().setBody(status);
+			}
+		});
+		server.start();
+		restClient = RestClient.create(server.url("/").toString());
+		scheduler = Executors.newSingleThreadScheduledExecutor();
+		workers = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		scheduler.shutdownNow();
+		workers.shutdownNow();
+		server.shutdown();
+	}
+
+	@Test
+	void completesAfterTaskFinishes() throws Exception {
+		DashScopeTaskPoller poller = new DashScopeTaskPoller(scheduler, workers, 4);
+
+		String result = poller.poll(FAST, attempt -> query("task-1", 3)).get(5, TimeUnit.SECONDS);
+
+		assertThat(result).isEqualTo("SUCCEEDED");
+		assertThat(queries.get("task-1")).hasValue(4);
+	}
+
+	@Test
+	void capsConcurrentPollsAcrossTasks() throws Exception {
+		DashScopeTaskPoller poller = new DashScopeTaskPoller(scheduler, workers, 2);
+
+		List<CompletableFuture<String>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			String taskId = "task-" + i;
+			futures.add(poller.poll(FAST, attempt -> query(taskId, 2)));
+		}
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+		assertThat(futures).allSatisfy(future -> assertThat(future.join()).isEqualTo("SUCCEEDED"));
+		assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+		assertThat(poller.availablePermits()).isEqualTo(2);
+	}
+
+	@Test
+	void timesOutAfterMaxAttempts() {
+		DashScopeTaskPoller poller = new DashScopeTaskPoller(scheduler, workers, 4);
+		DashScopeTaskPoller.Backoff threeAttempts = new DashScopeTaskPoller.Backoff(Duration.ofMillis(5),
+				Duration.ofMillis(5), 1.0, 0.0, 3);
+
+		CompletableFuture<String> future = poller.poll(threeAttempts, attempt -> query("slow", 100));
+
+		assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+			.hasCauseInstanceOf(TimeoutException.class);
+		assertThat(queries.get("slow")).hasValue(3);
+	}
+
+	@Test
+	void propagatesCheckFailure() {
+		DashScopeTaskPoller poller = new DashScopeTaskPoller(scheduler, workers, 4);
+
+		CompletableFuture<String> future = poller.poll(FAST, attempt -> {
+			if (attempt == 1) {
+				throw new DashScopeException(ErrorCodeEnum.READER_PARSE_FILE_ERROR);
+			}
+			return null;
+		});
+
+		assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(DashScopeException.class);
+		assertThat(poller.availablePermits()).isEqualTo(4);
+	}
+
+	@Test
+	void cancellationStopsPolling() throws Exception {
+		DashScopeTaskPoller poller = new DashScopeTaskPoller(scheduler, workers, 4);
+		AtomicInteger attempts = new AtomicInteger();
+		DashScopeTaskPoller.Backoff slow = new DashScopeTaskPoller.Backoff(Duration.ofMillis(50), Duration.ofMillis(50),
+				1.0, 0.0, 100);
+
+		CompletableFuture<String> future = poller.poll(slow, attempt -> {
+			attempts.incrementAndGet();
+			return null;
+		});
+		Thread.sleep(120);
+		future.cancel(false);
+		int seen = attempts.get();
+		Thread.sleep(200);
+
+		assertThat(attempts.get()).isLessThanOrEqualTo(seen + 1);
+	}
+
+	@Test
+	void backoffGrowsExponentiallyWithinJitterAndCap() {
+		DashScopeTaskPoller.Backoff backoff = new DashScopeTaskPoller.Backoff(Duration.ofMillis(100),
+				Duration.ofMillis(1000), 2.0, 0.2, 10);
+
+		for (int i = 0; i < 50; i++) {
+			assertThat(backoff.delayMillis(0)).isBetween(80L, 120L);
+			assertThat(backoff.delayMillis(2)).isBetween(320L, 480L);
+			assertThat(backoff.delayMillis(8)).isBetween(800L, 1200L);
+		}
+		assertThatThrownBy(
+				() -> new DashScopeTaskPoller.Backoff(Duration.ofMillis(100), Duration.ofMillis(10), 2.0, 0.2, 1))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private String query(String taskId, int pending) {
+		String status = restClient.get()
+			.uri("/tasks/{taskId}?pending={pending}", taskId, pending)
+			.retrieve()
+			.body(String.class);
+		return "SUCCEEDED".equals(status) ? status : null;
+	}
+
+}
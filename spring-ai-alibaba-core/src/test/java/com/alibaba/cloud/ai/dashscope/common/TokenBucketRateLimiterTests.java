@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.common;
+
+import com.alibaba.cloud.ai.dashscope.common.DashScopeRateLimiter.Priority;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TokenBucketRateLimiter}.
+ */
+class TokenBucketRateLimiterTests {
+
+	@Test
+	void shapesBurstToRequestRate() throws Exception {
+		TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().defaultLimits(20, 0).build();
+
+		long start = System.nanoTime();
+		List<CompletableFuture<Void>> permits = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			permits.add(limiter.acquire("qwen-plus", 10, Priority.INTERACTIVE));
+		}
+		CompletableFuture.allOf(permits.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+		// 20 from the initial burst, the other 10 at 20/s
+		assertThat(elapsed).isBetween(Duration.ofMillis(400), Duration.ofMillis(1500));
+	}
+
+	@Test
+	void limitsEstimatedTokensPerMinute() throws Exception {
+		TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder()
+			.modelLimits("text-embedding-v2", 0, 6_000)
+			.build();
+
+		assertThat(limiter.acquire("text-embedding-v2", 6_000, Priority.BATCH)).isCompleted();
+		CompletableFuture<Void> next = limiter.acquire("text-embedding-v2", 50, Priority.BATCH);
+		assertThat(next).isNotDone();
+		// 6000 tokens per minute refill 50 tokens in about 500 ms
+		next.get(2, TimeUnit.SECONDS);
+		assertThat(limiter.acquire("other-model", 100_000, Priority.BATCH)).isCompleted();
+	}
+
+	@Test
+	void interactiveCallsOvertakeQueuedBatchCalls() throws Exception {
+		TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().defaultLimits(10, 0).build();
+		for (int i = 0; i < 10; i++) {
+			limiter.acquire("qwen-plus", 0, Priority.BATCH).join();
+		}
+
+		List<String> order = new CopyOnWriteArrayList<>();
+		List<CompletableFuture<Void>> permits = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			String name = "batch-" + i;
+			permits.add(limiter.acquire("qwen-plus", 0, Priority.BATCH).thenRun(() -> order.add(name)));
+		}
+		permits.add(limiter.acquire("qwen-plus", 0, Priority.INTERACTIVE).thenRun(() -> order.add("interactive")));
+		assertThat(limiter.queuedRequests("qwen-plus")).isEqualTo(4);
+
+		CompletableFuture.allOf(permits.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+		assertThat(order).containsExactly("interactive", "batch-0", "batch-1", "batch-2");
+	}
+
+	@Test
+	void throttlingPausesAndReducesRateUntilRecovered() throws Exception {
+		TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder()
+			.defaultLimits(100, 0)
+			.recoveryStep(0.25)
+			.build();
+		limiter.acquire("qwen-max", 0, Priority.INTERACTIVE).join();
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, "1");
+		limiter.onResponse("qwen-max", 429, headers);
+		assertThat(limiter.rateFactor("qwen-max")).isEqualTo(0.5);
+
+		long start = System.nanoTime();
+		limiter.acquire("qwen-max", 0, Priority.INTERACTIVE).get(5, TimeUnit.SECONDS);
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(900));
+
+		limiter.onResponse("qwen-max", 200, new HttpHeaders());
+		limiter.onResponse("qwen-max", 200, new HttpHeaders());
+		limiter.onResponse("qwen-max", 200, new HttpHeaders());
+		assertThat(limiter.rateFactor("qwen-max")).isEqualTo(1.0);
+	}
+
+	@Test
+	void withdrawnCallsDoNotHoldTheQueue() throws Exception {
+		TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().defaultLimits(5, 0).build();
+		for (int i = 0; i < 5; i++) {
+			limiter.acquire("qwen-plus", 0, Priority.INTERACTIVE).join();
+		}
+
+		CompletableFuture<Void> withdrawn = limiter.acquire("qwen-plus", 0, Priority.INTERACTIVE);
+		CompletableFuture<Void> next = limiter.acquire("qwen-plus", 0, Priority.INTERACTIVE);
+		withdrawn.cancel(false);
+
+		long start = System.nanoTime();
+		next.get(2, TimeUnit.SECONDS);
+		// the cancelled call did not consume the next permit (200 ms at 5/s)
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(380));
+	}
+
+	@Test
+	void estimatesTokensFromTextLength() {
+		assertThat(DashScopeRateLimiter.estimateTokens("hello world!")).isEqualTo(3);
+		assertThat(DashScopeRateLimiter.estimateTokens("你好世界")).isEqualTo(4);
+		assertThat(DashScopeRateLimiter.estimateTokens(null)).isZero();
+	}
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.embedding;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.Embedding;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.EmbeddingList;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.EmbeddingUsage;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.Embeddings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for batch splitting, request coalescing and caching in
+ * {@link DashScopeEmbeddingModel}, against a stub {@link DashScopeApi} that derives
+ * vectors from the texts.
+ */
+class DashScopeEmbeddingModelBatchingTests {
+
+	private DashScopeApi dashScopeApi;
+
+	private final List<List<String>> requests = new CopyOnWriteArrayList<>();
+
+	private volatile CountDownLatch gate;
+
+	private DashScopeEmbeddingModel embeddingModel;
+
+	@BeforeEach
+	void setUp() {
+		dashScopeApi = Mockito.mock(DashScopeApi.class);
+		when(dashScopeApi.embeddings(any())).thenAnswer(invocation -> {
+			DashScopeApi.EmbeddingRequest request = invocation.getArgument(0);
+			List<String> texts = request.input().texts();
+			requests.add(texts);
+			if (gate != null) {
+				gate.await(5, TimeUnit.SECONDS);
+			}
+			List<Embedding> embeddings = new ArrayList<>();
+			for (int i = 0; i < texts.size(); i++) {
+				embeddings.add(new Embedding(i, vectorOf(texts.get(i))));
+			}
+			return ResponseEntity.ok(new EmbeddingList("request-id", null, null, new Embeddings(embeddings),
+					new EmbeddingUsage((long) texts.size())));
+		});
+		embeddingModel = new DashScopeEmbeddingModel(dashScopeApi, MetadataMode.EMBED,
+				DashScopeEmbeddingOptions.builder().withModel("text-embedding-v2").withTextType("document").build());
+	}
+
+	@Test
+	void splitsLargeInputIntoBatchesAndKeepsOrder() {
+		embeddingModel.setMaxBatchSize(4);
+		List<String> texts = IntStream.range(0, 10).mapToObj(i -> "text-" + i).toList();
+
+		EmbeddingResponse response = embeddingModel.embedForResponse(texts);
+
+		assertThat(requests).hasSize(3);
+		assertThat(requests).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(4));
+		assertThat(response.getResults()).hasSize(10);
+		for (int i = 0; i < texts.size(); i++) {
+			assertThat(response.getResults().get(i).getIndex()).isEqualTo(i);
+			assertThat(response.getResults().get(i).getOutput()).containsExactly(vectorOf(texts.get(i)));
+		}
+		assertThat(response.getMetadata().getUsage().getTotalTokens()).isEqualTo(10);
+	}
+
+	@Test
+	void defaultBatchSizeFollowsModelLimit() {
+		List<String> texts = IntStream.range(0, 30).mapToObj(i -> "text-" + i).toList();
+
+		embeddingModel.embedForResponse(texts);
+		assertThat(requests).extracting(List::size).containsExactlyInAnyOrder(25, 5);
+
+		requests.clear();
+		embeddingModel.call(new org.springframework.ai.embedding.EmbeddingRequest(texts,
+				DashScopeEmbeddingOptions.builder().withModel("text-embedding-v3").build()));
+		assertThat(requests).extracting(List::size).containsExactlyInAnyOrder(10, 10, 10);
+	}
+
+	@Test
+	void cacheSkipsAlreadyEmbeddedTexts() {
+		InMemoryEmbeddingCache cache = new InMemoryEmbeddingCache();
+		embeddingModel.setEmbeddingCache(cache);
+
+		embeddingModel.embedForResponse(List.of("a", "b", "a"));
+		assertThat(requests).containsExactly(List.of("a", "b"));
+
+		EmbeddingResponse response = embeddingModel.embedForResponse(List.of("b", "c", "a"));
+		assertThat(requests).containsExactly(List.of("a", "b"), List.of("c"));
+		assertThat(response.getResults()).extracting(r -> r.getOutput()[0])
+			.containsExactly(vectorOf("b")[0], vectorOf("c")[0], vectorOf("a")[0]);
+		assertThat(cache.size()).isEqualTo(3);
+	}
+
+	@Test
+	void concurrentCallersShareInFlightRequests() throws Exception {
+		gate = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<EmbeddingResponse>> futures = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				futures.add(callers.submit(() -> embeddingModel.embedForResponse(List.of("shared"))));
+			}
+			Thread.sleep(200);
+			gate.countDown();
+			for (Future<EmbeddingResponse> future : futures) {
+				assertThat(future.get(5, TimeUnit.SECONDS).getResults().get(0).getOutput())
+					.containsExactly(vectorOf("shared"));
+			}
+		}
+		finally {
+			callers.shutdownNow();
+		}
+		assertThat(requests).hasSize(1);
+	}
+
+	@Test
+	void failedBatchPropagatesOriginalError() {
+		Mockito
+			.doReturn(ResponseEntity
+				.ok(new EmbeddingList("request-id", "InvalidParameter", "bad input", null, new EmbeddingUsage(0L))))
+			.when(dashScopeApi)
+			.embeddings(any());
+		embeddingModel.setMaxBatchSize(1);
+
+		assertThatThrownBy(() -> embeddingModel.embedForResponse(List.of("a", "b", "c")))
+			.isInstanceOf(RuntimeException.class)
+			.hasMessageContaining("Embedding failed");
+	}
+
+	@Test
+	void rejectedDispatchReleasesInFlightTexts() throws Exception {
+		embeddingModel.setMaxBatchSize(1);
+		embeddingModel.setBatchExecutor(task -> {
+			throw new RejectedExecutionException("batch executor saturated");
+		});
+
+		assertThatThrownBy(() -> embeddingModel.embedForResponse(List.of("a", "b", "c")))
+			.isInstanceOf(RejectedExecutionException.class);
+
+		// "b" and "c" were never dispatched; a later call must embed them instead of
+		// waiting on the abandoned futures.
+		embeddingModel.setBatchExecutor(Runnable::run);
+		EmbeddingResponse response = CompletableFuture
+			.supplyAsync(() -> embeddingModel.embedForResponse(List.of("b", "c")))
+			.get(5, TimeUnit.SECONDS);
+		assertThat(response.getResults()).extracting(r -> r.getOutput()[0])
+			.containsExactly(vectorOf("b")[0], vectorOf("c")[0]);
+	}
+
+	@Test
+	void missingVectorsKeepPositionsOfLaterResults() {
+		Mockito.doAnswer(invocation -> {
+			List<String> texts = ((DashScopeApi.EmbeddingRequest) invocation.getArgument(0)).input().texts();
+			List<Embedding> embeddings = new ArrayList<>();
+			for (int i = 0; i < texts.size(); i++) {
+				if (!texts.get(i).equals("missing")) {
+					embeddings.add(new Embedding(i, vectorOf(texts.get(i))));
+				}
+			}
+			return ResponseEntity.ok(new EmbeddingList("request-id", null, null, new Embeddings(embeddings),
+					new EmbeddingUsage((long) texts.size())));
+		}).when(dashScopeApi).embeddings(any());
+
+		EmbeddingResponse response = embeddingModel.embedForResponse(List.of("first", "missing", "last"));
+
+		assertThat(response.getResults()).hasSize(3);
+		assertThat(response.getResults()).extracting(org.springframework.ai.embedding.Embedding::getIndex)
+			.containsExactly(0, 1, 2);
+		assertThat(response.getResults().get(1).getOutput()).isNull();
+		assertThat(response.getResults().get(2).getOutput()).containsExactly(vectorOf("last"));
+	}
+
+	@Test
+	void mappedFileCachePersistsAcrossReopen(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("embeddings.cache");
+		try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, 64 * 1024)) {
+			embeddingModel.setEmbeddingCache(cache);
+			embeddingModel.embedForResponse(List.of("persisted", "also persisted"));
+		}
+		assertThat(requests).hasSize(1);
+
+		try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, 64 * 1024)) {
+			assertThat(cache.size()).isEqualTo(2);
+			embeddingModel.setEmbeddingCache(cache);
+			EmbeddingResponse response = embeddingModel.embedForResponse(List.of("also persisted", "persisted"));
+			assertThat(response.getResults().get(0).getOutput()).containsExactly(vectorOf("also persisted"));
+			assertThat(response.getResults().get(1).getOutput()).containsExactly(vectorOf("persisted"));
+		}
+		assertThat(requests).hasSize(1);
+	}
+
+	@Test
+	void mappedFileCacheStopsStoringWhenFull(@TempDir Path dir) throws Exception {
+		try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(dir.resolve("small.cache"), 256)) {
+			for (int i = 0; i < 10; i++) {
+				cache.put(EmbeddingCacheKey.of("text-embedding-v2", null, "document", "text-" + i),
+						new float[] { i, i, i });
+			}
+			assertThat(cache.size()).isBetween(1, 9);
+			assertThat(cache.get(EmbeddingCacheKey.of("text-embedding-v2", null, "document", "text-0")))
+				.containsExactly(0f, 0f, 0f);
+		}
+	}
+
+	@Test
+	void cachedAndSharedVectorsAreCopiedForEachCaller() {
+		embeddingModel.setEmbeddingCache(new InMemoryEmbeddingCache());
+
+		EmbeddingResponse first = embeddingModel.embedForResponse(List.of("a", "a"));
+		first.getResults().get(0).getOutput()[0] = -1f;
+		EmbeddingResponse second = embeddingModel.embedForResponse(List.of("a"));
+
+		assertThat(first.getResults().get(1).getOutput()).containsExactly(vectorOf("a"));
+		assertThat(second.getResults().get(0).getOutput()).containsExactly(vectorOf("a"));
+	}
+
+	@Test
+	void mappedFileCacheKeepsKeyFieldsContainingSeparators(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("keys.cache");
+		EmbeddingCacheKey key = EmbeddingCacheKey.of("custom|model", 512, "que|ry", "text");
+		try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, 64 * 1024)) {
+			cache.put(key, new float[] { 1f, 2f });
+		}
+
+		try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, 64 * 1024)) {
+			assertThat(cache.get(key)).containsExactly(1f, 2f);
+			assertThat(cache.get(EmbeddingCacheKey.of("custom", 512, "que|ry", "text"))).isNull();
+		}
+	}
+
+	private static float[] vectorOf(String text) {
+		return new float[] { text.length(), text.hashCode(), 1.0f };
+	}
+
+}
@@ -20,6 +20,7 @@ import com.alibaba.cloud.ai.dashscope.api.DashScopeImageApi.DashScopeImageAsyncR
 import com.alibaba.cloud.ai.dashscope.api.DashScopeImageApi.DashScopeImageAsyncReponse.DashScopeImageAsyncReponseOutput;
 import com.alibaba.cloud.ai.dashscope.api.DashScopeImageApi.DashScopeImageAsyncReponse.DashScopeImageAsyncReponseResult;
 import com.alibaba.cloud.ai.dashscope.api.DashScopeImageApi.DashScopeImageAsyncReponse.DashScopeImageAsyncReponseUsage;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeTaskPoller;
 import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,12 +30,16 @@ import org.springframework.ai.image.ImageResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.retry.support.RetryTemplate;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -59,6 +64,9 @@ class DashScopeImageModelTests {
 
 	private static final String TEST_PROMPT = "A beautiful sunset over mountains";
 
+	private static final DashScopeTaskPoller.Backoff FAST_POLLING = DashScopeTaskPoller.Backoff.of(Duration.ofMillis(5),
+			Duration.ofMillis(20), 5);
+
 	private DashScopeImageApi dashScopeImageApi;
 
 	private DashScopeImageModel imageModel;
@@ -118,6 +126,37 @@ class DashScopeImageModelTests {
 		assertThat(response.getResults()).isEmpty();
 	}
 
+	@Test
+	void testPollsUntilTaskSucceeds() throws Exception {
+		// Task stays pending for two status checks before it succeeds
+		mockSuccessfulImageGeneration();
+		DashScopeImageAsyncReponse pendingResponse = new DashScopeImageAsyncReponse(TEST_REQUEST_ID,
+				new DashScopeImageAsyncReponseOutput(TEST_TASK_ID, "RUNNING", null, null, null, null),
+				new DashScopeImageAsyncReponseUsage(1));
+		DashScopeImageAsyncReponse completedResponse = dashScopeImageApi.getImageGenTaskResult(TEST_TASK_ID).getBody();
+		when(dashScopeImageApi.getImageGenTaskResult(TEST_TASK_ID)).thenReturn(ResponseEntity.ok(pendingResponse),
+				ResponseEntity.ok(pendingResponse), ResponseEntity.ok(completedResponse));
+		imageModel.setPollingBackoff(FAST_POLLING);
+
+		ImageResponse response = imageModel.callAsync(new ImagePrompt(TEST_PROMPT)).get(5, TimeUnit.SECONDS);
+
+		assertThat(response.getResult().getOutput().getUrl()).isEqualTo(TEST_IMAGE_URL);
+		verify(dashScopeImageApi, times(4)).getImageGenTaskResult(TEST_TASK_ID);
+	}
+
+	@Test
+	void testTimeoutImageGeneration() {
+		// Task never leaves PENDING within the polling budget
+		mockTimeoutImageGeneration();
+		imageModel.setPollingBackoff(FAST_POLLING);
+
+		ImageResponse response = imageModel.call(new ImagePrompt(TEST_PROMPT));
+
+		assertThat(response.getResults()).isEmpty();
+		assertThat((String) response.getMetadata().get("taskStatus")).isEqualTo("TIMED_OUT");
+		verify(dashScopeImageApi, times(FAST_POLLING.maxAttempts())).getImageGenTaskResult(TEST_TASK_ID);
+	}
+
 	@Test
 	void testNullResponse() {
 		// Test handling of null API response
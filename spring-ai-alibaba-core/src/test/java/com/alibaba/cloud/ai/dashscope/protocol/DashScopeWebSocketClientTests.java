@@ -15,8 +15,16 @@
  */
 package com.alibaba.cloud.ai.dashscope.protocol;
 
+import com.alibaba.cloud.ai.dashscope.common.DashScopeException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.Response;
 import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import okio.ByteString;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,9 +32,15 @@ import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import java.nio.ByteBuffer;
-import java.lang.reflect.Field;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -74,20 +88,8 @@ class DashScopeWebSocketClientTests {
 		// Initialize client
 		client = new DashScopeWebSocketClient(options);
 
-		// Set webSocketClient using reflection
-		try {
-			Field webSocketClientField = DashScopeWebSocketClient.class.getDeclaredField("webSocketClient");
-			webSocketClientField.setAccessible(true);
-			webSocketClientField.set(client, mockWebSocket);
-
-			// Set isOpen to true
-			Field isOpenField = DashScopeWebSocketClient.class.getDeclaredField("isOpen");
-			isOpenField.setAccessible(true);
-			isOpenField.set(client, new AtomicBoolean(true));
-		}
-		catch (Exception e) {
-			throw new RuntimeException("Failed to set fields via reflection", e);
-		}
+		// Register the mocked socket as an open connection
+		client.attach(mockWebSocket);
 	}
 
 	@Test
@@ -146,6 +148,205 @@ class DashScopeWebSocketClientTests {
 		StepVerifier.create(client.streamBinaryOut(TEST_MESSAGE)).expectError().verify();
 	}
 
+	@Test
+	void testConcurrentTasksAreRoutedByTaskId() throws Exception {
+		try (MockWebServer server = new MockWebServer()) {
+			DashScopeTaskServer taskServer = new DashScopeTaskServer(server);
+			DashScopeWebSocketClient localClient = new DashScopeWebSocketClient(taskServer.options().build());
+
+			List<String> received = Flux.range(0, 8)
+				.flatMap(i -> localClient.streamBinaryOut(runTask("task-" + i, "out"))
+					.map(buffer -> StandardCharsets.UTF_8.decode(buffer).toString())
+					.collectList()
+					.map(frames -> String.join("", frames)))
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+			assertThat(received)
+				.containsExactlyInAnyOrderElementsOf(IntStream.range(0, 8).mapToObj(i -> "task-" + i).toList());
+			assertThat(taskServer.connections.get()).isLessThanOrEqualTo(8);
+			localClient.close();
+		}
+	}
+
+	@Test
+	void testConnectionIsReusedAcrossTasks() throws Exception {
+		try (MockWebServer server = new MockWebServer()) {
+			DashScopeTaskServer taskServer = new DashScopeTaskServer(server);
+			DashScopeWebSocketClient localClient = new DashScopeWebSocketClient(taskServer.options().build());
+
+			for (int i = 0; i < 5; i++) {
+				StepVerifier.create(localClient.streamBinaryOut(runTask("sequential-" + i, "out")))
+					.expectNextCount(1)
+					.expectComplete()
+					.verify(Duration.ofSeconds(5));
+			}
+
+			assertThat(taskServer.connections.get()).isEqualTo(1);
+			assertThat(localClient.idleConnections()).isEqualTo(1);
+			localClient.close();
+			assertThat(localClient.idleConnections()).isZero();
+		}
+	}
+
+	@Test
+	void testDuplexTaskUploadsAudioAndStreamsResults() throws Exception {
+		try (MockWebServer server = new MockWebServer()) {
+			DashScopeTaskServer taskServer = new DashScopeTaskServer(server);
+			DashScopeWebSocketClient localClient = new DashScopeWebSocketClient(taskServer.options().build());
+
+			localClient.sendText(runTask("duplex-1", "duplex"));
+			Flux<ByteBuffer> audio = Flux.range(0, 3)
+				.map(i -> ByteBuffer.wrap(new byte[16]))
+				.concatWith(Flux.defer(() -> {
+					localClient.sendText(finishTask("duplex-1"));
+					return Flux.empty();
+				}));
+
+			StepVerifier.create(localClient.streamTextOut("duplex-1", audio))
+				.expectNextCount(3)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+			localClient.close();
+		}
+	}
+
+	@Test
+	void testReconnectsWithBackoffWhenConnectFails() throws Exception {
+		try (MockWebServer server = new MockWebServer()) {
+			DashScopeTaskServer taskServer = new DashScopeTaskServer(server);
+			taskServer.failuresBeforeUpgrade.set(2);
+			DashScopeWebSocketClient localClient = new DashScopeWebSocketClient(taskServer.options()
+				.withMaxReconnectAttempts(3)
+				.withReconnectBackoff(Duration.ofMillis(10))
+				.build());
+
+			StepVerifier.create(localClient.streamBinaryOut(runTask("retried", "out")))
+				.expectNextCount(1)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+			assertThat(server.getRequestCount()).isEqualTo(3);
+			localClient.close();
+		}
+	}
+
+	@Test
+	void testBinaryFramesAreBounded() throws Exception {
+		try (MockWebServer server = new MockWebServer()) {
+			DashScopeTaskServer taskServer = new DashScopeTaskServer(server);
+			taskServer.framesPerTask = 64;
+			DashScopeWebSocketClient localClient = new DashScopeWebSocketClient(
+					taskServer.options().withMaxBufferedFrames(8).build());
+
+			StepVerifier.create(localClient.streamBinaryOut(runTask("flood", "out")), 0)
+				.expectSubscription()
+				.thenAwait(Duration.ofMillis(500))
+				.thenRequest(Long.MAX_VALUE)
+				.thenConsumeWhile(buffer -> true)
+				.expectError(DashScopeException.class)
+				.verify(Duration.ofSeconds(5));
+			localClient.close();
+		}
+	}
+
+	private static String runTask(String taskId, String streaming) {
+		return """
+				{"header": {"action": "run-task", "task_id": "%s", "streaming": "%s"}, "payload": {}}"""
+			.formatted(taskId, streaming);
+	}
+
+	private static String finishTask(String taskId) {
+		return """
+				{"header": {"action": "finish-task", "task_id": "%s"}, "payload": {}}""".formatted(taskId);
+	}
+
+	/**
+	 * Minimal DashScope task server: output tasks answer with binary frames carrying the
+	 * task id, duplex tasks answer every uploaded frame with a result.
+	 */
+	private static class DashScopeTaskServer extends WebSocketListener {
+
+		private static final ObjectMapper MAPPER = new ObjectMapper();
+
+		private final MockWebServer server;
+
+		private final AtomicInteger connections = new AtomicInteger();
+
+		private final AtomicInteger failuresBeforeUpgrade = new AtomicInteger();
+
+		private final Map<WebSocket, String> duplexTasks = new ConcurrentHashMap<>();
+
+		private volatile int framesPerTask = 1;
+
+		DashScopeTaskServer(MockWebServer server) {
+			this.server = server;
+			server.setDispatcher(new Dispatcher() {
+				@Override
+				public MockResponse dispatch(RecordedRequest request) {
+					if (failuresBeforeUpgrade.getAndDecrement() > 0) {
+						return new MockResponse().setResponseCode(503);
+					}
+					connections.incrementAndGet();
+					return new MockResponse().withWebSocketUpgrade(DashScopeTaskServer.this);
+				}
+			});
+		}
+
+		DashScopeWebSocketClientOptions.Builder options() {
+			return DashScopeWebSocketClientOptions.builder()
+				.withApiKey(TEST_API_KEY)
+				.withUrl(this.server.url("/api-ws/v1/inference").toString());
+		}
+
+		@Override
+		public void onMessage(WebSocket webSocket, String text) {
+			try {
+				JsonNode header = MAPPER.readTree(text).path("header");
+				String taskId = header.path("task_id").asText();
+				String action = header.path("action").asText();
+				if ("run-task".equals(action)) {
+					webSocket.send(event(taskId, "task-started"));
+					if ("duplex".equals(header.path("streaming").asText())) {
+						this.duplexTasks.put(webSocket, taskId);
+						return;
+					}
+					for (int i = 0; i < this.framesPerTask; i++) {
+						webSocket.send(ByteString.encodeUtf8(taskId));
+					}
+					webSocket.send(event(taskId, "task-finished"));
+				}
+				else if ("finish-task".equals(action)) {
+					this.duplexTasks.remove(webSocket);
+					webSocket.send(event(taskId, "task-finished"));
+				}
+			}
+			catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public void onClosing(WebSocket webSocket, int code, String reason) {
+			webSocket.close(code, reason);
+		}
+
+		@Override
+		public void onMessage(WebSocket webSocket, ByteString bytes) {
+			String taskId = this.duplexTasks.get(webSocket);
+			if (taskId != null) {
+				webSocket.send(event(taskId, "result-generated"));
+			}
+		}
+
+		private static String event(String taskId, String event) {
+			return """
+					{"header": {"task_id": "%s", "event": "%s"}, "payload": {"output": {"size": 16}}}"""
+				.formatted(taskId, event);
+		}
+
+	}
+
 	private String createTaskStartedMessage() {
 		return """
 				{
@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.dashscope.rag;
 
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeTaskPoller;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -28,12 +29,16 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -47,6 +52,9 @@ import static org.mockito.Mockito.when;
  */
 class DashScopeDocumentCloudReaderTests {
 
+	private static final DashScopeTaskPoller.Backoff FAST_POLLING = DashScopeTaskPoller.Backoff.of(Duration.ofMillis(5),
+			Duration.ofMillis(20), 5);
+
 	private static final String TEST_CATEGORY_ID = "test-category";
 
 	private static final String TEST_FILE_ID = "test-file-id";
@@ -116,6 +124,36 @@ class DashScopeDocumentCloudReaderTests {
 		assertThatThrownBy(() -> reader.get()).isInstanceOf(RuntimeException.class);
 	}
 
+	@Test
+	void testPollsUntilParseSucceeds() throws Exception {
+		// Parsing is still in progress for the first two status checks
+		mockSuccessfulParsing();
+		DashScopeApi.CommonResponse<DashScopeApi.QueryFileResponseData> processing = processingResponse();
+		DashScopeApi.CommonResponse<DashScopeApi.QueryFileResponseData> success = dashScopeApi
+			.queryFileInfo(TEST_CATEGORY_ID, new DashScopeApi.UploadRequest.QueryFileRequest(TEST_FILE_ID))
+			.getBody();
+		when(dashScopeApi.queryFileInfo(eq(TEST_CATEGORY_ID), any(DashScopeApi.UploadRequest.QueryFileRequest.class)))
+			.thenReturn(ResponseEntity.ok(processing), ResponseEntity.ok(processing), ResponseEntity.ok(success));
+		reader.setPollingBackoff(FAST_POLLING);
+
+		List<Document> documents = reader.getAsync().get(5, TimeUnit.SECONDS);
+
+		assertThat(documents).extracting(Document::getText).containsExactly(TEST_CONTENT);
+		verify(dashScopeApi, times(1)).getFileParseResult(eq(TEST_CATEGORY_ID),
+				any(DashScopeApi.UploadRequest.QueryFileRequest.class));
+	}
+
+	@Test
+	void testPollingTimeout() {
+		// Parsing never finishes within the polling budget
+		mockPollingTimeout();
+		reader.setPollingBackoff(FAST_POLLING);
+
+		assertThat(reader.get()).isNull();
+		verify(dashScopeApi, times(FAST_POLLING.maxAttempts())).queryFileInfo(eq(TEST_CATEGORY_ID),
+				any(DashScopeApi.UploadRequest.QueryFileRequest.class));
+	}
+
 	private void mockSuccessfulUpload() {
 		DashScopeApi.UploadRequest request = new DashScopeApi.UploadRequest(TEST_CATEGORY_ID, TEST_FILE_NAME,
 				TEST_FILE_SIZE, "md5");
@@ -144,12 +182,14 @@ class DashScopeDocumentCloudReaderTests {
 	}
 
 	private void mockPollingTimeout() {
+		when(dashScopeApi.queryFileInfo(eq(TEST_CATEGORY_ID), any(DashScopeApi.UploadRequest.QueryFileRequest.class)))
+			.thenReturn(ResponseEntity.ok(processingResponse()));
+	}
+
+	private DashScopeApi.CommonResponse<DashScopeApi.QueryFileResponseData> processingResponse() {
 		DashScopeApi.QueryFileResponseData processingResponse = new DashScopeApi.QueryFileResponseData(TEST_CATEGORY_ID,
 				TEST_FILE_ID, TEST_FILE_NAME, TEST_FILE_TYPE, TEST_FILE_SIZE, "PROCESSING", TEST_UPLOAD_TIME);
-		DashScopeApi.CommonResponse<DashScopeApi.QueryFileResponseData> response = new DashScopeApi.CommonResponse<>(
-				"SUCCESS", "Processing", processingResponse);
-		when(dashScopeApi.queryFileInfo(eq(TEST_CATEGORY_ID), any(DashScopeApi.UploadRequest.QueryFileRequest.class)))
-			.thenReturn(ResponseEntity.ok(response));
+		return new DashScopeApi.CommonResponse<>("SUCCESS", "Processing", processingResponse);
 	}
 
 }
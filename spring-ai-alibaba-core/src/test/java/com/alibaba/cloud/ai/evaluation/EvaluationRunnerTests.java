@@ -0,0 +1,260 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.evaluation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.evaluation.EvaluationRequest;
+import org.springframework.ai.evaluation.EvaluationResponse;
+import org.springframework.ai.evaluation.Evaluator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link EvaluationRunner}.
+ */
+class EvaluationRunnerTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void evaluatesWithBoundedConcurrency() {
+		SlowEvaluator evaluator = new SlowEvaluator(50);
+		EvaluationRunner runner = EvaluationRunner.builder().concurrency(4).build();
+
+		EvaluationRunner.Report report = runner.run(dataset(16), List.of(evaluator));
+
+		assertThat(report.results()).hasSize(16);
+		assertThat(report.results()).extracting(EvaluationRunner.Result::index)
+			.containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15);
+		assertThat(evaluator.maxInFlight.get()).isBetween(2, 4);
+		assertThat(evaluator.calls).hasValue(16);
+
+		EvaluationRunner.Statistics statistics = report.statistics();
+		assertThat(statistics.evaluated()).isEqualTo(16);
+		assertThat(statistics.passed()).isEqualTo(16);
+		assertThat(statistics.p50Latency().toMillis()).isGreaterThanOrEqualTo(45);
+		// 16 samples of 50 ms on 4 slots, well below the 800 ms of a sequential run
+		assertThat(statistics.elapsed().toMillis()).isLessThan(700);
+		assertThat(statistics.throughputPerSecond()).isPositive();
+	}
+
+	@Test
+	void duplicateSamplesAreEvaluatedOnce() {
+		SlowEvaluator evaluator = new SlowEvaluator(0);
+		EvaluationRunner runner = EvaluationRunner.builder().concurrency(2).build();
+		List<EvaluationRequest> dataset = new ArrayList<>(dataset(3));
+		dataset.addAll(dataset(3));
+
+		EvaluationRunner.Report report = runner.run(dataset, List.of(evaluator));
+
+		assertThat(evaluator.calls).hasValue(3);
+		assertThat(report.statistics().cached()).isEqualTo(3);
+		assertThat(report.results().get(4).response().getFeedback()).isEqualTo("answer 1");
+
+		runner.run(dataset(3), List.of(evaluator));
+		assertThat(evaluator.calls).hasValue(3);
+	}
+
+	@Test
+	void resumesFromResultsFile() throws Exception {
+		Path resultsFile = tempDir.resolve("results.jsonl");
+		SlowEvaluator first = new SlowEvaluator(0);
+		EvaluationRunner.builder().resultsFile(resultsFile).build().run(dataset(5), List.of(first));
+		assertThat(Files.readAllLines(resultsFile)).hasSize(5);
+
+		// simulate a run that was interrupted while writing its last line
+		Files.writeString(resultsFile, Files.readString(resultsFile) + "{\"key\":\"trunc");
+
+		SlowEvaluator second = new SlowEvaluator(0);
+		EvaluationRunner.Report report = EvaluationRunner.builder()
+			.resultsFile(resultsFile)
+			.build()
+			.run(dataset(8), List.of(second));
+
+		assertThat(second.calls).hasValue(3);
+		assertThat(report.statistics().cached()).isEqualTo(5);
+		assertThat(report.results().get(2).response().getScore()).isEqualTo(0.5f);
+		assertThat(report.results().get(2).response().getFeedback()).isEqualTo("answer 2");
+	}
+
+	@Test
+	void evaluatorsWithDifferentConfigurationDoNotShareVerdicts() {
+		EvaluationRunner runner = EvaluationRunner.builder().build();
+		PromptEvaluator strict = new PromptEvaluator("Is the answer exact?");
+		PromptEvaluator lenient = new PromptEvaluator("Is the answer roughly right?");
+		SlowEvaluator fast = new SlowEvaluator(0);
+		SlowEvaluator slow = new SlowEvaluator(1);
+
+		runner.run(dataset(2), List.of(strict, fast));
+		runner.run(dataset(2), List.of(lenient, slow));
+		runner.run(dataset(2), List.of(new PromptEvaluator("Is the answer exact?"), new SlowEvaluator(1)));
+
+		assertThat(strict.calls).hasValue(2);
+		assertThat(lenient.calls).hasValue(2);
+		assertThat(fast.calls).hasValue(2);
+		assertThat(slow.calls).hasValue(2);
+	}
+
+	@Test
+	void judgesWithDifferentChatClientsDoNotShareVerdicts() {
+		EvaluationRunner runner = EvaluationRunner.builder().build();
+		PromptEvaluator qwenPlus = new PromptEvaluator(mock(ChatClient.Builder.class), "Is the answer exact?");
+		PromptEvaluator qwenMax = new PromptEvaluator(mock(ChatClient.Builder.class), "Is the answer exact?");
+
+		runner.run(dataset(2), List.of(qwenPlus));
+		runner.run(dataset(2), List.of(qwenMax));
+
+		assertThat(qwenPlus.calls).hasValue(2);
+		assertThat(qwenMax.calls).hasValue(2);
+	}
+
+	@Test
+	void evaluatorIdCanBeSupplied() {
+		AtomicInteger calls = new AtomicInteger();
+		EvaluationRunner runner = EvaluationRunner.builder().evaluatorId(evaluator -> "judge").build();
+
+		for (int i = 0; i < 2; i++) {
+			// a new lambda instance per run, identified by the supplied id
+			Evaluator evaluator = request -> {
+				calls.incrementAndGet();
+				return new EvaluationResponse(true, 1f, "", Collections.emptyMap());
+			};
+			runner.run(dataset(3), List.of(evaluator));
+		}
+
+		assertThat(calls).hasValue(3);
+	}
+
+	@Test
+	void failuresAreReportedAndRetried() {
+		AtomicInteger attempts = new AtomicInteger();
+		Evaluator flaky = request -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new IllegalStateException("model unavailable");
+			}
+			return new EvaluationResponse(false, 0f, "wrong", Collections.emptyMap());
+		};
+		EvaluationRunner runner = EvaluationRunner.builder().concurrency(1).build();
+
+		EvaluationRunner.Report report = runner.run(dataset(1), List.of(flaky));
+		assertThat(report.results().get(0).isSuccess()).isFalse();
+		assertThat(report.results().get(0).error()).isEqualTo("model unavailable");
+		assertThat(report.statistics().failed()).isEqualTo(1);
+
+		report = runner.run(dataset(1), List.of(flaky));
+		assertThat(report.results().get(0).isSuccess()).isTrue();
+		assertThat(report.statistics().passed()).isZero();
+		assertThat(attempts).hasValue(2);
+	}
+
+	@Test
+	void requestHashCoversAllFields() {
+		EvaluationRequest request = new EvaluationRequest("ab", List.of(new Document("c")), "d");
+		EvaluationRequest shifted = new EvaluationRequest("a", List.of(new Document("bc")), "d");
+
+		assertThat(EvaluationRunner.requestHash(request))
+			.isEqualTo(EvaluationRunner.requestHash(new EvaluationRequest("ab", List.of(new Document("c")), "d")))
+			.isNotEqualTo(EvaluationRunner.requestHash(shifted));
+	}
+
+	private static List<EvaluationRequest> dataset(int size) {
+		List<EvaluationRequest> dataset = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			dataset.add(new EvaluationRequest("question " + i, List.of(new Document("context " + i)), "answer " + i));
+		}
+		return dataset;
+	}
+
+	private static final class SlowEvaluator implements Evaluator {
+
+		private final long delayMillis;
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+
+		private SlowEvaluator(long delayMillis) {
+			this.delayMillis = delayMillis;
+		}
+
+		@Override
+		public EvaluationResponse evaluate(EvaluationRequest request) {
+			calls.incrementAndGet();
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(delayMillis);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				inFlight.decrementAndGet();
+			}
+			return new EvaluationResponse(true, 0.5f, request.getResponseContent(), Collections.emptyMap());
+		}
+
+		@Override
+		public String toString() {
+			return "SlowEvaluator[delayMillis=" + delayMillis + "]";
+		}
+
+	}
+
+	private static final class PromptEvaluator extends LaajEvaluator {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private PromptEvaluator(String evaluationPromptText) {
+			this(null, evaluationPromptText);
+		}
+
+		private PromptEvaluator(ChatClient.Builder chatClientBuilder, String evaluationPromptText) {
+			super(chatClientBuilder, evaluationPromptText);
+		}
+
+		@Override
+		protected String getDefaultEvaluationPrompt() {
+			return "";
+		}
+
+		@Override
+		public String getName() {
+			return "prompt";
+		}
+
+		@Override
+		public EvaluationResponse evaluate(EvaluationRequest request) {
+			calls.incrementAndGet();
+			return new EvaluationResponse(true, 1f, "", Collections.emptyMap());
+		}
+
+	}
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.tool;
+
+import com.alibaba.cloud.ai.tool.observation.ArmsToolCallingObservationConvention;
+import com.alibaba.cloud.ai.tool.observation.ArmsToolCallingObservationDocumentation;
+import io.micrometer.observation.tck.TestObservationRegistry;
+import io.micrometer.observation.tck.TestObservationRegistryAssert;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.function.FunctionToolCallback;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for concurrent tool execution, timeouts and per-tool observations in
+ * {@link ObservableToolCallingManager}.
+ */
+class ObservableToolCallingManagerTests {
+
+	private final ExecutorService toolExecutor = Executors.newFixedThreadPool(4);
+
+	private final List<String> invoked = new CopyOnWriteArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		toolExecutor.shutdownNow();
+	}
+
+	@Test
+	void runsToolCallsConcurrentlyAndKeepsOrder() {
+		ObservableToolCallingManager manager = ObservableToolCallingManager.builder()
+			.toolExecutor(toolExecutor)
+			.build();
+		List<ToolCallback> tools = List.of(sleepingTool("first", 300), sleepingTool("second", 100),
+				sleepingTool("third", 200));
+
+		long start = System.nanoTime();
+		ToolExecutionResult result = manager.executeToolCalls(prompt(tools),
+				response(toolCall("1", "first"), toolCall("2", "second"), toolCall("3", "third")));
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+		assertThat(elapsed).isLessThan(Duration.ofMillis(550));
+		assertThat(responses(result)).extracting(ToolResponseMessage.ToolResponse::id).containsExactly("1", "2", "3");
+		assertThat(responses(result)).extracting(ToolResponseMessage.ToolResponse::responseData)
+			.containsExactly("\"first done\"", "\"second done\"", "\"third done\"");
+	}
+
+	@Test
+	void slowToolTimesOutWithoutFailingTheOthers() {
+		ObservableToolCallingManager manager = ObservableToolCallingManager.builder()
+			.toolExecutor(toolExecutor)
+			.toolTimeout("slow", Duration.ofMillis(100))
+			.build();
+		List<ToolCallback> tools = List.of(sleepingTool("fast", 10), sleepingTool("slow", 5_000));
+
+		long start = System.nanoTime();
+		ToolExecutionResult result = manager.executeToolCalls(prompt(tools),
+				response(toolCall("1", "slow"), toolCall("2", "fast")));
+
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+		assertThat(responses(result).get(0).responseData()).contains("did not complete within");
+		assertThat(responses(result).get(1).responseData()).isEqualTo("\"fast done\"");
+	}
+
+	@Test
+	void timeoutStartsWhenToolCallStartsRunning() {
+		ExecutorService singleThread = Executors.newSingleThreadExecutor();
+		try {
+			ObservableToolCallingManager manager = ObservableToolCallingManager.builder()
+				.toolExecutor(singleThread)
+				.defaultToolTimeout(Duration.ofMillis(400))
+				.build();
+			List<ToolCallback> tools = List.of(sleepingTool("first", 250), sleepingTool("second", 250));
+
+			// the second call waits 250 ms for the thread, which must not count against it
+			ToolExecutionResult result = manager.executeToolCalls(prompt(tools),
+					response(toolCall("1", "first"), toolCall("2", "second")));
+
+			assertThat(responses(result)).extracting(ToolResponseMessage.ToolResponse::responseData)
+				.containsExactly("\"first done\"", "\"second done\"");
+		}
+		finally {
+			singleThread.shutdownNow();
+		}
+	}
+
+	@Test
+	void rejectedToolCallStillTimesOut() {
+		ExecutorService saturated = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+				new ThreadPoolExecutor.AbortPolicy());
+		try {
+			ObservableToolCallingManager manager = ObservableToolCallingManager.builder()
+				.toolExecutor(saturated)
+				.toolTimeout("slow", Duration.ofMillis(100))
+				.build();
+			List<ToolCallback> tools = List.of(sleepingTool("fast", 10), sleepingTool("slow", 5_000));
+
+			long start = System.nanoTime();
+			ToolExecutionResult result = manager.executeToolCalls(prompt(tools),
+					response(toolCall("1", "fast"), toolCall("2", "slow")));
+
+			assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+			assertThat(responses(result).get(0).responseData()).isEqualTo("\"fast done\"");
+			assertThat(responses(result).get(1).responseData()).contains("did not complete within");
+		}
+		finally {
+			saturated.shutdownNow();
+		}
+	}
+
+	@Test
+	@Timeout(10)
+	void nestedToolCallsDoNotWaitForTheSharedExecutor() {
+		ExecutorService singleThread = Executors.newSingleThreadExecutor();
+		try {
+			AtomicReference<ObservableToolCallingManager> managerRef = new AtomicReference<>();
+			List<ToolCallback> innerTools = List.of(sleepingTool("a", 10), sleepingTool("b", 10));
+			ToolCallback outer = FunctionToolCallback.builder("outer", (String input) -> {
+				ToolExecutionResult inner = managerRef.get()
+					.executeToolCalls(prompt(innerTools), response(toolCall("a1", "a"), toolCall("b1", "b")));
+				return responses(inner).size() + " inner results";
+			}).description("Calls other tools").inputType(String.class).build();
+			managerRef.set(ObservableToolCallingManager.builder().toolExecutor(singleThread).build());
+
+			ToolExecutionResult result = managerRef.get()
+				.executeToolCalls(prompt(List.of(outer)), response(toolCall("1", "outer"), toolCall("2", "outer")));
+
+			assertThat(responses(result)).extracting(ToolResponseMessage.ToolResponse::responseData)
+				.containsExactly("\"2 inner results\"", "\"2 inner results\"");
+		}
+		finally {
+			singleThread.shutdownNow();
+		}
+	}
+
+	@Test
+	void unknownToolFailsBeforeAnyToolRuns() {
+		ObservableToolCallingManager manager = ObservableToolCallingManager.builder()
+			.toolExecutor(toolExecutor)
+			.build();
+		List<ToolCallback> tools = List.of(sleepingTool("known", 10));
+
+		assertThatThrownBy(() -> manager.executeToolCalls(prompt(tools),
+				response(toolCall("1", "known"), toolCall("2", "missing"))))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessageContaining("missing");
+		assertThat(invoked).isEmpty();
+	}
+
+	@Test
+	void recordsOneObservationWithLatencyPerTool() {
+		TestObservationRegistry observationRegistry = TestObservationRegistry.create();
+		ObservableToolCallingManager manager = ObservableToolCallingManager.builder()
+			.observationRegistry(observationRegistry)
+			.toolExecutor(toolExecutor)
+			.build();
+		List<ToolCallback> tools = List.of(sleepingTool("a", 20), sleepingTool("b", 20));
+
+		manager.executeToolCalls(prompt(tools), response(toolCall("1", "a"), toolCall("2", "b")));
+
+		TestObservationRegistryAssert.assertThat(observationRegistry)
+			.hasNumberOfObservationsWithNameEqualTo(ArmsToolCallingObservationConvention.DEFAULT_OPERATION_NAME, 2)
+			.forAllObservationsWithNameEqualTo(ArmsToolCallingObservationConvention.DEFAULT_OPERATION_NAME,
+					observation -> observation
+						.hasHighCardinalityKeyValueWithKey(ArmsToolCallingObservationDocumentation.TOOL_DURATION));
+	}
+
+	private ToolCallback sleepingTool(String name, long sleepMillis) {
+		return FunctionToolCallback.builder(name, (String input) -> {
+			invoked.add(name);
+			try {
+				Thread.sleep(sleepMillis);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return name + " done";
+		}).description("Sleeps " + sleepMillis + " ms").inputType(String.class).build();
+	}
+
+	private static Prompt prompt(List<ToolCallback> tools) {
+		return new Prompt(new UserMessage("run the tools"),
+				ToolCallingChatOptions.builder().toolCallbacks(tools).build());
+	}
+
+	private static ChatResponse response(AssistantMessage.ToolCall... toolCalls) {
+		return new ChatResponse(List.of(new Generation(new AssistantMessage("", Map.of(), List.of(toolCalls)))));
+	}
+
+	private static AssistantMessage.ToolCall toolCall(String id, String name) {
+		return new AssistantMessage.ToolCall(id, "function", name, "\"input\"");
+	}
+
+	private static List<ToolResponseMessage.ToolResponse> responses(ToolExecutionResult result) {
+		ToolResponseMessage message = (ToolResponseMessage) result.conversationHistory()
+			.get(result.conversationHistory().size() - 1);
+		return new ArrayList<>(message.getResponses());
+	}
+
+}
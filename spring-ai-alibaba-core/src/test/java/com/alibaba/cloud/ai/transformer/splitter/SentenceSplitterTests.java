@@ -15,10 +15,18 @@
  */
 package com.alibaba.cloud.ai.transformer.splitter;
 
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import opennlp.tools.sentdetect.SentenceDetectorME;
+import opennlp.tools.sentdetect.SentenceModel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.ai.document.Document;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -40,6 +48,10 @@ class SentenceSplitterTests {
 
 	private static final int CUSTOM_CHUNK_SIZE = 100;
 
+	private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+	private static final Encoding ENCODING = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+
 	@BeforeEach
 	void setUp() {
 		// Initialize with default chunk size
@@ -176,4 +188,128 @@ class SentenceSplitterTests {
 		assertThat(documents).hasSizeGreaterThan(1);
 	}
 
+	/**
+	 * Test chunk token budget. Verifies that every chunk stays within the chunk size and
+	 * that the chunks cover the whole text in order.
+	 */
+	@Test
+	void testChunksStayWithinTokenBudget() {
+		String text = corpus(400);
+		SentenceSplitter smallSplitter = new SentenceSplitter(CUSTOM_CHUNK_SIZE);
+
+		List<String> chunks = smallSplitter.splitText(text);
+
+		assertThat(chunks).hasSizeGreaterThan(10);
+		assertThat(chunks)
+			.allSatisfy(chunk -> assertThat(ENCODING.countTokens(chunk)).isLessThanOrEqualTo(CUSTOM_CHUNK_SIZE + 5));
+		assertThat(String.join("", chunks).replaceAll("\\s", "")).isEqualTo(text.replaceAll("\\s", ""));
+	}
+
+	/**
+	 * Test a sentence longer than the chunk size. Verifies that it becomes its own chunk
+	 * without an empty chunk in front of it.
+	 */
+	@Test
+	void testOversizedSentenceDoesNotProduceEmptyChunk() {
+		String longSentence = "word ".repeat(300).trim() + ".";
+		SentenceSplitter smallSplitter = new SentenceSplitter(CUSTOM_CHUNK_SIZE);
+
+		List<String> chunks = smallSplitter.splitText(longSentence + " Short one.");
+
+		assertThat(chunks).noneMatch(String::isEmpty);
+		assertThat(chunks.get(0)).startsWith("word word");
+	}
+
+	/**
+	 * Test parallel splitting. Verifies that splitting a document list in parallel gives
+	 * the same chunks, in the same order, as splitting it sequentially.
+	 */
+	@Test
+	void testParallelSplitMatchesSequential() {
+		List<Document> inputDocs = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			inputDocs.add(new Document("doc-" + i + ". " + corpus(20 + i)));
+		}
+		SentenceSplitter sequential = new SentenceSplitter(CUSTOM_CHUNK_SIZE);
+		sequential.setParallel(false);
+		SentenceSplitter parallel = new SentenceSplitter(CUSTOM_CHUNK_SIZE);
+
+		List<String> expected = sequential.apply(inputDocs).stream().map(Document::getText).toList();
+		List<String> actual = parallel.apply(inputDocs).stream().map(Document::getText).toList();
+
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	/**
+	 * Compares the splitter with the previous implementation, which re-encoded the whole
+	 * growing chunk for every sentence, on a multi-megabyte corpus. Run with
+	 * {@code -Dbenchmark=true}.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkAgainstReencodingSplitter() {
+		String text = corpus(40_000);
+		SentenceSplitter benchmarkSplitter = new SentenceSplitter();
+		SentenceModel model;
+		try (InputStream is = getClass().getResourceAsStream("/opennlp/opennlp-en-ud-ewt-sentence-1.2-2.5.0.bin")) {
+			model = new SentenceModel(is);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		for (int round = 0; round < 3; round++) {
+			long start = System.nanoTime();
+			int legacyChunks = reencodingSplit(model, text, DEFAULT_CHUNK_SIZE).size();
+			long legacyMillis = (System.nanoTime() - start) / 1_000_000;
+
+			start = System.nanoTime();
+			int chunks = benchmarkSplitter.splitText(text).size();
+			long millis = (System.nanoTime() - start) / 1_000_000;
+
+			System.out.printf("corpus %d KB: re-encoding %d ms (%d chunks), incremental %d ms (%d chunks)%n",
+					text.length() / 1024, legacyMillis, legacyChunks, millis, chunks);
+		}
+	}
+
+	private static List<String> reencodingSplit(SentenceModel model, String text, int chunkSize) {
+		String[] texts = new SentenceDetectorME(model).sentDetect(text);
+		List<String> chunks = new ArrayList<>();
+		StringBuilder chunk = new StringBuilder();
+		for (int i = 0; i < texts.length; i++) {
+			int currentChunkSize = ENCODING.encode(chunk.toString()).boxed().size();
+			int textTokenSize = ENCODING.encode(texts[i]).boxed().size();
+			if (currentChunkSize + textTokenSize > chunkSize) {
+				chunks.add(chunk.toString());
+				chunk = new StringBuilder(texts[i]);
+			}
+			else {
+				chunk.append(texts[i]);
+			}
+			if (i == texts.length - 1) {
+				chunks.add(chunk.toString());
+			}
+		}
+		return chunks;
+	}
+
+	private static String corpus(int sentences) {
+		String[] subjects = { "The system", "Our team", "A retrieval pipeline", "The model", "Each worker" };
+		String[] verbs = { "processes", "indexes", "summarizes", "validates", "splits" };
+		String[] objects = { "large documents", "incoming requests", "user questions", "daily reports",
+				"embedding batches" };
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < sentences; i++) {
+			text.append(subjects[i % 5])
+				.append(' ')
+				.append(verbs[(i / 5) % 5])
+				.append(' ')
+				.append(objects[(i / 25) % 5])
+				.append(" in step ")
+				.append(i)
+				.append(i % 7 == 0 ? ", which keeps latency predictable under load. " : ". ");
+		}
+		return text.toString();
+	}
+
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.example.deepresearch.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Background investigation config
+ *
+ * @since 2025/7/1
+ */
+@ConfigurationProperties(prefix = BackgroundInvestigationProperties.PREFIX)
+public class BackgroundInvestigationProperties {
+
+	public static final String PREFIX = DeepResearchProperties.PREFIX + ".background-investigation";
+
+	/**
+	 * Max number of searches and crawls running at the same time
+	 */
+	private int maxConcurrency = 8;
+
+	/**
+	 * Max number of concurrent crawls against the same host
+	 */
+	private int maxConcurrencyPerHost = 2;
+
+	/**
+	 * Deadline for the whole investigation. Crawls not finished in time fall back to the
+	 * search snippet
+	 */
+	private Duration timeout = Duration.ofSeconds(60);
+
+	/**
+	 * Max number of crawled pages kept in the url cache
+	 */
+	private long crawlCacheSize = 512;
+
+	/**
+	 * How long a crawled page stays in the url cache
+	 */
+	private Duration crawlCacheTtl = Duration.ofMinutes(30);
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	public void setMaxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	public int getMaxConcurrencyPerHost() {
+		return maxConcurrencyPerHost;
+	}
+
+	public void setMaxConcurrencyPerHost(int maxConcurrencyPerHost) {
+		this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+	}
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	public long getCrawlCacheSize() {
+		return crawlCacheSize;
+	}
+
+	public void setCrawlCacheSize(long crawlCacheSize) {
+		this.crawlCacheSize = crawlCacheSize;
+	}
+
+	public Duration getCrawlCacheTtl() {
+		return crawlCacheTtl;
+	}
+
+	public void setCrawlCacheTtl(Duration crawlCacheTtl) {
+		this.crawlCacheTtl = crawlCacheTtl;
+	}
+
+}
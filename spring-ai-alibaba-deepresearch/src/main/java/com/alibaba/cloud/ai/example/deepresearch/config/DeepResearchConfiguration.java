@@ -72,7 +72,8 @@ import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
  */
 @Configuration
 @EnableConfigurationProperties({ DeepResearchProperties.class, PythonCoderProperties.class,
-		McpAssignNodeProperties.class, RagProperties.class })
+		McpAssignNodeProperties.class, RagProperties.class, BackgroundInvestigationProperties.class,
+		GraphProcessProperties.class })
 public class DeepResearchConfiguration {
 
 	private static final Logger logger = LoggerFactory.getLogger(DeepResearchConfiguration.class);
@@ -102,6 +103,9 @@ public class DeepResearchConfiguration {
 	@Autowired
 	private DeepResearchProperties deepResearchProperties;
 
+	@Autowired
+	private BackgroundInvestigationProperties backgroundInvestigationProperties;
+
 	@Autowired(required = false)
 	private JinaCrawlerService jinaCrawlerService;
 
@@ -112,7 +116,13 @@ public class DeepResearchConfiguration {
 	private ReportService reportService;
 
 	@Bean
-	public StateGraph deepResearch(ChatClient researchAgent) throws GraphStateException {
+	public BackgroundInvestigationNode backgroundInvestigationNode() {
+		return new BackgroundInvestigationNode(searchBeanUtil, jinaCrawlerService, backgroundInvestigationProperties);
+	}
+
+	@Bean
+	public StateGraph deepResearch(ChatClient researchAgent, BackgroundInvestigationNode backgroundInvestigationNode)
+			throws GraphStateException {
 
 		KeyStrategyFactory keyStrategyFactory = () -> {
 			HashMap<String, KeyStrategy> keyStrategyHashMap = new HashMap<>();
@@ -123,6 +133,7 @@ public class DeepResearchConfiguration {
 			keyStrategyHashMap.put("information_next_node", new ReplaceStrategy());
 			keyStrategyHashMap.put("human_next_node", new ReplaceStrategy());
 			keyStrategyHashMap.put("research_team_next_node", new ReplaceStrategy());
+			keyStrategyHashMap.put("research_team_completed_steps", new ReplaceStrategy());
 			// 用户输入
 			keyStrategyHashMap.put("query", new ReplaceStrategy());
 			keyStrategyHashMap.put("optimize_queries", new ReplaceStrategy());
@@ -144,6 +155,7 @@ public class DeepResearchConfiguration {
 			keyStrategyHashMap.put("observations", new ReplaceStrategy());
 			keyStrategyHashMap.put("final_report", new ReplaceStrategy());
 			keyStrategyHashMap.put("planner_content", new ReplaceStrategy());
+			keyStrategyHashMap.put("parallel_step_status", new ReplaceStrategy());
 
 			for (int i = 0; i < deepResearchProperties.getParallelNodeCount()
 				.get(ParallelEnum.RESEARCHER.getValue()); i++) {
@@ -160,13 +172,12 @@ public class DeepResearchConfiguration {
 				new DeepResearchStateSerializer(OverAllState::new))
 			.addNode("coordinator", node_async(new CoordinatorNode(coordinatorAgent)))
 			.addNode("rewrite_multi_query", node_async(new RewriteAndMultiQueryNode(rewriteAndMultiQueryAgentBuilder)))
-			.addNode("background_investigator",
-					node_async(new BackgroundInvestigationNode(searchBeanUtil, jinaCrawlerService)))
+			.addNode("background_investigator", node_async(backgroundInvestigationNode))
 			.addNode("planner", node_async((new PlannerNode(plannerAgent))))
 			.addNode("information", node_async((new InformationNode())))
 			.addNode("human_feedback", node_async(new HumanFeedbackNode()))
 			.addNode("research_team", node_async(new ResearchTeamNode()))
-			.addNode("parallel_executor", node_async(new ParallelExecutorNode(deepResearchProperties)))
+			.addNode("parallel_executor", node_async(new ParallelExecutorNode()))
 			.addNode("reporter", node_async((new ReporterNode(reporterAgent, reportService))))
 			.addNode("rag_node", node_async(new RagNode(retrievalAugmentationAdvisor, researchAgent)));
 
@@ -206,20 +217,29 @@ public class DeepResearchConfiguration {
 	}
 
 	private void addResearcherNodes(StateGraph stateGraph) throws GraphStateException {
+		int maxConcurrency = maxConcurrency(ParallelEnum.RESEARCHER);
 		for (int i = 0; i < deepResearchProperties.getParallelNodeCount()
 			.get(ParallelEnum.RESEARCHER.getValue()); i++) {
 			String nodeId = "researcher_" + i;
-			stateGraph.addNode(nodeId, node_async(new ResearcherNode(researchAgent, String.valueOf(i))));
+			stateGraph.addNode(nodeId,
+					node_async(new ResearcherNode(researchAgent, String.valueOf(i), maxConcurrency)));
 			stateGraph.addEdge("parallel_executor", nodeId).addEdge(nodeId, "research_team");
 		}
 	}
 
 	private void addCoderNodes(StateGraph stateGraph) throws GraphStateException {
+		int maxConcurrency = maxConcurrency(ParallelEnum.CODER);
 		for (int i = 0; i < deepResearchProperties.getParallelNodeCount().get(ParallelEnum.CODER.getValue()); i++) {
 			String nodeId = "coder_" + i;
-			stateGraph.addNode(nodeId, node_async(new CoderNode(coderAgent, String.valueOf(i))));
+			stateGraph.addNode(nodeId, node_async(new CoderNode(coderAgent, String.valueOf(i), maxConcurrency)));
 			stateGraph.addEdge("parallel_executor", nodeId).addEdge(nodeId, "research_team");
 		}
 	}
 
+	private int maxConcurrency(ParallelEnum type) {
+		Integer maxConcurrency = deepResearchProperties.getParallelMaxConcurrency().get(type.getValue());
+		return maxConcurrency != null && maxConcurrency > 0 ? maxConcurrency
+				: deepResearchProperties.getParallelNodeCount().get(type.getValue());
+	}
+
 }
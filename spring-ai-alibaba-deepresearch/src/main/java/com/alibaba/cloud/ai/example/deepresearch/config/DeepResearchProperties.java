@@ -39,6 +39,12 @@ public class DeepResearchProperties {
 	 */
 	private Map<String, Integer> parallelNodeCount = new HashMap<>();
 
+	/**
+	 * Max steps of a type processing at the same time, key=node name, value=step count.
+	 * Defaults to the node count of that type
+	 */
+	private Map<String, Integer> parallelMaxConcurrency = new HashMap<>();
+
 	/**
 	 * McpClient mapping for Agent name. key=Agent name, value=McpClient Name
 	 */
@@ -52,6 +58,14 @@ public class DeepResearchProperties {
 		this.parallelNodeCount = parallelNodeCount;
 	}
 
+	public Map<String, Integer> getParallelMaxConcurrency() {
+		return parallelMaxConcurrency;
+	}
+
+	public void setParallelMaxConcurrency(Map<String, Integer> parallelMaxConcurrency) {
+		this.parallelMaxConcurrency = parallelMaxConcurrency;
+	}
+
 	public Map<String, Set<String>> getMcpClientMapping() {
 		return mcpClientMapping;
 	}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.example.deepresearch.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Graph streaming session config
+ *
+ * @since 2025/7/1
+ */
+@ConfigurationProperties(prefix = GraphProcessProperties.PREFIX)
+public class GraphProcessProperties {
+
+	public static final String PREFIX = DeepResearchProperties.PREFIX + ".graph-process";
+
+	/**
+	 * Max number of research sessions streaming at the same time
+	 */
+	private int maxConcurrentSessions = 10;
+
+	/**
+	 * Max number of sessions waiting for a free slot. Further requests are rejected
+	 */
+	private int maxQueuedSessions = 50;
+
+	/**
+	 * Run sessions on virtual threads when the JVM supports them
+	 */
+	private boolean virtualThreads = false;
+
+	/**
+	 * Max number of events buffered for a single client
+	 */
+	private int sessionBufferSize = 256;
+
+	/**
+	 * What to do with token events when the client buffer is full
+	 */
+	private TokenOverflowPolicy tokenOverflowPolicy = TokenOverflowPolicy.COALESCE;
+
+	/**
+	 * How long a node event may wait for buffer space before the session is failed
+	 */
+	private Duration emitTimeout = Duration.ofSeconds(60);
+
+	public int getMaxConcurrentSessions() {
+		return maxConcurrentSessions;
+	}
+
+	public void setMaxConcurrentSessions(int maxConcurrentSessions) {
+		this.maxConcurrentSessions = maxConcurrentSessions;
+	}
+
+	public int getMaxQueuedSessions() {
+		return maxQueuedSessions;
+	}
+
+	public void setMaxQueuedSessions(int maxQueuedSessions) {
+		this.maxQueuedSessions = maxQueuedSessions;
+	}
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	public int getSessionBufferSize() {
+		return sessionBufferSize;
+	}
+
+	public void setSessionBufferSize(int sessionBufferSize) {
+		this.sessionBufferSize = sessionBufferSize;
+	}
+
+	public TokenOverflowPolicy getTokenOverflowPolicy() {
+		return tokenOverflowPolicy;
+	}
+
+	public void setTokenOverflowPolicy(TokenOverflowPolicy tokenOverflowPolicy) {
+		this.tokenOverflowPolicy = tokenOverflowPolicy;
+	}
+
+	public Duration getEmitTimeout() {
+		return emitTimeout;
+	}
+
+	public void setEmitTimeout(Duration emitTimeout) {
+		this.emitTimeout = emitTimeout;
+	}
+
+	public enum TokenOverflowPolicy {
+
+		/**
+		 * Merge pending token chunks of the same node into one event once there is room
+		 */
+		COALESCE,
+
+		/**
+		 * Drop token chunks that do not fit into the buffer
+		 */
+		DROP
+
+	}
+
+}
@@ -108,16 +108,32 @@ public class RagDataAutoConfiguration implements ApplicationRunner {
 		try {
 			Files.createDirectories(archivePath);
 			logger.debug("Scanning directory for new documents: {}", scanDir);
+			List<Path> files = new ArrayList<>();
 			try (DirectoryStream<Path> stream = Files.newDirectoryStream(scanPath)) {
 				for (Path filePath : stream) {
 					if (Files.isRegularFile(filePath)) {
-						ingestionService.ingest(new FileSystemResource(filePath.toFile()));
-						Files.move(filePath, archivePath.resolve(filePath.getFileName()),
-								StandardCopyOption.REPLACE_EXISTING);
-						logger.info("Moved processed file {} to archive.", filePath.getFileName());
+						files.add(filePath);
 					}
 				}
 			}
+			if (files.isEmpty()) {
+				return;
+			}
+			// 批量导入，由导入流水线并行处理
+			List<Resource> resources = files.stream()
+				.map(path -> (Resource) new FileSystemResource(path.toFile()))
+				.toList();
+			VectorStoreDataIngestionService.IngestionReport report = ingestionService.ingest(resources);
+			for (int i = 0; i < files.size(); i++) {
+				Path filePath = files.get(i);
+				// 导入失败的文件留在扫描目录，下次扫描时重试
+				if (report.failedResources().contains(resources.get(i))) {
+					logger.warn("Keeping file {} in the scan directory for the next scan.", filePath.getFileName());
+					continue;
+				}
+				Files.move(filePath, archivePath.resolve(filePath.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+				logger.info("Moved processed file {} to archive.", filePath.getFileName());
+			}
 		}
 		catch (IOException e) {
 			logger.error("Error during scheduled directory scan.", e);
@@ -299,6 +299,17 @@ public class RagProperties {
 			 */
 			private int rrfRankConstant = 60;
 
+			/**
+			 * 是否在客户端并发执行BM25和KNN查询并做RRF融合，默认为false，即使用Elasticsearch的rank.rrf。
+			 * 适用于不支持服务端RRF的Elasticsearch版本或许可。
+			 */
+			private boolean clientSideFusion = false;
+
+			/**
+			 * 查询向量缓存的最大条目数，0表示不缓存。
+			 */
+			private long queryEmbeddingCacheSize = 256;
+
 			public boolean isEnabled() {
 				return enabled;
 			}
@@ -339,6 +350,22 @@ public class RagProperties {
 				this.rrfRankConstant = rrfRankConstant;
 			}
 
+			public boolean isClientSideFusion() {
+				return clientSideFusion;
+			}
+
+			public void setClientSideFusion(boolean clientSideFusion) {
+				this.clientSideFusion = clientSideFusion;
+			}
+
+			public long getQueryEmbeddingCacheSize() {
+				return queryEmbeddingCacheSize;
+			}
+
+			public void setQueryEmbeddingCacheSize(long queryEmbeddingCacheSize) {
+				this.queryEmbeddingCacheSize = queryEmbeddingCacheSize;
+			}
+
 		}
 
 	}
@@ -359,6 +386,11 @@ public class RagProperties {
 		 */
 		private final Scan scan = new Scan();
 
+		/**
+		 * 数据导入流水线的配置
+		 */
+		private final Ingestion ingestion = new Ingestion();
+
 		public List<String> getLocations() {
 			return locations;
 		}
@@ -371,6 +403,95 @@ public class RagProperties {
 			return scan;
 		}
 
+		public Ingestion getIngestion() {
+			return ingestion;
+		}
+
+		/**
+		 * 数据导入流水线配置。解析、切分、写入（含向量化）三个阶段各自并行，阶段之间使用有界队列。
+		 */
+		public static class Ingestion {
+
+			/**
+			 * 解析阶段的并行度。
+			 */
+			private int parseParallelism = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+			/**
+			 * 切分阶段的并行度。
+			 */
+			private int splitParallelism = 2;
+
+			/**
+			 * 写入阶段（向量化并写入向量库）的并行度。
+			 */
+			private int writeParallelism = 2;
+
+			/**
+			 * 每个阶段排队任务的上限，队列满时由上游线程直接执行，起到背压作用。
+			 */
+			private int queueCapacity = 16;
+
+			/**
+			 * 每次写入向量库的切片数量。
+			 */
+			private int writeBatchSize = 64;
+
+			/**
+			 * 记录已导入资源内容哈希的清单文件，为空时仅保存在内存中。只应在向量库持久化时配置。
+			 */
+			private String manifestPath;
+
+			public int getParseParallelism() {
+				return parseParallelism;
+			}
+
+			public void setParseParallelism(int parseParallelism) {
+				this.parseParallelism = parseParallelism;
+			}
+
+			public int getSplitParallelism() {
+				return splitParallelism;
+			}
+
+			public void setSplitParallelism(int splitParallelism) {
+				this.splitParallelism = splitParallelism;
+			}
+
+			public int getWriteParallelism() {
+				return writeParallelism;
+			}
+
+			public void setWriteParallelism(int writeParallelism) {
+				this.writeParallelism = writeParallelism;
+			}
+
+			public int getQueueCapacity() {
+				return queueCapacity;
+			}
+
+			public void setQueueCapacity(int queueCapacity) {
+				this.queueCapacity = queueCapacity;
+			}
+
+			public int getWriteBatchSize() {
+				return writeBatchSize;
+			}
+
+			public void setWriteBatchSize(int writeBatchSize) {
+				this.writeBatchSize = writeBatchSize;
+			}
+
+			public String getManifestPath() {
+				return manifestPath;
+			}
+
+			public void setManifestPath(String manifestPath) {
+				this.manifestPath = manifestPath;
+			}
+
+		}
+
 		public static class Scan {
 
 			/**
@@ -16,6 +16,7 @@
 
 package com.alibaba.cloud.ai.example.deepresearch.controller;
 
+import com.alibaba.cloud.ai.example.deepresearch.config.GraphProcessProperties;
 import com.alibaba.cloud.ai.example.deepresearch.controller.graph.GraphProcess;
 import com.alibaba.cloud.ai.example.deepresearch.controller.request.ChatRequestProcess;
 import com.alibaba.cloud.ai.example.deepresearch.model.req.ChatRequest;
@@ -29,19 +30,25 @@ import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
 import com.alibaba.cloud.ai.graph.exception.GraphRunnerException;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
 import com.alibaba.cloud.ai.graph.state.StateSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * @author yingzi
@@ -57,13 +64,23 @@ public class DeepResearchController {
 
 	private final SearchBeanUtil searchBeanUtil;
 
+	private final GraphProcess graphProcess;
+
 	@Autowired
-	public DeepResearchController(@Qualifier("deepResearch") StateGraph stateGraph, SearchBeanUtil searchBeanUtil)
+	public DeepResearchController(@Qualifier("deepResearch") StateGraph stateGraph, SearchBeanUtil searchBeanUtil,
+			GraphProcessProperties graphProcessProperties, ObjectProvider<MeterRegistry> meterRegistry)
 			throws GraphStateException {
 		SaverConfig saverConfig = SaverConfig.builder().register(SaverConstant.MEMORY, new MemorySaver()).build();
 		this.compiledGraph = stateGraph
 			.compile(CompileConfig.builder().saverConfig(saverConfig).interruptBefore("human_feedback").build());
 		this.searchBeanUtil = searchBeanUtil;
+		this.graphProcess = new GraphProcess(this.compiledGraph, graphProcessProperties);
+		meterRegistry.ifAvailable(graphProcess::bindMetrics);
+	}
+
+	@PreDestroy
+	public void destroy() {
+		graphProcess.close();
 	}
 
 	/**
@@ -83,20 +100,24 @@ public class DeepResearchController {
 		RunnableConfig runnableConfig = RunnableConfig.builder().threadId(chatRequest.threadId()).build();
 
 		Map<String, Object> objectMap = new HashMap<>();
-		// Create a unicast sink to emit ServerSentEvents
-		Sinks.Many<ServerSentEvent<String>> sink = Sinks.many().unicast().onBackpressureBuffer();
-
-		GraphProcess graphProcess = new GraphProcess(this.compiledGraph);
-		// Handle human feedback if auto-accept is disabled and feedback is provided
-		if (!chatRequest.autoAcceptPlan() && StringUtils.hasText(chatRequest.interruptFeedback())) {
-			graphProcess.handleHumanFeedback(chatRequest, objectMap, runnableConfig, sink);
+		// Create a bounded unicast sink to emit ServerSentEvents
+		Sinks.Many<ServerSentEvent<String>> sink = graphProcess.createSink();
+
+		try {
+			// Handle human feedback if auto-accept is disabled and feedback is provided
+			if (!chatRequest.autoAcceptPlan() && StringUtils.hasText(chatRequest.interruptFeedback())) {
+				graphProcess.handleHumanFeedback(chatRequest, objectMap, runnableConfig, sink);
+			}
+			// First question
+			else {
+				ChatRequestProcess.initializeObjectMap(chatRequest, objectMap);
+				logger.info("init inputs: {}", objectMap);
+				AsyncGenerator<NodeOutput> resultFuture = compiledGraph.stream(objectMap, runnableConfig);
+				graphProcess.processStream(resultFuture, sink);
+			}
 		}
-		// First question
-		else {
-			ChatRequestProcess.initializeObjectMap(chatRequest, objectMap);
-			logger.info("init inputs: {}", objectMap);
-			AsyncGenerator<NodeOutput> resultFuture = compiledGraph.stream(objectMap, runnableConfig);
-			graphProcess.processStream(resultFuture, sink);
+		catch (RejectedExecutionException e) {
+			throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage(), e);
 		}
 
 		return sink.asFlux()
@@ -112,9 +133,8 @@ public class DeepResearchController {
 		objectMap.put("feed_back", humanFeedback.feedBack());
 		objectMap.put("feed_back_content", humanFeedback.feedBackContent());
 
-		// Create a unicast sink to emit ServerSentEvents
-		Sinks.Many<ServerSentEvent<String>> sink = Sinks.many().unicast().onBackpressureBuffer();
-		GraphProcess graphProcess = new GraphProcess(this.compiledGraph);
+		// Create a bounded unicast sink to emit ServerSentEvents
+		Sinks.Many<ServerSentEvent<String>> sink = graphProcess.createSink();
 
 		StateSnapshot stateSnapshot = compiledGraph.getState(runnableConfig);
 		OverAllState state = stateSnapshot.state();
@@ -122,7 +142,12 @@ public class DeepResearchController {
 		state.withHumanFeedback(new OverAllState.HumanFeedback(objectMap, "research_team"));
 
 		AsyncGenerator<NodeOutput> resultFuture = compiledGraph.streamFromInitialNode(state, runnableConfig);
-		graphProcess.processStream(resultFuture, sink);
+		try {
+			graphProcess.processStream(resultFuture, sink);
+		}
+		catch (RejectedExecutionException e) {
+			throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage(), e);
+		}
 
 		return sink.asFlux()
 			.doOnCancel(() -> logger.info("Client disconnected from stream"))
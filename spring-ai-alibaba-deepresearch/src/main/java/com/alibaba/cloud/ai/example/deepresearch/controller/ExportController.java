@@ -67,7 +67,7 @@ public class ExportController {
 			// 检查线程ID对应的报告是否存在
 			if (!exportService.existsReportByThreadId(threadId)) {
 				return ResponseEntity.badRequest()
-					.body(ExportResponse.error("Report not found for thread: " + threadId));
+					.body(ExportResponse.error("Report not found or not completed for thread: " + threadId));
 			}
 
 			// 检查请求的格式是否支持
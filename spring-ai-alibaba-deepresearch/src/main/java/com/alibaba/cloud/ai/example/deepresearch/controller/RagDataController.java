@@ -37,15 +37,26 @@ public class RagDataController {
 		this.ingestionService = ingestionService;
 	}
 
+	/**
+	 * 上传文档并导入向量库
+	 * @param file the document
+	 * @param sourceId optional stable id of the document, uploading again with the same id
+	 * replaces the previous version; without it uploads are identified by their content
+	 */
 	@PostMapping("/upload")
-	public ResponseEntity<Map<String, String>> handleFileUpload(@RequestParam("file") MultipartFile file) {
+	public ResponseEntity<Map<String, String>> handleFileUpload(@RequestParam("file") MultipartFile file,
+			@RequestParam(value = "sourceId", required = false) String sourceId) {
 		if (file.isEmpty()) {
 			return ResponseEntity.badRequest().body(Map.of("message", "File is empty."));
 		}
 
 		try {
 			// MultipartFile.getResource() is a convenient way to pass it to the service
-			ingestionService.ingest(file.getResource());
+			var report = ingestionService.ingest(file.getResource(), sourceId);
+			if (report.failed() > 0) {
+				String message = "Failed to upload and ingest '" + file.getOriginalFilename() + "'.";
+				return ResponseEntity.internalServerError().body(Map.of("message", message));
+			}
 			String message = "File '" + file.getOriginalFilename() + "' uploaded and ingested successfully.";
 			return ResponseEntity.ok(Map.of("message", message));
 		}
@@ -19,11 +19,19 @@ package com.alibaba.cloud.ai.example.deepresearch.controller;
 import com.alibaba.cloud.ai.example.deepresearch.model.response.BaseResponse;
 import com.alibaba.cloud.ai.example.deepresearch.model.response.ExistsResponse;
 import com.alibaba.cloud.ai.example.deepresearch.model.response.ReportResponse;
+import com.alibaba.cloud.ai.example.deepresearch.model.response.ReportSectionsResponse;
 import com.alibaba.cloud.ai.example.deepresearch.service.ReportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  * 报告查询控制器
@@ -52,7 +60,8 @@ public class ReportController {
 	public ResponseEntity<ReportResponse> getReport(@PathVariable String threadId) {
 		try {
 			logger.info("Querying report for thread ID: {}", threadId);
-			String report = reportService.getReport(threadId);
+			// 生成中的报告只能按章节读取
+			String report = reportService.isReportCompleted(threadId) ? reportService.getReport(threadId) : null;
 
 			if (report != null) {
 				return ResponseEntity.ok(ReportResponse.success(threadId, report));
@@ -68,6 +77,60 @@ public class ReportController {
 		}
 	}
 
+	/**
+	 * 按章节范围获取报告，适合分段加载长报告
+	 * @param threadId 线程ID
+	 * @param from 起始章节下标（包含）
+	 * @param to 结束章节下标（不包含），默认到最后一个章节
+	 * @return 章节内容及总章节数
+	 */
+	@GetMapping("/{threadId}/sections")
+	public ResponseEntity<ReportSectionsResponse> getReportSections(@PathVariable String threadId,
+			@RequestParam(defaultValue = "0") long from, @RequestParam(required = false) Long to) {
+		if (from < 0 || (to != null && to < from)) {
+			return ResponseEntity.badRequest()
+				.body(ReportSectionsResponse.error(threadId, "Invalid section range: " + from + " - " + to));
+		}
+		try {
+			logger.info("Querying report sections for thread ID: {}, from: {}, to: {}", threadId, from, to);
+			long total = reportService.getSectionCount(threadId);
+			if (total == 0) {
+				return ResponseEntity.notFound().build();
+			}
+
+			boolean completed = reportService.isReportCompleted(threadId);
+			List<String> sections = reportService.getSections(threadId, from, to != null ? to : total);
+			return ResponseEntity.ok(ReportSectionsResponse.success(threadId, total, completed, from, sections));
+		}
+		catch (Exception e) {
+			logger.error("Failed to get report sections for thread ID: {}", threadId, e);
+			return ResponseEntity.internalServerError()
+				.body(ReportSectionsResponse.error(threadId, "Failed to get report sections: " + e.getMessage()));
+		}
+	}
+
+	/**
+	 * 以Markdown流式下载报告，按章节写出，不在内存中拼接完整报告。报告生成完毕前返回 404
+	 * @param threadId 线程ID
+	 * @return 报告内容流
+	 */
+	@GetMapping("/{threadId}/stream")
+	public ResponseEntity<StreamingResponseBody> streamReport(@PathVariable String threadId) {
+		logger.info("Streaming report for thread ID: {}", threadId);
+		if (!reportService.isReportCompleted(threadId)) {
+			return ResponseEntity.notFound().build();
+		}
+
+		StreamingResponseBody body = out -> {
+			Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+			reportService.writeReport(threadId, writer);
+			writer.flush();
+		};
+		return ResponseEntity.ok()
+			.contentType(new MediaType(MediaType.TEXT_MARKDOWN, StandardCharsets.UTF_8))
+			.body(body);
+	}
+
 	/**
 	 * 检查报告是否存在
 	 * @param threadId 线程ID
@@ -16,6 +16,7 @@
 
 package com.alibaba.cloud.ai.example.deepresearch.controller.graph;
 
+import com.alibaba.cloud.ai.example.deepresearch.config.GraphProcessProperties;
 import com.alibaba.cloud.ai.example.deepresearch.model.req.ChatRequest;
 import com.alibaba.cloud.ai.graph.CompiledGraph;
 import com.alibaba.cloud.ai.graph.NodeOutput;
@@ -27,31 +28,128 @@ import com.alibaba.cloud.ai.graph.state.StateSnapshot;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.codec.ServerSentEvent;
 import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
+ * 驱动图的流式输出。所有会话共享一个执行器，并发会话数和排队会话数都有上限，超过上限的请求直接拒绝。
+ * <p>
+ * 每个会话的事件缓冲区有界：缓冲区满时，token事件按配置合并或丢弃，节点事件等待客户端消费，超时后结束会话。
+ *
  * @author yingzi
  * @since 2025/6/6 15:05
  */
 
-public class GraphProcess {
+public class GraphProcess implements AutoCloseable {
 
 	private static final Logger logger = LoggerFactory.getLogger(GraphProcess.class);
 
-	private final ExecutorService executor = Executors.newFixedThreadPool(10);
+	private static final long EMIT_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final ExecutorService executor;
+
+	private final CompiledGraph compiledGraph;
+
+	private final GraphProcessProperties properties;
+
+	private final Semaphore runningPermits;
+
+	/**
+	 * 已接受的会话数（运行中+排队中）
+	 */
+	private final AtomicInteger admittedSessions = new AtomicInteger();
 
-	private CompiledGraph compiledGraph;
+	private final AtomicInteger activeSessions = new AtomicInteger();
+
+	private final AtomicLong rejectedSessions = new AtomicLong();
+
+	private final AtomicLong coalescedTokens = new AtomicLong();
+
+	private final AtomicLong droppedTokens = new AtomicLong();
 
 	public GraphProcess(CompiledGraph compiledGraph) {
+		this(compiledGraph, new GraphProcessProperties());
+	}
+
+	public GraphProcess(CompiledGraph compiledGraph, GraphProcessProperties properties) {
 		this.compiledGraph = compiledGraph;
+		this.properties = properties;
+		this.runningPermits = new Semaphore(Math.max(1, properties.getMaxConcurrentSessions()));
+		this.executor = createExecutor(properties);
+	}
+
+	private static ExecutorService createExecutor(GraphProcessProperties properties) {
+		if (properties.isVirtualThreads()) {
+			try {
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			}
+			catch (ReflectiveOperationException e) {
+				logger.warn("Virtual threads are not available on this JVM, using platform threads instead");
+			}
+		}
+		// 线程数与并发会话数一致，排队的会话在执行器队列中等待，队列长度由准入控制限制
+		int poolSize = Math.max(1, properties.getMaxConcurrentSessions());
+		AtomicInteger threadCount = new AtomicInteger();
+		ThreadPoolExecutor threadPool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), r -> {
+					Thread thread = new Thread(r, "graph-process-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		threadPool.allowCoreThreadTimeOut(true);
+		return threadPool;
+	}
+
+	/**
+	 * 注册会话指标：当前活跃和排队的会话数为 Gauge，单调递增的拒绝、合并和丢弃次数为 Counter
+	 * @param meterRegistry 指标注册中心
+	 */
+	public void bindMetrics(MeterRegistry meterRegistry) {
+		Gauge.builder("deepresearch.graph.sessions.active", activeSessions, AtomicInteger::get)
+			.description("Research sessions currently streaming")
+			.register(meterRegistry);
+		Gauge.builder("deepresearch.graph.sessions.queued", this, GraphProcess::getQueuedSessions)
+			.description("Research sessions waiting for a free slot")
+			.register(meterRegistry);
+		FunctionCounter.builder("deepresearch.graph.sessions.rejected", rejectedSessions, AtomicLong::doubleValue)
+			.description("Research sessions rejected by admission control")
+			.register(meterRegistry);
+		FunctionCounter.builder("deepresearch.graph.tokens.coalesced", coalescedTokens, AtomicLong::doubleValue)
+			.description("Token chunks merged because the client buffer was full")
+			.register(meterRegistry);
+		FunctionCounter.builder("deepresearch.graph.tokens.dropped", droppedTokens, AtomicLong::doubleValue)
+			.description("Token chunks dropped because the client buffer was full")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * 创建有界的会话事件通道
+	 * @return 单播sink，缓冲区大小由配置决定
+	 */
+	public Sinks.Many<ServerSentEvent<String>> createSink() {
+		return Sinks.many()
+			.unicast()
+			.onBackpressureBuffer(Queues.<ServerSentEvent<String>>get(properties.getSessionBufferSize()).get());
 	}
 
 	public void handleHumanFeedback(ChatRequest chatRequest, Map<String, Object> objectMap,
@@ -65,38 +163,182 @@ public class GraphProcess {
 		processStream(resultFuture, sink);
 	}
 
+	/**
+	 * 提交一个会话。运行中和排队中的会话都已满时抛出 {@link RejectedExecutionException}，此时生成器尚未被消费
+	 * @param generator 图的输出
+	 * @param sink 会话事件通道
+	 */
 	public void processStream(AsyncGenerator<NodeOutput> generator, Sinks.Many<ServerSentEvent<String>> sink) {
-		executor.submit(() -> {
-			generator.forEachAsync(output -> {
-				try {
-					// logger.info("output = {}", output);
-					String nodeName = output.node();
-					String content;
-					if (output instanceof StreamingOutput streamingOutput) {
-						content = JSON.toJSONString(Map.of(nodeName, streamingOutput.chunk()));
-						logger.info("Streaming output from node {}: {}", nodeName, streamingOutput.chunk());
-					}
-					else {
-						JSONObject nodeOutput = new JSONObject();
-						nodeOutput.put("data", output.state().data());
-						nodeOutput.put("node", nodeName);
-						content = JSON.toJSONString(nodeOutput);
-					}
-					sink.tryEmitNext(ServerSentEvent.builder(content).build());
+		int capacity = Math.max(1, properties.getMaxConcurrentSessions())
+				+ Math.max(0, properties.getMaxQueuedSessions());
+		if (admittedSessions.incrementAndGet() > capacity) {
+			admittedSessions.decrementAndGet();
+			rejectedSessions.incrementAndGet();
+			throw new RejectedExecutionException("Too many research sessions, please retry later");
+		}
+		try {
+			executor.execute(() -> runSession(generator, sink));
+		}
+		catch (RejectedExecutionException e) {
+			admittedSessions.decrementAndGet();
+			rejectedSessions.incrementAndGet();
+			throw e;
+		}
+	}
+
+	private void runSession(AsyncGenerator<NodeOutput> generator, Sinks.Many<ServerSentEvent<String>> sink) {
+		try {
+			runningPermits.acquire();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			admittedSessions.decrementAndGet();
+			sink.tryEmitError(e);
+			return;
+		}
+		activeSessions.incrementAndGet();
+		SessionEmitter emitter = new SessionEmitter(sink);
+		try {
+			for (NodeOutput output : generator) {
+				// logger.info("output = {}", output);
+				String nodeName = output.node();
+				if (output instanceof StreamingOutput streamingOutput) {
+					logger.info("Streaming output from node {}: {}", nodeName, streamingOutput.chunk());
+					emitter.emitToken(nodeName, streamingOutput.chunk() == null ? "" : streamingOutput.chunk());
 				}
-				catch (Exception e) {
-					logger.error("Error processing output", e);
-					throw new CompletionException(e);
+				else {
+					JSONObject nodeOutput = new JSONObject();
+					nodeOutput.put("data", output.state().data());
+					nodeOutput.put("node", nodeName);
+					emitter.emitEvent(JSON.toJSONString(nodeOutput));
 				}
-			}).thenAccept(v -> {
-				// 正常完成
-				sink.tryEmitComplete();
-			}).exceptionally(e -> {
-				logger.error("Error in stream processing", e);
-				sink.tryEmitError(e);
-				return null;
-			});
-		});
+			}
+			// 正常完成
+			emitter.complete();
+		}
+		catch (SessionCancelledException e) {
+			logger.info("Client disconnected, stop streaming graph output");
+		}
+		catch (Exception e) {
+			logger.error("Error in stream processing", e);
+			sink.tryEmitError(e);
+		}
+		finally {
+			activeSessions.decrementAndGet();
+			admittedSessions.decrementAndGet();
+			runningPermits.release();
+		}
+	}
+
+	public int getActiveSessions() {
+		return activeSessions.get();
+	}
+
+	public int getQueuedSessions() {
+		return Math.max(0, admittedSessions.get() - activeSessions.get());
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * 单个会话的事件发送器，只在会话线程中使用
+	 */
+	private final class SessionEmitter {
+
+		private final Sinks.Many<ServerSentEvent<String>> sink;
+
+		/**
+		 * 缓冲区满时暂存的token，同一节点连续的token合并为一个事件
+		 */
+		private final Deque<PendingTokens> pendingTokens = new ArrayDeque<>();
+
+		private SessionEmitter(Sinks.Many<ServerSentEvent<String>> sink) {
+			this.sink = sink;
+		}
+
+		void emitToken(String nodeName, String chunk) {
+			if (pendingTokens.isEmpty() && tryEmit(tokenContent(nodeName, chunk))) {
+				return;
+			}
+			if (properties.getTokenOverflowPolicy() == GraphProcessProperties.TokenOverflowPolicy.DROP) {
+				droppedTokens.incrementAndGet();
+				return;
+			}
+			PendingTokens last = pendingTokens.peekLast();
+			if (last != null && last.nodeName.equals(nodeName)) {
+				last.chunk.append(chunk);
+				coalescedTokens.incrementAndGet();
+			}
+			else {
+				pendingTokens.addLast(new PendingTokens(nodeName, new StringBuilder(chunk)));
+			}
+			flushPendingTokens(false);
+		}
+
+		void emitEvent(String content) {
+			flushPendingTokens(true);
+			emitBlocking(content);
+		}
+
+		void complete() {
+			flushPendingTokens(true);
+			sink.tryEmitComplete();
+		}
+
+		private void flushPendingTokens(boolean wait) {
+			while (!pendingTokens.isEmpty()) {
+				PendingTokens pending = pendingTokens.peekFirst();
+				String content = tokenContent(pending.nodeName, pending.chunk.toString());
+				if (wait) {
+					emitBlocking(content);
+				}
+				else if (!tryEmit(content)) {
+					return;
+				}
+				pendingTokens.pollFirst();
+			}
+		}
+
+		private String tokenContent(String nodeName, String chunk) {
+			return JSON.toJSONString(Map.of(nodeName, chunk));
+		}
+
+		/**
+		 * 等待缓冲区腾出空间后发送，超过 emitTimeout 仍无法发送则结束会话
+		 */
+		private void emitBlocking(String content) {
+			long deadline = System.nanoTime() + properties.getEmitTimeout().toNanos();
+			while (!tryEmit(content)) {
+				if (System.nanoTime() - deadline > 0) {
+					throw new IllegalStateException(
+							"Client is too slow, event buffer is still full after " + properties.getEmitTimeout());
+				}
+				LockSupport.parkNanos(EMIT_RETRY_NANOS);
+			}
+		}
+
+		private boolean tryEmit(String content) {
+			Sinks.EmitResult result = sink.tryEmitNext(ServerSentEvent.builder(content).build());
+			if (result == Sinks.EmitResult.FAIL_CANCELLED || result == Sinks.EmitResult.FAIL_TERMINATED) {
+				throw new SessionCancelledException();
+			}
+			return result.isSuccess();
+		}
+
+	}
+
+	private record PendingTokens(String nodeName, StringBuilder chunk) {
+	}
+
+	private static class SessionCancelledException extends RuntimeException {
+
+		SessionCancelledException() {
+			super(null, null, false, false);
+		}
+
 	}
 
 }
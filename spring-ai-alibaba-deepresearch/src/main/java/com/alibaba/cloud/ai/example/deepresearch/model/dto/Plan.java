@@ -53,6 +53,9 @@ public class Plan {
 
 		private String executionStatus;
 
+		@JsonProperty("cost_hint")
+		private Integer costHint;
+
 		public boolean isNeedWebSearch() {
 			return needWebSearch;
 		}
@@ -101,6 +104,14 @@ public class Plan {
 			this.executionStatus = executionStatus;
 		}
 
+		public Integer getCostHint() {
+			return costHint;
+		}
+
+		public void setCostHint(Integer costHint) {
+			this.costHint = costHint;
+		}
+
 	}
 
 	public enum StepType {
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.example.deepresearch.model.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 报告章节范围响应类
+ *
+ * @since 2025/7/2
+ */
+public record ReportSectionsResponse(
+		/**
+		 * 线程ID，用于标识当前对话的唯一性
+		 */
+		@JsonProperty("thread_id") String threadId,
+
+		/**
+		 * 状态
+		 */
+		@JsonProperty("status") String status,
+
+		/**
+		 * 消息
+		 */
+		@JsonProperty("message") String message,
+
+		/**
+		 * 报告总章节数
+		 */
+		@JsonProperty("total") long total,
+
+		/**
+		 * 报告是否已生成完毕，未完成时章节数还会增加
+		 */
+		@JsonProperty("completed") boolean completed,
+
+		/**
+		 * 返回的第一个章节下标
+		 */
+		@JsonProperty("from") long from,
+
+		/**
+		 * 章节内容
+		 */
+		@JsonProperty("sections") List<String> sections) {
+
+	public static ReportSectionsResponse success(String threadId, long total, boolean completed, long from,
+			List<String> sections) {
+		return new ReportSectionsResponse(threadId, "success", "Report sections retrieved successfully", total,
+				completed, from, sections);
+	}
+
+	public static ReportSectionsResponse error(String threadId, String message) {
+		return new ReportSectionsResponse(threadId, "error", message, 0, false, 0, null);
+	}
+}
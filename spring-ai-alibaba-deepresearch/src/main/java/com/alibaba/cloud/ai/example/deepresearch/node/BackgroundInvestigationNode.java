@@ -16,6 +16,7 @@
 
 package com.alibaba.cloud.ai.example.deepresearch.node;
 
+import com.alibaba.cloud.ai.example.deepresearch.config.BackgroundInvestigationProperties;
 import com.alibaba.cloud.ai.example.deepresearch.tool.SearchBeanUtil;
 import com.alibaba.cloud.ai.example.deepresearch.util.StateUtil;
 import com.alibaba.cloud.ai.graph.OverAllState;
@@ -24,21 +25,39 @@ import com.alibaba.cloud.ai.toolcalling.common.CommonToolCallUtils;
 import com.alibaba.cloud.ai.toolcalling.jinacrawler.JinaCrawlerService;
 import com.alibaba.cloud.ai.toolcalling.common.interfaces.SearchService;
 import com.alibaba.cloud.ai.toolcalling.searches.SearchEnum;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * 背景调查节点：并发执行所有优化后的查询，并在有界线程池中并发抓取搜索结果页面。
+ * <p>
+ * 抓取按host限制并发数，整个调查受全局截止时间约束，超时的抓取退回搜索摘要。抓取结果按URL缓存，不同查询、不同请求之间共享并去重。
+ * 截止时间只作用于每个调用方各自的副本，不会完成共享的抓取结果，因此一个请求超时不会影响其他请求等待同一页面。节点持有的线程池在 {@link #close()} 时关闭。
+ *
  * @author yingzi
  * @since 2025/5/17 18:37
  */
 
-public class BackgroundInvestigationNode implements NodeAction {
+public class BackgroundInvestigationNode implements NodeAction, AutoCloseable {
 
 	private static final Logger logger = LoggerFactory.getLogger(BackgroundInvestigationNode.class);
 
@@ -46,13 +65,55 @@ public class BackgroundInvestigationNode implements NodeAction {
 
 	private final Long RETRY_DELAY_MS = 500L;
 
+	/**
+	 * host并发许可在最后一次使用后保留的时间，远大于单次抓取的耗时，避免正在使用的许可被淘汰后同一host的并发数超过上限
+	 */
+	private static final long HOST_PERMIT_EXPIRE_MINUTES = 10;
+
 	private final JinaCrawlerService jinaCrawlerService;
 
 	private final SearchBeanUtil searchBeanUtil;
 
+	private final BackgroundInvestigationProperties properties;
+
+	private final ExecutorService executor;
+
+	/**
+	 * URL级别的抓取结果缓存，缓存的是Future，同一URL正在抓取时其他查询直接复用。缓存的Future只由抓取任务完成，调用方只能在副本上设置超时
+	 */
+	private final Cache<String, CompletableFuture<String>> crawlCache;
+
+	/**
+	 * 每个host的抓取并发许可，长时间未访问的host会被淘汰，避免抓取过的host无限累积
+	 */
+	private final LoadingCache<String, Semaphore> hostPermits;
+
 	public BackgroundInvestigationNode(SearchBeanUtil searchBeanUtil, JinaCrawlerService jinaCrawlerService) {
+		this(searchBeanUtil, jinaCrawlerService, new BackgroundInvestigationProperties());
+	}
+
+	public BackgroundInvestigationNode(SearchBeanUtil searchBeanUtil, JinaCrawlerService jinaCrawlerService,
+			BackgroundInvestigationProperties properties) {
 		this.jinaCrawlerService = jinaCrawlerService;
 		this.searchBeanUtil = searchBeanUtil;
+		this.properties = properties;
+		this.crawlCache = CacheBuilder.newBuilder()
+			.maximumSize(properties.getCrawlCacheSize())
+			.expireAfterWrite(properties.getCrawlCacheTtl().toMillis(), TimeUnit.MILLISECONDS)
+			.build();
+		this.hostPermits = CacheBuilder.newBuilder()
+			.expireAfterAccess(HOST_PERMIT_EXPIRE_MINUTES, TimeUnit.MINUTES)
+			.build(CacheLoader.from(host -> new Semaphore(Math.max(1, properties.getMaxConcurrencyPerHost()))));
+		int poolSize = Math.max(1, properties.getMaxConcurrency());
+		AtomicInteger threadCount = new AtomicInteger();
+		ThreadPoolExecutor threadPool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), r -> {
+					Thread thread = new Thread(r, "background-investigation-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		threadPool.allowCoreThreadTimeOut(true);
+		this.executor = threadPool;
 	}
 
 	@Override
@@ -60,55 +121,37 @@ public class BackgroundInvestigationNode implements NodeAction {
 		logger.info("background investigation node is running.");
 		List<String> queries = StateUtil.getOptimizeQueries(state);
 		assert queries != null && !queries.isEmpty();
-		List<List<Map<String, String>>> resultsList = new ArrayList<>();
-		for (String query : queries) {
-			SearchService searchService = searchBeanUtil
-				.getSearchService(state.value("search_engine", SearchEnum.class).orElseThrow())
-				.orElseThrow();
+		SearchService searchService = searchBeanUtil
+			.getSearchService(state.value("search_engine", SearchEnum.class).orElseThrow())
+			.orElseThrow();
+		long deadline = System.nanoTime() + properties.getTimeout().toNanos();
 
-			List<Map<String, String>> results = new ArrayList<>();
+		// 所有查询同时发出，每个查询的结果页面再并发抓取
+		List<CompletableFuture<List<Map<String, String>>>> futures = new ArrayList<>();
+		for (String query : queries) {
+			futures.add(CompletableFuture.supplyAsync(() -> search(searchService, query, deadline), executor)
+				.thenCompose(contents -> crawlAll(contents, deadline)));
+		}
 
-			// Retry logic
-			for (int i = 0; i < MAX_RETRY_COUNT; i++) {
-				try {
-					SearchService.Response response = searchService.query(query);
-					if (response != null && response.getSearchResult() != null
-							&& !response.getSearchResult().results().isEmpty()) {
-						results = response.getSearchResult().results().stream().map(info -> {
-							Map<String, String> result = new HashMap<>();
-							result.put("title", info.title());
-							if (jinaCrawlerService == null || !CommonToolCallUtils.isValidUrl(info.url())) {
-								result.put("content", info.content());
-							}
-							else {
-								try {
-									logger.info("Get detail info of a url using Jina Crawler...");
-									result.put("content",
-											jinaCrawlerService.apply(new JinaCrawlerService.Request(info.url()))
-												.content());
-								}
-								catch (Exception e) {
-									logger.error("Jina Crawler Service Error", e);
-									result.put("content", info.content());
-								}
-							}
-							return result;
-						}).collect(Collectors.toList());
-						break;
-					}
-				}
-				catch (Exception e) {
-					logger.warn("搜索尝试 {} 失败: {}", i + 1, e.getMessage());
-					Thread.sleep(RETRY_DELAY_MS);
-				}
+		List<List<Map<String, String>>> resultsList = new ArrayList<>();
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				resultsList.add(futures.get(i).get(remainingNanos(deadline), TimeUnit.NANOSECONDS));
+			}
+			catch (TimeoutException e) {
+				logger.warn("查询 {} 超过背景调查截止时间", queries.get(i));
+				futures.get(i).cancel(true);
+				resultsList.add(List.of());
+			}
+			catch (ExecutionException e) {
+				logger.warn("查询 {} 失败: {}", queries.get(i), e.getCause().getMessage());
+				resultsList.add(List.of());
 			}
-			resultsList.add(results);
 		}
 
 		Map<String, Object> resultMap = new HashMap<>();
 		if (!resultsList.isEmpty()) {
 			List<String> backgroundResults = new ArrayList<>();
-			assert resultsList.size() != queries.size();
 			for (int i = 0; i < resultsList.size(); i++) {
 				List<Map<String, String>> results = resultsList.get(i);
 				String query = queries.get(i);
@@ -126,4 +169,115 @@ public class BackgroundInvestigationNode implements NodeAction {
 		return resultMap;
 	}
 
+	private List<SearchService.SearchContent> search(SearchService searchService, String query, long deadline) {
+		// Retry logic
+		for (int i = 0; i < MAX_RETRY_COUNT && remainingNanos(deadline) > 0; i++) {
+			try {
+				SearchService.Response response = searchService.query(query);
+				if (response != null && response.getSearchResult() != null
+						&& !response.getSearchResult().results().isEmpty()) {
+					return response.getSearchResult().results();
+				}
+			}
+			catch (Exception e) {
+				logger.warn("搜索尝试 {} 失败: {}", i + 1, e.getMessage());
+				try {
+					Thread.sleep(RETRY_DELAY_MS);
+				}
+				catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		return List.of();
+	}
+
+	CompletableFuture<List<Map<String, String>>> crawlAll(List<SearchService.SearchContent> contents,
+			long deadline) {
+		List<CompletableFuture<Map<String, String>>> resultFutures = new ArrayList<>();
+		for (SearchService.SearchContent info : contents) {
+			CompletableFuture<String> content;
+			if (jinaCrawlerService == null || !CommonToolCallUtils.isValidUrl(info.url())) {
+				content = CompletableFuture.completedFuture(info.content());
+			}
+			else {
+				// 超过截止时间或抓取失败时退回搜索摘要，超时只完成本次调用的副本
+				content = crawl(info.url()).copy()
+					.completeOnTimeout(info.content(), remainingNanos(deadline), TimeUnit.NANOSECONDS)
+					.exceptionally(e -> {
+						logger.error("Jina Crawler Service Error", e);
+						return info.content();
+					});
+			}
+			resultFutures.add(content.thenApply(text -> {
+				Map<String, String> result = new HashMap<>();
+				result.put("title", info.title());
+				result.put("content", text);
+				return result;
+			}));
+		}
+		return CompletableFuture.allOf(resultFutures.toArray(CompletableFuture[]::new))
+			.thenApply(v -> resultFutures.stream().map(CompletableFuture::join).toList());
+	}
+
+	private CompletableFuture<String> crawl(String url) {
+		CompletableFuture<String> cached = crawlCache.asMap().get(url);
+		if (cached != null) {
+			return cached;
+		}
+		CompletableFuture<String> future = new CompletableFuture<>();
+		cached = crawlCache.asMap().putIfAbsent(url, future);
+		if (cached != null) {
+			return cached;
+		}
+		executor.execute(() -> {
+			try {
+				Semaphore permits = hostPermits.getUnchecked(hostOf(url));
+				// 共享的抓取不受单个调用方截止时间的约束，等待许可的时间以配置的超时为上限
+				if (!permits.tryAcquire(properties.getTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+					throw new TimeoutException("Timed out waiting for crawl permit of " + url);
+				}
+				try {
+					logger.info("Get detail info of a url using Jina Crawler...");
+					future.complete(jinaCrawlerService.apply(new JinaCrawlerService.Request(url)).content());
+				}
+				finally {
+					permits.release();
+				}
+			}
+			catch (Throwable e) {
+				if (e instanceof InterruptedException) {
+					Thread.currentThread().interrupt();
+				}
+				// 失败的结果不缓存，后续请求可以重新抓取
+				crawlCache.asMap().remove(url, future);
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * 关闭节点持有的线程池，中断正在进行的搜索和抓取
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	private static String hostOf(String url) {
+		try {
+			String host = URI.create(url).getHost();
+			return host != null ? host : url;
+		}
+		catch (IllegalArgumentException e) {
+			return url;
+		}
+	}
+
+	private static long remainingNanos(long deadline) {
+		return Math.max(0, deadline - System.nanoTime());
+	}
+
 }
@@ -17,6 +17,7 @@
 package com.alibaba.cloud.ai.example.deepresearch.node;
 
 import com.alibaba.cloud.ai.example.deepresearch.model.dto.Plan;
+import com.alibaba.cloud.ai.example.deepresearch.util.PlanStepQueue;
 import com.alibaba.cloud.ai.example.deepresearch.util.StateUtil;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
@@ -26,13 +27,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.util.StringUtils;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * @author sixiyida
@@ -49,13 +50,24 @@ public class CoderNode implements NodeAction {
 
 	private final String nodeName;
 
+	private final int maxConcurrentSteps;
+
 	public CoderNode(ChatClient coderAgent) {
 		this(coderAgent, "0");
 	}
 
 	public CoderNode(ChatClient coderAgent, String executorNodeId) {
+		this(coderAgent, executorNodeId, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxConcurrentSteps max steps of this node type processing at the same time
+	 * across all parallel nodes
+	 */
+	public CoderNode(ChatClient coderAgent, String executorNodeId, int maxConcurrentSteps) {
 		this.coderAgent = coderAgent;
 		this.executorNodeId = executorNodeId;
+		this.maxConcurrentSteps = maxConcurrentSteps;
 		this.nodeName = "coder_" + executorNodeId;
 	}
 
@@ -65,45 +77,27 @@ public class CoderNode implements NodeAction {
 		Plan currentPlan = StateUtil.getPlan(state);
 		Map<String, Object> updated = new HashMap<>();
 
-		Plan.Step assignedStep = null;
-		for (Plan.Step step : currentPlan.getSteps()) {
-			if (step.getStepType().equals(Plan.StepType.PROCESSING) && !StringUtils.hasText(step.getExecutionRes())
-					&& StringUtils.hasText(step.getExecutionStatus())
-					&& step.getExecutionStatus().equals(StateUtil.EXECUTION_STATUS_ASSIGNED_PREFIX + nodeName)) {
-				assignedStep = step;
-				break;
-			}
-		}
+		// 取下一个待执行的步骤
+		Plan.Step assignedStep = PlanStepQueue.claimNext(currentPlan, Plan.StepType.PROCESSING, nodeName,
+				maxConcurrentSteps);
 
 		if (assignedStep == null) {
 			logger.info("No remaining steps to be executed by {}", nodeName);
 			return updated;
 		}
 
-		// 标记步骤为正在执行
-		assignedStep.setExecutionStatus(StateUtil.EXECUTION_STATUS_PROCESSING_PREFIX + nodeName);
+		String locale = state.value("locale", "en-US");
+		// 当前步骤完成后继续领取下一个步骤，直到队列为空
+		var streamResult = PlanStepQueue.streamSteps(currentPlan, assignedStep, nodeName, executorNodeId,
+				maxConcurrentSteps, step -> streamStep(step, locale));
 
-		List<Message> messages = new ArrayList<>();
-		// 添加任务消息
-		Message taskMessage = new UserMessage(
-				String.format("#Task\n\n##title\n\n%s\n\n##description\n\n%s\n\n##locale\n\n%s",
-						assignedStep.getTitle(), assignedStep.getDescription(), state.value("locale", "en-US")));
-		messages.add(taskMessage);
-		logger.debug("{} Node message: {}", nodeName, messages);
-
-		// 调用agent
-		var streamResult = coderAgent.prompt().messages(messages).stream().chatResponse();
-
-		Plan.Step finalAssignedStep = assignedStep;
 		logger.info("CoderNode {} starting streaming with key: {}", executorNodeId,
 				"coder_llm_stream_" + executorNodeId);
 		var generator = StreamingChatGenerator.builder()
 			.startingNode("coder_llm_stream_" + executorNodeId)
 			.startingState(state)
 			.mapResult(response -> {
-				finalAssignedStep.setExecutionStatus(StateUtil.EXECUTION_STATUS_COMPLETED_PREFIX + executorNodeId);
-				String coderContent = response.getResult().getOutput().getText();
-				finalAssignedStep.setExecutionRes(Objects.requireNonNull(coderContent));
+				String coderContent = response != null ? response.getResult().getOutput().getText() : "";
 
 				logger.info("{} completed, content: {}", nodeName, coderContent);
 
@@ -116,4 +110,18 @@ public class CoderNode implements NodeAction {
 		return updated;
 	}
 
+	private Flux<ChatResponse> streamStep(Plan.Step step, String locale) {
+		logger.info("{} executing step: {}", nodeName, step.getTitle());
+		List<Message> messages = new ArrayList<>();
+		// 添加任务消息
+		Message taskMessage = new UserMessage(
+				String.format("#Task\n\n##title\n\n%s\n\n##description\n\n%s\n\n##locale\n\n%s", step.getTitle(),
+						step.getDescription(), locale));
+		messages.add(taskMessage);
+		logger.debug("{} Node message: {}", nodeName, messages);
+
+		// 调用agent
+		return coderAgent.prompt().messages(messages).stream().chatResponse();
+	}
+
 }
@@ -16,20 +16,22 @@
 
 package com.alibaba.cloud.ai.example.deepresearch.node;
 
-import com.alibaba.cloud.ai.example.deepresearch.model.ParallelEnum;
 import com.alibaba.cloud.ai.example.deepresearch.model.dto.Plan;
+import com.alibaba.cloud.ai.example.deepresearch.util.PlanStepQueue;
 import com.alibaba.cloud.ai.example.deepresearch.util.StateUtil;
-import com.alibaba.cloud.ai.example.deepresearch.config.DeepResearchProperties;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.CollectionUtils;
-import org.springframework.util.StringUtils;
 
 import java.util.Map;
 
 /**
+ * Opens a round of parallel execution. Steps are no longer assigned here: researcher and
+ * coder nodes pull the next pending step from {@link PlanStepQueue} when they run. This
+ * node puts back steps whose execution did not finish in the previous round and
+ * publishes the step status of the plan as {@code parallel_step_status}.
+ *
  * @author sixiyida
  * @since 2025/6/12
  */
@@ -38,63 +40,18 @@ public class ParallelExecutorNode implements NodeAction {
 
 	private static final Logger logger = LoggerFactory.getLogger(ParallelExecutorNode.class);
 
-	private final Map<String, Integer> parallelNodeCount;
-
-	public ParallelExecutorNode(DeepResearchProperties properties) {
-		this.parallelNodeCount = properties.getParallelNodeCount();
-	}
-
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
-		long currResearcher = 0;
-		long currCoder = 0;
-
 		Plan curPlan = StateUtil.getPlan(state);
-		for (Plan.Step step : curPlan.getSteps()) {
-			// 跳过不需要处理的步骤
-			if (StringUtils.hasText(step.getExecutionRes()) || StringUtils.hasText(step.getExecutionStatus())) {
-				continue;
-			}
-
-			Plan.StepType stepType = step.getStepType();
-
-			switch (stepType) {
-				case PROCESSING:
-					if (areAllResearchStepsCompleted(curPlan)) {
-						step.setExecutionStatus(assignRole(stepType, currCoder));
-						currCoder = (currCoder + 1) % parallelNodeCount.get(ParallelEnum.RESEARCHER.getValue());
-					}
-					logger.info("Waiting for remaining research steps executed");
-					break;
-
-				case RESEARCH:
-					step.setExecutionStatus(assignRole(stepType, currResearcher));
-					currResearcher = (currResearcher + 1) % parallelNodeCount.get(ParallelEnum.CODER.getValue());
-					break;
-
-				// 处理其他可能的StepType
-				default:
-					logger.debug("Unhandled step type: {}", stepType);
-			}
-		}
-		return Map.of();
-	}
-
-	private String assignRole(Plan.StepType type, long executorId) {
-		String role = type == Plan.StepType.PROCESSING ? ParallelEnum.CODER.getValue()
-				: ParallelEnum.RESEARCHER.getValue();
-		return StateUtil.EXECUTION_STATUS_ASSIGNED_PREFIX + role + "_" + executorId;
-	}
 
-	private boolean areAllResearchStepsCompleted(Plan plan) {
-		if (CollectionUtils.isEmpty(plan.getSteps())) {
-			return true;
+		int released = PlanStepQueue.releaseUnfinished(curPlan);
+		if (released > 0) {
+			logger.warn("{} steps did not finish in the previous round and are queued again", released);
 		}
 
-		return plan.getSteps()
-			.stream()
-			.filter(step -> step.getStepType() == Plan.StepType.RESEARCH)
-			.allMatch(step -> step.getExecutionStatus().startsWith(StateUtil.EXECUTION_STATUS_COMPLETED_PREFIX));
+		Map<String, Map<String, Integer>> status = PlanStepQueue.summarize(curPlan);
+		logger.info("parallel_executor node is running, step status: {}", status);
+		return Map.of("parallel_step_status", status);
 	}
 
 }
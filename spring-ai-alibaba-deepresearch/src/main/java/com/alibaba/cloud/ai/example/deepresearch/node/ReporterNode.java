@@ -18,6 +18,7 @@ package com.alibaba.cloud.ai.example.deepresearch.node;
 
 import com.alibaba.cloud.ai.example.deepresearch.model.ParallelEnum;
 import com.alibaba.cloud.ai.example.deepresearch.model.dto.Plan;
+import com.alibaba.cloud.ai.example.deepresearch.service.ReportSectionWriter;
 import com.alibaba.cloud.ai.example.deepresearch.service.ReportService;
 import com.alibaba.cloud.ai.example.deepresearch.util.StateUtil;
 import com.alibaba.cloud.ai.example.deepresearch.util.TemplateUtil;
@@ -30,6 +31,7 @@ import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.util.StringUtils;
+import reactor.core.scheduler.Schedulers;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
@@ -98,7 +100,18 @@ public class ReporterNode implements NodeAction {
 
 		logger.debug("reporter node messages: {}", messages);
 
-		var streamResult = reporterAgent.prompt().messages(messages).stream().chatResponse();
+		// 报告按章节边生成边保存，避免在结束时一次性写入整篇报告；保存会阻塞，切换到 boundedElastic 线程执行
+		ReportSectionWriter sectionWriter = new ReportSectionWriter(reportService, threadId);
+		var streamResult = reporterAgent.prompt()
+			.messages(messages)
+			.stream()
+			.chatResponse()
+			.publishOn(Schedulers.boundedElastic())
+			.doOnNext(response -> {
+				if (response.getResult() != null) {
+					sectionWriter.write(response.getResult().getOutput().getText());
+				}
+			});
 
 		var generator = StreamingChatGenerator.builder()
 			.startingNode("reporter_llm_stream")
@@ -106,7 +119,10 @@ public class ReporterNode implements NodeAction {
 			.mapResult(response -> {
 				String finalReport = Objects.requireNonNull(response.getResult().getOutput().getText());
 				try {
-					reportService.saveReport(threadId, finalReport);
+					if (!sectionWriter.close()) {
+						reportService.saveReport(threadId, finalReport);
+						reportService.markReportCompleted(threadId);
+					}
 					logger.info("Report saved successfully, Thread ID: {}", threadId);
 				}
 				catch (Exception e) {
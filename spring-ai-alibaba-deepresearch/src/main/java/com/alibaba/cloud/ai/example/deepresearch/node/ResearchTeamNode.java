@@ -29,6 +29,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
+ * 判断计划是否执行完毕。并行节点会在同一轮内领取完所有可执行的步骤，因此只有处理步骤等待研究步骤、
+ * 或有步骤执行失败时才需要下一轮；上一轮没有任何步骤完成时，等待一段时间再重试。
+ *
  * @author sixiyida
  * @since 2025/6/12 09:14
  */
@@ -37,19 +40,27 @@ public class ResearchTeamNode implements NodeAction {
 
 	private static final Logger logger = LoggerFactory.getLogger(ResearchTeamNode.class);
 
-	private static final long TIME_SLEEP = 20000;
+	/**
+	 * 上一轮没有步骤完成时，重试前的等待时间
+	 */
+	private static final long RETRY_BACKOFF = 20000;
 
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
-		if (state.value("research_team_next_node").isPresent()) {
-			Thread.sleep(TIME_SLEEP);
+		Plan curPlan = StateUtil.getPlan(state);
+		int completedSteps = countCompletedSteps(curPlan);
+		Integer lastCompletedSteps = state.value("research_team_completed_steps", Integer.class).orElse(null);
+		if (state.value("research_team_next_node").isPresent() && lastCompletedSteps != null
+				&& completedSteps <= lastCompletedSteps && !areAllExecutionResultsPresent(curPlan)) {
+			logger.warn("No step completed in the previous round, retrying in {} ms", RETRY_BACKOFF);
+			Thread.sleep(RETRY_BACKOFF);
 		}
 
 		logger.info("research_team node is running.");
 		String nextStep = "reporter";
 		Map<String, Object> updated = new HashMap<>();
+		updated.put("research_team_completed_steps", completedSteps);
 
-		Plan curPlan = StateUtil.getPlan(state);
 		// 判断steps里的每个step都有执行结果
 		if (!areAllExecutionResultsPresent(curPlan)) {
 			nextStep = "parallel_executor";
@@ -59,6 +70,13 @@ public class ResearchTeamNode implements NodeAction {
 		return updated;
 	}
 
+	private int countCompletedSteps(Plan plan) {
+		if (CollectionUtils.isEmpty(plan.getSteps())) {
+			return 0;
+		}
+		return (int) plan.getSteps().stream().filter(step -> StringUtils.hasText(step.getExecutionRes())).count();
+	}
+
 	public boolean areAllExecutionResultsPresent(Plan plan) {
 		if (CollectionUtils.isEmpty(plan.getSteps())) {
 			return false;
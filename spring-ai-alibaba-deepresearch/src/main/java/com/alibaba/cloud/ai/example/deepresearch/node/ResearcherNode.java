@@ -17,6 +17,7 @@
 package com.alibaba.cloud.ai.example.deepresearch.node;
 
 import com.alibaba.cloud.ai.example.deepresearch.model.dto.Plan;
+import com.alibaba.cloud.ai.example.deepresearch.util.PlanStepQueue;
 import com.alibaba.cloud.ai.example.deepresearch.util.StateUtil;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
@@ -27,13 +28,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.util.StringUtils;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * @author sixiyida
@@ -50,13 +51,24 @@ public class ResearcherNode implements NodeAction {
 
 	private final String nodeName;
 
+	private final int maxConcurrentSteps;
+
 	public ResearcherNode(ChatClient researchAgent) {
 		this(researchAgent, "0");
 	}
 
 	public ResearcherNode(ChatClient researchAgent, String executorNodeId) {
+		this(researchAgent, executorNodeId, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxConcurrentSteps max steps of this node type processing at the same time
+	 * across all parallel nodes
+	 */
+	public ResearcherNode(ChatClient researchAgent, String executorNodeId, int maxConcurrentSteps) {
 		this.researchAgent = researchAgent;
 		this.executorNodeId = executorNodeId;
+		this.maxConcurrentSteps = maxConcurrentSteps;
 		this.nodeName = "researcher_" + executorNodeId;
 	}
 
@@ -66,55 +78,28 @@ public class ResearcherNode implements NodeAction {
 		Plan currentPlan = StateUtil.getPlan(state);
 		Map<String, Object> updated = new HashMap<>();
 
-		Plan.Step assignedStep = null;
-		for (Plan.Step step : currentPlan.getSteps()) {
-			if (Plan.StepType.RESEARCH.equals(step.getStepType()) && !StringUtils.hasText(step.getExecutionRes())
-					&& StringUtils.hasText(step.getExecutionStatus())
-					&& step.getExecutionStatus().equals(StateUtil.EXECUTION_STATUS_ASSIGNED_PREFIX + nodeName)) {
-				assignedStep = step;
-				break;
-			}
-		}
+		// 取下一个待执行的步骤
+		Plan.Step assignedStep = PlanStepQueue.claimNext(currentPlan, Plan.StepType.RESEARCH, nodeName,
+				maxConcurrentSteps);
 
-		// 如果没有找到分配的步骤，直接返回
+		// 如果没有找到待执行的步骤，直接返回
 		if (assignedStep == null) {
 			logger.info("No remaining steps to be executed by {}", nodeName);
 			return updated;
 		}
 
-		// 标记步骤为正在执行
-		assignedStep.setExecutionStatus(StateUtil.EXECUTION_STATUS_PROCESSING_PREFIX + nodeName);
-
-		// 添加任务消息
-		List<Message> messages = new ArrayList<>();
-		Message taskMessage = new UserMessage(String.format("# Current Task\n\n##title\n\n%s\n\n##description\n\n%s",
-				assignedStep.getTitle(), assignedStep.getDescription()));
-		messages.add(taskMessage);
-
-		// 添加研究者特有的引用提醒
-		Message citationMessage = new UserMessage(
-				"IMPORTANT: DO NOT include inline citations in the text. Instead, track all sources and include a References section at the end using link reference format. Include an empty line between each citation for better readability. Use this format for each reference:\n- [Source Title](URL)\n\n- [Another Source](URL)");
-		messages.add(citationMessage);
-
-		logger.debug("{} Node messages: {}", nodeName, messages);
 		// 获取搜索工具
 		SearchEnum searchTool = state.value("search_engine", SearchEnum.class).orElse(null);
-		// 调用agent
-		var requestSpec = researchAgent.prompt().messages(messages);
-		if (searchTool != null) {
-			requestSpec = requestSpec.toolNames(searchTool.getToolName());
-		}
-		var streamResult = requestSpec.stream().chatResponse();
-		Plan.Step finalAssignedStep = assignedStep;
+		// 当前步骤完成后继续领取下一个步骤，直到队列为空
+		var streamResult = PlanStepQueue.streamSteps(currentPlan, assignedStep, nodeName, executorNodeId,
+				maxConcurrentSteps, step -> streamStep(step, searchTool));
 		logger.info("ResearcherNode {} starting streaming with key: {}", executorNodeId,
 				"researcher_llm_stream_" + executorNodeId);
 		var generator = StreamingChatGenerator.builder()
 			.startingNode("researcher_llm_stream_" + executorNodeId)
 			.startingState(state)
 			.mapResult(response -> {
-				finalAssignedStep.setExecutionStatus(StateUtil.EXECUTION_STATUS_COMPLETED_PREFIX + executorNodeId);
-				String researchContent = response.getResult().getOutput().getText();
-				finalAssignedStep.setExecutionRes(Objects.requireNonNull(researchContent));
+				String researchContent = response != null ? response.getResult().getOutput().getText() : "";
 				logger.info("{} completed, content: {}", nodeName, researchContent);
 
 				updated.put("researcher_content_" + executorNodeId, researchContent);
@@ -126,4 +111,26 @@ public class ResearcherNode implements NodeAction {
 		return updated;
 	}
 
+	private Flux<ChatResponse> streamStep(Plan.Step step, SearchEnum searchTool) {
+		logger.info("{} executing step: {}", nodeName, step.getTitle());
+		// 添加任务消息
+		List<Message> messages = new ArrayList<>();
+		Message taskMessage = new UserMessage(String.format("# Current Task\n\n##title\n\n%s\n\n##description\n\n%s",
+				step.getTitle(), step.getDescription()));
+		messages.add(taskMessage);
+
+		// 添加研究者特有的引用提醒
+		Message citationMessage = new UserMessage(
+				"IMPORTANT: DO NOT include inline citations in the text. Instead, track all sources and include a References section at the end using link reference format. Include an empty line between each citation for better readability. Use this format for each reference:\n- [Source Title](URL)\n\n- [Another Source](URL)");
+		messages.add(citationMessage);
+
+		logger.debug("{} Node messages: {}", nodeName, messages);
+		// 调用agent
+		var requestSpec = researchAgent.prompt().messages(messages);
+		if (searchTool != null) {
+			requestSpec = requestSpec.toolNames(searchTool.getToolName());
+		}
+		return requestSpec.stream().chatResponse();
+	}
+
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.example.deepresearch.rag.retriever;
+
+import org.springframework.ai.document.Document;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Client-side Reciprocal Rank Fusion: a document scores {@code boost / (k + rank)} in
+ * every ranking it appears in, with ranks starting at 1, and the scores are summed.
+ *
+ * @since 2025/7/2
+ */
+final class ReciprocalRankFusion {
+
+	private ReciprocalRankFusion() {
+	}
+
+	/**
+	 * Fuse rankings into one, in O(n log limit) for n ranked documents.
+	 * @param rankings result lists, best first
+	 * @param boosts weight of each ranking
+	 * @param rankConstant the RRF constant k
+	 * @param limit max number of documents returned
+	 * @return fused documents, best first, ties broken by first appearance
+	 */
+	static List<Document> fuse(List<List<Document>> rankings, float[] boosts, int rankConstant, int limit) {
+		if (limit <= 0) {
+			return List.of();
+		}
+		Map<String, Scored> scores = new HashMap<>();
+		for (int r = 0; r < rankings.size(); r++) {
+			List<Document> ranking = rankings.get(r);
+			for (int i = 0; i < ranking.size(); i++) {
+				Document document = ranking.get(i);
+				double score = boosts[r] / (double) (rankConstant + i + 1);
+				Scored scored = scores.get(document.getId());
+				if (scored == null) {
+					scores.put(document.getId(), new Scored(document, score, scores.size()));
+				}
+				else {
+					scored.score += score;
+				}
+			}
+		}
+
+		// bounded min-heap keeps only the current top `limit`
+		Comparator<Scored> order = Comparator.<Scored>comparingDouble(s -> s.score)
+			.thenComparing(Comparator.<Scored>comparingInt(s -> s.order).reversed());
+		PriorityQueue<Scored> top = new PriorityQueue<>(Math.min(limit, Math.max(1, scores.size())) + 1, order);
+		for (Scored scored : scores.values()) {
+			top.offer(scored);
+			if (top.size() > limit) {
+				top.poll();
+			}
+		}
+		List<Document> fused = new ArrayList<>(top.size());
+		while (!top.isEmpty()) {
+			fused.add(top.poll().document);
+		}
+		Collections.reverse(fused);
+		return fused;
+	}
+
+	private static final class Scored {
+
+		private final Document document;
+
+		private final int order;
+
+		private double score;
+
+		private Scored(Document document, double score, int order) {
+			this.document = document;
+			this.score = score;
+			this.order = order;
+		}
+
+	}
+
+}
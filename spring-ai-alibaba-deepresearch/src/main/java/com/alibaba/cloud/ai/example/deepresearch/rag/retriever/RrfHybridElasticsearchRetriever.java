@@ -15,10 +15,18 @@
  */
 package com.alibaba.cloud.ai.example.deepresearch.rag.retriever;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.MapType;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.elasticsearch.client.Request;
 import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
 import org.elasticsearch.client.RestClient;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.ai.document.Document;
@@ -27,20 +35,41 @@ import org.springframework.ai.rag.Query;
 import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
 import com.alibaba.cloud.ai.example.deepresearch.config.rag.RagProperties;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Hybrid Elasticsearch retriever using BM25 and KNN search with Reciprocal Rank Fusion.
  *
+ * <p>
+ * Query vectors are cached by query text, request bodies are streamed with a
+ * {@link JsonGenerator} and the stored embeddings are excluded from the returned
+ * {@code _source}. By default the fusion is done by Elasticsearch ({@code rank.rrf});
+ * with client-side fusion enabled, the BM25 leg is sent while the query is still being
+ * embedded, the KNN leg follows, and both rankings are fused by
+ * {@link ReciprocalRankFusion}.
+ *
  * @author hupei
  */
 public class RrfHybridElasticsearchRetriever implements DocumentRetriever {
 
+	/**
+	 * Number of fused documents returned, the default {@code size} of an Elasticsearch
+	 * search
+	 */
+	private static final int RESULT_SIZE = 10;
+
+	private static final String CONTENT_FIELD = "content";
+
+	private static final String EMBEDDING_FIELD = "embedding";
+
 	/**
 	 * Elasticsearch REST client for executing search requests
 	 */
@@ -76,11 +105,24 @@ public class RrfHybridElasticsearchRetriever implements DocumentRetriever {
 	 */
 	private final float knnBoost;
 
+	/**
+	 * Whether to fuse BM25 and KNN rankings on the client instead of in Elasticsearch
+	 */
+	private final boolean clientSideFusion;
+
+	/**
+	 * Query vectors by query text, {@code null} when caching is disabled
+	 */
+	private final Cache<String, float[]> embeddingCache;
+
 	/**
 	 * JSON object mapper for parsing Elasticsearch responses
 	 */
 	private final ObjectMapper mapper = new ObjectMapper();
 
+	private final MapType metadataType = mapper.getTypeFactory()
+		.constructMapType(Map.class, String.class, Object.class);
+
 	public RrfHybridElasticsearchRetriever(RestClient restClient, EmbeddingModel embeddingModel, String indexName,
 			RagProperties.Elasticsearch.Hybrid hybrid) {
 		this.restClient = restClient;
@@ -90,6 +132,9 @@ public class RrfHybridElasticsearchRetriever implements DocumentRetriever {
 		this.rrfK = hybrid.getRrfRankConstant();
 		this.bm25Boost = hybrid.getBm25Boost();
 		this.knnBoost = hybrid.getKnnBoost();
+		this.clientSideFusion = hybrid.isClientSideFusion();
+		this.embeddingCache = hybrid.getQueryEmbeddingCacheSize() > 0
+				? CacheBuilder.newBuilder().maximumSize(hybrid.getQueryEmbeddingCacheSize()).build() : null;
 	}
 
 	@NotNull
@@ -97,7 +142,7 @@ public class RrfHybridElasticsearchRetriever implements DocumentRetriever {
 	public List<Document> retrieve(Query query) {
 		String text = query.text();
 		try {
-			return searchHybrid(text);
+			return clientSideFusion ? searchWithClientSideFusion(text) : searchHybrid(text);
 		}
 		catch (IOException ex) {
 			throw new RuntimeException("Failed to execute hybrid search", ex);
@@ -105,64 +150,157 @@ public class RrfHybridElasticsearchRetriever implements DocumentRetriever {
 	}
 
 	private List<Document> searchHybrid(String text) throws IOException {
-		float[] vector = embeddingModel.embed(text);
-		StringBuilder builder = new StringBuilder("[");
-		for (int i = 0; i < vector.length; i++) {
-			if (i > 0) {
-				builder.append(',');
+		float[] vector = embed(text);
+		Request request = searchRequest(vector.length, generator -> {
+			generator.writeArrayFieldStart("queries");
+			generator.writeStartObject();
+			writeMatchQuery(generator, text);
+			generator.writeNumberField("boost", bm25Boost);
+			generator.writeEndObject();
+			generator.writeStartObject();
+			writeKnn(generator, vector);
+			generator.writeNumberField("boost", knnBoost);
+			generator.writeEndObject();
+			generator.writeEndArray();
+
+			generator.writeObjectFieldStart("rank");
+			generator.writeObjectFieldStart("rrf");
+			generator.writeNumberField("window_size", windowSize);
+			generator.writeNumberField("rank_constant", rrfK);
+			generator.writeEndObject();
+			generator.writeEndObject();
+		});
+		Response response = restClient.performRequest(request);
+		return parseResults(response.getEntity().getContent());
+	}
+
+	private List<Document> searchWithClientSideFusion(String text) throws IOException {
+		// the BM25 leg does not need the vector, send it before embedding
+		CompletableFuture<List<Document>> bm25 = performAsync(searchRequest(0, generator -> {
+			generator.writeNumberField("size", windowSize);
+			writeMatchQuery(generator, text);
+		}));
+		CompletableFuture<List<Document>> knn;
+		try {
+			float[] vector = embed(text);
+			knn = performAsync(searchRequest(vector.length, generator -> {
+				generator.writeNumberField("size", windowSize);
+				writeKnn(generator, vector);
+			}));
+		}
+		catch (IOException | RuntimeException ex) {
+			bm25.cancel(false);
+			throw ex;
+		}
+
+		try {
+			return ReciprocalRankFusion.fuse(List.of(bm25.join(), knn.join()), new float[] { bm25Boost, knnBoost },
+					rrfK, RESULT_SIZE);
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof IOException ioException) {
+				throw ioException;
 			}
-			builder.append(vector[i]);
+			throw ex;
+		}
+	}
+
+	private void writeMatchQuery(JsonGenerator generator, String text) throws IOException {
+		generator.writeObjectFieldStart("query");
+		generator.writeObjectFieldStart("match");
+		generator.writeStringField(CONTENT_FIELD, text);
+		generator.writeEndObject();
+		generator.writeEndObject();
+	}
+
+	private void writeKnn(JsonGenerator generator, float[] vector) throws IOException {
+		generator.writeObjectFieldStart("knn");
+		generator.writeStringField("field", EMBEDDING_FIELD);
+		generator.writeArrayFieldStart("query_vector");
+		for (float value : vector) {
+			generator.writeNumber(value);
 		}
-		builder.append(']');
-		String vectorStr = builder.toString();
-
-		String body = String.format(Locale.ROOT, """
-				{
-				  "queries": [
-				    {
-				      "query": {
-				        "match": {
-				          "content": "%s"
-				        }
-				      },
-				      "boost": %f
-				    },
-				    {
-				      "knn": {
-				        "field": "embedding",
-				        "query_vector": %s,
-				        "k": %d,
-				        "num_candidates": %d
-				      },
-				      "boost": %f
-				    }
-				  ],
-				  "rank": {
-				    "rrf": {
-				      "window_size": %d,
-				      "rank_constant": %d
-				    }
-				  }
-				}""", escape(text), bm25Boost, vectorStr, windowSize, Math.max(windowSize * 2, 10), knnBoost,
-				windowSize, rrfK);
+		generator.writeEndArray();
+		generator.writeNumberField("k", windowSize);
+		generator.writeNumberField("num_candidates", Math.max(windowSize * 2, 10));
+		generator.writeEndObject();
+	}
 
+	/**
+	 * Build a search request whose body is streamed straight into a buffer sized for the
+	 * query vector, with the stored embeddings excluded from the hits.
+	 */
+	private Request searchRequest(int dimensions, BodyWriter bodyWriter) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream(512 + dimensions * 16);
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(body)) {
+			generator.writeStartObject();
+			bodyWriter.write(generator);
+			generator.writeObjectFieldStart("_source");
+			generator.writeArrayFieldStart("excludes");
+			generator.writeString(EMBEDDING_FIELD);
+			generator.writeEndArray();
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
 		Request request = new Request("GET", "/" + indexName + "/_search");
-		request.setJsonEntity(body);
-		Response response = restClient.performRequest(request);
-		return parseResults(response.getEntity().getContent());
+		request.setEntity(new ByteArrayEntity(body.toByteArray(), ContentType.APPLICATION_JSON));
+		return request;
+	}
+
+	private CompletableFuture<List<Document>> performAsync(Request request) {
+		CompletableFuture<List<Document>> future = new CompletableFuture<>();
+		var cancellable = restClient.performRequestAsync(request, new ResponseListener() {
+			@Override
+			public void onSuccess(Response response) {
+				try {
+					future.complete(parseResults(response.getEntity().getContent()));
+				}
+				catch (IOException | RuntimeException ex) {
+					future.completeExceptionally(ex);
+				}
+			}
+
+			@Override
+			public void onFailure(Exception exception) {
+				future.completeExceptionally(exception);
+			}
+		});
+		future.whenComplete((result, ex) -> {
+			if (future.isCancelled()) {
+				cancellable.cancel();
+			}
+		});
+		return future;
+	}
+
+	private float[] embed(String text) {
+		if (embeddingCache == null) {
+			return embeddingModel.embed(text);
+		}
+		try {
+			// concurrent lookups of the same query share one embedding call; the cached
+			// array is shared by later lookups, so callers get their own copy
+			return embeddingCache.get(text, () -> embeddingModel.embed(text)).clone();
+		}
+		catch (ExecutionException | UncheckedExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException("Failed to embed query", ex.getCause());
+		}
 	}
 
 	private List<Document> parseResults(InputStream content) throws IOException {
 		JsonNode hits = mapper.readTree(content).path("hits").path("hits");
 
-		List<Document> results = new ArrayList<>();
+		List<Document> results = new ArrayList<>(hits.size());
 
 		for (JsonNode hit : hits) {
 			String id = hit.path("_id").asText();
-			String docText = hit.path("_source").path("content").asText();
+			JsonNode source = hit.path("_source");
+			String docText = source.path(CONTENT_FIELD).asText();
 
-			Map<String, Object> metadata = mapper.convertValue(hit.path("_source"),
-					mapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class));
+			Map<String, Object> metadata = mapper.convertValue(source, metadataType);
 
 			results.add(new Document(id, docText, metadata));
 		}
@@ -170,8 +308,11 @@ public class RrfHybridElasticsearchRetriever implements DocumentRetriever {
 		return results;
 	}
 
-	private static String escape(String text) {
-		return text.replace("\"", "\\\"");
+	@FunctionalInterface
+	private interface BodyWriter {
+
+		void write(JsonGenerator generator) throws IOException;
+
 	}
 
 }
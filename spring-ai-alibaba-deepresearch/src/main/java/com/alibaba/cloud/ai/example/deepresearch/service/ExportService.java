@@ -18,6 +18,7 @@ package com.alibaba.cloud.ai.example.deepresearch.service;
 
 import com.alibaba.cloud.ai.example.deepresearch.util.export.FileOperationUtil;
 import com.alibaba.cloud.ai.example.deepresearch.util.export.FormatConversionUtil;
+import com.alibaba.cloud.ai.example.deepresearch.util.export.HtmlGenerationUtil;
 import com.openhtmltopdf.slf4j.Slf4jLogger;
 import com.openhtmltopdf.util.XRLog;
 import org.slf4j.Logger;
@@ -30,6 +31,13 @@ import org.springframework.core.io.Resource;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -76,36 +84,56 @@ public class ExportService {
 	}
 
 	/**
-	 * 将报告内容保存为Markdown格式
+	 * 将报告内容保存为Markdown格式，报告按章节流式写入文件
 	 * @param threadId 线程ID
-	 * @return 保存的文件路径，如果报告不存在则返回null
+	 * @return 保存的文件路径，如果报告不存在或未生成完毕则返回null
 	 */
 	public String saveAsMarkdown(String threadId) {
-		String content = reportService.getReport(threadId);
-		if (content == null) {
-			logger.warn("No report content found for thread: {}", threadId);
+		if (!reportService.isReportCompleted(threadId)) {
+			logger.warn("No completed report found for thread: {}", threadId);
 			return null;
 		}
 
 		String filePath = getReportFilePath(threadId, "md");
-		return saveContentToFile(content, filePath);
+		return FileOperationUtil.writeToFile(filePath, out -> {
+			Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+			reportService.writeReport(threadId, writer);
+			writer.flush();
+		});
 	}
 
 	/**
-	 * 将报告内容转换为PDF并保存
+	 * 将报告内容转换为PDF并保存。章节拼接后作为一个Markdown文档渲染到临时HTML文件（列表、脚注和引用链接可以跨章节），
+	 * 再转换为PDF
 	 * @param threadId 线程ID
-	 * @return 保存的PDF文件路径，如果报告不存在则返回null
+	 * @return 保存的PDF文件路径，如果报告不存在或未生成完毕则返回null
 	 */
 	public String saveAsPdf(String threadId) {
-		String content = reportService.getReport(threadId);
-		if (content == null) {
-			logger.warn("No report content found for thread: {}", threadId);
+		if (!reportService.isReportCompleted(threadId)) {
+			logger.warn("No completed report found for thread: {}", threadId);
 			return null;
 		}
 
 		String pdfFilePath = getReportFilePath(threadId, "pdf");
-		FormatConversionUtil.convertMarkdownToPdfFile(content, pdfFilePath);
-		return pdfFilePath;
+		Path htmlFile = null;
+		try {
+			htmlFile = Files.createTempFile(Paths.get(basePath), "report-", ".html");
+			try (Writer writer = Files.newBufferedWriter(htmlFile, StandardCharsets.UTF_8);
+					Reader markdown = reportService.openReport(threadId)) {
+				HtmlGenerationUtil.writeHtmlHeader(writer);
+				HtmlGenerationUtil.renderMarkdownTo(markdown, writer);
+				HtmlGenerationUtil.writeHtmlFooter(writer);
+			}
+			FormatConversionUtil.convertHtmlFileToPdfFile(htmlFile, pdfFilePath);
+			return pdfFilePath;
+		}
+		catch (IOException e) {
+			logger.error("Failed to render report to HTML, thread: {}", threadId, e);
+			throw new RuntimeException("Failed to render report to HTML", e);
+		}
+		finally {
+			FileOperationUtil.deleteQuietly(htmlFile);
+		}
 	}
 
 	/**
@@ -164,7 +192,7 @@ public class ExportService {
 	public ResponseEntity<Resource> downloadReport(String threadId, String format) throws IOException {
 		// 检查线程ID对应导出的报告是否存在
 		if (!existsReportByThreadId(threadId)) {
-			throw new RuntimeException("Report not found for thread: " + threadId);
+			throw new RuntimeException("Report not found or not completed for thread: " + threadId);
 		}
 
 		// 获取文件路径
@@ -173,9 +201,8 @@ public class ExportService {
 			throw new RuntimeException("Unsupported format: " + format);
 		}
 
-		// 获取报告内容以提取标题
-		String content = reportService.getReport(threadId);
-		String title = extractTitleFromContent(content);
+		// 标题位于报告开头，只读取前两个章节
+		String title = extractTitleFromContent(String.join("", reportService.getSections(threadId, 0, 2)));
 
 		logger.debug("Extracted title: {}", title);
 
@@ -240,12 +267,12 @@ public class ExportService {
 	}
 
 	/**
-	 * 检查线程ID对应的报告是否存在
+	 * 检查线程ID对应的报告是否存在且已生成完毕，生成中的报告不能导出
 	 * @param threadId 线程ID
 	 * @return 是否存在
 	 */
 	public boolean existsReportByThreadId(String threadId) {
-		return reportService.existsReport(threadId);
+		return reportService.isReportCompleted(threadId);
 	}
 
 	/**
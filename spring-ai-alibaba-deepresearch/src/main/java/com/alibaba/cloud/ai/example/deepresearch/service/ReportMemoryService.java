@@ -21,7 +21,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -37,9 +41,14 @@ public class ReportMemoryService implements ReportService {
 	private static final Logger logger = LoggerFactory.getLogger(ReportMemoryService.class);
 
 	/**
-	 * 内存存储，使用ConcurrentHashMap保证线程安全
+	 * 内存存储，使用ConcurrentHashMap保证线程安全，每个报告是一个同步的章节列表
 	 */
-	private final Map<String, String> reportStorage = new ConcurrentHashMap<>();
+	private final Map<String, List<String>> reportStorage = new ConcurrentHashMap<>();
+
+	/**
+	 * 已生成完毕的报告
+	 */
+	private final Set<String> completedReports = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * 存储报告到内存
@@ -49,7 +58,10 @@ public class ReportMemoryService implements ReportService {
 	@Override
 	public void saveReport(String threadId, String report) {
 		try {
-			reportStorage.put(threadId, report);
+			List<String> sections = newSectionList();
+			sections.add(report);
+			completedReports.remove(threadId);
+			reportStorage.put(threadId, sections);
 			logger.info("Report saved to memory, thread ID: {}", threadId);
 		}
 		catch (Exception e) {
@@ -58,6 +70,23 @@ public class ReportMemoryService implements ReportService {
 		}
 	}
 
+	/**
+	 * 追加报告章节到内存
+	 * @param threadId 线程ID
+	 * @param section 章节内容
+	 */
+	@Override
+	public void appendSection(String threadId, String section) {
+		try {
+			reportStorage.computeIfAbsent(threadId, key -> newSectionList()).add(section);
+			logger.debug("Report section appended to memory, thread ID: {}", threadId);
+		}
+		catch (Exception e) {
+			logger.error("Failed to append report section to memory, thread ID: {}", threadId, e);
+			throw new RuntimeException("Failed to append report section", e);
+		}
+	}
+
 	/**
 	 * 从内存获取报告
 	 * @param threadId 线程ID
@@ -66,10 +95,12 @@ public class ReportMemoryService implements ReportService {
 	@Override
 	public String getReport(String threadId) {
 		try {
-			String report = reportStorage.get(threadId);
-			if (report != null) {
+			List<String> sections = reportStorage.get(threadId);
+			if (sections != null) {
 				logger.info("Successfully retrieved report from memory, thread ID: {}", threadId);
-				return report;
+				synchronized (sections) {
+					return String.join("", sections);
+				}
 			}
 			else {
 				logger.warn("Report not found in memory, thread ID: {}", threadId);
@@ -82,6 +113,37 @@ public class ReportMemoryService implements ReportService {
 		}
 	}
 
+	/**
+	 * 获取报告章节数
+	 * @param threadId 线程ID
+	 * @return 章节数，如果报告不存在返回 0
+	 */
+	@Override
+	public long getSectionCount(String threadId) {
+		List<String> sections = reportStorage.get(threadId);
+		return sections != null ? sections.size() : 0;
+	}
+
+	/**
+	 * 按范围获取报告章节
+	 * @param threadId 线程ID
+	 * @param from 起始章节下标（包含）
+	 * @param to 结束章节下标（不包含）
+	 * @return 章节列表，如果报告不存在返回空列表
+	 */
+	@Override
+	public List<String> getSections(String threadId, long from, long to) {
+		List<String> sections = reportStorage.get(threadId);
+		if (sections == null) {
+			return List.of();
+		}
+		synchronized (sections) {
+			int start = (int) Math.max(0, Math.min(from, sections.size()));
+			int end = (int) Math.max(start, Math.min(to, sections.size()));
+			return List.copyOf(sections.subList(start, end));
+		}
+	}
+
 	/**
 	 * 检查报告是否存在
 	 * @param threadId 线程ID
@@ -100,6 +162,27 @@ public class ReportMemoryService implements ReportService {
 		}
 	}
 
+	/**
+	 * 标记报告已生成完毕
+	 * @param threadId 线程ID
+	 */
+	@Override
+	public void markReportCompleted(String threadId) {
+		if (reportStorage.containsKey(threadId)) {
+			completedReports.add(threadId);
+		}
+	}
+
+	/**
+	 * 检查报告是否已生成完毕
+	 * @param threadId 线程ID
+	 * @return 是否已完成
+	 */
+	@Override
+	public boolean isReportCompleted(String threadId) {
+		return completedReports.contains(threadId);
+	}
+
 	/**
 	 * 删除报告
 	 * @param threadId 线程ID
@@ -107,6 +190,7 @@ public class ReportMemoryService implements ReportService {
 	@Override
 	public void deleteReport(String threadId) {
 		try {
+			completedReports.remove(threadId);
 			reportStorage.remove(threadId);
 			logger.info("Report deleted from memory, thread ID: {}", threadId);
 		}
@@ -116,4 +200,8 @@ public class ReportMemoryService implements ReportService {
 		}
 	}
 
+	private static List<String> newSectionList() {
+		return Collections.synchronizedList(new ArrayList<>());
+	}
+
 }
@@ -19,13 +19,18 @@ package com.alibaba.cloud.ai.example.deepresearch.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
- * 报告 Redis 服务类
+ * 报告 Redis 服务类，每个报告存储为一个 Redis List，每个元素是一个章节
  *
  * @author huangzhen
  * @since 2025/6/18
@@ -41,7 +46,12 @@ public class ReportRedisService implements ReportService {
 	/**
 	 * Redis key 前缀
 	 */
-	private static final String REPORT_KEY_PREFIX = "deepresearch:report:";
+	private static final String REPORT_KEY_PREFIX = "deepresearch:report:sections:";
+
+	/**
+	 * 报告完成标记 key 前缀
+	 */
+	private static final String COMPLETED_KEY_PREFIX = "deepresearch:report:completed:";
 
 	/**
 	 * 默认过期时间（24小时）
@@ -61,7 +71,19 @@ public class ReportRedisService implements ReportService {
 	public void saveReport(String threadId, String report) {
 		try {
 			String key = buildKey(threadId);
-			redisTemplate.opsForValue().set(key, report, DEFAULT_EXPIRE_HOURS, TimeUnit.HOURS);
+			redisTemplate.execute(new SessionCallback<List<Object>>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+					RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+					ops.multi();
+					ops.delete(buildCompletedKey(threadId));
+					ops.delete(key);
+					ops.opsForList().rightPush(key, report);
+					ops.expire(key, DEFAULT_EXPIRE_HOURS, TimeUnit.HOURS);
+					return ops.exec();
+				}
+			});
 			logger.info("Report saved to Redis, thread ID: {}, key: {}", threadId, key);
 		}
 		catch (Exception e) {
@@ -70,6 +92,25 @@ public class ReportRedisService implements ReportService {
 		}
 	}
 
+	/**
+	 * 追加报告章节到 Redis，并刷新过期时间
+	 * @param threadId 线程ID
+	 * @param section 章节内容
+	 */
+	@Override
+	public void appendSection(String threadId, String section) {
+		try {
+			String key = buildKey(threadId);
+			redisTemplate.opsForList().rightPush(key, section);
+			redisTemplate.expire(key, DEFAULT_EXPIRE_HOURS, TimeUnit.HOURS);
+			logger.debug("Report section appended to Redis, thread ID: {}, key: {}", threadId, key);
+		}
+		catch (Exception e) {
+			logger.error("Failed to append report section to Redis, thread ID: {}", threadId, e);
+			throw new RuntimeException("Failed to append report section", e);
+		}
+	}
+
 	/**
 	 * 从 Redis 获取报告
 	 * @param threadId 线程ID
@@ -79,10 +120,10 @@ public class ReportRedisService implements ReportService {
 	public String getReport(String threadId) {
 		try {
 			String key = buildKey(threadId);
-			Object result = redisTemplate.opsForValue().get(key);
-			if (result != null) {
+			List<Object> sections = redisTemplate.opsForList().range(key, 0, -1);
+			if (sections != null && !sections.isEmpty()) {
 				logger.info("Successfully retrieved report from Redis, thread ID: {}, key: {}", threadId, key);
-				return result.toString();
+				return sections.stream().map(Objects::toString).collect(Collectors.joining());
 			}
 			else {
 				logger.warn("Report not found in Redis, thread ID: {}, key: {}", threadId, key);
@@ -95,6 +136,46 @@ public class ReportRedisService implements ReportService {
 		}
 	}
 
+	/**
+	 * 获取报告章节数
+	 * @param threadId 线程ID
+	 * @return 章节数，如果报告不存在返回 0
+	 */
+	@Override
+	public long getSectionCount(String threadId) {
+		try {
+			Long size = redisTemplate.opsForList().size(buildKey(threadId));
+			return size != null ? size : 0;
+		}
+		catch (Exception e) {
+			logger.error("Failed to get report section count from Redis, thread ID: {}", threadId, e);
+			throw new RuntimeException("Failed to get report section count", e);
+		}
+	}
+
+	/**
+	 * 按范围从 Redis 获取报告章节
+	 * @param threadId 线程ID
+	 * @param from 起始章节下标（包含）
+	 * @param to 结束章节下标（不包含）
+	 * @return 章节列表，如果报告不存在返回空列表
+	 */
+	@Override
+	public List<String> getSections(String threadId, long from, long to) {
+		long start = Math.max(0, from);
+		if (to <= start) {
+			return List.of();
+		}
+		try {
+			List<Object> sections = redisTemplate.opsForList().range(buildKey(threadId), start, to - 1);
+			return sections != null ? sections.stream().map(Objects::toString).toList() : List.of();
+		}
+		catch (Exception e) {
+			logger.error("Failed to get report sections from Redis, thread ID: {}", threadId, e);
+			throw new RuntimeException("Failed to get report sections", e);
+		}
+	}
+
 	/**
 	 * 检查报告是否存在
 	 * @param threadId 线程ID
@@ -113,6 +194,41 @@ public class ReportRedisService implements ReportService {
 		}
 	}
 
+	/**
+	 * 标记报告已生成完毕，标记与报告同时过期
+	 * @param threadId 线程ID
+	 */
+	@Override
+	public void markReportCompleted(String threadId) {
+		try {
+			redisTemplate.opsForValue()
+				.set(buildCompletedKey(threadId), Boolean.TRUE.toString(), DEFAULT_EXPIRE_HOURS, TimeUnit.HOURS);
+			redisTemplate.expire(buildKey(threadId), DEFAULT_EXPIRE_HOURS, TimeUnit.HOURS);
+			logger.info("Report marked as completed in Redis, thread ID: {}", threadId);
+		}
+		catch (Exception e) {
+			logger.error("Failed to mark report as completed, thread ID: {}", threadId, e);
+			throw new RuntimeException("Failed to mark report as completed", e);
+		}
+	}
+
+	/**
+	 * 检查报告是否已生成完毕
+	 * @param threadId 线程ID
+	 * @return 是否已完成
+	 */
+	@Override
+	public boolean isReportCompleted(String threadId) {
+		try {
+			Boolean exists = redisTemplate.hasKey(buildCompletedKey(threadId));
+			return exists != null && exists;
+		}
+		catch (Exception e) {
+			logger.error("Failed to check if report is completed, thread ID: {}", threadId, e);
+			return false;
+		}
+	}
+
 	/**
 	 * 删除报告
 	 * @param threadId 线程ID
@@ -121,7 +237,7 @@ public class ReportRedisService implements ReportService {
 	public void deleteReport(String threadId) {
 		try {
 			String key = buildKey(threadId);
-			redisTemplate.delete(key);
+			redisTemplate.delete(List.of(key, buildCompletedKey(threadId)));
 			logger.info("Report deleted from Redis, thread ID: {}, key: {}", threadId, key);
 		}
 		catch (Exception e) {
@@ -139,4 +255,8 @@ public class ReportRedisService implements ReportService {
 		return REPORT_KEY_PREFIX + threadId;
 	}
 
+	private String buildCompletedKey(String threadId) {
+		return COMPLETED_KEY_PREFIX + threadId;
+	}
+
 }
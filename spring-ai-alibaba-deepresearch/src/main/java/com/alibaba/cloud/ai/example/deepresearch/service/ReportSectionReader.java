@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.example.deepresearch.service;
+
+import java.io.Reader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 把报告的各个章节作为一个连续的字符流读取，每次从 {@link ReportService} 读取
+ * {@link ReportService#SECTION_PAGE_SIZE} 个章节
+ *
+ * @since 2025/7/2
+ */
+class ReportSectionReader extends Reader {
+
+	private final ReportService reportService;
+
+	private final String threadId;
+
+	private long nextSection;
+
+	private Iterator<String> page = Collections.emptyIterator();
+
+	private String current = "";
+
+	private int position;
+
+	private boolean exhausted;
+
+	ReportSectionReader(ReportService reportService, String threadId) {
+		this.reportService = reportService;
+		this.threadId = threadId;
+	}
+
+	@Override
+	public int read(char[] buffer, int offset, int length) {
+		if (length == 0) {
+			return 0;
+		}
+		while (position >= current.length()) {
+			if (!page.hasNext() && !nextPage()) {
+				return -1;
+			}
+			current = page.next();
+			position = 0;
+		}
+		int count = Math.min(length, current.length() - position);
+		current.getChars(position, position + count, buffer, offset);
+		position += count;
+		return count;
+	}
+
+	private boolean nextPage() {
+		if (exhausted) {
+			return false;
+		}
+		List<String> sections = reportService.getSections(threadId, nextSection,
+				nextSection + ReportService.SECTION_PAGE_SIZE);
+		if (sections.isEmpty()) {
+			exhausted = true;
+			return false;
+		}
+		nextSection += sections.size();
+		page = sections.iterator();
+		return true;
+	}
+
+	@Override
+	public void close() {
+		exhausted = true;
+		page = Collections.emptyIterator();
+		current = "";
+		position = 0;
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.example.deepresearch.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.regex.Pattern;
+
+/**
+ * 将流式生成的 Markdown 报告切分为章节并逐个写入 {@link ReportService}。
+ *
+ * <p>
+ * 代码块之外的每个 ATX 标题开始一个新章节；没有标题的长段落在空行处按
+ * {@link #MAX_SECTION_CHARS} 切分。章节只是存储和分页读取的单位，列表、脚注和引用链接可能跨越章节，
+ * 渲染时应把章节拼接后作为一个文档处理。第一个章节替换已有报告，之后的章节追加；全部写入成功后
+ * {@link #close()} 会标记报告完成。该类不是线程安全的，应由单个流按顺序写入，写入会阻塞，不应在响应式线程上调用。
+ *
+ * @since 2025/7/2
+ */
+public class ReportSectionWriter {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReportSectionWriter.class);
+
+	/**
+	 * 无标题时单个章节的最大字符数，超过后在下一个空行处切分
+	 */
+	static final int MAX_SECTION_CHARS = 8 * 1024;
+
+	private static final Pattern HEADING = Pattern.compile("^ {0,3}#{1,6}(\\s.*)?$", Pattern.DOTALL);
+
+	private static final Pattern FENCE = Pattern.compile("^ {0,3}(```|~~~).*", Pattern.DOTALL);
+
+	private final ReportService reportService;
+
+	private final String threadId;
+
+	private final StringBuilder section = new StringBuilder();
+
+	private final StringBuilder line = new StringBuilder();
+
+	private boolean inFence;
+
+	private int written;
+
+	private boolean failed;
+
+	public ReportSectionWriter(ReportService reportService, String threadId) {
+		this.reportService = reportService;
+		this.threadId = threadId;
+	}
+
+	/**
+	 * 写入一段流式输出
+	 * @param chunk 文本片段
+	 */
+	public void write(String chunk) {
+		if (chunk == null || chunk.isEmpty() || failed) {
+			return;
+		}
+		int start = 0;
+		int newline;
+		while ((newline = chunk.indexOf('\n', start)) >= 0) {
+			line.append(chunk, start, newline + 1);
+			endLine();
+			start = newline + 1;
+		}
+		line.append(chunk, start, chunk.length());
+	}
+
+	/**
+	 * 写入剩余内容，全部章节写入成功时标记报告完成
+	 * @return 是否所有章节都写入成功，失败时调用方应保存完整报告并标记完成
+	 */
+	public boolean close() {
+		if (!failed) {
+			section.append(line);
+			line.setLength(0);
+			flush();
+		}
+		if (failed || written == 0) {
+			return false;
+		}
+		try {
+			reportService.markReportCompleted(threadId);
+			return true;
+		}
+		catch (Exception e) {
+			logger.error("Failed to mark report as completed, thread ID: {}", threadId, e);
+			return false;
+		}
+	}
+
+	private void endLine() {
+		String text = line.toString();
+		line.setLength(0);
+		if (FENCE.matcher(text).matches()) {
+			inFence = !inFence;
+		}
+		else if (!inFence) {
+			boolean heading = HEADING.matcher(text).matches();
+			boolean oversizedBreak = text.isBlank() && section.length() >= MAX_SECTION_CHARS;
+			if (heading) {
+				flush();
+			}
+			else if (oversizedBreak) {
+				section.append(text);
+				flush();
+				return;
+			}
+		}
+		section.append(text);
+	}
+
+	private void flush() {
+		if (section.isEmpty() || failed) {
+			return;
+		}
+		try {
+			if (written == 0) {
+				reportService.saveReport(threadId, section.toString());
+			}
+			else {
+				reportService.appendSection(threadId, section.toString());
+			}
+			written++;
+			section.setLength(0);
+		}
+		catch (Exception e) {
+			logger.error("Failed to write report section {}, thread ID: {}", written, threadId, e);
+			failed = true;
+		}
+	}
+
+}
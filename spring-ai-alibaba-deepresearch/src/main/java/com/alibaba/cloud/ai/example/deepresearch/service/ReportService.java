@@ -16,8 +16,14 @@
 
 package com.alibaba.cloud.ai.example.deepresearch.service;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+
 /**
- * 报告服务接口
+ * 报告服务接口，报告按章节存储，可以边生成边追加，并按章节范围读取或流式输出。报告生成完毕后通过
+ * {@link #markReportCompleted} 标记完成，导出和整篇读取前应检查 {@link #isReportCompleted}，避免返回不完整的报告
  *
  * @author huangzhen
  * @since 2025/6/20
@@ -25,19 +31,87 @@ package com.alibaba.cloud.ai.example.deepresearch.service;
 public interface ReportService {
 
 	/**
-	 * 存储报告
+	 * 流式读取报告时每次读取的章节数
+	 */
+	int SECTION_PAGE_SIZE = 16;
+
+	/**
+	 * 存储报告，替换已有的全部章节并清除完成标记
 	 * @param threadId 线程ID
 	 * @param report 报告内容
 	 */
 	void saveReport(String threadId, String report);
 
 	/**
-	 * 获取报告
+	 * 追加报告章节，报告不存在时创建
+	 * @param threadId 线程ID
+	 * @param section 章节内容
+	 */
+	void appendSection(String threadId, String section);
+
+	/**
+	 * 获取完整报告，长报告优先使用 {@link #forEachSection} 或 {@link #writeReport}
 	 * @param threadId 线程ID
 	 * @return 报告内容，如果不存在返回 null
 	 */
 	String getReport(String threadId);
 
+	/**
+	 * 获取报告章节数
+	 * @param threadId 线程ID
+	 * @return 章节数，如果报告不存在返回 0
+	 */
+	long getSectionCount(String threadId);
+
+	/**
+	 * 按范围获取报告章节
+	 * @param threadId 线程ID
+	 * @param from 起始章节下标（包含）
+	 * @param to 结束章节下标（不包含），超出章节数时截断
+	 * @return 章节列表，如果报告不存在返回空列表
+	 */
+	List<String> getSections(String threadId, long from, long to);
+
+	/**
+	 * 按顺序分页读取章节并逐个处理，不在内存中拼接完整报告
+	 * @param threadId 线程ID
+	 * @param consumer 章节处理器
+	 * @return 报告是否存在
+	 * @throws IOException 章节处理器抛出的异常
+	 */
+	default boolean forEachSection(String threadId, SectionConsumer consumer) throws IOException {
+		long count = getSectionCount(threadId);
+		if (count == 0) {
+			return false;
+		}
+		for (long from = 0; from < count; from += SECTION_PAGE_SIZE) {
+			for (String section : getSections(threadId, from, Math.min(from + SECTION_PAGE_SIZE, count))) {
+				consumer.accept(section);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 按顺序读取所有章节拼接成的报告，章节分页读取，不在内存中拼接完整报告
+	 * @param threadId 线程ID
+	 * @return 报告内容，报告不存在时为空
+	 */
+	default Reader openReport(String threadId) {
+		return new ReportSectionReader(this, threadId);
+	}
+
+	/**
+	 * 将报告流式写出
+	 * @param threadId 线程ID
+	 * @param writer 输出
+	 * @return 报告是否存在
+	 * @throws IOException 写出失败
+	 */
+	default boolean writeReport(String threadId, Writer writer) throws IOException {
+		return forEachSection(threadId, writer::write);
+	}
+
 	/**
 	 * 检查报告是否存在
 	 * @param threadId 线程ID
@@ -45,10 +119,33 @@ public interface ReportService {
 	 */
 	boolean existsReport(String threadId);
 
+	/**
+	 * 标记报告已生成完毕
+	 * @param threadId 线程ID
+	 */
+	void markReportCompleted(String threadId);
+
+	/**
+	 * 检查报告是否已生成完毕，生成中的报告章节可能已经存在但内容不完整
+	 * @param threadId 线程ID
+	 * @return 是否已完成
+	 */
+	boolean isReportCompleted(String threadId);
+
 	/**
 	 * 删除报告
 	 * @param threadId 线程ID
 	 */
 	void deleteReport(String threadId);
 
+	/**
+	 * 报告章节处理器
+	 */
+	@FunctionalInterface
+	interface SectionConsumer {
+
+		void accept(String section) throws IOException;
+
+	}
+
 }
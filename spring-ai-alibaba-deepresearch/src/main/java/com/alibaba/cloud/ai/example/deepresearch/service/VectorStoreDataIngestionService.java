@@ -16,34 +16,114 @@
 
 package com.alibaba.cloud.ai.example.deepresearch.service;
 
+import com.alibaba.cloud.ai.example.deepresearch.config.rag.RagProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.reader.tika.TikaDocumentReader;
 import org.springframework.ai.transformer.splitter.TokenTextSplitter;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A service for ingesting data into the vector store from various sources. It handles
  * document reading, splitting, and vectorization.
  *
+ * <p>
+ * Resources go through a staged pipeline: parse ({@link TikaDocumentReader}), split
+ * ({@link TokenTextSplitter}) and write ({@link VectorStore#add}, which also embeds).
+ * Each stage has its own thread pool and a bounded queue, shared by all ingestion calls
+ * and shut down with the bean; when a queue is full the upstream thread runs the task
+ * itself, so a slow stage throttles the ones before it.
+ *
+ * <p>
+ * The SHA-256 of every ingested resource is kept in a manifest, keyed by the resource's
+ * source: the caller-supplied source id, else the file path or URL. Unchanged resources
+ * are skipped; changed ones are written under new chunk ids and their previous chunks are
+ * deleted afterwards. Uploads and other resources without a path or URL are keyed by
+ * their content hash unless a source id is given, so two uploads that only share a file
+ * name never replace each other.
+ *
  * @author hupei
  */
 @Service
-public class VectorStoreDataIngestionService {
+public class VectorStoreDataIngestionService implements AutoCloseable {
 
 	private static final Logger logger = LoggerFactory.getLogger(VectorStoreDataIngestionService.class);
 
+	public static final String CONTENT_HASH_METADATA = "content_hash";
+
 	private final VectorStore vectorStore;
 
 	private final TokenTextSplitter textSplitter;
 
-	public VectorStoreDataIngestionService(VectorStore vectorStore) {
+	private final RagProperties.Data.Ingestion properties;
+
+	private final Path manifestPath;
+
+	private final ThreadPoolExecutor parseStage;
+
+	private final ThreadPoolExecutor splitStage;
+
+	private final ThreadPoolExecutor writeStage;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/**
+	 * source -> content hash and chunk ids of the last successful ingestion
+	 */
+	private final Map<String, ManifestEntry> manifest = new ConcurrentHashMap<>();
+
+	@Autowired
+	public VectorStoreDataIngestionService(VectorStore vectorStore, ObjectProvider<RagProperties> ragProperties) {
+		this(vectorStore, ragProperties.getIfAvailable(RagProperties::new).getData().getIngestion());
+	}
+
+	public VectorStoreDataIngestionService(VectorStore vectorStore, RagProperties.Data.Ingestion properties) {
 		this.vectorStore = vectorStore;
 		this.textSplitter = new TokenTextSplitter();
+		this.properties = properties;
+		this.manifestPath = StringUtils.hasText(properties.getManifestPath()) ? Paths.get(properties.getManifestPath())
+				: null;
+		this.parseStage = stage("rag-ingest-parse", properties.getParseParallelism());
+		this.splitStage = stage("rag-ingest-split", properties.getSplitParallelism());
+		this.writeStage = stage("rag-ingest-write", properties.getWriteParallelism());
+		loadManifest();
 	}
 
 	/**
@@ -51,33 +131,291 @@ public class VectorStoreDataIngestionService {
 	 * @param resource Spring Resource, e.g., FileSystemResource, ClassPathResource, or
 	 * MultipartFile.getResource()
 	 */
-	public void ingest(Resource resource) {
+	public IngestionReport ingest(Resource resource) {
+		return ingest(resource, null);
+	}
+
+	/**
+	 * 从单个资源加载、处理并存入向量数据库
+	 * @param resource the resource to ingest
+	 * @param sourceId identifies the resource across ingestions, a later ingestion with
+	 * the same id replaces its chunks; {@code null} to derive it from the resource
+	 */
+	public IngestionReport ingest(Resource resource, String sourceId) {
+		return doIngest(List.of(new SourceResource(resource, sourceId)));
+	}
+
+	/**
+	 * 批量处理多个资源
+	 * @param resources List of resources to ingest
+	 */
+	public IngestionReport ingest(List<Resource> resources) {
+		return doIngest(resources.stream().map(resource -> new SourceResource(resource, null)).toList());
+	}
+
+	private IngestionReport doIngest(List<SourceResource> resources) {
+		if (parseStage.isShutdown()) {
+			throw new IllegalStateException("Ingestion service is closed");
+		}
+		long start = System.nanoTime();
+		Progress progress = new Progress(resources.size());
+		List<CompletableFuture<Void>> pipelines = new ArrayList<>(resources.size());
+		for (SourceResource resource : resources) {
+			pipelines.add(CompletableFuture.supplyAsync(() -> parse(resource, progress), parseStage)
+				.thenApplyAsync(parsed -> parsed == null ? null : split(parsed), splitStage)
+				.thenCompose(split -> split == null ? CompletableFuture.completedFuture(null) : write(split, progress))
+				.exceptionally(ex -> {
+					progress.failed.add(resource.resource());
+					logger.error("Failed to ingest data from resource: " + resource.resource().getFilename(),
+							ex.getCause() != null ? ex.getCause() : ex);
+					return null;
+				}));
+		}
+		CompletableFuture.allOf(pipelines.toArray(CompletableFuture[]::new)).join();
+		saveManifest();
+
+		IngestionReport report = progress.report(Duration.ofNanos(System.nanoTime() - start));
+		logger.info("Ingestion finished: {}", report);
+		return report;
+	}
+
+	private ParsedResource parse(SourceResource sourceResource, Progress progress) {
+		Resource resource = sourceResource.resource();
 		try {
 			if (!resource.exists() || resource.contentLength() == 0) {
 				logger.warn("Skipping ingestion for empty or non-existent resource: {}", resource.getFilename());
-				return;
+				progress.skipped.incrementAndGet();
+				return null;
+			}
+			// read once for both hashing and parsing, multipart streams may not be
+			// re-readable
+			byte[] content;
+			try (InputStream in = resource.getInputStream()) {
+				content = in.readAllBytes();
+			}
+			progress.bytes.addAndGet(content.length);
+			String hash = sha256(content);
+			String source = StringUtils.hasText(sourceResource.sourceId()) ? sourceResource.sourceId()
+					: sourceOf(resource, hash);
+			ManifestEntry previous = manifest.get(source);
+			if (previous != null && previous.contentHash().equals(hash)) {
+				logger.debug("Skipping unchanged resource: {}", source);
+				progress.skipped.incrementAndGet();
+				return null;
 			}
 
 			logger.info("Ingesting data from resource: {}", resource.getFilename());
+			String filename = resource.getFilename();
 			// TikaDocumentReader 支持多种文档格式(PDF, DOCX, MD, etc.)
-			var documentReader = new TikaDocumentReader(resource);
-			List<Document> documents = documentReader.get();
-			List<Document> splitDocuments = this.textSplitter.apply(documents);
-			this.vectorStore.add(splitDocuments);
-			logger.info("Successfully ingested {} splits from {}", splitDocuments.size(), resource.getFilename());
+			var documentReader = new TikaDocumentReader(new ByteArrayResource(content) {
+				@Override
+				public String getFilename() {
+					return filename;
+				}
+			});
+			return new ParsedResource(source, filename, hash, documentReader.get());
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Failed to read resource: " + resource.getFilename(), e);
+		}
+	}
+
+	private SplitResource split(ParsedResource parsed) {
+		List<Document> splits = this.textSplitter.apply(parsed.documents());
+		List<Document> chunks = new ArrayList<>(splits.size());
+		for (int i = 0; i < splits.size(); i++) {
+			Document split = splits.get(i);
+			// stable ids: the same content always maps to the same chunks
+			String id = UUID
+				.nameUUIDFromBytes((parsed.source() + '#' + parsed.contentHash() + '#' + i)
+					.getBytes(StandardCharsets.UTF_8))
+				.toString();
+			Map<String, Object> metadata = new HashMap<>(split.getMetadata());
+			metadata.put(CONTENT_HASH_METADATA, parsed.contentHash());
+			chunks.add(Document.builder().id(id).text(split.getText()).metadata(metadata).build());
+		}
+		return new SplitResource(parsed, chunks);
+	}
+
+	private CompletableFuture<Void> write(SplitResource split, Progress progress) {
+		List<Document> chunks = split.chunks();
+		int batchSize = Math.max(1, properties.getWriteBatchSize());
+		List<CompletableFuture<Void>> batches = new ArrayList<>();
+		for (int from = 0; from < chunks.size(); from += batchSize) {
+			List<Document> batch = chunks.subList(from, Math.min(chunks.size(), from + batchSize));
+			batches.add(CompletableFuture.runAsync(() -> {
+				this.vectorStore.add(batch);
+				progress.chunks.addAndGet(batch.size());
+			}, writeStage));
+		}
+		return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).thenRun(() -> {
+			ParsedResource parsed = split.parsed();
+			List<String> ids = chunks.stream().map(Document::getId).toList();
+			ManifestEntry previous = manifest.put(parsed.source(), new ManifestEntry(parsed.contentHash(), ids));
+			if (previous != null && !previous.chunkIds().isEmpty()) {
+				// the new chunks are in place, drop the ones of the old content
+				Set<String> current = new HashSet<>(ids);
+				List<String> stale = previous.chunkIds().stream().filter(id -> !current.contains(id)).toList();
+				if (!stale.isEmpty()) {
+					this.vectorStore.delete(stale);
+				}
+				progress.updated.incrementAndGet();
+			}
+			else {
+				progress.ingested.incrementAndGet();
+			}
+			logger.info("Successfully ingested {} splits from {}", chunks.size(), parsed.filename());
+		});
+	}
+
+	private ThreadPoolExecutor stage(String name, int parallelism) {
+		int threads = Math.max(1, parallelism);
+		AtomicInteger counter = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())), runnable -> {
+					Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, (runnable, pool) -> {
+					// run in the caller for back-pressure; after shutdown fail instead of
+					// silently dropping the task, which would leave the pipeline hanging
+					if (pool.isShutdown()) {
+						throw new RejectedExecutionException(name + " is shut down");
+					}
+					runnable.run();
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static String sourceOf(Resource resource, String contentHash) {
+		try {
+			if (resource.isFile()) {
+				return resource.getFile().getAbsolutePath();
+			}
+			return resource.getURL().toString();
+		}
+		catch (IOException e) {
+			// uploads and in-memory resources have no stable location, and their file
+			// name is not unique, so they are identified by content
+			return "sha256:" + contentHash;
+		}
+	}
 
+	private static String sha256(byte[] content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
 		}
-		catch (Exception e) {
-			logger.error("Failed to ingest data from resource: " + resource.getFilename(), e);
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not supported", e);
 		}
 	}
 
+	private void loadManifest() {
+		if (manifestPath == null || !Files.exists(manifestPath)) {
+			return;
+		}
+		try {
+			Map<String, ManifestEntry> entries = objectMapper.readValue(manifestPath.toFile(),
+					new TypeReference<Map<String, ManifestEntry>>() {
+					});
+			manifest.putAll(entries);
+			logger.info("Loaded ingestion manifest with {} resources from {}", manifest.size(), manifestPath);
+		}
+		catch (IOException e) {
+			logger.warn("Failed to read ingestion manifest {}, all resources will be ingested again", manifestPath, e);
+		}
+	}
+
+	private synchronized void saveManifest() {
+		if (manifestPath == null) {
+			return;
+		}
+		try {
+			Path parent = manifestPath.toAbsolutePath().getParent();
+			Files.createDirectories(parent);
+			Path temp = Files.createTempFile(parent, "ingestion-manifest", ".tmp");
+			objectMapper.writeValue(temp.toFile(), Map.copyOf(manifest));
+			Files.move(temp, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			logger.warn("Failed to write ingestion manifest {}", manifestPath, e);
+		}
+	}
+
+	@Override
+	public void close() {
+		parseStage.shutdownNow();
+		splitStage.shutdownNow();
+		writeStage.shutdownNow();
+	}
+
 	/**
-	 * 批量处理多个资源
-	 * @param resources List of resources to ingest
+	 * Outcome of one ingestion call.
+	 * @param resources resources passed in
+	 * @param ingested resources ingested for the first time
+	 * @param updated resources whose content changed since the last ingestion
+	 * @param skipped empty, missing or unchanged resources
+	 * @param failedResources resources that could not be read, parsed or written; they
+	 * are not in the manifest, so the next ingestion tries them again
+	 * @param chunks chunks written to the vector store
+	 * @param bytes bytes read
+	 * @param elapsed wall time of the whole call
 	 */
-	public void ingest(List<Resource> resources) {
-		resources.forEach(this::ingest);
+	public record IngestionReport(int resources, int ingested, int updated, int skipped,
+			List<Resource> failedResources, long chunks, long bytes, Duration elapsed) {
+
+		/**
+		 * @return the number of resources that could not be read, parsed or written
+		 */
+		public int failed() {
+			return failedResources.size();
+		}
+
+		public double chunksPerSecond() {
+			double seconds = elapsed.toNanos() / 1_000_000_000.0;
+			return seconds > 0 ? chunks / seconds : 0;
+		}
+
+	}
+
+	record ManifestEntry(String contentHash, List<String> chunkIds) {
+	}
+
+	private record SourceResource(Resource resource, String sourceId) {
+	}
+
+	private record ParsedResource(String source, String filename, String contentHash, List<Document> documents) {
+	}
+
+	private record SplitResource(ParsedResource parsed, List<Document> chunks) {
+	}
+
+	private static final class Progress {
+
+		private final int resources;
+
+		private final AtomicInteger ingested = new AtomicInteger();
+
+		private final AtomicInteger updated = new AtomicInteger();
+
+		private final AtomicInteger skipped = new AtomicInteger();
+
+		private final ConcurrentLinkedQueue<Resource> failed = new ConcurrentLinkedQueue<>();
+
+		private final AtomicLong chunks = new AtomicLong();
+
+		private final AtomicLong bytes = new AtomicLong();
+
+		private Progress(int resources) {
+			this.resources = resources;
+		}
+
+		private IngestionReport report(Duration elapsed) {
+			return new IngestionReport(resources, ingested.get(), updated.get(), skipped.get(), List.copyOf(failed),
+					chunks.get(), bytes.get(), elapsed);
+		}
+
 	}
 
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.example.deepresearch.util;
+
+import com.alibaba.cloud.ai.example.deepresearch.model.dto.Plan;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Work queue over the steps of a {@link Plan}. Researcher and coder nodes pull the next
+ * pending step of their type when they run, instead of being handed a fixed step by
+ * {@code ParallelExecutorNode}. {@link #streamSteps} keeps a node claiming steps within
+ * the same graph round until the queue is empty, so a node that finished early takes the
+ * next step rather than idling while another node works through several.
+ *
+ * <p>
+ * All reads and updates of step status go through this class and synchronize on the
+ * plan, which the parallel nodes share.
+ *
+ * @since 2025/7/2
+ */
+public final class PlanStepQueue {
+
+	private PlanStepQueue() {
+	}
+
+	/**
+	 * Claim the pending step of the given type with the highest estimated cost, so long
+	 * steps start first and short ones fill the remaining slots. Processing steps are
+	 * only handed out once all research steps have completed.
+	 * @param plan the current plan
+	 * @param type the step type the calling node executes
+	 * @param nodeName name of the calling node, recorded in the step status
+	 * @param maxConcurrent max steps of this type processing at the same time
+	 * @return the claimed step, or {@code null} when there is nothing to do
+	 */
+	public static Plan.Step claimNext(Plan plan, Plan.StepType type, String nodeName, int maxConcurrent) {
+		synchronized (plan) {
+			if (CollectionUtils.isEmpty(plan.getSteps())) {
+				return null;
+			}
+			if (type == Plan.StepType.PROCESSING && !areAllResearchStepsCompleted(plan)) {
+				return null;
+			}
+			int processing = 0;
+			Plan.Step next = null;
+			for (Plan.Step step : plan.getSteps()) {
+				if (step.getStepType() != type) {
+					continue;
+				}
+				if (isProcessing(step)) {
+					processing++;
+				}
+				else if (isPending(step) && (next == null || estimateCost(step) > estimateCost(next))) {
+					next = step;
+				}
+			}
+			if (next == null || processing >= maxConcurrent) {
+				return null;
+			}
+			next.setExecutionStatus(StateUtil.EXECUTION_STATUS_PROCESSING_PREFIX + nodeName);
+			return next;
+		}
+	}
+
+	/**
+	 * Stream a claimed step and, once it completes, claim and stream the next pending step
+	 * of the same type, until nothing is left to claim. Each step is completed with the
+	 * text streamed for it; a step whose stream fails stays claimed and is put back by
+	 * {@link #releaseUnfinished} in the next round.
+	 * @param plan the current plan
+	 * @param first the step already claimed by the calling node
+	 * @param nodeName name of the calling node, recorded in the step status
+	 * @param executorNodeId id of the calling node, recorded when a step completes
+	 * @param maxConcurrent max steps of this type processing at the same time
+	 * @param streamStep starts the model stream of one step
+	 * @return the responses of all steps the node executed, in order
+	 */
+	public static Flux<ChatResponse> streamSteps(Plan plan, Plan.Step first, String nodeName, String executorNodeId,
+			int maxConcurrent, Function<Plan.Step, Flux<ChatResponse>> streamStep) {
+		StringBuilder content = new StringBuilder();
+		return streamStep.apply(first).doOnNext(response -> {
+			if (response.getResult() != null && response.getResult().getOutput().getText() != null) {
+				content.append(response.getResult().getOutput().getText());
+			}
+		}).concatWith(Flux.defer(() -> {
+			complete(plan, first, executorNodeId, content.toString());
+			Plan.Step next = claimNext(plan, first.getStepType(), nodeName, maxConcurrent);
+			return next == null ? Flux.empty()
+					: streamSteps(plan, next, nodeName, executorNodeId, maxConcurrent, streamStep);
+		}));
+	}
+
+	/**
+	 * Record the result of a claimed step.
+	 */
+	public static void complete(Plan plan, Plan.Step step, String executorNodeId, String result) {
+		synchronized (plan) {
+			step.setExecutionStatus(StateUtil.EXECUTION_STATUS_COMPLETED_PREFIX + executorNodeId);
+			step.setExecutionRes(result);
+		}
+	}
+
+	/**
+	 * Put steps that were claimed but never completed, e.g. because their stream failed,
+	 * back into the queue. Only safe between rounds, when no node is running.
+	 * @return the number of steps put back
+	 */
+	public static int releaseUnfinished(Plan plan) {
+		synchronized (plan) {
+			int released = 0;
+			if (plan.getSteps() != null) {
+				for (Plan.Step step : plan.getSteps()) {
+					if (!StringUtils.hasText(step.getExecutionRes()) && StringUtils.hasText(step.getExecutionStatus())
+							&& !isPending(step)) {
+						step.setExecutionStatus(null);
+						released++;
+					}
+				}
+			}
+			return released;
+		}
+	}
+
+	/**
+	 * Step counts by type and status, e.g. {@code research -> {pending=2, processing=3,
+	 * completed=1}}.
+	 */
+	public static Map<String, Map<String, Integer>> summarize(Plan plan) {
+		synchronized (plan) {
+			Map<String, Map<String, Integer>> summary = new LinkedHashMap<>();
+			if (plan.getSteps() != null) {
+				for (Plan.Step step : plan.getSteps()) {
+					String status = StringUtils.hasText(step.getExecutionRes()) ? "completed"
+							: isProcessing(step) ? "processing" : "pending";
+					String type = step.getStepType() != null ? step.getStepType().name().toLowerCase() : "unknown";
+					summary.computeIfAbsent(type, k -> new LinkedHashMap<>()).merge(status, 1, Integer::sum);
+				}
+			}
+			return summary;
+		}
+	}
+
+	public static boolean areAllResearchStepsCompleted(Plan plan) {
+		synchronized (plan) {
+			if (CollectionUtils.isEmpty(plan.getSteps())) {
+				return true;
+			}
+			return plan.getSteps()
+				.stream()
+				.filter(step -> step.getStepType() == Plan.StepType.RESEARCH)
+				.allMatch(step -> StringUtils.hasText(step.getExecutionRes()));
+		}
+	}
+
+	/**
+	 * Relative cost of a step: the planner's {@code cost_hint} when present, otherwise a
+	 * guess from whether it searches the web and how long its description is.
+	 */
+	public static int estimateCost(Plan.Step step) {
+		if (step.getCostHint() != null && step.getCostHint() > 0) {
+			return step.getCostHint();
+		}
+		int cost = 1;
+		if (step.isNeedWebSearch()) {
+			cost += 2;
+		}
+		if (step.getDescription() != null) {
+			cost += step.getDescription().length() / 200;
+		}
+		return cost;
+	}
+
+	private static boolean isPending(Plan.Step step) {
+		if (StringUtils.hasText(step.getExecutionRes())) {
+			return false;
+		}
+		String status = step.getExecutionStatus();
+		// plans saved before steps were pulled may still carry an assignment
+		return !StringUtils.hasText(status) || status.startsWith(StateUtil.EXECUTION_STATUS_ASSIGNED_PREFIX);
+	}
+
+	private static boolean isProcessing(Plan.Step step) {
+		return !StringUtils.hasText(step.getExecutionRes()) && StringUtils.hasText(step.getExecutionStatus())
+				&& step.getExecutionStatus().startsWith(StateUtil.EXECUTION_STATUS_PROCESSING_PREFIX);
+	}
+
+}
@@ -47,13 +47,8 @@ public class AsyncExportUtil {
 				String filename = FileOperationUtil.generateFilename(title, "pdf");
 				String pdfFilePath = basePath + File.separator + filename;
 
-				// 直接将Markdown转换为PDF
-				byte[] pdfBytes = FormatConversionUtil.convertMarkdownToPdfBytes(content);
-
-				// 保存到文件
-				try (java.io.FileOutputStream fos = new java.io.FileOutputStream(pdfFilePath)) {
-					fos.write(pdfBytes);
-				}
+				// 直接将Markdown转换为PDF并写入文件，不经过中间字节数组
+				FormatConversionUtil.convertMarkdownToPdfFile(content, pdfFilePath);
 
 				logger.info("Async PDF conversion completed: {}", pdfFilePath);
 				return pdfFilePath;
@@ -23,11 +23,14 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.regex.Pattern;
 
 /**
@@ -86,6 +89,57 @@ public final class FileOperationUtil {
 		}
 	}
 
+	/**
+	 * 流式写出文件：先写入同目录下的临时文件，完成后再替换目标文件，
+	 * 写出失败时不会留下不完整的目标文件
+	 * @param filePath 文件路径
+	 * @param contentWriter 内容写出器
+	 * @return 保存的文件路径
+	 * @throws RuntimeException 如果文件保存失败
+	 */
+	public static String writeToFile(String filePath, ContentWriter contentWriter) {
+		Path path = Paths.get(filePath).toAbsolutePath();
+		Path tempFile = null;
+		try {
+			createParentDirectories(path);
+			tempFile = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+				contentWriter.write(out);
+			}
+			try {
+				Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (IOException e) {
+				Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+			logger.info("Content written to file: {}", filePath);
+			return filePath;
+		}
+		catch (IOException e) {
+			logger.error("Failed to write file: {}", filePath, e);
+			throw new RuntimeException("Failed to write file: " + filePath, e);
+		}
+		finally {
+			deleteQuietly(tempFile);
+		}
+	}
+
+	/**
+	 * 删除文件，忽略失败
+	 * @param path 文件路径，可以为null
+	 */
+	public static void deleteQuietly(Path path) {
+		if (path == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(path);
+		}
+		catch (IOException e) {
+			logger.warn("Failed to delete file: {}", path, e);
+		}
+	}
+
 	/**
 	 * 创建父目录（如果不存在）
 	 * @param path 文件路径
@@ -250,4 +304,14 @@ public final class FileOperationUtil {
 		return filePath != null && Files.exists(Paths.get(filePath));
 	}
 
+	/**
+	 * 文件内容写出器
+	 */
+	@FunctionalInterface
+	public interface ContentWriter {
+
+		void write(OutputStream out) throws IOException;
+
+	}
+
 }
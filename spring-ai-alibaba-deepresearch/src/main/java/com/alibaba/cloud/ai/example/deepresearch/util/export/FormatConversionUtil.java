@@ -26,9 +26,9 @@ import org.springframework.core.io.Resource;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.Path;
 
 /**
  * 格式转换工具类，提供Markdown到PDF的转换
@@ -59,16 +59,26 @@ public final class FormatConversionUtil {
 	 * @throws RuntimeException 如果转换失败
 	 */
 	public static byte[] convertHtmlToPdfBytes(String htmlContent) {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		writeHtmlAsPdf(htmlContent, baos);
+		return baos.toByteArray();
+	}
+
+	/**
+	 * 将HTML内容转换为PDF并直接写出
+	 * @param htmlContent HTML内容
+	 * @param out PDF输出
+	 * @throws RuntimeException 如果转换失败
+	 */
+	public static void writeHtmlAsPdf(String htmlContent, OutputStream out) {
+		try {
 			PdfRendererBuilder builder = createPdfRendererBuilder();
 			configureFont(builder);
 			configureBaseUri(builder);
 
 			builder.withHtmlContent(htmlContent, getBaseUri());
-			builder.toStream(baos);
+			builder.toStream(out);
 			builder.run();
-
-			return baos.toByteArray();
 		}
 		catch (Exception e) {
 			logger.error("Failed to convert HTML to PDF", e);
@@ -76,6 +86,30 @@ public final class FormatConversionUtil {
 		}
 	}
 
+	/**
+	 * 将HTML文件转换为PDF并保存到文件，HTML与PDF都不会整体加载到内存字符串或字节数组中
+	 * @param htmlFile HTML文件
+	 * @param pdfFilePath 输出PDF文件路径
+	 * @throws RuntimeException 如果转换失败
+	 */
+	public static void convertHtmlFileToPdfFile(Path htmlFile, String pdfFilePath) {
+		FileOperationUtil.writeToFile(pdfFilePath, out -> {
+			try {
+				PdfRendererBuilder builder = createPdfRendererBuilder();
+				configureFont(builder);
+
+				builder.withFile(htmlFile.toFile());
+				builder.toStream(out);
+				builder.run();
+			}
+			catch (Exception e) {
+				logger.error("Failed to convert HTML file to PDF: {}", htmlFile, e);
+				throw new RuntimeException("Failed to convert HTML to PDF", e);
+			}
+		});
+		logger.info("HTML file converted to PDF and saved to: {}", pdfFilePath);
+	}
+
 	/**
 	 * 创建PDF渲染器构建器
 	 * @return 配置好的PdfRendererBuilder实例
@@ -147,15 +181,8 @@ public final class FormatConversionUtil {
 	 * @throws RuntimeException 如果保存失败
 	 */
 	public static void convertHtmlToPdfFile(String htmlContent, String pdfFilePath) {
-		try (OutputStream os = new FileOutputStream(pdfFilePath)) {
-			byte[] pdfBytes = convertHtmlToPdfBytes(htmlContent);
-			os.write(pdfBytes);
-			logger.info("HTML converted to PDF and saved to: {}", pdfFilePath);
-		}
-		catch (Exception e) {
-			logger.error("Failed to save PDF to file", e);
-			throw new RuntimeException("Failed to save PDF to file", e);
-		}
+		FileOperationUtil.writeToFile(pdfFilePath, out -> writeHtmlAsPdf(htmlContent, out));
+		logger.info("HTML converted to PDF and saved to: {}", pdfFilePath);
 	}
 
 	/**
@@ -24,6 +24,9 @@ import org.commonmark.renderer.html.HtmlRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.List;
 
@@ -76,30 +79,62 @@ public final class HtmlGenerationUtil {
 		return htmlRenderer.render(document);
 	}
 
+	/**
+	 * 将整篇Markdown作为一个文档解析并转换为HTML写出，不在内存中拼接Markdown字符串
+	 * @param markdown Markdown输入
+	 * @param out 输出
+	 * @throws IOException 读取失败
+	 */
+	public static void renderMarkdownTo(Reader markdown, Appendable out) throws IOException {
+		htmlRenderer.render(markdownParser.parseReader(markdown), out);
+	}
+
 	/**
 	 * 将HTML内容包装成完整的HTML文档
 	 * @param htmlContent HTML内容
 	 * @return 完整的HTML文档
 	 */
 	public static String wrapHtmlContent(String htmlContent) {
-		StringBuilder html = new StringBuilder(HTML_HEADER);
+		StringBuilder html = new StringBuilder();
+		try {
+			writeHtmlHeader(html);
+			html.append(htmlContent);
+			writeHtmlFooter(html);
+		}
+		catch (IOException e) {
+			// StringBuilder 不会抛出 IOException
+			throw new UncheckedIOException(e);
+		}
+
+		String result = html.toString();
+		logger.debug("Generated HTML document with {} bytes", result.length());
+		return result;
+	}
+
+	/**
+	 * 写出HTML文档头部（包括CSS与字体），之后可以逐段写出正文
+	 * @param out 输出
+	 * @throws IOException 写出失败
+	 */
+	public static void writeHtmlHeader(Appendable out) throws IOException {
+		out.append(HTML_HEADER);
 
 		// 添加CSS链接 - 确保CSS始终被加载
 		String cssUrl = getResourceUrl(CSS_PATH);
 		if (cssUrl != null && !cssUrl.isEmpty()) {
-			html.append("    <link rel=\"stylesheet\" type=\"text/css\" href=\"").append(cssUrl).append("\"/>\n");
+			out.append("    <link rel=\"stylesheet\" type=\"text/css\" href=\"").append(cssUrl).append("\"/>\n");
 		}
 		else {
 			logger.warn("External CSS file not found. Styling may be affected.");
 		}
 
 		// 添加样式
-		html.append(HTML_STYLE_START);
+		out.append(HTML_STYLE_START);
 
 		// 添加字体
 		String fontUrl = getResourceUrl(FONT_PATH);
 		if (fontUrl != null && !fontUrl.isEmpty()) {
-			html.append("        @font-face {\n")
+			out.append("        @font-face {\n")
 				.append("            font-family: '")
 				.append(FONT_FAMILY)
 				.append("';\n")
@@ -111,12 +146,17 @@ public final class HtmlGenerationUtil {
 				.append("        }\n");
 		}
 
-		// 结束样式，添加HTML内容和页脚
-		html.append(HTML_STYLE_END).append(htmlContent).append(HTML_FOOTER);
+		// 结束样式，之后是HTML正文
+		out.append(HTML_STYLE_END);
+	}
 
-		String result = html.toString();
-		logger.debug("Generated HTML document with {} bytes", result.length());
-		return result;
+	/**
+	 * 写出HTML文档尾部
+	 * @param out 输出
+	 * @throws IOException 写出失败
+	 */
+	public static void writeHtmlFooter(Appendable out) throws IOException {
+		out.append(HTML_FOOTER);
 	}
 
 	/**
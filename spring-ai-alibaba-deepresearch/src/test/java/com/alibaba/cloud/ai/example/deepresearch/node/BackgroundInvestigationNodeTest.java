@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.example.deepresearch.node;
+
+import com.alibaba.cloud.ai.example.deepresearch.config.BackgroundInvestigationProperties;
+import com.alibaba.cloud.ai.toolcalling.common.interfaces.SearchService;
+import com.alibaba.cloud.ai.toolcalling.jinacrawler.JinaCrawlerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Background investigation crawl cache test
+ */
+@DisplayName("Background investigation crawl cache test")
+public class BackgroundInvestigationNodeTest {
+
+	private static final SearchService.SearchContent RESULT = new SearchService.SearchContent("title", "snippet",
+			"https://example.com/page");
+
+	private JinaCrawlerService crawler;
+
+	private BackgroundInvestigationNode node;
+
+	@BeforeEach
+	void setUp() {
+		crawler = mock(JinaCrawlerService.class);
+		BackgroundInvestigationProperties properties = new BackgroundInvestigationProperties();
+		properties.setTimeout(Duration.ofSeconds(10));
+		node = new BackgroundInvestigationNode(null, crawler, properties);
+	}
+
+	@AfterEach
+	void tearDown() {
+		node.close();
+	}
+
+	@Test
+	@DisplayName("A cached url is crawled only once")
+	void cachedUrlIsCrawledOnce() {
+		when(crawler.apply(any())).thenReturn(new JinaCrawlerService.Response(null, "page"));
+
+		assertThat(contentOf(node.crawlAll(List.of(RESULT), deadlineIn(5000)).join())).isEqualTo("page");
+		assertThat(contentOf(node.crawlAll(List.of(RESULT), deadlineIn(5000)).join())).isEqualTo("page");
+		verify(crawler, times(1)).apply(any());
+	}
+
+	@Test
+	@DisplayName("A timed out caller falls back to the snippet without caching it")
+	void timeoutDoesNotPoisonCache() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(crawler.apply(any())).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return new JinaCrawlerService.Response(null, "page");
+		});
+
+		assertThat(contentOf(node.crawlAll(List.of(RESULT), deadlineIn(50)).join())).isEqualTo("snippet");
+
+		release.countDown();
+		assertThat(contentOf(node.crawlAll(List.of(RESULT), deadlineIn(5000)).join())).isEqualTo("page");
+		verify(crawler, times(1)).apply(any());
+	}
+
+	@Test
+	@DisplayName("Callers with different deadlines share one in-flight crawl")
+	void callersShareInFlightCrawl() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(crawler.apply(any())).thenAnswer(invocation -> {
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return new JinaCrawlerService.Response(null, "page");
+		});
+
+		CompletableFuture<List<Map<String, String>>> patient = node.crawlAll(List.of(RESULT), deadlineIn(5000));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<List<Map<String, String>>> hasty = node.crawlAll(List.of(RESULT), deadlineIn(50));
+
+		assertThat(contentOf(hasty.get(5, TimeUnit.SECONDS))).isEqualTo("snippet");
+		assertThat(patient).isNotDone();
+
+		release.countDown();
+		assertThat(contentOf(patient.get(5, TimeUnit.SECONDS))).isEqualTo("page");
+		verify(crawler, times(1)).apply(any());
+	}
+
+	private static long deadlineIn(long millis) {
+		return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+	private static String contentOf(List<Map<String, String>> results) {
+		assertThat(results).hasSize(1);
+		return results.get(0).get("content");
+	}
+
+}
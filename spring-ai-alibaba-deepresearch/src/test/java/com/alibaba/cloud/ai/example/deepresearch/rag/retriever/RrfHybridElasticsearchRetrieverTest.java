@@ -0,0 +1,193 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.example.deepresearch.rag.retriever;
+
+import com.alibaba.cloud.ai.example.deepresearch.config.rag.RagProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.rag.Query;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hybrid Elasticsearch retriever test against a stub Elasticsearch server
+ */
+@DisplayName("Hybrid Elasticsearch retriever test")
+public class RrfHybridElasticsearchRetrieverTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+
+	private HttpServer server;
+
+	private RestClient restClient;
+
+	private EmbeddingModel embeddingModel;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/docs/_search", exchange -> {
+			JsonNode body = mapper.readTree(exchange.getRequestBody());
+			requests.add(body);
+			String response;
+			if (body.has("rank")) {
+				response = hits("a", "c", "b");
+			}
+			else if (body.has("knn")) {
+				response = hits("c", "a", "d");
+			}
+			else {
+				response = hits("a", "b", "c");
+			}
+			byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.getResponseHeaders().add("X-elastic-product", "Elasticsearch");
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		});
+		server.start();
+		restClient = RestClient.builder(new HttpHost("localhost", server.getAddress().getPort(), "http")).build();
+		embeddingModel = mock(EmbeddingModel.class);
+		when(embeddingModel.embed(anyString())).thenReturn(new float[] { 0.25f, -1.5f, 3f });
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		restClient.close();
+		server.stop(0);
+	}
+
+	@Test
+	@DisplayName("Server-side RRF request is well formed and query vectors are cached")
+	void serverSideFusion() {
+		RrfHybridElasticsearchRetriever retriever = new RrfHybridElasticsearchRetriever(restClient, embeddingModel,
+				"docs", new RagProperties.Elasticsearch.Hybrid());
+		String text = "what is \"rrf\"?\n\\ path";
+
+		List<Document> first = retriever.retrieve(new Query(text));
+		retriever.retrieve(new Query(text));
+
+		assertThat(first).extracting(Document::getId).containsExactly("a", "c", "b");
+		assertThat(first.get(0).getMetadata()).containsEntry("title", "doc a").doesNotContainKey("embedding");
+		verify(embeddingModel, times(1)).embed(text);
+
+		JsonNode body = requests.get(0);
+		assertThat(body.at("/queries/0/query/match/content").asText()).isEqualTo(text);
+		assertThat(body.at("/queries/1/knn/query_vector")).hasSize(3);
+		assertThat(body.at("/queries/1/knn/query_vector/1").floatValue()).isEqualTo(-1.5f);
+		assertThat(body.at("/rank/rrf/rank_constant").asInt()).isEqualTo(60);
+		assertThat(body.at("/_source/excludes/0").asText()).isEqualTo("embedding");
+	}
+
+	@Test
+	@DisplayName("Client-side RRF runs both legs and fuses their rankings")
+	void clientSideFusion() {
+		RagProperties.Elasticsearch.Hybrid hybrid = new RagProperties.Elasticsearch.Hybrid();
+		hybrid.setClientSideFusion(true);
+		RrfHybridElasticsearchRetriever retriever = new RrfHybridElasticsearchRetriever(restClient, embeddingModel,
+				"docs", hybrid);
+
+		List<Document> results = retriever.retrieve(new Query("hybrid search"));
+
+		// a: 1/61 + 1/62, c: 1/63 + 1/61, b: 1/62, d: 1/63
+		assertThat(results).extracting(Document::getId).containsExactly("a", "c", "b", "d");
+		assertThat(requests).hasSize(2);
+		assertThat(requests).anyMatch(body -> body.at("/query/match/content").asText().equals("hybrid search"))
+			.anyMatch(body -> body.at("/knn/k").asInt() == 100);
+	}
+
+	@Test
+	@DisplayName("Fusion of large rankings")
+	void fusesLargeRankings() {
+		List<List<Document>> rankings = largeRankings();
+
+		List<Document> fused = ReciprocalRankFusion.fuse(rankings, new float[] { 1f, 1f }, 60, 10);
+
+		assertThat(fused).hasSize(10);
+		assertThat(fused.get(0).getId()).isEqualTo("doc-0");
+	}
+
+	/**
+	 * Wall-clock check of fusing two 10k-hit rankings. Run with {@code -Dbenchmark=true}.
+	 */
+	@Test
+	@DisplayName("Fusion cost of large rankings")
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void fusionCost() {
+		List<List<Document>> rankings = largeRankings();
+		float[] boosts = { 1f, 1f };
+		for (int i = 0; i < 20; i++) {
+			ReciprocalRankFusion.fuse(rankings, boosts, 60, 10);
+		}
+
+		int iterations = 100;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			ReciprocalRankFusion.fuse(rankings, boosts, 60, 10);
+		}
+		long averageMicros = (System.nanoTime() - start) / iterations / 1_000;
+
+		assertThat(averageMicros).isLessThan(50_000);
+	}
+
+	private static List<List<Document>> largeRankings() {
+		List<Document> bm25 = new ArrayList<>();
+		List<Document> knn = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			bm25.add(new Document("doc-" + i, "text", Map.of()));
+			knn.add(new Document("doc-" + (i * 7 % 10_000), "text", Map.of()));
+		}
+		return List.of(bm25, knn);
+	}
+
+	private String hits(String... ids) throws IOException {
+		List<Map<String, Object>> hits = new ArrayList<>();
+		for (String id : ids) {
+			hits.add(Map.of("_id", id, "_source",
+					Map.of("content", "content of " + id, "metadata", Map.of(), "title", "doc " + id)));
+		}
+		return mapper.writeValueAsString(Map.of("hits", Map.of("hits", hits)));
+	}
+
+}
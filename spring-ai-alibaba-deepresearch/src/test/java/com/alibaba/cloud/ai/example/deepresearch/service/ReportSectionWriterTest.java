@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.example.deepresearch.service;
+
+import com.alibaba.cloud.ai.example.deepresearch.util.export.HtmlGenerationUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileCopyUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chunked report storage test
+ */
+@DisplayName("Chunked report storage test")
+public class ReportSectionWriterTest {
+
+	private static final String THREAD_ID = "thread-1";
+
+	private static final String REPORT = """
+			# Title
+
+			Intro paragraph.
+
+			## Key Points
+
+			- point one
+			- point two
+
+			## Code
+
+			```python
+			# not a heading
+			print("hi")
+			```
+
+			## Key Citations
+
+			- [Source](https://example.com)
+			""";
+
+	private ReportMemoryService reportService;
+
+	@BeforeEach
+	void setUp() {
+		reportService = new ReportMemoryService();
+	}
+
+	@Test
+	@DisplayName("Streamed report is split at headings outside code blocks")
+	void splitsAtHeadings() {
+		ReportSectionWriter writer = new ReportSectionWriter(reportService, THREAD_ID);
+		// feed the report in small chunks, like a model stream
+		for (int i = 0; i < REPORT.length(); i += 5) {
+			writer.write(REPORT.substring(i, Math.min(i + 5, REPORT.length())));
+		}
+
+		assertThat(reportService.isReportCompleted(THREAD_ID)).isFalse();
+		assertThat(writer.close()).isTrue();
+		assertThat(reportService.isReportCompleted(THREAD_ID)).isTrue();
+		assertThat(reportService.getSectionCount(THREAD_ID)).isEqualTo(4);
+		assertThat(reportService.getSections(THREAD_ID, 2, 3).get(0)).startsWith("## Code")
+			.contains("# not a heading");
+		assertThat(reportService.getReport(THREAD_ID)).isEqualTo(REPORT);
+	}
+
+	@Test
+	@DisplayName("A new report replaces the previous one")
+	void replacesPreviousReport() {
+		reportService.saveReport(THREAD_ID, "# Old report\n");
+		reportService.markReportCompleted(THREAD_ID);
+		ReportSectionWriter writer = new ReportSectionWriter(reportService, THREAD_ID);
+		writer.write("# New report\n\n## Section\n");
+		// the old report's completion marker is dropped with its sections
+		assertThat(reportService.isReportCompleted(THREAD_ID)).isFalse();
+		writer.close();
+
+		assertThat(reportService.getReport(THREAD_ID)).isEqualTo("# New report\n\n## Section\n");
+	}
+
+	@Test
+	@DisplayName("Long reports without headings are split at blank lines")
+	void splitsLongParagraphs() {
+		String paragraph = "x".repeat(ReportSectionWriter.MAX_SECTION_CHARS) + "\n\n";
+		ReportSectionWriter writer = new ReportSectionWriter(reportService, THREAD_ID);
+		writer.write(paragraph + paragraph + "tail");
+		writer.close();
+
+		assertThat(reportService.getSectionCount(THREAD_ID)).isEqualTo(3);
+		assertThat(reportService.getReport(THREAD_ID)).isEqualTo(paragraph + paragraph + "tail");
+	}
+
+	@Test
+	@DisplayName("Sections are read by range and streamed page by page")
+	void readsSectionsByRange() throws IOException {
+		int count = ReportService.SECTION_PAGE_SIZE * 2 + 3;
+		for (int i = 0; i < count; i++) {
+			reportService.appendSection(THREAD_ID, "## Section " + i + "\n");
+		}
+
+		assertThat(reportService.getSections(THREAD_ID, 5, 7)).containsExactly("## Section 5\n", "## Section 6\n");
+		assertThat(reportService.getSections(THREAD_ID, count - 1, count + 10)).hasSize(1);
+		assertThat(reportService.getSections(THREAD_ID, count + 1, count + 2)).isEmpty();
+		assertThat(reportService.getSections("missing", 0, 10)).isEmpty();
+
+		List<String> visited = new ArrayList<>();
+		assertThat(reportService.forEachSection(THREAD_ID, visited::add)).isTrue();
+		assertThat(visited).hasSize(count);
+
+		StringWriter out = new StringWriter();
+		assertThat(reportService.writeReport(THREAD_ID, out)).isTrue();
+		assertThat(out.toString()).isEqualTo(reportService.getReport(THREAD_ID));
+		assertThat(reportService.writeReport("missing", new StringWriter())).isFalse();
+
+		try (Reader reader = reportService.openReport(THREAD_ID)) {
+			assertThat(FileCopyUtils.copyToString(reader)).isEqualTo(reportService.getReport(THREAD_ID));
+		}
+		try (Reader reader = reportService.openReport("missing")) {
+			assertThat(reader.read()).isEqualTo(-1);
+		}
+	}
+
+	@Test
+	@DisplayName("Sections are rendered as one document")
+	void rendersSectionsAsOneDocument() throws IOException {
+		// a list and a reference link definition split by the blank-line chunking
+		reportService.saveReport(THREAD_ID, "- first item\n\n");
+		reportService.appendSection(THREAD_ID, "- second item\n\nSee [the source][1].\n\n");
+		reportService.appendSection(THREAD_ID, "[1]: https://example.com\n");
+
+		StringBuilder html = new StringBuilder();
+		try (Reader reader = reportService.openReport(THREAD_ID)) {
+			HtmlGenerationUtil.renderMarkdownTo(reader, html);
+		}
+
+		assertThat(html.toString()).containsOnlyOnce("<ul>")
+			.contains("<a href=\"https://example.com\">the source</a>");
+	}
+
+}
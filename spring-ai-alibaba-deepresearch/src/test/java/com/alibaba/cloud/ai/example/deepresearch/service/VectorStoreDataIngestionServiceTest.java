@@ -0,0 +1,253 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.example.deepresearch.service;
+
+import com.alibaba.cloud.ai.example.deepresearch.config.rag.RagProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vector store data ingestion pipeline test
+ */
+@DisplayName("Vector store data ingestion pipeline test")
+public class VectorStoreDataIngestionServiceTest {
+
+	@TempDir
+	Path tempDir;
+
+	private final AtomicInteger embeddedTexts = new AtomicInteger();
+
+	private SimpleVectorStore vectorStore;
+
+	private RagProperties.Data.Ingestion properties;
+
+	@BeforeEach
+	void setUp() {
+		vectorStore = SimpleVectorStore.builder(new StubEmbeddingModel()).build();
+		properties = new RagProperties.Data.Ingestion();
+		properties.setParseParallelism(4);
+		properties.setWriteBatchSize(2);
+	}
+
+	@Test
+	@DisplayName("Ingests all resources and skips unchanged ones")
+	void skipsUnchangedResources() throws IOException {
+		VectorStoreDataIngestionService service = new VectorStoreDataIngestionService(vectorStore, properties);
+		List<Resource> resources = resources(12);
+
+		VectorStoreDataIngestionService.IngestionReport first = service.ingest(resources);
+		assertThat(first.ingested()).isEqualTo(12);
+		assertThat(first.failed()).isZero();
+		assertThat(first.chunks()).isEqualTo(12);
+		assertThat(storedTexts()).hasSize(12);
+
+		int embedded = embeddedTexts.get();
+		VectorStoreDataIngestionService.IngestionReport second = service.ingest(resources);
+		assertThat(second.skipped()).isEqualTo(12);
+		assertThat(second.chunks()).isZero();
+		assertThat(embeddedTexts.get()).isEqualTo(embedded);
+	}
+
+	@Test
+	@DisplayName("Replaces the chunks of changed resources")
+	void upsertsChangedResources() throws IOException {
+		VectorStoreDataIngestionService service = new VectorStoreDataIngestionService(vectorStore, properties);
+		List<Resource> resources = resources(3);
+		service.ingest(resources);
+
+		Files.writeString(tempDir.resolve("doc-1.txt"), "Rewritten content of document one.");
+		VectorStoreDataIngestionService.IngestionReport report = service.ingest(resources);
+
+		assertThat(report.updated()).isEqualTo(1);
+		assertThat(report.skipped()).isEqualTo(2);
+		assertThat(storedTexts()).hasSize(3)
+			.anyMatch(text -> text.contains("Rewritten"))
+			.noneMatch(text -> text.contains("number 1."));
+	}
+
+	@Test
+	@DisplayName("Manifest survives a restart")
+	void resumesFromManifest() throws IOException {
+		properties.setManifestPath(tempDir.resolve("state/manifest.json").toString());
+		List<Resource> resources = resources(4);
+		new VectorStoreDataIngestionService(vectorStore, properties).ingest(resources);
+
+		VectorStoreDataIngestionService.IngestionReport report = new VectorStoreDataIngestionService(vectorStore,
+				properties)
+			.ingest(resources);
+
+		assertThat(report.skipped()).isEqualTo(4);
+		assertThat(report.ingested()).isZero();
+	}
+
+	@Test
+	@DisplayName("A broken resource does not stop the others")
+	void reportsFailures() throws IOException {
+		VectorStoreDataIngestionService service = new VectorStoreDataIngestionService(vectorStore, properties);
+		List<Resource> resources = new ArrayList<>(resources(2));
+		resources.add(new FileSystemResource(tempDir.resolve("missing.txt")));
+
+		VectorStoreDataIngestionService.IngestionReport report = service.ingest(resources);
+
+		assertThat(report.ingested()).isEqualTo(2);
+		assertThat(report.skipped()).isEqualTo(1);
+		assertThat(report.resources()).isEqualTo(3);
+	}
+
+	@Test
+	@DisplayName("Failed resources are reported and ingested by the next call")
+	void reportsFailedResources() throws IOException {
+		VectorStoreDataIngestionService service = new VectorStoreDataIngestionService(vectorStore, properties);
+		AtomicInteger reads = new AtomicInteger();
+		byte[] content = "Content that cannot be read at first.".getBytes(StandardCharsets.UTF_8);
+		Resource flaky = new ByteArrayResource(content) {
+			@Override
+			public InputStream getInputStream() throws IOException {
+				if (reads.incrementAndGet() == 1) {
+					throw new IOException("disk error");
+				}
+				return super.getInputStream();
+			}
+		};
+		List<Resource> resources = new ArrayList<>(resources(2));
+		resources.add(flaky);
+
+		VectorStoreDataIngestionService.IngestionReport report = service.ingest(resources);
+
+		assertThat(report.ingested()).isEqualTo(2);
+		assertThat(report.failedResources()).containsExactly(flaky);
+		assertThat(report.failed()).isEqualTo(1);
+
+		VectorStoreDataIngestionService.IngestionReport retry = service.ingest(resources);
+		assertThat(retry.ingested()).isEqualTo(1);
+		assertThat(retry.skipped()).isEqualTo(2);
+		assertThat(retry.failedResources()).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Uploads sharing a file name keep their own chunks")
+	void uploadsAreIdentifiedByContent() {
+		VectorStoreDataIngestionService service = new VectorStoreDataIngestionService(vectorStore, properties);
+
+		service.ingest(upload("report.txt", "First document uploaded as report."));
+		VectorStoreDataIngestionService.IngestionReport report = service
+			.ingest(upload("report.txt", "Second document uploaded as report."));
+
+		assertThat(report.ingested()).isEqualTo(1);
+		assertThat(report.updated()).isZero();
+		assertThat(storedTexts()).hasSize(2);
+		assertThat(service.ingest(upload("copy.txt", "First document uploaded as report.")).skipped()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("A source id replaces the previous version of an upload")
+	void sourceIdReplacesUpload() {
+		VectorStoreDataIngestionService service = new VectorStoreDataIngestionService(vectorStore, properties);
+
+		service.ingest(upload("report-v1.txt", "First version of the document."), "report");
+		VectorStoreDataIngestionService.IngestionReport report = service
+			.ingest(upload("report-v2.txt", "Second version of the document."), "report");
+
+		assertThat(report.updated()).isEqualTo(1);
+		assertThat(storedTexts()).singleElement().asString().contains("Second version");
+	}
+
+	@Test
+	@DisplayName("Stage pools outlive calls and are shut down with the service")
+	void reusesStagePoolsUntilClosed() throws IOException {
+		VectorStoreDataIngestionService service = new VectorStoreDataIngestionService(vectorStore, properties);
+		assertThat(service.ingest(resources(2)).ingested()).isEqualTo(2);
+		assertThat(service.ingest(upload("extra.txt", "One more document for the same pools.")).ingested())
+			.isEqualTo(1);
+
+		service.close();
+		List<Resource> more = resources(3);
+		assertThatThrownBy(() -> service.ingest(more)).isInstanceOf(IllegalStateException.class);
+	}
+
+	private static Resource upload(String filename, String content) {
+		return new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)) {
+			@Override
+			public String getFilename() {
+				return filename;
+			}
+		};
+	}
+
+	private List<Resource> resources(int count) throws IOException {
+		List<Resource> resources = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Path file = tempDir.resolve("doc-" + i + ".txt");
+			Files.writeString(file, "This is the content of document number " + i + ".");
+			resources.add(new FileSystemResource(file));
+		}
+		return resources;
+	}
+
+	private List<String> storedTexts() {
+		return vectorStore
+			.similaritySearch(SearchRequest.builder().query("document").topK(100).similarityThresholdAll().build())
+			.stream()
+			.map(Document::getText)
+			.toList();
+	}
+
+	private final class StubEmbeddingModel implements EmbeddingModel {
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			List<Embedding> embeddings = new ArrayList<>();
+			for (int i = 0; i < request.getInstructions().size(); i++) {
+				embeddedTexts.incrementAndGet();
+				float[] vector = { 1f, request.getInstructions().get(i).length() % 7 + 1f };
+				embeddings.add(new Embedding(vector, i));
+			}
+			return new EmbeddingResponse(embeddings);
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return new float[] { 1f, document.getText().length() % 7 + 1f };
+		}
+
+	}
+
+}
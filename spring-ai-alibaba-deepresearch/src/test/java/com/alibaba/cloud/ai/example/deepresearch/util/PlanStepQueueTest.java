@@ -0,0 +1,250 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.example.deepresearch.util;
+
+import com.alibaba.cloud.ai.example.deepresearch.model.dto.Plan;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Plan step work queue test
+ */
+@DisplayName("Plan step work queue test")
+public class PlanStepQueueTest {
+
+	@Test
+	@DisplayName("Long steps are claimed first")
+	void claimsLongestStepFirst() {
+		Plan plan = plan(step("short", Plan.StepType.RESEARCH, 1), step("long", Plan.StepType.RESEARCH, 5),
+				step("medium", Plan.StepType.RESEARCH, 3));
+
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_0", 5).getTitle())
+			.isEqualTo("long");
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_1", 5).getTitle())
+			.isEqualTo("medium");
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_2", 5).getTitle())
+			.isEqualTo("short");
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_3", 5)).isNull();
+		assertThat(plan.getSteps().get(1).getExecutionStatus()).isEqualTo("processing_researcher_0");
+	}
+
+	@Test
+	@DisplayName("Concurrency limit per step type")
+	void respectsConcurrencyLimit() {
+		Plan plan = plan(step("a", Plan.StepType.RESEARCH, 1), step("b", Plan.StepType.RESEARCH, 1),
+				step("c", Plan.StepType.RESEARCH, 1));
+
+		Plan.Step first = PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_0", 2);
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_1", 2)).isNotNull();
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_2", 2)).isNull();
+
+		PlanStepQueue.complete(plan, first, "0", "done");
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_2", 2)).isNotNull();
+	}
+
+	@Test
+	@DisplayName("Processing steps wait for research steps")
+	void processingWaitsForResearch() {
+		Plan plan = plan(step("research", Plan.StepType.RESEARCH, 1), step("code", Plan.StepType.PROCESSING, 1));
+
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.PROCESSING, "coder_0", 5)).isNull();
+		Plan.Step research = PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_0", 5);
+		PlanStepQueue.complete(plan, research, "0", "found it");
+
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.PROCESSING, "coder_0", 5).getTitle())
+			.isEqualTo("code");
+		assertThat(PlanStepQueue.summarize(plan)).isEqualTo(
+				Map.of("research", Map.of("completed", 1), "processing", Map.of("processing", 1)));
+	}
+
+	@Test
+	@DisplayName("Unfinished and legacy assigned steps are queued again")
+	void releasesUnfinishedSteps() {
+		Plan.Step legacy = step("legacy", Plan.StepType.RESEARCH, 1);
+		legacy.setExecutionStatus(StateUtil.EXECUTION_STATUS_ASSIGNED_PREFIX + "researcher_3");
+		Plan plan = plan(step("failed", Plan.StepType.RESEARCH, 2), legacy);
+
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_0", 5).getTitle())
+			.isEqualTo("failed");
+		assertThat(PlanStepQueue.releaseUnfinished(plan)).isEqualTo(1);
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_1", 5).getTitle())
+			.isEqualTo("failed");
+		assertThat(PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_2", 5).getTitle())
+			.isEqualTo("legacy");
+	}
+
+	@Test
+	@DisplayName("Free nodes pull the next step while others run long ones")
+	void freeNodesPullRemainingSteps() throws Exception {
+		Plan plan = longAndShortSteps();
+
+		NodeRun run = runNodes(plan);
+
+		assertThat(run.duplicates()).isZero();
+		assertThat(run.stepsByNode().values()).flatExtracting(titles -> titles).hasSize(7);
+		assertThat(PlanStepQueue.areAllResearchStepsCompleted(plan)).isTrue();
+		// the long step runs on one node while the other two share the short ones;
+		// round-robin would hand the long step's node two short steps as well
+		assertThat(run.stepsByNode().values()).filteredOn(titles -> titles.contains("long"))
+			.singleElement()
+			.isEqualTo(List.of("long"));
+	}
+
+	/**
+	 * Wall-clock check of the schedule above. Run with {@code -Dbenchmark=true}.
+	 */
+	@Test
+	@DisplayName("Pulling finishes with the long step")
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void pullingFinishesWithLongStep() throws Exception {
+		NodeRun run = runNodes(longAndShortSteps());
+
+		// round-robin would give the long step's node two more short steps (400 ms)
+		assertThat(run.elapsedMillis()).isLessThan(380);
+	}
+
+	@Test
+	@DisplayName("A node keeps claiming steps within its round")
+	void streamStepsDrainsQueue() {
+		Plan plan = plan(step("a", Plan.StepType.RESEARCH, 3), step("b", Plan.StepType.RESEARCH, 2),
+				step("c", Plan.StepType.RESEARCH, 1));
+		Plan.Step first = PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_0", 5);
+
+		List<String> streamed = PlanStepQueue
+			.streamSteps(plan, first, "researcher_0", "0", 5,
+					step -> Flux.just(response(step.getTitle() + "-1 "), response(step.getTitle() + "-2")))
+			.map(response -> response.getResult().getOutput().getText())
+			.collectList()
+			.block();
+
+		assertThat(streamed).containsExactly("a-1 ", "a-2", "b-1 ", "b-2", "c-1 ", "c-2");
+		assertThat(plan.getSteps()).extracting(Plan.Step::getExecutionRes).containsExactly("a-1 a-2", "b-1 b-2",
+				"c-1 c-2");
+		assertThat(plan.getSteps()).extracting(Plan.Step::getExecutionStatus).containsOnly("completed_0");
+	}
+
+	@Test
+	@DisplayName("A failed step stays claimed and stops the node")
+	void streamStepsStopsOnFailure() {
+		Plan plan = plan(step("a", Plan.StepType.RESEARCH, 2), step("b", Plan.StepType.RESEARCH, 1));
+		Plan.Step first = PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, "researcher_0", 5);
+
+		Flux<ChatResponse> flux = PlanStepQueue.streamSteps(plan, first, "researcher_0", "0", 5,
+				step -> Flux.error(new IllegalStateException("model unavailable")));
+
+		assertThatThrownBy(flux::blockLast).isInstanceOf(IllegalStateException.class);
+		assertThat(first.getExecutionRes()).isNull();
+		assertThat(plan.getSteps().get(1).getExecutionStatus()).isNull();
+		assertThat(PlanStepQueue.releaseUnfinished(plan)).isEqualTo(1);
+	}
+
+	private static ChatResponse response(String text) {
+		return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+	}
+
+	/**
+	 * One long step and six short ones.
+	 */
+	private static Plan longAndShortSteps() {
+		List<Plan.Step> steps = new ArrayList<>();
+		steps.add(step("long", Plan.StepType.RESEARCH, 6));
+		for (int i = 0; i < 6; i++) {
+			steps.add(step("short-" + i, Plan.StepType.RESEARCH, 1));
+		}
+		Plan plan = new Plan();
+		plan.setSteps(steps);
+		return plan;
+	}
+
+	/**
+	 * Runs three research nodes that pull steps until the queue is empty, with a stubbed
+	 * model latency of 50 ms per cost unit.
+	 */
+	private static NodeRun runNodes(Plan plan) throws InterruptedException {
+		Set<String> claimed = ConcurrentHashMap.newKeySet();
+		AtomicInteger duplicates = new AtomicInteger();
+		Map<String, List<String>> stepsByNode = new ConcurrentHashMap<>();
+		ExecutorService nodes = Executors.newFixedThreadPool(3);
+		CountDownLatch done = new CountDownLatch(3);
+		long start = System.nanoTime();
+		for (int n = 0; n < 3; n++) {
+			String nodeName = "researcher_" + n;
+			String nodeId = String.valueOf(n);
+			nodes.submit(() -> {
+				try {
+					Plan.Step step;
+					while ((step = PlanStepQueue.claimNext(plan, Plan.StepType.RESEARCH, nodeName, 3)) != null) {
+						if (!claimed.add(step.getTitle())) {
+							duplicates.incrementAndGet();
+						}
+						Thread.sleep(step.getCostHint() * 50L);
+						PlanStepQueue.complete(plan, step, nodeId, "result of " + step.getTitle());
+						stepsByNode.computeIfAbsent(nodeName, key -> new CopyOnWriteArrayList<>()).add(step.getTitle());
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				finally {
+					done.countDown();
+				}
+			});
+		}
+		assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		nodes.shutdownNow();
+		return new NodeRun(elapsedMillis, duplicates.get(), stepsByNode);
+	}
+
+	private record NodeRun(long elapsedMillis, int duplicates, Map<String, List<String>> stepsByNode) {
+	}
+
+	private static Plan plan(Plan.Step... steps) {
+		Plan plan = new Plan();
+		plan.setSteps(new ArrayList<>(List.of(steps)));
+		return plan;
+	}
+
+	private static Plan.Step step(String title, Plan.StepType type, int costHint) {
+		Plan.Step step = new Plan.Step();
+		step.setTitle(title);
+		step.setStepType(type);
+		step.setCostHint(costHint);
+		return step;
+	}
+
+}
@@ -15,61 +15,142 @@
  */
 package com.alibaba.cloud.ai.graph.node;
 
+import com.alibaba.cloud.ai.document.DocumentParser;
 import com.alibaba.cloud.ai.document.JsonDocumentParser;
 import com.alibaba.cloud.ai.document.TextDocumentParser;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import com.alibaba.cloud.ai.parser.bshtml.BsHtmlDocumentParser;
 import com.alibaba.cloud.ai.parser.markdown.MarkdownDocumentParser;
 import com.alibaba.cloud.ai.parser.tika.TikaDocumentParser;
 import com.alibaba.cloud.ai.parser.yaml.YamlDocumentParser;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
 import org.springframework.ai.document.Document;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
+import java.lang.ref.Cleaner;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.jar.JarEntry;
 
 /**
+ * Extracts the text of the given files, which are looked up on the classpath first and on
+ * the file system otherwise.
+ * <p>
+ * Parser instances are pooled per extension and reused across calls and nodes, files are
+ * extracted in parallel on a bounded executor, and extracted text is cached by location,
+ * size and modification time so unchanged files are not parsed again. With a positive
+ * {@code streamChunkSize} the text is not put into the state; instead the output key holds
+ * a generator that streams the text in chunks, extracted incrementally for the formats
+ * handled by Tika. Extraction stops once the generator is closed or no longer reachable.
+ *
  * @author HeYQ
  * @since 2025-05-02 17:03
  */
 public class DocumentExtractorNode implements NodeAction {
 
+	static final String STREAMING_NODE_NAME = "documentExtractorNode";
+
+	private static final int DEFAULT_CACHE_SIZE = 64;
+
+	// texts above this size are not cached, so the cache stays small
+	private static final int MAX_CACHED_TEXT_LENGTH = 4 * 1024 * 1024;
+
+	private static final int STREAM_QUEUE_CAPACITY = 16;
+
+	private static final long STREAM_STALL_TIMEOUT_MINUTES = 10;
+
+	// how often a blocked producer checks whether its consumer is gone
+	private static final long STREAM_OFFER_SLICE_MILLIS = 200;
+
+	private static final Cleaner STREAM_CLEANER = Cleaner.create();
+
+	private static final Set<String> TIKA_EXTENSIONS = Set.of("pdf", "doc", "docx", "csv", "xls", "xlsx", "ppt",
+			"pptx");
+
+	private static final Map<String, Supplier<DocumentParser>> PARSER_FACTORIES = parserFactories();
+
+	private static final ParserPool PARSER_POOL = new ParserPool();
+
 	private final String paramsKey;
 
 	private final String outputKey;
 
 	private final List<String> fileList;
 
-	private final Map<String, Function<InputStream, List<Document>>> extractors = new HashMap<>();
+	private final Executor executor;
+
+	private final int streamChunkSize;
+
+	private final Map<String, String> textCache;
 
 	public DocumentExtractorNode(String paramsKey, String outputKey, List<String> fileList) {
+		this(paramsKey, outputKey, fileList, null, 0, DEFAULT_CACHE_SIZE);
+	}
+
+	private DocumentExtractorNode(String paramsKey, String outputKey, List<String> fileList, Executor executor,
+			int streamChunkSize, int cacheSize) {
 		this.paramsKey = paramsKey;
 		this.outputKey = outputKey;
 		this.fileList = fileList;
-		extractors.put("txt", inputStream -> new TextDocumentParser().parse(inputStream));
-		extractors.put("markdown", inputStream -> new MarkdownDocumentParser().parse(inputStream));
-		extractors.put("md", inputStream -> new MarkdownDocumentParser().parse(inputStream));
-		extractors.put("html", inputStream -> new BsHtmlDocumentParser().parse(inputStream));
-		extractors.put("htm", inputStream -> new BsHtmlDocumentParser().parse(inputStream));
-		extractors.put("xml", inputStream -> new BsHtmlDocumentParser().parse(inputStream));
-		extractors.put("json", inputStream -> new JsonDocumentParser().parse(inputStream));
-		extractors.put("yaml", inputStream -> new YamlDocumentParser().parse(inputStream));
-		extractors.put("yml", inputStream -> new YamlDocumentParser().parse(inputStream));
-		extractors.put("pdf", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("doc", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("docx", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("csv", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("xls", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("xlsx", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("ppt", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("pptx", inputStream -> new TikaDocumentParser().parse(inputStream));
+		this.executor = executor != null ? executor : SharedExecutorHolder.INSTANCE;
+		this.streamChunkSize = streamChunkSize;
+		this.textCache = cacheSize > 0 ? new LruCache(cacheSize) : null;
+	}
+
+	private static Map<String, Supplier<DocumentParser>> parserFactories() {
+		Map<String, Supplier<DocumentParser>> factories = new HashMap<>();
+		factories.put("txt", TextDocumentParser::new);
+		factories.put("markdown", MarkdownDocumentParser::new);
+		factories.put("md", MarkdownDocumentParser::new);
+		factories.put("html", BsHtmlDocumentParser::new);
+		factories.put("htm", BsHtmlDocumentParser::new);
+		factories.put("xml", BsHtmlDocumentParser::new);
+		factories.put("json", JsonDocumentParser::new);
+		factories.put("yaml", YamlDocumentParser::new);
+		factories.put("yml", YamlDocumentParser::new);
+		// AutoDetectParser is thread-safe and expensive to create, so one is shared
+		TIKA_EXTENSIONS.forEach(extension -> factories.put(extension,
+				() -> new TikaDocumentParser(TikaParserHolder::get, null, null, null)));
+		return Map.copyOf(factories);
 	}
 
 	@Override
@@ -81,19 +162,10 @@ public class DocumentExtractorNode implements NodeAction {
 		if (fileList == null || fileList.isEmpty()) {
 			throw new RuntimeException("Variable fileList is not an ArrayFileSegment");
 		}
-		List<String> documentContents = new ArrayList<>(10);
-		for (String file : fileList) {
-			try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(file)) {
-				if (inputStream == null) {
-					throw new IllegalArgumentException("File not found in resources: " + file);
-				}
-				String content = extractTextByFileExtension(inputStream, getFileExtension(file));
-				documentContents.add(content);
-			}
-			catch (Exception e) {
-				throw new RuntimeException("Failed to parse test file: " + file, e);
-			}
+		if (streamChunkSize > 0) {
+			return streamDocuments(fileList, state);
 		}
+		List<String> documentContents = extractAll(fileList);
 
 		Map<String, Object> updatedState = new HashMap<>();
 		updatedState.put("text", documentContents);
@@ -103,14 +175,180 @@ public class DocumentExtractorNode implements NodeAction {
 		return updatedState;
 	}
 
+	private List<String> extractAll(List<String> files) {
+		if (files.size() == 1) {
+			return List.of(extract(files.get(0)));
+		}
+		List<CompletableFuture<String>> futures = files.stream()
+			.map(file -> CompletableFuture.supplyAsync(() -> extract(file), executor))
+			.toList();
+		List<String> documentContents = new ArrayList<>(files.size());
+		for (CompletableFuture<String> future : futures) {
+			try {
+				documentContents.add(future.join());
+			}
+			catch (CompletionException e) {
+				futures.forEach(f -> f.cancel(false));
+				throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+			}
+		}
+		return documentContents;
+	}
+
+	private String extract(String file) {
+		try {
+			String fileExtension = getFileExtension(file);
+			String cacheKey = textCache != null ? cacheKey(file, fileExtension) : null;
+			if (cacheKey != null) {
+				String cached = textCache.get(cacheKey);
+				if (cached != null) {
+					return cached;
+				}
+			}
+			String content;
+			try (InputStream inputStream = openFile(file)) {
+				content = extractTextByFileExtension(inputStream, fileExtension);
+			}
+			if (cacheKey != null && content.length() <= MAX_CACHED_TEXT_LENGTH) {
+				textCache.put(cacheKey, content);
+			}
+			return content;
+		}
+		catch (Exception e) {
+			throw new RuntimeException("Failed to extract text from file: " + file, e);
+		}
+	}
+
 	private String extractTextByFileExtension(InputStream fileContent, String fileExtension) {
+		return PARSER_POOL.parse(fileExtension, fileContent).get(0).getText();
+	}
+
+	/**
+	 * Streams the text of all files in order; the final state update carries no text. The
+	 * producer stops when the generator is closed or garbage collected, so an abandoned
+	 * consumer does not keep an executor thread blocked.
+	 */
+	private Map<String, Object> streamDocuments(List<String> files, OverAllState state) {
+		BlockingQueue<AsyncGenerator.Data<StreamingOutput>> queue = new LinkedBlockingQueue<>(STREAM_QUEUE_CAPACITY);
+		AtomicBoolean cancelled = new AtomicBoolean();
+		BlockingQueueGenerator<StreamingOutput> generator = new BlockingQueueGenerator<>(queue, cancelled);
+		STREAM_CLEANER.register(generator, () -> cancelled.set(true));
+		executor.execute(() -> {
+			try {
+				for (String file : files) {
+					streamFile(file, chunk -> enqueue(queue,
+							AsyncGenerator.Data.of(new StreamingOutput(chunk, STREAMING_NODE_NAME, state)), cancelled));
+				}
+				enqueue(queue, AsyncGenerator.Data.done(Map.of()), cancelled);
+			}
+			catch (Throwable e) {
+				if (!cancelled.get()) {
+					queue.offer(AsyncGenerator.Data.error(e));
+					queue.offer(AsyncGenerator.Data.done());
+				}
+			}
+		});
+		return Map.of(StringUtils.hasLength(outputKey) ? outputKey : "text", generator);
+	}
 
-		Function<InputStream, List<Document>> extractor = this.extractors.get(fileExtension);
-		if (extractor == null) {
-			throw new RuntimeException("Unsupported Extension Type: " + fileExtension);
+	private void streamFile(String file, Consumer<String> sink) {
+		String fileExtension = getFileExtension(file);
+		try {
+			String cacheKey = textCache != null ? cacheKey(file, fileExtension) : null;
+			String cached = cacheKey != null ? textCache.get(cacheKey) : null;
+			if (cached != null) {
+				emitChunks(cached, sink);
+				return;
+			}
+			try (InputStream inputStream = openFile(file)) {
+				if (TIKA_EXTENSIONS.contains(fileExtension)) {
+					// Tika writes text as it parses, so chunks are emitted incrementally
+					try (ChunkWriter writer = new ChunkWriter(streamChunkSize, sink)) {
+						TikaParserHolder.get()
+							.parse(inputStream, new BodyContentHandler(writer), new Metadata(), new ParseContext());
+					}
+				}
+				else {
+					emitChunks(extractTextByFileExtension(inputStream, fileExtension), sink);
+				}
+			}
 		}
+		catch (Exception e) {
+			throw new RuntimeException("Failed to extract text from file: " + file, e);
+		}
+	}
 
-		return extractor.apply(fileContent).get(0).getText();
+	private void emitChunks(String text, Consumer<String> sink) {
+		for (int start = 0; start < text.length(); start += streamChunkSize) {
+			sink.accept(text.substring(start, Math.min(text.length(), start + streamChunkSize)));
+		}
+	}
+
+	private static <E> void enqueue(BlockingQueue<AsyncGenerator.Data<E>> queue, AsyncGenerator.Data<E> data,
+			AtomicBoolean cancelled) {
+		long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(STREAM_STALL_TIMEOUT_MINUTES);
+		try {
+			// wait in short slices so a closed or collected consumer is noticed quickly
+			while (!cancelled.get() && !queue.offer(data, STREAM_OFFER_SLICE_MILLIS, TimeUnit.MILLISECONDS)) {
+				if (System.nanoTime() - deadline > 0) {
+					throw new IllegalStateException(
+							new TimeoutException("Document stream was not consumed, extraction aborted"));
+				}
+			}
+			if (cancelled.get()) {
+				throw new CancellationException("Document stream was closed, extraction aborted");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Document streaming interrupted", e);
+		}
+	}
+
+	private InputStream openFile(String file) throws IOException {
+		InputStream inputStream = getClass().getClassLoader().getResourceAsStream(file);
+		if (inputStream != null) {
+			return inputStream;
+		}
+		Path path = Paths.get(file);
+		if (Files.isRegularFile(path)) {
+			return Files.newInputStream(path);
+		}
+		throw new IllegalArgumentException("File not found in resources: " + file);
+	}
+
+	/**
+	 * Builds a cache key from the file location, size and modification time, so a cache
+	 * hit does not read the file. Classpath resources inside a jar are keyed by entry size
+	 * and CRC. Returns null when the location cannot be identified without reading it.
+	 */
+	private String cacheKey(String file, String fileExtension) throws IOException {
+		URL resource = getClass().getClassLoader().getResource(file);
+		Path path = Paths.get(file);
+		if (resource != null) {
+			if ("file".equals(resource.getProtocol())) {
+				try {
+					path = Paths.get(resource.toURI());
+				}
+				catch (URISyntaxException | IllegalArgumentException e) {
+					return null;
+				}
+			}
+			else {
+				URLConnection connection = resource.openConnection();
+				JarEntry entry = connection instanceof JarURLConnection jarConnection ? jarConnection.getJarEntry()
+						: null;
+				return entry != null
+						? resource.toExternalForm() + ":" + entry.getSize() + ":" + entry.getCrc() + ":" + fileExtension
+						: null;
+			}
+		}
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		return path.toAbsolutePath().normalize() + ":" + attributes.size() + ":"
+				+ attributes.lastModifiedTime().toMillis() + ":" + fileExtension;
 	}
 
 	private String getFileExtension(String filePath) {
@@ -121,6 +359,174 @@ public class DocumentExtractorNode implements NodeAction {
 		return (dotIndex == -1) ? "" : fileName.substring(dotIndex + 1);
 	}
 
+	/**
+	 * Reuses parser instances per extension. A parser is used by one thread at a time, so
+	 * parsers that are not thread-safe can be pooled as well.
+	 */
+	private static final class ParserPool {
+
+		private static final int MAX_IDLE_PER_EXTENSION = 16;
+
+		private final Map<String, Queue<DocumentParser>> idle = new ConcurrentHashMap<>();
+
+		List<Document> parse(String extension, InputStream inputStream) {
+			Supplier<DocumentParser> factory = PARSER_FACTORIES.get(extension);
+			if (factory == null) {
+				throw new RuntimeException("Unsupported Extension Type: " + extension);
+			}
+			Queue<DocumentParser> parsers = idle.computeIfAbsent(extension, k -> new ConcurrentLinkedQueue<>());
+			DocumentParser parser = parsers.poll();
+			if (parser == null) {
+				parser = factory.get();
+			}
+			try {
+				return parser.parse(inputStream);
+			}
+			finally {
+				if (parsers.size() < MAX_IDLE_PER_EXTENSION) {
+					parsers.offer(parser);
+				}
+			}
+		}
+
+	}
+
+	private static final class TikaParserHolder {
+
+		private static final Parser INSTANCE = new AutoDetectParser();
+
+		static Parser get() {
+			return INSTANCE;
+		}
+
+	}
+
+	private static final class SharedExecutorHolder {
+
+		private static final ExecutorService INSTANCE = createExecutor();
+
+		private static ExecutorService createExecutor() {
+			AtomicInteger threadCount = new AtomicInteger();
+			return Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+				Thread thread = new Thread(r, "document-extractor-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+	}
+
+	private static final class LruCache extends LinkedHashMap<String, String> {
+
+		private final int maxEntries;
+
+		LruCache(int maxEntries) {
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		public synchronized String get(Object key) {
+			return super.get(key);
+		}
+
+		@Override
+		public synchronized String put(String key, String value) {
+			return super.put(key, value);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > maxEntries;
+		}
+
+	}
+
+	/**
+	 * Buffers written text and hands it on in chunks of a fixed size.
+	 */
+	private static final class ChunkWriter extends Writer {
+
+		private final int chunkSize;
+
+		private final Consumer<String> sink;
+
+		private final StringBuilder buffer;
+
+		ChunkWriter(int chunkSize, Consumer<String> sink) {
+			this.chunkSize = chunkSize;
+			this.sink = sink;
+			this.buffer = new StringBuilder(chunkSize);
+		}
+
+		@Override
+		public void write(char[] chars, int offset, int length) {
+			buffer.append(chars, offset, length);
+			while (buffer.length() >= chunkSize) {
+				sink.accept(buffer.substring(0, chunkSize));
+				buffer.delete(0, chunkSize);
+			}
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+			if (!buffer.isEmpty()) {
+				sink.accept(buffer.toString());
+				buffer.setLength(0);
+			}
+		}
+
+	}
+
+	/**
+	 * Generator over a queue filled by a producer thread; blocks instead of polling.
+	 * Closing it tells the producer to stop.
+	 */
+	private static final class BlockingQueueGenerator<E> implements AsyncGenerator<E>, AutoCloseable {
+
+		private final BlockingQueue<Data<E>> queue;
+
+		private final AtomicBoolean cancelled;
+
+		private Data<E> end;
+
+		BlockingQueueGenerator(BlockingQueue<Data<E>> queue, AtomicBoolean cancelled) {
+			this.queue = queue;
+			this.cancelled = cancelled;
+		}
+
+		@Override
+		public void close() {
+			cancelled.set(true);
+			end = Data.done();
+			queue.clear();
+		}
+
+		@Override
+		public Data<E> next() {
+			if (end != null) {
+				return end;
+			}
+			try {
+				Data<E> data = queue.take();
+				if (data.isDone()) {
+					end = data;
+				}
+				return data;
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				end = Data.done();
+				return Data.error(e);
+			}
+		}
+
+	}
+
 	public static Builder builder() {
 		return new Builder();
 	}
@@ -133,6 +539,12 @@ public class DocumentExtractorNode implements NodeAction {
 
 		private List<String> fileList;
 
+		private Executor executor;
+
+		private int streamChunkSize;
+
+		private int cacheSize = DEFAULT_CACHE_SIZE;
+
 		public Builder paramsKey(String paramsKey) {
 			this.paramsKey = paramsKey;
 			return this;
@@ -148,8 +560,35 @@ public class DocumentExtractorNode implements NodeAction {
 			return this;
 		}
 
+		/**
+		 * Executor used to extract files in parallel; a shared pool sized to the number
+		 * of processors by default.
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * Streams the extracted text in chunks of the given number of characters instead
+		 * of storing it in the state; 0 disables streaming.
+		 */
+		public Builder streamChunkSize(int streamChunkSize) {
+			this.streamChunkSize = streamChunkSize;
+			return this;
+		}
+
+		/**
+		 * Number of extracted texts cached by file location, size and modification time;
+		 * 0 disables the cache.
+		 */
+		public Builder cacheSize(int cacheSize) {
+			this.cacheSize = cacheSize;
+			return this;
+		}
+
 		public DocumentExtractorNode build() {
-			return new DocumentExtractorNode(paramsKey, outputKey, fileList);
+			return new DocumentExtractorNode(paramsKey, outputKey, fileList, executor, streamChunkSize, cacheSize);
 		}
 
 	}
@@ -23,10 +23,14 @@ import com.alibaba.cloud.ai.graph.utils.InMemoryFileStorage;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
@@ -37,24 +41,46 @@ import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
 
+import java.io.IOException;
 import java.net.URI;
+import java.net.http.HttpClient;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static java.lang.String.format;
 
+/**
+ * Graph node that performs an HTTP request and writes the response into the state.
+ * <p>
+ * Requests are executed without blocking: {@link #applyAsync(OverAllState)} returns a
+ * future and can be registered directly as an
+ * {@link com.alibaba.cloud.ai.graph.action.AsyncNodeAction}
+ * ({@code httpNode::applyAsync}), while {@link #apply(OverAllState)} keeps the
+ * synchronous contract. Unless a custom {@link WebClient} is configured, all nodes share
+ * one client backed by a single JDK {@link HttpClient} and its connection pool. File
+ * responses are streamed to a temporary file instead of being buffered, and responses can
+ * optionally be cached with {@link ResponseCache}, honoring {@code Cache-Control},
+ * {@code ETag} and {@code Last-Modified}.
+ */
 public class HttpNode implements NodeAction {
 
 	private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{(.+?)\\}");
@@ -63,6 +89,10 @@ public class HttpNode implements NodeAction {
 
 	private static final long DEFAULT_MAX_RETRY_INTERVAL = 1000;
 
+	private static final long DEFAULT_IN_MEMORY_FILE_THRESHOLD = 1024 * 1024;
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
 	private final WebClient webClient;
 
 	private final HttpMethod method;
@@ -81,8 +111,12 @@ public class HttpNode implements NodeAction {
 
 	private final String outputKey;
 
+	private final ResponseCache responseCache;
+
+	private final long inMemoryFileThreshold;
+
 	private HttpNode(Builder builder) {
-		this.webClient = builder.webClient;
+		this.webClient = builder.webClient != null ? builder.webClient : SharedWebClientHolder.INSTANCE;
 		this.method = builder.method;
 		this.url = builder.url;
 		this.headers = builder.headers;
@@ -91,47 +125,112 @@ public class HttpNode implements NodeAction {
 		this.authConfig = builder.authConfig;
 		this.retryConfig = builder.retryConfig;
 		this.outputKey = builder.outputKey;
+		this.responseCache = builder.responseCache;
+		this.inMemoryFileThreshold = builder.inMemoryFileThreshold;
 	}
 
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 		try {
-			String finalUrl = replaceVariables(url, state);
-			Map<String, String> finalHeaders = replaceVariables(headers, state);
-			Map<String, String> finalQueryParams = replaceVariables(queryParams, state);
+			return applyAsync(state).join();
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof Exception cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
 
-			UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(finalUrl);
-			finalQueryParams.forEach(uriBuilder::queryParam);
-			URI finalUri = uriBuilder.build().toUri();
+	/**
+	 * Executes the request without blocking the calling thread.
+	 * @param state the current graph state
+	 * @return a future completed with the state update, or failed with a
+	 * {@link GraphRunnerException} when the request cannot be performed
+	 */
+	public CompletableFuture<Map<String, Object>> applyAsync(OverAllState state) {
+		PreparedRequest request;
+		try {
+			request = prepareRequest(state);
+		}
+		catch (Exception e) {
+			return CompletableFuture.failedFuture(e);
+		}
 
-			WebClient.RequestBodySpec requestSpec = webClient.method(method)
-				.uri(finalUri)
-				.headers(headers -> headers.setAll(finalHeaders));
+		ResponseCache.Entry cached = request.cacheKey() != null ? responseCache.get(request.cacheKey()) : null;
+		if (cached != null && cached.isFresh()) {
+			return CompletableFuture.completedFuture(toStateUpdate(cached.response()));
+		}
 
+		Mono<Map<String, Object>> responseMono = Mono.defer(() -> {
+			WebClient.RequestBodySpec requestSpec = webClient.method(method)
+				.uri(request.uri())
+				.headers(headers -> headers.setAll(request.headers()));
 			applyAuth(requestSpec);
-			initBody(body, requestSpec, state);
-
-			Mono<ResponseEntity<byte[]>> responseMono = requestSpec
-				.exchangeToMono((ClientResponse resp) -> resp.toEntity(byte[].class))
+			if (cached != null) {
+				applyConditionalHeaders(requestSpec, cached);
+			}
+			request.bodyWriter().accept(requestSpec);
+			return requestSpec.exchangeToMono(resp -> readResponse(resp, request.cacheKey(), cached));
+		});
+		if (retryConfig.enable) {
+			responseMono = responseMono
 				.retryWhen(Retry.backoff(retryConfig.maxRetries, Duration.ofMillis(retryConfig.maxRetryInterval)));
-			ResponseEntity<byte[]> responseEntity = responseMono.block();
-			Map<String, Object> httpResponse = processResponse(responseEntity, state);
+		}
+		return responseMono.map(this::toStateUpdate).toFuture().exceptionallyCompose(this::translateException);
+	}
 
-			Map<String, Object> updatedState = new HashMap<>();
-			updatedState.put("messages", httpResponse);
-			if (StringUtils.hasLength(this.outputKey)) {
-				updatedState.put(this.outputKey, httpResponse);
-			}
-			return updatedState;
+	private Map<String, Object> toStateUpdate(Map<String, Object> httpResponse) {
+		Map<String, Object> updatedState = new HashMap<>();
+		updatedState.put("messages", httpResponse);
+		if (StringUtils.hasLength(this.outputKey)) {
+			updatedState.put(this.outputKey, httpResponse);
+		}
+		return updatedState;
+	}
+
+	private CompletableFuture<Map<String, Object>> translateException(Throwable throwable) {
+		Throwable e = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause()
+				: throwable;
+		if (e instanceof WebClientResponseException responseException) {
+			return CompletableFuture.failedFuture(RunnableErrors.nodeInterrupt
+				.exception(format("%s HTTP request failed: %s", this.outputKey, responseException.getStatusText())));
 		}
-		catch (WebClientResponseException e) {
-			throw RunnableErrors.nodeInterrupt
-				.exception(format("%s HTTP request failed: %s", this.outputKey, e.getStatusText()));
+		if (e instanceof RestClientException) {
+			return CompletableFuture.failedFuture(RunnableErrors.nodeInterrupt
+				.exception(format("%s HTTP request failed: %s", this.outputKey, e.getMessage())));
 		}
-		catch (RestClientException e) {
-			throw RunnableErrors.nodeInterrupt
-				.exception(format("%s HTTP request failed: %s", this.outputKey, e.getMessage()));
+		return CompletableFuture.failedFuture(e);
+	}
+
+	private PreparedRequest prepareRequest(OverAllState state) throws GraphRunnerException {
+		String finalUrl = replaceVariables(url, state);
+		Map<String, String> finalHeaders = replaceVariables(headers, state);
+		Map<String, String> finalQueryParams = replaceVariables(queryParams, state);
+
+		UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(finalUrl);
+		finalQueryParams.forEach(uriBuilder::queryParam);
+		URI finalUri = uriBuilder.build().toUri();
+
+		PreparedBody preparedBody = prepareBody(body, state);
+		String cacheKey = null;
+		if (responseCache != null && responseCache.isCacheable(method)) {
+			StringBuilder key = new StringBuilder().append(method.name()).append(' ').append(finalUri).append('\n');
+			new TreeMap<>(finalHeaders).forEach((k, v) -> key.append(k).append(':').append(v).append('\n'));
+			if (authConfig != null) {
+				key.append(authConfig.type)
+					.append(':')
+					.append(authConfig.username)
+					.append(':')
+					.append(authConfig.password)
+					.append(':')
+					.append(authConfig.token)
+					.append('\n');
+			}
+			key.append(preparedBody.fingerprint());
+			cacheKey = DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8));
 		}
+		return new PreparedRequest(finalUri, finalHeaders, preparedBody.writer(), cacheKey);
 	}
 
 	private String replaceVariables(String template, OverAllState state) {
@@ -152,46 +251,57 @@ public class HttpNode implements NodeAction {
 		return result;
 	}
 
-	private void initBody(HttpRequestNodeBody body, WebClient.RequestBodySpec requestSpec, OverAllState state)
-			throws GraphRunnerException {
+	/**
+	 * Resolves the body once per execution. The returned writer is applied to every
+	 * attempt, the fingerprint identifies the body in the response cache.
+	 */
+	private PreparedBody prepareBody(HttpRequestNodeBody body, OverAllState state) throws GraphRunnerException {
 		switch (body.getType()) {
 			case NONE:
-				break;
-			case RAW_TEXT:
+				return new PreparedBody(spec -> {
+				}, "");
+			case RAW_TEXT: {
 				if (body.getData().size() != 1) {
 					throw RunnableErrors.nodeInterrupt.exception("RAW_TEXT body must contain exactly one item");
 				}
 				String rawText = replaceVariables(body.getData().get(0).getValue(), state);
-				requestSpec.headers(h -> h.setContentType(MediaType.TEXT_PLAIN));
-				requestSpec.bodyValue(rawText);
-				break;
-			case JSON:
+				return new PreparedBody(spec -> {
+					spec.headers(h -> h.setContentType(MediaType.TEXT_PLAIN));
+					spec.bodyValue(rawText);
+				}, rawText);
+			}
+			case JSON: {
 				if (body.getData().size() != 1) {
 					throw RunnableErrors.nodeInterrupt.exception("JSON body must contain exactly one item");
 				}
 				String jsonTemplate = replaceVariables(body.getData().get(0).getValue(), state);
 				Object jsonObject;
 				try {
-					jsonObject = new ObjectMapper().readValue(jsonTemplate, Object.class);
+					jsonObject = OBJECT_MAPPER.readValue(jsonTemplate, Object.class);
 				}
 				catch (com.fasterxml.jackson.core.JsonProcessingException e) {
 					throw RunnableErrors.nodeInterrupt.exception("Failed to parse JSON body: " + e.getMessage());
 				}
-				requestSpec.headers(h -> h.setContentType(MediaType.APPLICATION_JSON));
-				requestSpec.bodyValue(jsonObject);
-				break;
-			case X_WWW_FORM_URLENCODED:
+				return new PreparedBody(spec -> {
+					spec.headers(h -> h.setContentType(MediaType.APPLICATION_JSON));
+					spec.bodyValue(jsonObject);
+				}, jsonTemplate);
+			}
+			case X_WWW_FORM_URLENCODED: {
 				MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
 				for (BodyData item : body.getData()) {
 					String key = replaceVariables(item.getKey(), state);
 					String value = replaceVariables(item.getValue(), state);
 					form.add(key, value);
 				}
-				requestSpec.headers(h -> h.setContentType(MediaType.APPLICATION_FORM_URLENCODED));
-				requestSpec.body(BodyInserters.fromFormData(form));
-				break;
-			case FORM_DATA:
+				return new PreparedBody(spec -> {
+					spec.headers(h -> h.setContentType(MediaType.APPLICATION_FORM_URLENCODED));
+					spec.body(BodyInserters.fromFormData(form));
+				}, form.toString());
+			}
+			case FORM_DATA: {
 				MultiValueMap<String, Object> multipart = new LinkedMultiValueMap<>();
+				StringBuilder fingerprint = new StringBuilder();
 				for (BodyData item : body.getData()) {
 					String key = replaceVariables(item.getKey(), state);
 					if (item.getType() == BodyType.BINARY) {
@@ -202,16 +312,25 @@ public class HttpNode implements NodeAction {
 							}
 						};
 						multipart.add(key, resource);
+						fingerprint.append(key)
+							.append('=')
+							.append(item.getFilename())
+							.append(':')
+							.append(DigestUtils.md5DigestAsHex(item.getFileBytes()))
+							.append('\n');
 					}
 					else {
 						String value = replaceVariables(item.getValue(), state);
 						multipart.add(key, value);
+						fingerprint.append(key).append('=').append(value).append('\n');
 					}
 				}
-				requestSpec.headers(h -> h.setContentType(MediaType.MULTIPART_FORM_DATA));
-				requestSpec.body(BodyInserters.fromMultipartData(multipart));
-				break;
-			case BINARY:
+				return new PreparedBody(spec -> {
+					spec.headers(h -> h.setContentType(MediaType.MULTIPART_FORM_DATA));
+					spec.body(BodyInserters.fromMultipartData(multipart));
+				}, fingerprint.toString());
+			}
+			case BINARY: {
 				if (body.getData().size() != 1) {
 					throw RunnableErrors.nodeInterrupt.exception("BINARY body must contain exactly one item");
 				}
@@ -224,9 +343,11 @@ public class HttpNode implements NodeAction {
 				};
 				MediaType mediaType = StringUtils.hasText(fileItem.getMimeType())
 						? MediaType.parseMediaType(fileItem.getMimeType()) : MediaType.APPLICATION_OCTET_STREAM;
-				requestSpec.headers(h -> h.setContentType(mediaType));
-				requestSpec.body(BodyInserters.fromResource(resource));
-				break;
+				return new PreparedBody(spec -> {
+					spec.headers(h -> h.setContentType(mediaType));
+					spec.body(BodyInserters.fromResource(resource));
+				}, mediaType + ":" + DigestUtils.md5DigestAsHex(fileItem.getFileBytes()));
+			}
 			default:
 				throw RunnableErrors.nodeInterrupt.exception("Unsupported body type: " + body.getType());
 		}
@@ -245,36 +366,98 @@ public class HttpNode implements NodeAction {
 		}
 	}
 
-	private Map<String, Object> processResponse(ResponseEntity<byte[]> responseEntity, OverAllState state) {
+	private void applyConditionalHeaders(WebClient.RequestBodySpec requestSpec, ResponseCache.Entry cached) {
+		requestSpec.headers(headers -> {
+			if (cached.etag() != null) {
+				headers.setIfNoneMatch(cached.etag());
+			}
+			if (cached.lastModified() != null) {
+				headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+			}
+		});
+	}
+
+	private Mono<Map<String, Object>> readResponse(ClientResponse response, String cacheKey,
+			ResponseCache.Entry cached) {
+		HttpHeaders responseHeaders = response.headers().asHttpHeaders();
+		if (cached != null && response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+			return response.releaseBody()
+				.then(Mono.fromSupplier(() -> responseCache.revalidate(cacheKey, cached, responseHeaders).response()));
+		}
 		Map<String, Object> result = new HashMap<>();
-		result.put("status", responseEntity.getStatusCodeValue());
-		result.put("headers", responseEntity.getHeaders());
-		byte[] body = responseEntity.getBody();
-		if (body == null) {
-			return result;
+		result.put("status", response.statusCode().value());
+		result.put("headers", responseHeaders);
+		Mono<Map<String, Object>> resultMono = isFileResponse(responseHeaders)
+				? readFileBody(response, responseHeaders, result) : readTextBody(response, result);
+		if (cacheKey == null) {
+			return resultMono;
 		}
-		if (isFileResponse(responseEntity)) {
-			String filename = extractFilename(responseEntity.getHeaders());
-			String mimeType = Optional.ofNullable(responseEntity.getHeaders().getContentType())
-				.map(MediaType::toString)
-				.orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
-
-			InMemoryFileStorage.FileRecord record = InMemoryFileStorage.save(body, mimeType, filename);
+		return resultMono.doOnNext(r -> {
+			if (response.statusCode().is2xxSuccessful()) {
+				responseCache.put(cacheKey, r, responseHeaders);
+			}
+		});
+	}
 
-			result.put("files", Collections.singletonList(record.getId()));
-		}
-		else {
-			String text = new String(body, StandardCharsets.UTF_8);
+	private Mono<Map<String, Object>> readTextBody(ClientResponse response, Map<String, Object> result) {
+		return DataBufferUtils.join(response.bodyToFlux(DataBuffer.class)).map(buffer -> {
+			String text;
+			try {
+				text = buffer.toString(StandardCharsets.UTF_8);
+			}
+			finally {
+				DataBufferUtils.release(buffer);
+			}
 			try {
-				ObjectMapper objectMapper = new ObjectMapper();
-				Map<String, Object> map = objectMapper.readValue(text, Map.class);
+				Map<String, Object> map = OBJECT_MAPPER.readValue(text, Map.class);
 				result.put("body", map);
 			}
 			catch (Exception ex) {
 				result.put("body", text);
 			}
-		}
-		return result;
+			return result;
+		}).defaultIfEmpty(result);
+	}
+
+	/**
+	 * Streams a file response to a temporary file. Small files are moved into memory
+	 * afterwards, larger ones stay on disk and are read lazily from the storage.
+	 */
+	private Mono<Map<String, Object>> readFileBody(ClientResponse response, HttpHeaders responseHeaders,
+			Map<String, Object> result) {
+		String filename = extractFilename(responseHeaders);
+		String mimeType = Optional.ofNullable(responseHeaders.getContentType())
+			.map(MediaType::toString)
+			.orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+		return Mono.fromCallable(() -> Files.createTempFile("http-node-", ".tmp"))
+			.subscribeOn(Schedulers.boundedElastic())
+			.flatMap(tempFile -> DataBufferUtils.write(response.bodyToFlux(DataBuffer.class), tempFile)
+				.then(Mono.fromCallable(() -> {
+					long size = Files.size(tempFile);
+					if (size == 0) {
+						Files.deleteIfExists(tempFile);
+						return result;
+					}
+					InMemoryFileStorage.FileRecord record;
+					if (size <= inMemoryFileThreshold) {
+						byte[] content = Files.readAllBytes(tempFile);
+						Files.deleteIfExists(tempFile);
+						record = InMemoryFileStorage.save(content, mimeType, filename);
+					}
+					else {
+						record = InMemoryFileStorage.save(tempFile, mimeType, filename);
+					}
+					result.put("files", Collections.singletonList(record.getId()));
+					return result;
+				}).subscribeOn(Schedulers.boundedElastic()))
+				.doOnError(e -> {
+					try {
+						Files.deleteIfExists(tempFile);
+					}
+					catch (IOException ignored) {
+						// best effort cleanup
+					}
+				}));
 	}
 
 	private String extractFilename(HttpHeaders headers) {
@@ -287,8 +470,11 @@ public class HttpNode implements NodeAction {
 		return UUID.randomUUID().toString();
 	}
 
-	private boolean isFileResponse(ResponseEntity<?> response) {
-		HttpHeaders headers = response.getHeaders();
+	/**
+	 * Decides from the response headers alone whether the body is a file, so that the
+	 * body can be streamed without buffering it first.
+	 */
+	private boolean isFileResponse(HttpHeaders headers) {
 		String contentType = Optional.ofNullable(headers.getContentType()).map(MediaType::toString).orElse("");
 		if (headers.containsKey(HttpHeaders.CONTENT_DISPOSITION)) {
 			String cd = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
@@ -296,24 +482,9 @@ public class HttpNode implements NodeAction {
 				return true;
 			}
 		}
-		if (contentType.startsWith("text/")) {
+		if (contentType.startsWith("text/") || contentType.startsWith("application/")) {
 			return false;
 		}
-		List<String> textTypes = List.of("json", "xml", "javascript", "x-www-form-urlencoded", "yaml");
-		if (contentType.startsWith("application/")) {
-			for (String tt : textTypes) {
-				if (contentType.contains(tt)) {
-					return false;
-				}
-			}
-			try {
-				new String((byte[]) Objects.requireNonNull(response.getBody()), StandardCharsets.UTF_8);
-				return false;
-			}
-			catch (Exception ex) {
-				return true;
-			}
-		}
 		return contentType.startsWith("image/") || contentType.startsWith("audio/") || contentType.startsWith("video/");
 	}
 
@@ -321,9 +492,32 @@ public class HttpNode implements NodeAction {
 		return new Builder();
 	}
 
+	private record PreparedRequest(URI uri, Map<String, String> headers, Consumer<WebClient.RequestBodySpec> bodyWriter,
+			String cacheKey) {
+	}
+
+	private record PreparedBody(Consumer<WebClient.RequestBodySpec> writer, String fingerprint) {
+	}
+
+	/**
+	 * Lazily created client shared by all nodes without a custom {@link WebClient}, so
+	 * that connections are pooled across nodes and executions.
+	 */
+	private static final class SharedWebClientHolder {
+
+		private static final WebClient INSTANCE = WebClient.builder()
+			.clientConnector(new JdkClientHttpConnector(HttpClient.newBuilder()
+				.connectTimeout(Duration.ofSeconds(10))
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.build()))
+			.codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+			.build();
+
+	}
+
 	public static class Builder {
 
-		private WebClient webClient = WebClient.create();
+		private WebClient webClient;
 
 		private HttpMethod method = HttpMethod.GET;
 
@@ -341,6 +535,10 @@ public class HttpNode implements NodeAction {
 
 		private String outputKey;
 
+		private ResponseCache responseCache;
+
+		private long inMemoryFileThreshold = DEFAULT_IN_MEMORY_FILE_THRESHOLD;
+
 		public Builder webClient(WebClient webClient) {
 			this.webClient = webClient;
 			return this;
@@ -386,12 +584,128 @@ public class HttpNode implements NodeAction {
 			return this;
 		}
 
+		/**
+		 * Enables response caching. A cache instance may be shared by several nodes.
+		 */
+		public Builder responseCache(ResponseCache responseCache) {
+			this.responseCache = responseCache;
+			return this;
+		}
+
+		/**
+		 * File responses larger than this many bytes are kept on disk instead of in
+		 * memory.
+		 */
+		public Builder inMemoryFileThreshold(long inMemoryFileThreshold) {
+			this.inMemoryFileThreshold = inMemoryFileThreshold;
+			return this;
+		}
+
 		public HttpNode build() {
 			return new HttpNode(this);
 		}
 
 	}
 
+	/**
+	 * Bounded LRU cache of processed HTTP responses, keyed by method, URL, headers,
+	 * credentials and body. Freshness follows {@code Cache-Control: max-age}; stale
+	 * entries carrying an {@code ETag} or {@code Last-Modified} are revalidated with a
+	 * conditional request. Responses marked {@code no-store} or {@code private} are never
+	 * stored.
+	 */
+	public static class ResponseCache {
+
+		private static final Pattern MAX_AGE_PATTERN = Pattern.compile("max-age=(\\d+)");
+
+		private final int maxEntries;
+
+		private final Duration defaultTtl;
+
+		private final Set<HttpMethod> cacheableMethods;
+
+		private final Map<String, Entry> entries;
+
+		/**
+		 * @param maxEntries max number of cached responses
+		 * @param defaultTtl freshness of responses without {@code max-age}, zero to
+		 * always revalidate them
+		 */
+		public ResponseCache(int maxEntries, Duration defaultTtl) {
+			this(maxEntries, defaultTtl, Set.of(HttpMethod.GET, HttpMethod.HEAD));
+		}
+
+		public ResponseCache(int maxEntries, Duration defaultTtl, Set<HttpMethod> cacheableMethods) {
+			this.maxEntries = maxEntries;
+			this.defaultTtl = defaultTtl;
+			this.cacheableMethods = Set.copyOf(cacheableMethods);
+			this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+					return size() > ResponseCache.this.maxEntries;
+				}
+			};
+		}
+
+		boolean isCacheable(HttpMethod method) {
+			return cacheableMethods.contains(method);
+		}
+
+		synchronized Entry get(String key) {
+			return entries.get(key);
+		}
+
+		synchronized void put(String key, Map<String, Object> response, HttpHeaders headers) {
+			String cacheControl = String.join(",", headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)).toLowerCase();
+			if (cacheControl.contains("no-store") || cacheControl.contains("private")) {
+				entries.remove(key);
+				return;
+			}
+			// the parsed body is null for a literal JSON null, which Map.copyOf rejects
+			Entry entry = new Entry(Collections.unmodifiableMap(new HashMap<>(response)), headers.getETag(),
+					headers.getFirst(HttpHeaders.LAST_MODIFIED), expiresAt(cacheControl));
+			if (entry.isFresh() || entry.etag() != null || entry.lastModified() != null) {
+				entries.put(key, entry);
+			}
+		}
+
+		synchronized Entry revalidate(String key, Entry cached, HttpHeaders headers) {
+			String cacheControl = String.join(",", headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)).toLowerCase();
+			String etag = headers.getETag() != null ? headers.getETag() : cached.etag();
+			String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED) != null
+					? headers.getFirst(HttpHeaders.LAST_MODIFIED) : cached.lastModified();
+			Entry entry = new Entry(cached.response(), etag, lastModified, expiresAt(cacheControl));
+			entries.put(key, entry);
+			return entry;
+		}
+
+		public synchronized int size() {
+			return entries.size();
+		}
+
+		public synchronized void clear() {
+			entries.clear();
+		}
+
+		private long expiresAt(String cacheControl) {
+			if (cacheControl.contains("no-cache")) {
+				return 0;
+			}
+			Matcher matcher = MAX_AGE_PATTERN.matcher(cacheControl);
+			long ttlMillis = matcher.find() ? Long.parseLong(matcher.group(1)) * 1000 : defaultTtl.toMillis();
+			return System.currentTimeMillis() + ttlMillis;
+		}
+
+		record Entry(Map<String, Object> response, String etag, String lastModified, long expiresAt) {
+
+			boolean isFresh() {
+				return System.currentTimeMillis() < expiresAt;
+			}
+
+		}
+
+	}
+
 	public static class HttpRequestNodeBody {
 
 		private BodyType type;
@@ -454,8 +768,7 @@ public class HttpNode implements NodeAction {
 
 					case JSON:
 						if (dataField instanceof Map<?, ?> || dataField instanceof List<?>) {
-							ObjectMapper objectMapper = new ObjectMapper();
-							String jsonString = objectMapper.writeValueAsString(dataField);
+							String jsonString = OBJECT_MAPPER.writeValueAsString(dataField);
 							BodyData bd2 = new BodyData();
 							bd2.setType(BodyType.JSON);
 							bd2.setValue(jsonString);
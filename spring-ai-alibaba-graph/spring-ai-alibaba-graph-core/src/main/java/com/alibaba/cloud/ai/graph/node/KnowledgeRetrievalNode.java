@@ -29,88 +29,139 @@ import org.springframework.ai.rag.Query;
 import org.springframework.ai.rag.postretrieval.document.DocumentPostProcessor;
 import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
 import org.springframework.ai.rag.retrieval.search.VectorStoreDocumentRetriever;
+import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.util.StringUtils;
 import javax.validation.constraints.NotNull;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Retrieves documents from a vector store and appends them to the user prompt.
+ * <p>
+ * The node keeps no per-execution state in its fields: every call resolves an immutable
+ * {@link RetrievalRequest} from the node defaults and the state, so one instance can be
+ * used by concurrent executions of the same compiled graph. Retrievers are cached per
+ * vector store and search options. When additional queries are provided they are
+ * retrieved in parallel and merged, and reranking runs asynchronously with a timeout,
+ * falling back to the vector store order on timeout or failure.
+ */
 public class KnowledgeRetrievalNode implements NodeAction {
 
-	private String userPromptKey;
+	private static final int MAX_CACHED_RETRIEVERS = 64;
+
+	private static final Duration DEFAULT_RERANK_TIMEOUT = Duration.ofSeconds(10);
+
+	private final String userPromptKey;
+
+	private final String userPrompt;
 
-	private String userPrompt;
+	private final String topKKey;
 
-	private String topKKey;
+	private final Integer topK;
 
-	private Integer topK;
+	private final String similarityThresholdKey;
 
-	private String similarityThresholdKey;
+	private final Double similarityThreshold;
 
-	private Double similarityThreshold;
+	private final String filterExpressionKey;
 
-	private String filterExpressionKey;
+	private final Filter.Expression filterExpression;
 
-	private Filter.Expression filterExpression;
+	private final String enableRankerKey;
 
-	private String enableRankerKey;
+	private final Boolean enableRanker;
 
-	private Boolean enableRanker = false;
+	private final String rerankModelKey;
 
-	private String rerankModelKey;
+	private final RerankModel rerankModel;
 
-	private RerankModel rerankModel;
+	private final String rerankOptionsKey;
 
-	private String rerankOptionsKey;
+	private final DashScopeRerankOptions rerankOptions;
 
-	private DashScopeRerankOptions rerankOptions;
+	private final String vectorStoreKey;
 
-	private String vectorStoreKey;
+	private final VectorStore vectorStore;
 
-	private VectorStore vectorStore;
+	private final String queriesKey;
 
-	List<Document> documents;
+	private final Duration rerankTimeout;
+
+	private final Executor executor;
+
+	private final Map<RetrieverKey, DocumentRetriever> retrieverCache = new ConcurrentHashMap<>();
 
 	private static final Logger logger = LoggerFactory.getLogger(KnowledgeRetrievalNode.class);
 
 	public KnowledgeRetrievalNode() {
+		this(new Builder());
 	}
 
 	public KnowledgeRetrievalNode(String userPrompt, Integer topK, Double similarityThreshold,
 			Filter.Expression filterExpression, Boolean enableRanker, RerankModel rerankModel,
 			DashScopeRerankOptions rerankOptions, VectorStore vectorStore) {
-		this.userPrompt = userPrompt;
-		this.topK = topK;
-		this.similarityThreshold = similarityThreshold;
-		this.filterExpression = filterExpression;
-		this.enableRanker = enableRanker;
-		this.rerankModel = rerankModel;
-		this.rerankOptions = rerankOptions;
-		this.vectorStore = vectorStore;
+		this(new Builder().userPrompt(userPrompt)
+			.topK(topK)
+			.similarityThreshold(similarityThreshold)
+			.filterExpression(filterExpression)
+			.enableRanker(enableRanker)
+			.rerankModel(rerankModel)
+			.rerankOptions(rerankOptions)
+			.vectorStore(vectorStore));
+	}
+
+	private KnowledgeRetrievalNode(Builder builder) {
+		this.userPromptKey = builder.userPromptKey;
+		this.userPrompt = builder.userPrompt;
+		this.topKKey = builder.topKKey;
+		this.topK = builder.topK;
+		this.similarityThresholdKey = builder.similarityThresholdKey;
+		this.similarityThreshold = builder.similarityThreshold;
+		this.filterExpressionKey = builder.filterExpressionKey;
+		this.filterExpression = builder.filterExpression;
+		this.enableRankerKey = builder.enableRankerKey;
+		this.enableRanker = builder.enableRanker != null ? builder.enableRanker : Boolean.FALSE;
+		this.rerankModelKey = builder.rerankModelKey;
+		this.rerankModel = builder.rerankModel;
+		this.rerankOptionsKey = builder.rerankOptionsKey;
+		this.rerankOptions = builder.rerankOptions;
+		this.vectorStoreKey = builder.vectorStoreKey;
+		this.vectorStore = builder.vectorStore;
+		this.queriesKey = builder.queriesKey;
+		this.rerankTimeout = builder.rerankTimeout != null ? builder.rerankTimeout : DEFAULT_RERANK_TIMEOUT;
+		this.executor = builder.executor != null ? builder.executor : SharedExecutorHolder.INSTANCE;
 	}
 
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
-		initNodeWithState(state);
-		DocumentRetriever documentRetriever = VectorStoreDocumentRetriever.builder()
-			.similarityThreshold(similarityThreshold)
-			.topK(topK)
-			.filterExpression(filterExpression)
-			.vectorStore(vectorStore)
-			.build();
-		Query query = new Query(userPrompt);
-		documents = documentRetriever.retrieve(query);
-		documents = enableRanker
-				? ranking(query, documents, new KnowledgeRetrievalDocumentRanker(rerankModel, rerankOptions))
-				: documents;
-		StringBuilder newUserPrompt = new StringBuilder(userPrompt);
-		for (Document document : documents) {
+		RetrievalRequest request = resolveRequest(state);
+		List<Document> retrieved = retrieve(request);
+		List<Document> result = request.enableRanker() ? rerank(request, retrieved) : retrieved;
+
+		StringBuilder newUserPrompt = new StringBuilder(request.userPrompt());
+		for (Document document : result) {
 			newUserPrompt.append("Document: ").append(document.getFormattedContent()).append("\n");
 		}
 		Map<String, Object> updatedState = new HashMap<>();
@@ -124,49 +175,154 @@ public class KnowledgeRetrievalNode implements NodeAction {
 		return updatedState;
 	}
 
-	private void initNodeWithState(OverAllState state) {
-		if (StringUtils.hasLength(userPromptKey)) {
-			this.userPrompt = (String) state.value(userPromptKey).orElse(this.userPrompt);
-		}
-		if (StringUtils.hasLength(topKKey)) {
-			this.topK = (Integer) state.value(topKKey).orElse(this.topK);
+	/**
+	 * Builds the immutable request of one execution; node fields are only read.
+	 */
+	private RetrievalRequest resolveRequest(OverAllState state) {
+		String prompt = valueOf(state, userPromptKey, String.class, this.userPrompt);
+		List<String> queries = new ArrayList<>();
+		queries.add(prompt);
+		if (StringUtils.hasLength(queriesKey)) {
+			Object extraQueries = state.value(queriesKey).orElse(null);
+			if (extraQueries instanceof Collection<?> collection) {
+				collection.stream()
+					.filter(Objects::nonNull)
+					.map(Object::toString)
+					.filter(StringUtils::hasText)
+					.forEach(queries::add);
+			}
+			else if (extraQueries instanceof String text && StringUtils.hasText(text)) {
+				queries.add(text);
+			}
 		}
+		return new RetrievalRequest(prompt, List.copyOf(new LinkedHashSet<>(queries)),
+				valueOf(state, topKKey, Integer.class, this.topK),
+				valueOf(state, similarityThresholdKey, Double.class, this.similarityThreshold),
+				valueOf(state, filterExpressionKey, Filter.Expression.class, this.filterExpression),
+				Boolean.TRUE.equals(valueOf(state, enableRankerKey, Boolean.class, this.enableRanker)),
+				valueOf(state, rerankModelKey, RerankModel.class, this.rerankModel),
+				valueOf(state, rerankOptionsKey, DashScopeRerankOptions.class, this.rerankOptions),
+				valueOf(state, vectorStoreKey, VectorStore.class, this.vectorStore));
+	}
 
-		if (StringUtils.hasLength(similarityThresholdKey)) {
-			this.similarityThreshold = (Double) state.value(similarityThresholdKey).orElse(this.similarityThreshold);
-		}
-		if (StringUtils.hasLength(filterExpressionKey)) {
-			this.filterExpression = (Filter.Expression) state.value(filterExpressionKey).orElse(this.filterExpression);
-		}
-		if (StringUtils.hasLength(enableRankerKey)) {
-			this.enableRanker = (Boolean) state.value(enableRankerKey).orElse(this.enableRanker);
-		}
-		if (StringUtils.hasLength(rerankModelKey)) {
-			this.rerankModel = (RerankModel) state.value(rerankModelKey).orElse(this.rerankModel);
+	private static <T> T valueOf(OverAllState state, String key, Class<T> type, T defaultValue) {
+		if (!StringUtils.hasLength(key)) {
+			return defaultValue;
 		}
-		if (StringUtils.hasLength(rerankOptionsKey)) {
-			this.rerankOptions = (DashScopeRerankOptions) state.value(rerankOptionsKey).orElse(this.rerankOptions);
-		}
-		if (StringUtils.hasLength(vectorStoreKey)) {
-			this.vectorStore = (VectorStore) state.value(vectorStoreKey).orElse(this.vectorStore);
+		return state.value(key).map(type::cast).orElse(defaultValue);
+	}
+
+	private List<Document> retrieve(RetrievalRequest request) {
+		DocumentRetriever documentRetriever = getRetriever(request);
+		if (request.queries().size() == 1) {
+			return documentRetriever.retrieve(new Query(request.userPrompt()));
+		}
+		// Retrieve all queries in parallel and merge them, keeping the best score per
+		// document
+		List<CompletableFuture<List<Document>>> futures = request.queries()
+			.stream()
+			.map(text -> CompletableFuture.supplyAsync(() -> documentRetriever.retrieve(new Query(text)), executor))
+			.toList();
+		Map<String, Document> merged = new LinkedHashMap<>();
+		for (CompletableFuture<List<Document>> future : futures) {
+			for (Document document : future.join()) {
+				merged.merge(document.getId(), document,
+						(existing, candidate) -> scoreOf(candidate) > scoreOf(existing) ? candidate : existing);
+			}
 		}
+		return merged.values()
+			.stream()
+			.sorted(Comparator.comparingDouble(KnowledgeRetrievalNode::scoreOf).reversed())
+			.limit(request.topK() != null ? request.topK() : SearchRequest.DEFAULT_TOP_K)
+			.toList();
+	}
+
+	private static double scoreOf(Document document) {
+		return document.getScore() != null ? document.getScore() : 0.0;
+	}
+
+	private DocumentRetriever getRetriever(RetrievalRequest request) {
+		RetrieverKey key = new RetrieverKey(request.vectorStore(), request.topK(), request.similarityThreshold(),
+				request.filterExpression());
+		DocumentRetriever retriever = retrieverCache.get(key);
+		if (retriever != null) {
+			return retriever;
+		}
+		if (retrieverCache.size() >= MAX_CACHED_RETRIEVERS) {
+			retrieverCache.clear();
+		}
+		return retrieverCache.computeIfAbsent(key,
+				k -> VectorStoreDocumentRetriever.builder()
+					.similarityThreshold(k.similarityThreshold() != null ? k.similarityThreshold()
+							: SearchRequest.SIMILARITY_THRESHOLD_ACCEPT_ALL)
+					.topK(k.topK() != null ? k.topK() : SearchRequest.DEFAULT_TOP_K)
+					.filterExpression(k.filterExpression())
+					.vectorStore(k.vectorStore())
+					.build());
 	}
 
-	private List<Document> ranking(Query query, List<Document> documents, DocumentPostProcessor documentPostProcessor) {
+	/**
+	 * Reranks asynchronously; on timeout or failure the vector store order is kept and
+	 * the rerank task is cancelled, interrupting the call if it is still running.
+	 */
+	private List<Document> rerank(RetrievalRequest request, List<Document> documents) {
 		if (documents.size() <= 1) {
 			return documents;
 		}
-
+		Query query = new Query(request.userPrompt());
+		DocumentPostProcessor ranker = new KnowledgeRetrievalDocumentRanker(request.rerankModel(),
+				request.rerankOptions());
+		FutureTask<List<Document>> task = new FutureTask<>(() -> ranker.process(query, documents));
+		executor.execute(task);
 		try {
-			List<Document> rankedDocuments = documentPostProcessor.process(query, documents);
-			return rankedDocuments;
+			return task.get(rerankTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			task.cancel(true);
+			logger.warn("ranking timed out after {}, keeping vector store order", rerankTimeout);
+			return documents;
 		}
-		catch (Exception e) {
-			logger.error("ranking error", e);
+		catch (InterruptedException e) {
+			task.cancel(true);
+			Thread.currentThread().interrupt();
+			return documents;
+		}
+		catch (ExecutionException e) {
+			logger.error("ranking error", e.getCause());
 			return documents;
 		}
 	}
 
+	/**
+	 * Options of one execution, resolved from the node defaults and the state.
+	 */
+	record RetrievalRequest(String userPrompt, List<String> queries, Integer topK, Double similarityThreshold,
+			Filter.Expression filterExpression, boolean enableRanker, RerankModel rerankModel,
+			DashScopeRerankOptions rerankOptions, VectorStore vectorStore) {
+	}
+
+	private record RetrieverKey(VectorStore vectorStore, Integer topK, Double similarityThreshold,
+			Filter.Expression filterExpression) {
+	}
+
+	/**
+	 * Pool used for parallel retrieval and reranking when no executor is configured.
+	 */
+	private static final class SharedExecutorHolder {
+
+		private static final ExecutorService INSTANCE = createExecutor();
+
+		private static ExecutorService createExecutor() {
+			AtomicInteger threadCount = new AtomicInteger();
+			return Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2), r -> {
+				Thread thread = new Thread(r, "knowledge-retrieval-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+	}
+
 	public static class KnowledgeRetrievalDocumentRanker implements DocumentPostProcessor {
 
 		private RerankModel rerankModel;
@@ -180,7 +336,7 @@ public class KnowledgeRetrievalNode implements NodeAction {
 
 		@Override
 		public List<Document> apply(Query query, List<Document> documents) {
-			return List.of();
+			return process(query, documents);
 		}
 
 		@NotNull
@@ -252,6 +408,12 @@ public class KnowledgeRetrievalNode implements NodeAction {
 
 		private VectorStore vectorStore;
 
+		private String queriesKey;
+
+		private Duration rerankTimeout;
+
+		private Executor executor;
+
 		public Builder userPromptKey(String userPromptKey) {
 			this.userPromptKey = userPromptKey;
 			return this;
@@ -332,25 +494,30 @@ public class KnowledgeRetrievalNode implements NodeAction {
 			return this;
 		}
 
+		/**
+		 * State key holding additional queries (a collection or a single string) that are
+		 * retrieved in parallel with the user prompt.
+		 */
+		public Builder queriesKey(String queriesKey) {
+			this.queriesKey = queriesKey;
+			return this;
+		}
+
+		public Builder rerankTimeout(Duration rerankTimeout) {
+			this.rerankTimeout = rerankTimeout;
+			return this;
+		}
+
+		/**
+		 * Executor used for parallel retrieval and reranking.
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+
 		public KnowledgeRetrievalNode build() {
-			KnowledgeRetrievalNode knowledgeRetrievalNode = new KnowledgeRetrievalNode();
-			knowledgeRetrievalNode.userPromptKey = this.userPromptKey;
-			knowledgeRetrievalNode.userPrompt = this.userPrompt;
-			knowledgeRetrievalNode.topKKey = this.topKKey;
-			knowledgeRetrievalNode.topK = this.topK;
-			knowledgeRetrievalNode.similarityThresholdKey = this.similarityThresholdKey;
-			knowledgeRetrievalNode.similarityThreshold = this.similarityThreshold;
-			knowledgeRetrievalNode.filterExpressionKey = this.filterExpressionKey;
-			knowledgeRetrievalNode.filterExpression = this.filterExpression;
-			knowledgeRetrievalNode.enableRankerKey = this.enableRankerKey;
-			knowledgeRetrievalNode.enableRanker = this.enableRanker;
-			knowledgeRetrievalNode.rerankModelKey = this.rerankModelKey;
-			knowledgeRetrievalNode.rerankModel = this.rerankModel;
-			knowledgeRetrievalNode.rerankOptionsKey = this.rerankOptionsKey;
-			knowledgeRetrievalNode.rerankOptions = this.rerankOptions;
-			knowledgeRetrievalNode.vectorStoreKey = this.vectorStoreKey;
-			knowledgeRetrievalNode.vectorStore = this.vectorStore;
-			return knowledgeRetrievalNode;
+			return new KnowledgeRetrievalNode(this);
 		}
 
 	}
@@ -21,22 +21,40 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
-import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.function.Predicate;
 
+/**
+ * Filters, sorts and limits a list held in the state.
+ * <p>
+ * The input may be a JSON array string or an already deserialized {@link Collection}.
+ * JSON input is parsed one element at a time and every element is filtered as soon as it
+ * is read, so the full list is never materialized. With a limit, only the best {@code k}
+ * elements are kept in a bounded heap (O(n log k)); without a comparator the input stops
+ * being read once the limit is reached. Ties keep their input order, as with a stable
+ * sort. The result is always written to the output key as a JSON array string, whatever
+ * the input form.
+ */
 public class ListOperatorNode<T extends ListOperatorNode.ListElement> implements NodeAction {
 
 	private static final Logger log = LoggerFactory.getLogger(ListOperatorNode.class);
 
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
 	// default value "input"
 	private final String inputTextKey;
 
@@ -46,7 +64,7 @@ public class ListOperatorNode<T extends ListOperatorNode.ListElement> implements
 	// filter conditions
 	private final Predicate<T> filterChain;
 
-	// sort conditions
+	// sort conditions, null if no comparator was configured
 	private final Comparator<T> comparatorChain;
 
 	// limit value
@@ -55,6 +73,8 @@ public class ListOperatorNode<T extends ListOperatorNode.ListElement> implements
 	// Generic concrete class, JSON deserialization usage
 	private final Class<T> type;
 
+	private final ObjectReader elementReader;
+
 	private ListOperatorNode(String inputTextKey, String outputTextKey, Predicate<T> filterChain,
 			Comparator<T> comparatorChain, Long limitNumber, Class<T> type) {
 		this.inputTextKey = inputTextKey;
@@ -63,27 +83,23 @@ public class ListOperatorNode<T extends ListOperatorNode.ListElement> implements
 		this.comparatorChain = comparatorChain;
 		this.limitNumber = limitNumber;
 		this.type = type;
+		this.elementReader = OBJECT_MAPPER.readerFor(type);
 	}
 
 	@Override
 	public Map<String, Object> apply(OverAllState t) throws Exception {
-		ObjectMapper objectMapper = new ObjectMapper();
 		try {
 			// Here we specify that the object obtained by inputTextKey is a JSON string
-			// conforming to Array[String], Array[Int], or Array[FileElement].
-			String inputJsonString = (String) t.value(inputTextKey).orElse(null);
-			if (inputJsonString == null) {
+			// conforming to Array[String], Array[Int], or Array[FileElement], or a
+			// collection of such elements.
+			Object input = t.value(inputTextKey).orElse(null);
+			if (input == null) {
 				throw new RuntimeException("inputJsonString is null");
 			}
-			JavaType javaType = objectMapper.getTypeFactory().constructParametricType(List.class, type);
-			List<T> inputList = objectMapper.readValue(inputJsonString, javaType);
-			List<T> listElements = inputList.stream()
-				.filter(filterChain)
-				.sorted(comparatorChain)
-				.limit(limitNumber != null && limitNumber > 0 ? limitNumber : Long.MAX_VALUE)
-				.toList();
+			List<T> listElements = input instanceof Collection<?> collection ? evaluate(collection)
+					: evaluate((String) input);
 			// We will convert the processed result back into a JSON string.
-			return Map.of(outputTextKey, objectMapper.writeValueAsString(listElements));
+			return Map.of(outputTextKey, OBJECT_MAPPER.writeValueAsString(listElements));
 		}
 		catch (Exception e) {
 			log.error("ListOperatorNode apply failed, message: {}", e.getMessage());
@@ -91,6 +107,121 @@ public class ListOperatorNode<T extends ListOperatorNode.ListElement> implements
 		}
 	}
 
+	/**
+	 * Evaluates a JSON array string, reading elements incrementally.
+	 */
+	List<T> evaluate(String inputJsonString) throws IOException {
+		TopKCollector<T> collector = newCollector();
+		try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(inputJsonString)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new IllegalArgumentException("input is not a JSON array");
+			}
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				if (!collector.accept(elementReader.readValue(parser))) {
+					break;
+				}
+			}
+		}
+		return collector.result();
+	}
+
+	/**
+	 * Evaluates a collection, converting only elements that are not already of the
+	 * element type.
+	 */
+	List<T> evaluate(Collection<?> input) {
+		TopKCollector<T> collector = newCollector();
+		for (Object element : input) {
+			T typed = type.isInstance(element) ? type.cast(element) : OBJECT_MAPPER.convertValue(element, type);
+			if (!collector.accept(typed)) {
+				break;
+			}
+		}
+		return collector.result();
+	}
+
+	private TopKCollector<T> newCollector() {
+		int limit = limitNumber != null && limitNumber > 0 ? (int) Math.min(limitNumber, Integer.MAX_VALUE)
+				: Integer.MAX_VALUE;
+		return new TopKCollector<>(filterChain, comparatorChain, limit);
+	}
+
+	/**
+	 * Keeps the first {@code limit} elements in comparator order, breaking ties by
+	 * arrival order.
+	 */
+	private static final class TopKCollector<T> {
+
+		private final Predicate<T> filter;
+
+		private final Comparator<T> comparator;
+
+		private final int limit;
+
+		private final Comparator<Ranked<T>> rankOrder;
+
+		// worst ranked element on top when bounded, plain arrival order otherwise
+		private final PriorityQueue<Ranked<T>> heap;
+
+		private final List<T> unbounded;
+
+		private long sequence;
+
+		private TopKCollector(Predicate<T> filter, Comparator<T> comparator, int limit) {
+			this.filter = filter;
+			this.comparator = comparator;
+			this.limit = limit;
+			Comparator<Ranked<T>> byElement = comparator != null ? (a, b) -> comparator.compare(a.element, b.element)
+					: (a, b) -> 0;
+			this.rankOrder = byElement.thenComparingLong(Ranked::sequence);
+			boolean bounded = comparator != null && limit != Integer.MAX_VALUE;
+			this.heap = bounded ? new PriorityQueue<>(Math.min(limit, 1024) + 1, rankOrder.reversed()) : null;
+			this.unbounded = bounded ? null : new ArrayList<>();
+		}
+
+		/**
+		 * @return false once further elements can no longer change the result
+		 */
+		boolean accept(T element) {
+			if (!filter.test(element)) {
+				return true;
+			}
+			if (heap == null) {
+				unbounded.add(element);
+				// without a comparator the first elements win
+				return comparator != null || unbounded.size() < limit;
+			}
+			Ranked<T> ranked = new Ranked<>(element, sequence++);
+			if (heap.size() < limit) {
+				heap.offer(ranked);
+			}
+			else if (rankOrder.compare(ranked, heap.peek()) < 0) {
+				heap.poll();
+				heap.offer(ranked);
+			}
+			return true;
+		}
+
+		List<T> result() {
+			if (heap == null) {
+				if (comparator != null) {
+					// List.sort is stable, so ties keep their input order
+					unbounded.sort(comparator);
+				}
+				return unbounded;
+			}
+			List<Ranked<T>> ranked = new ArrayList<>(heap);
+			ranked.sort(rankOrder);
+			List<T> result = new ArrayList<>(ranked.size());
+			ranked.forEach(r -> result.add(r.element));
+			return result;
+		}
+
+		private record Ranked<T>(T element, long sequence) {
+		}
+
+	}
+
 	// We specify that the elements of the list object operated on by ListOperatorNode
 	// must be subclasses of ListElement.
 	public interface ListElement {
@@ -457,7 +588,7 @@ public class ListOperatorNode<T extends ListOperatorNode.ListElement> implements
 			// single Comparator, respectively.
 			return new ListOperatorNode<T>(inputTextKey, outputTextKey,
 					filters.stream().reduce(Predicate::and).orElse(t -> true),
-					comparators.stream().reduce(Comparator::thenComparing).orElse((a, b) -> 0), limitNumber, type);
+					comparators.stream().reduce(Comparator::thenComparing).orElse(null), limitNumber, type);
 		}
 
 	}
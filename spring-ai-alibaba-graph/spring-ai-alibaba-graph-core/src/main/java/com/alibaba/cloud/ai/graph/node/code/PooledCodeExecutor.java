@@ -0,0 +1,247 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeBlock;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionResult;
+import com.alibaba.cloud.ai.graph.node.code.sandbox.CodeSandbox;
+import com.alibaba.cloud.ai.graph.node.code.sandbox.CodeSandboxFactory;
+import com.alibaba.cloud.ai.graph.node.code.sandbox.LocalProcessSandboxFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link CodeExecutor} that keeps warm sandboxes per language instead of starting an
+ * interpreter or container for every code block.
+ * <p>
+ * Sandboxes are pooled per language and per the configuration they were started with
+ * (work directory, memory limit, class path, Docker image and container name), so a
+ * request never runs in a sandbox created for different limits. At most
+ * {@code maxSandboxesPerLanguage} sandboxes exist per pool; callers wait up to
+ * {@code acquireTimeout} for one to become free. A sandbox is reset after each use and
+ * discarded if the reset fails or a limit breach killed it, and a replacement is started
+ * on demand. {@link #warmUp(String, int, CodeExecutionConfig)} starts sandboxes ahead of
+ * the first request.
+ */
+public class PooledCodeExecutor implements CodeExecutor, AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(PooledCodeExecutor.class);
+
+	private final CodeSandboxFactory sandboxFactory;
+
+	private final int maxSandboxesPerLanguage;
+
+	private final Duration acquireTimeout;
+
+	private final Map<PoolKey, LanguagePool> pools = new ConcurrentHashMap<>();
+
+	private volatile boolean closed;
+
+	public PooledCodeExecutor() {
+		this(new LocalProcessSandboxFactory(), Runtime.getRuntime().availableProcessors(), Duration.ofSeconds(60));
+	}
+
+	public PooledCodeExecutor(CodeSandboxFactory sandboxFactory, int maxSandboxesPerLanguage, Duration acquireTimeout) {
+		if (maxSandboxesPerLanguage <= 0) {
+			throw new IllegalArgumentException("maxSandboxesPerLanguage must be positive");
+		}
+		this.sandboxFactory = Objects.requireNonNull(sandboxFactory, "sandboxFactory must not be null");
+		this.maxSandboxesPerLanguage = maxSandboxesPerLanguage;
+		this.acquireTimeout = Objects.requireNonNull(acquireTimeout, "acquireTimeout must not be null");
+	}
+
+	@Override
+	public CodeExecutionResult executeCodeBlocks(List<CodeBlock> codeBlockList, CodeExecutionConfig codeExecutionConfig)
+			throws Exception {
+		StringBuilder allLogs = new StringBuilder();
+		for (int i = 0; i < codeBlockList.size(); i++) {
+			CodeBlock codeBlock = codeBlockList.get(i);
+			if (Objects.isNull(codeBlock.language()) || Objects.isNull(codeBlock.code())) {
+				throw new Exception("Either language or code must be provided.");
+			}
+			logger.debug("Executing code block {} (language is {}) in a pooled sandbox", i + 1, codeBlock.language());
+			CodeExecutionResult result = execute(codeBlock, codeExecutionConfig);
+			allLogs.append("\n").append(result.logs());
+			if (result.exitCode() != 0) {
+				return new CodeExecutionResult(result.exitCode(), allLogs.toString());
+			}
+		}
+		return new CodeExecutionResult(0, allLogs.toString());
+	}
+
+	private CodeExecutionResult execute(CodeBlock codeBlock, CodeExecutionConfig config) throws Exception {
+		LanguagePool pool = pool(codeBlock.language(), config);
+		CodeSandbox sandbox = pool.acquire(config);
+		boolean reusable = false;
+		try {
+			CodeExecutionResult result = sandbox.execute(codeBlock.code(), config);
+			reusable = sandbox.reset();
+			return result;
+		}
+		finally {
+			pool.release(sandbox, reusable);
+		}
+	}
+
+	/**
+	 * Starts sandboxes for a language and configuration until {@code count} are idle,
+	 * bounded by the pool size.
+	 */
+	public void warmUp(String language, int count, CodeExecutionConfig config) throws Exception {
+		LanguagePool pool = pool(language, config);
+		int target = Math.min(count, maxSandboxesPerLanguage);
+		while (pool.idleCount() < target && pool.startIdle(config)) {
+			logger.debug("Started a warm {} sandbox", language);
+		}
+	}
+
+	/**
+	 * Stops all idle sandboxes; sandboxes in use are stopped when they are returned.
+	 */
+	@Override
+	public void restart() {
+		pools.values().forEach(LanguagePool::drain);
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		pools.values().forEach(LanguagePool::drain);
+		sandboxFactory.close();
+	}
+
+	private LanguagePool pool(String language, CodeExecutionConfig config) {
+		if (closed) {
+			throw new IllegalStateException("PooledCodeExecutor is closed");
+		}
+		return pools.computeIfAbsent(PoolKey.of(language, config), LanguagePool::new);
+	}
+
+	/**
+	 * The language and the configuration a sandbox is started with; settings read per
+	 * execution, such as the timeouts, are not part of the key.
+	 */
+	private record PoolKey(String language, String workDir, int memoryLimit, String classPath, String docker,
+			String containerName) {
+
+		static PoolKey of(String language, CodeExecutionConfig config) {
+			return new PoolKey(language, config.getWorkDir(), config.getMemoryLimit(), config.getClassPath(),
+					config.getDocker(), config.getContainerName());
+		}
+
+	}
+
+	private final class LanguagePool {
+
+		private final String language;
+
+		private final LinkedBlockingDeque<CodeSandbox> idle = new LinkedBlockingDeque<>();
+
+		private final Semaphore permits = new Semaphore(maxSandboxesPerLanguage, true);
+
+		private final AtomicInteger size = new AtomicInteger();
+
+		private LanguagePool(PoolKey key) {
+			this.language = key.language();
+		}
+
+		CodeSandbox acquire(CodeExecutionConfig config) throws Exception {
+			if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+				throw new Exception("No " + language + " sandbox became available within " + acquireTimeout);
+			}
+			CodeSandbox sandbox = idle.pollFirst();
+			if (sandbox != null) {
+				return sandbox;
+			}
+			try {
+				size.incrementAndGet();
+				return sandboxFactory.create(language, config);
+			}
+			catch (Exception e) {
+				size.decrementAndGet();
+				permits.release();
+				throw e;
+			}
+		}
+
+		/**
+		 * Starts one more idle sandbox unless the pool is full.
+		 * @return false if the pool already holds its maximum number of sandboxes
+		 */
+		boolean startIdle(CodeExecutionConfig config) throws Exception {
+			int current;
+			do {
+				current = size.get();
+				if (current >= maxSandboxesPerLanguage) {
+					return false;
+				}
+			}
+			while (!size.compareAndSet(current, current + 1));
+			try {
+				idle.offerLast(sandboxFactory.create(language, config));
+				return true;
+			}
+			catch (Exception e) {
+				size.decrementAndGet();
+				throw e;
+			}
+		}
+
+		void release(CodeSandbox sandbox, boolean reusable) {
+			try {
+				if (reusable && !closed) {
+					// most recently used first keeps the warmest sandboxes busy
+					idle.offerFirst(sandbox);
+				}
+				else {
+					discard(sandbox);
+				}
+			}
+			finally {
+				permits.release();
+			}
+		}
+
+		int idleCount() {
+			return idle.size();
+		}
+
+		void drain() {
+			CodeSandbox sandbox;
+			while ((sandbox = idle.pollFirst()) != null) {
+				discard(sandbox);
+			}
+		}
+
+		private void discard(CodeSandbox sandbox) {
+			size.decrementAndGet();
+			sandbox.close();
+		}
+
+	}
+
+}
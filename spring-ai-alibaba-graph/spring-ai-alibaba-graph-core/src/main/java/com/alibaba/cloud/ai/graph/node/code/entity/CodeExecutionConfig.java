@@ -44,6 +44,17 @@ public class CodeExecutionConfig {
 
 	private int responseTimeout = 50;
 
+	/**
+	 * CPU time in seconds a single execution may consume, 0 for no limit.
+	 */
+	private int cpuTimeLimit;
+
+	/**
+	 * Memory in megabytes available to a sandboxed interpreter or container, 0 for no
+	 * limit.
+	 */
+	private int memoryLimit;
+
 	public String getWorkDir() {
 		return workDir;
 	}
@@ -132,4 +143,22 @@ public class CodeExecutionConfig {
 		this.responseTimeout = responseTimeout;
 	}
 
+	public int getCpuTimeLimit() {
+		return cpuTimeLimit;
+	}
+
+	public CodeExecutionConfig setCpuTimeLimit(int cpuTimeLimit) {
+		this.cpuTimeLimit = cpuTimeLimit;
+		return this;
+	}
+
+	public int getMemoryLimit() {
+		return memoryLimit;
+	}
+
+	public CodeExecutionConfig setMemoryLimit(int memoryLimit) {
+		this.memoryLimit = memoryLimit;
+		return this;
+	}
+
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code.sandbox;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Base class of sandboxes running on the local machine, each owning a private workspace
+ * directory that is cleared between executions. Files listed as preserved, such as cached
+ * class path entries, survive a reset.
+ */
+abstract class AbstractLocalSandbox implements CodeSandbox {
+
+	private static final Logger logger = LoggerFactory.getLogger(AbstractLocalSandbox.class);
+
+	protected final Path workspace;
+
+	private final Set<String> preservedFiles;
+
+	protected AbstractLocalSandbox(Path workspace, Set<String> preservedFiles) {
+		this.workspace = workspace;
+		this.preservedFiles = preservedFiles;
+	}
+
+	static Path createWorkspace(CodeExecutionConfig config, String language) throws IOException {
+		Path baseDir = Path.of(config.getWorkDir()).toAbsolutePath();
+		Files.createDirectories(baseDir);
+		return Files.createTempDirectory(baseDir, "sandbox-" + language + "-");
+	}
+
+	/**
+	 * Removes the absolute workspace path from interpreter output, as the executors do.
+	 */
+	protected String stripWorkspace(String output) {
+		return output.replace(workspace + File.separator, "").trim();
+	}
+
+	protected boolean resetWorkspace() {
+		try (Stream<Path> children = Files.list(workspace)) {
+			for (Path child : children.toList()) {
+				if (!preservedFiles.contains(child.getFileName().toString())) {
+					deleteRecursively(child);
+				}
+			}
+			return true;
+		}
+		catch (IOException e) {
+			logger.warn("Failed to reset sandbox workspace {}", workspace, e);
+			return false;
+		}
+	}
+
+	protected void deleteWorkspace() {
+		try {
+			deleteRecursively(workspace);
+		}
+		catch (IOException e) {
+			logger.warn("Failed to delete sandbox workspace {}", workspace, e);
+		}
+	}
+
+	static void deleteRecursively(Path path) throws IOException {
+		if (!Files.exists(path)) {
+			return;
+		}
+		try (Stream<Path> paths = Files.walk(path)) {
+			for (Path file : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+}
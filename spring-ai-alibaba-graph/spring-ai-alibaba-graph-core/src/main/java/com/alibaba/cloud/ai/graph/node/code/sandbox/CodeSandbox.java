@@ -0,0 +1,49 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code.sandbox;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionResult;
+
+/**
+ * A pre-started execution environment for one language, such as a warm interpreter
+ * process or a running container, that can run many code blocks one after another.
+ */
+public interface CodeSandbox extends AutoCloseable {
+
+	/**
+	 * Runs a code block in this sandbox, enforcing the time, CPU and memory limits of the
+	 * config. A limit breach is reported as a non-zero exit code.
+	 * @param code the code to run
+	 * @param config the execution config of this run
+	 * @return the stdout on success, the error output otherwise
+	 * @throws Exception if the sandbox could not run the code at all
+	 */
+	CodeExecutionResult execute(String code, CodeExecutionConfig config) throws Exception;
+
+	/**
+	 * Clears the workspace and interpreter state left by the last execution.
+	 * @return false if the sandbox can no longer be used and has to be discarded
+	 */
+	boolean reset();
+
+	/**
+	 * Stops the interpreter or container and removes the workspace.
+	 */
+	@Override
+	void close();
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code.sandbox;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+
+/**
+ * Creates {@link CodeSandbox} instances for
+ * {@link com.alibaba.cloud.ai.graph.node.code.PooledCodeExecutor}.
+ */
+public interface CodeSandboxFactory extends AutoCloseable {
+
+	/**
+	 * Starts a sandbox for the given language.
+	 * @param language the running language, e.g. {@code python3}, {@code nodejs} or
+	 * {@code java}
+	 * @param config config of the execution that requested the sandbox; its work dir and
+	 * memory limit apply for the whole life of the sandbox
+	 * @return a started sandbox
+	 * @throws Exception if the language is not supported or the sandbox fails to start
+	 */
+	CodeSandbox create(String language, CodeExecutionConfig config) throws Exception;
+
+	@Override
+	default void close() {
+	}
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code.sandbox;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionResult;
+import com.alibaba.cloud.ai.graph.utils.CodeUtils;
+import com.alibaba.cloud.ai.graph.utils.FileUtils;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A running container that executes code blocks with {@code docker exec}. The CPU time
+ * limit is applied per execution with {@code ulimit -t}; an execution that times out
+ * leaves the sandbox unusable, so the pool replaces the container.
+ */
+final class DockerSandbox extends AbstractLocalSandbox {
+
+	private static final Logger logger = LoggerFactory.getLogger(DockerSandbox.class);
+
+	static final String LIB_DIR = "lib";
+
+	private final DockerClient dockerClient;
+
+	private final String containerId;
+
+	private final String language;
+
+	private final String executable;
+
+	private final String classPath;
+
+	private volatile boolean broken;
+
+	DockerSandbox(DockerClient dockerClient, String containerId, String language, String executable, String classPath,
+			Path workspace) {
+		super(workspace, Set.of(LIB_DIR));
+		this.dockerClient = dockerClient;
+		this.containerId = containerId;
+		this.language = language;
+		this.executable = executable;
+		this.classPath = classPath;
+	}
+
+	@Override
+	public CodeExecutionResult execute(String code, CodeExecutionConfig config) throws Exception {
+		String filename = String.format("tmp_code_%s.%s", DigestUtils.md5Hex(code),
+				CodeUtils.getFileExtForLanguage(language));
+		FileUtils.writeCodeToFile(workspace.toString(), filename, code);
+
+		String execId = dockerClient.execCreateCmd(containerId)
+			.withCmd(command(filename, config).toArray(String[]::new))
+			.withWorkingDir(DockerSandboxFactory.CONTAINER_WORKSPACE)
+			.withAttachStdout(true)
+			.withAttachStderr(true)
+			.exec()
+			.getId();
+		OutputCallback callback = dockerClient.execStartCmd(execId).exec(new OutputCallback());
+		if (!callback.awaitCompletion(config.getTimeout(), TimeUnit.SECONDS)) {
+			broken = true;
+			callback.close();
+			return new CodeExecutionResult(ExecutionWatchdog.TIMEOUT_EXIT_CODE,
+					"Execution timed out after " + config.getTimeout() + " seconds");
+		}
+		int exitCode = Objects.requireNonNull(dockerClient.inspectExecCmd(execId).exec().getExitCodeLong()).intValue();
+		if (exitCode == ExecutionWatchdog.CPU_TIME_EXIT_CODE && config.getCpuTimeLimit() > 0) {
+			return new CodeExecutionResult(exitCode,
+					"Execution exceeded the CPU time limit of " + config.getCpuTimeLimit() + " seconds");
+		}
+		return exitCode == 0 ? new CodeExecutionResult(0, callback.stdout().trim())
+				: new CodeExecutionResult(exitCode, callback.stderr().trim());
+	}
+
+	private List<String> command(String filename, CodeExecutionConfig config) {
+		List<String> command = new ArrayList<>();
+		if (config.getCpuTimeLimit() > 0) {
+			command.add("sh");
+			command.add("-c");
+			command.add("ulimit -t " + config.getCpuTimeLimit() + "; exec \"$0\" \"$@\"");
+		}
+		command.add(executable);
+		if ("java".equals(language)) {
+			command.add("-cp");
+			command.add(classPath);
+		}
+		command.add(filename);
+		return command;
+	}
+
+	@Override
+	public boolean reset() {
+		return !broken && resetWorkspace();
+	}
+
+	@Override
+	public void close() {
+		try {
+			dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+		}
+		catch (Exception e) {
+			logger.warn("Failed to remove sandbox container {}", containerId, e);
+		}
+		deleteWorkspace();
+	}
+
+	private static class OutputCallback extends ResultCallback.Adapter<Frame> {
+
+		private final StreamDecoder stdout = new StreamDecoder();
+
+		private final StreamDecoder stderr = new StreamDecoder();
+
+		@Override
+		public void onNext(Frame frame) {
+			synchronized (this) {
+				(frame.getStreamType() == StreamType.STDERR ? stderr : stdout).decode(frame.getPayload());
+			}
+		}
+
+		synchronized String stdout() {
+			return stdout.text();
+		}
+
+		synchronized String stderr() {
+			return stderr.text();
+		}
+
+	}
+
+	/**
+	 * Decodes one output stream as UTF-8 across frames. A multibyte character split
+	 * between two frames is kept as pending bytes until the rest arrives.
+	 */
+	private static final class StreamDecoder {
+
+		private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		private final StringBuilder text = new StringBuilder();
+
+		private ByteBuffer pending = ByteBuffer.allocate(0);
+
+		void decode(byte[] payload) {
+			ByteBuffer in = ByteBuffer.allocate(pending.remaining() + payload.length);
+			in.put(pending).put(payload).flip();
+			CharBuffer out = CharBuffer.allocate(in.remaining());
+			decoder.decode(in, out, false);
+			text.append(out.flip());
+			pending = in;
+		}
+
+		String text() {
+			// bytes still pending when the stream ends are an incomplete character
+			return pending.hasRemaining() ? text + "\uFFFD" : text.toString();
+		}
+
+	}
+
+}
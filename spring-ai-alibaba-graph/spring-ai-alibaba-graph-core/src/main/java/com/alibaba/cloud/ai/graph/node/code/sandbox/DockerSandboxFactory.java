@@ -0,0 +1,129 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code.sandbox;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.utils.CodeUtils;
+import com.alibaba.cloud.ai.graph.utils.FileUtils;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Volume;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.zerodep.ZerodepDockerHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static com.github.dockerjava.api.model.HostConfig.newHostConfig;
+
+/**
+ * Creates sandboxes backed by long-running Docker containers. Each container mounts its
+ * own workspace at {@code /workspace}, idles until code is executed in it with
+ * {@code docker exec}, and is limited to the configured memory. One Docker client is
+ * shared by all sandboxes of the factory.
+ */
+public class DockerSandboxFactory implements CodeSandboxFactory {
+
+	private static final Logger logger = LoggerFactory.getLogger(DockerSandboxFactory.class);
+
+	static final String CONTAINER_WORKSPACE = "/workspace";
+
+	private final DockerClient dockerClient;
+
+	public DockerSandboxFactory(CodeExecutionConfig config) {
+		DockerHttpClient httpClient = new ZerodepDockerHttpClient.Builder()
+			.dockerHost(URI.create(config.getDockerHost()))
+			.maxConnections(config.getMaxConnections())
+			.connectionTimeout(Duration.ofSeconds(config.getConnectionTimeout()))
+			.responseTimeout(Duration.ofSeconds(config.getResponseTimeout()))
+			.build();
+		this.dockerClient = DockerClientBuilder.getInstance().withDockerHttpClient(httpClient).build();
+	}
+
+	@Override
+	public CodeSandbox create(String language, CodeExecutionConfig config) throws Exception {
+		String executable = CodeUtils.getExecutableForLanguage(language);
+		Path workspace = AbstractLocalSandbox.createWorkspace(config, language);
+		String containerId = null;
+		try {
+			String classPath = "java".equals(language) ? resolveClassPath(workspace, config) : null;
+
+			HostConfig hostConfig = newHostConfig()
+				.withBinds(new Bind(workspace.toString(), new Volume(CONTAINER_WORKSPACE)));
+			if (config.getMemoryLimit() > 0) {
+				long memoryBytes = config.getMemoryLimit() * 1024L * 1024L;
+				hostConfig.withMemory(memoryBytes).withMemorySwap(memoryBytes);
+			}
+			CreateContainerResponse container = dockerClient.createContainerCmd(config.getDocker())
+				.withName(config.getContainerName() + "_" + workspace.getFileName())
+				.withWorkingDir(CONTAINER_WORKSPACE)
+				.withHostConfig(hostConfig)
+				.withCmd("sleep", "infinity")
+				.exec();
+			containerId = container.getId();
+			dockerClient.startContainerCmd(containerId).exec();
+			return new DockerSandbox(dockerClient, containerId, language, executable, classPath, workspace);
+		}
+		catch (Exception e) {
+			if (containerId != null) {
+				dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+			}
+			AbstractLocalSandbox.deleteRecursively(workspace);
+			throw e;
+		}
+	}
+
+	private static String resolveClassPath(Path workspace, CodeExecutionConfig config) throws IOException {
+		Path libDir = workspace.resolve(DockerSandbox.LIB_DIR);
+		FileUtils.copyResourceJarToWorkDir(libDir.toString());
+		// the container is a Linux environment, so the separator is always ':'
+		StringBuilder classPathBuilder = new StringBuilder(CONTAINER_WORKSPACE);
+		try (Stream<Path> jars = Files.list(libDir)) {
+			jars.filter(path -> path.toString().endsWith(".jar"))
+				.sorted()
+				.forEach(jar -> classPathBuilder.append(':')
+					.append(CONTAINER_WORKSPACE)
+					.append('/')
+					.append(DockerSandbox.LIB_DIR)
+					.append('/')
+					.append(jar.getFileName()));
+		}
+		if (config.getClassPath() != null && !config.getClassPath().isEmpty()) {
+			classPathBuilder.append(':').append(config.getClassPath());
+		}
+		return classPathBuilder.toString();
+	}
+
+	@Override
+	public void close() {
+		try {
+			dockerClient.close();
+		}
+		catch (IOException e) {
+			logger.warn("Failed to close Docker client", e);
+		}
+	}
+
+}
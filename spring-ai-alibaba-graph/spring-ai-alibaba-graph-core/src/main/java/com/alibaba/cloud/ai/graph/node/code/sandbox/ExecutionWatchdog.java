@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code.sandbox;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionResult;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kills a local process tree once an execution exceeds its wall clock timeout or its CPU
+ * time limit. CPU time is measured as a delta, so a long-lived interpreter is only
+ * charged for the current execution.
+ */
+final class ExecutionWatchdog implements AutoCloseable {
+
+	enum Breach {
+
+		NONE, TIMEOUT, CPU_TIME
+
+	}
+
+	static final int TIMEOUT_EXIT_CODE = 124;
+
+	static final int CPU_TIME_EXIT_CODE = 152;
+
+	private static final long CHECK_INTERVAL_MILLIS = 50;
+
+	private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "code-sandbox-watchdog");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ProcessHandle process;
+
+	private final long deadlineNanos;
+
+	private final long cpuLimitNanos;
+
+	private final long cpuBaselineNanos;
+
+	private final int timeoutSeconds;
+
+	private final ScheduledFuture<?> task;
+
+	private volatile Breach breach = Breach.NONE;
+
+	private ExecutionWatchdog(ProcessHandle process, CodeExecutionConfig config) {
+		this.process = process;
+		this.timeoutSeconds = config.getTimeout();
+		this.deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getTimeout());
+		this.cpuLimitNanos = TimeUnit.SECONDS.toNanos(config.getCpuTimeLimit());
+		this.cpuBaselineNanos = this.cpuLimitNanos > 0 ? cpuTimeNanos() : 0;
+		this.task = SCHEDULER.scheduleWithFixedDelay(this::check, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS,
+				TimeUnit.MILLISECONDS);
+	}
+
+	static ExecutionWatchdog watch(ProcessHandle process, CodeExecutionConfig config) {
+		return new ExecutionWatchdog(process, config);
+	}
+
+	Breach breach() {
+		return breach;
+	}
+
+	/**
+	 * Describes the breach as an execution result, or returns null if no limit was hit.
+	 */
+	CodeExecutionResult breachResult(CodeExecutionConfig config) {
+		return switch (breach) {
+			case TIMEOUT ->
+				new CodeExecutionResult(TIMEOUT_EXIT_CODE, "Execution timed out after " + timeoutSeconds + " seconds");
+			case CPU_TIME -> new CodeExecutionResult(CPU_TIME_EXIT_CODE,
+					"Execution exceeded the CPU time limit of " + config.getCpuTimeLimit() + " seconds");
+			case NONE -> null;
+		};
+	}
+
+	private void check() {
+		if (!process.isAlive()) {
+			task.cancel(false);
+			return;
+		}
+		if (System.nanoTime() - deadlineNanos > 0) {
+			kill(Breach.TIMEOUT);
+		}
+		else if (cpuLimitNanos > 0 && cpuTimeNanos() - cpuBaselineNanos > cpuLimitNanos) {
+			kill(Breach.CPU_TIME);
+		}
+	}
+
+	private long cpuTimeNanos() {
+		long total = cpuTimeNanos(process);
+		try (var descendants = process.descendants()) {
+			total += descendants.mapToLong(ExecutionWatchdog::cpuTimeNanos).sum();
+		}
+		return total;
+	}
+
+	private static long cpuTimeNanos(ProcessHandle handle) {
+		return handle.info().totalCpuDuration().map(Duration::toNanos).orElse(0L);
+	}
+
+	private void kill(Breach reason) {
+		breach = reason;
+		task.cancel(false);
+		try (var descendants = process.descendants()) {
+			descendants.forEach(ProcessHandle::destroyForcibly);
+		}
+		process.destroyForcibly();
+	}
+
+	@Override
+	public void close() {
+		task.cancel(false);
+	}
+
+}
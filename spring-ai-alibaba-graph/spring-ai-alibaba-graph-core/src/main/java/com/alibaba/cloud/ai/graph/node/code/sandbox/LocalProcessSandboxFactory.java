@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code.sandbox;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.utils.CodeUtils;
+
+import java.nio.file.Path;
+
+/**
+ * Creates sandboxes backed by local processes: a warm interpreter for Python and a
+ * prepared per-run workspace for the other languages. Needs no Docker daemon.
+ */
+public class LocalProcessSandboxFactory implements CodeSandboxFactory {
+
+	@Override
+	public CodeSandbox create(String language, CodeExecutionConfig config) throws Exception {
+		String executable = CodeUtils.getExecutableForLanguage(language);
+		Path workspace = AbstractLocalSandbox.createWorkspace(config, language);
+		try {
+			return switch (language) {
+				case "python3", "python" -> new PythonWorkerSandbox(executable, workspace, config);
+				default -> new ProcessPerRunSandbox(language, executable, workspace, config);
+			};
+		}
+		catch (Exception e) {
+			AbstractLocalSandbox.deleteRecursively(workspace);
+			throw e;
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code.sandbox;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionResult;
+import com.alibaba.cloud.ai.graph.utils.CodeUtils;
+import com.alibaba.cloud.ai.graph.utils.FileUtils;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Runs every code block in a new interpreter process inside a prepared workspace. Used
+ * for languages without a warm worker; the workspace and, for Java, the copied library
+ * jars and the resolved class path are set up once and reused by every execution.
+ */
+final class ProcessPerRunSandbox extends AbstractLocalSandbox {
+
+	private static final String LIB_DIR = "lib";
+
+	private static final String STDOUT_FILE = ".stdout";
+
+	private static final String STDERR_FILE = ".stderr";
+
+	private final String language;
+
+	private final String executable;
+
+	private final String classPath;
+
+	private final int memoryLimit;
+
+	ProcessPerRunSandbox(String language, String executable, Path workspace, CodeExecutionConfig config)
+			throws IOException {
+		super(workspace, Set.of(LIB_DIR));
+		this.language = language;
+		this.executable = executable;
+		this.memoryLimit = config.getMemoryLimit();
+		this.classPath = "java".equals(language) ? resolveClassPath(workspace, config) : null;
+	}
+
+	private static String resolveClassPath(Path workspace, CodeExecutionConfig config) throws IOException {
+		Path libDir = workspace.resolve(LIB_DIR);
+		FileUtils.copyResourceJarToWorkDir(libDir.toString());
+		StringBuilder classPathBuilder = new StringBuilder(".");
+		try (Stream<Path> jars = Files.list(libDir)) {
+			jars.filter(path -> path.toString().endsWith(".jar"))
+				.sorted()
+				.forEach(jar -> classPathBuilder.append(File.pathSeparator).append(jar));
+		}
+		if (config.getClassPath() != null && !config.getClassPath().isEmpty()) {
+			classPathBuilder.append(File.pathSeparator).append(config.getClassPath());
+		}
+		return classPathBuilder.toString();
+	}
+
+	@Override
+	public CodeExecutionResult execute(String code, CodeExecutionConfig config) throws Exception {
+		String filename = String.format("tmp_code_%s.%s", DigestUtils.md5Hex(code),
+				CodeUtils.getFileExtForLanguage(language));
+		FileUtils.writeCodeToFile(workspace.toString(), filename, code);
+
+		Path stdout = workspace.resolve(STDOUT_FILE);
+		Path stderr = workspace.resolve(STDERR_FILE);
+		Process process = new ProcessBuilder(command(filename)).directory(workspace.toFile())
+			.redirectOutput(stdout.toFile())
+			.redirectError(stderr.toFile())
+			.start();
+		try (ExecutionWatchdog watchdog = ExecutionWatchdog.watch(process.toHandle(), config)) {
+			int exitCode = process.waitFor();
+			CodeExecutionResult breachResult = watchdog.breachResult(config);
+			if (breachResult != null) {
+				return breachResult;
+			}
+			return exitCode == 0 ? new CodeExecutionResult(0, Files.readString(stdout).trim())
+					: new CodeExecutionResult(exitCode, stripWorkspace(Files.readString(stderr)));
+		}
+		catch (InterruptedException e) {
+			process.destroyForcibly();
+			Thread.currentThread().interrupt();
+			throw e;
+		}
+	}
+
+	private List<String> command(String filename) {
+		List<String> command = new ArrayList<>();
+		command.add(executable);
+		if ("java".equals(language)) {
+			if (memoryLimit > 0) {
+				command.add("-Xmx" + memoryLimit + "m");
+			}
+			// short-lived programs start faster without the optimizing compiler
+			command.add("-XX:TieredStopAtLevel=1");
+			command.add("-XX:+UseSerialGC");
+			command.add("-cp");
+			command.add(classPath);
+		}
+		else if ("nodejs".equals(language) && memoryLimit > 0) {
+			command.add("--max-old-space-size=" + memoryLimit);
+		}
+		command.add(filename);
+		return command;
+	}
+
+	@Override
+	public boolean reset() {
+		return resetWorkspace();
+	}
+
+	@Override
+	public void close() {
+		deleteWorkspace();
+	}
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code.sandbox;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionResult;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Keeps one Python interpreter running and executes each code block in a fresh module
+ * namespace, which avoids paying interpreter start-up for every execution.
+ * <p>
+ * The worker reads length-prefixed code from stdin and answers with the exit code and the
+ * captured stdout and stderr on a duplicate of the original stdout. File descriptors 1
+ * and 2 are pointed at capture files during each execution, so output written by
+ * subprocesses or native code is captured as well. After each execution it drops newly
+ * imported modules and restores the working directory, {@code sys.path} and the
+ * environment. The memory limit is applied once with {@code RLIMIT_AS} when the worker
+ * starts.
+ * <p>
+ * State that cannot be restored in place makes the worker report itself as dirty: an
+ * attribute of a module loaded before the first execution (including builtins) that was
+ * rebound, or a thread that is still running. A child process left behind is detected on
+ * the Java side. A dirty worker fails {@link #reset()}, so the pool replaces it before the
+ * next execution.
+ */
+final class PythonWorkerSandbox extends AbstractLocalSandbox {
+
+	private static final String WORKER_SCRIPT = """
+			import builtins, importlib, os, sys, tempfile, threading, traceback
+			protocol_out = os.fdopen(os.dup(1), 'wb')
+			protocol_in = os.fdopen(os.dup(0), 'rb')
+			os.dup2(os.open(os.devnull, os.O_RDONLY), 0)
+			quiet = os.open(os.devnull, os.O_WRONLY)
+			os.dup2(quiet, 1)
+			memory_limit = int(sys.argv[1])
+			if memory_limit > 0:
+			    try:
+			        import resource
+			        resource.setrlimit(resource.RLIMIT_AS, (memory_limit, memory_limit))
+			    except Exception:
+			        pass
+			capture_out = tempfile.TemporaryFile()
+			capture_err = tempfile.TemporaryFile()
+			def module_state():
+			    return {name: dict(vars(module)) for name, module in list(sys.modules.items())
+			            if name != '__main__' and hasattr(module, '__dict__')}
+			def leaked(state):
+			    if threading.active_count() != base_threads:
+			        return True
+			    missing = object()
+			    for name, attrs in state.items():
+			        module = sys.modules.get(name)
+			        if module is None:
+			            return True
+			        current = vars(module)
+			        for key, value in attrs.items():
+			            now = current.get(key, missing)
+			            if now is not value and not (isinstance(value, (str, bytes, int, float)) and now == value):
+			                return True
+			    return False
+			def capture(capture_file):
+			    capture_file.seek(0)
+			    data = capture_file.read()
+			    capture_file.seek(0)
+			    capture_file.truncate()
+			    return data
+			base_modules = set(sys.modules)
+			base_path = list(sys.path)
+			base_env = dict(os.environ)
+			base_threads = threading.active_count()
+			base_state = module_state()
+			workspace = os.getcwd()
+			protocol_out.write(b'READY\\n')
+			protocol_out.flush()
+			while True:
+			    header = protocol_in.readline()
+			    if not header:
+			        break
+			    code = protocol_in.read(int(header)).decode('utf-8')
+			    os.dup2(capture_out.fileno(), 1)
+			    os.dup2(capture_err.fileno(), 2)
+			    out = open(1, 'w', encoding='utf-8', closefd=False)
+			    err = open(2, 'w', encoding='utf-8', closefd=False)
+			    sys.stdout, sys.stderr = out, err
+			    exit_code = 0
+			    try:
+			        exec(compile(code, 'tmp_code.py', 'exec'), {'__name__': '__main__', '__builtins__': builtins})
+			    except SystemExit as e:
+			        if e.code is None or isinstance(e.code, int):
+			            exit_code = e.code or 0
+			        else:
+			            exit_code = 1
+			            print(e.code, file=err)
+			    except BaseException:
+			        exit_code = 1
+			        traceback.print_exc(file=err)
+			    finally:
+			        for stream in (out, err):
+			            try:
+			                stream.close()
+			            except Exception:
+			                pass
+			        sys.stdout, sys.stderr = sys.__stdout__, sys.__stderr__
+			        os.dup2(quiet, 1)
+			        os.dup2(quiet, 2)
+			    for name in set(sys.modules) - base_modules:
+			        del sys.modules[name]
+			    sys.path[:] = base_path
+			    os.environ.clear()
+			    os.environ.update(base_env)
+			    os.chdir(workspace)
+			    try:
+			        dirty = leaked(base_state)
+			    except Exception:
+			        dirty = True
+			    out_bytes = capture(capture_out)
+			    err_bytes = capture(capture_err)
+			    protocol_out.write(('%d %d %d %d\\n' % (exit_code, len(out_bytes), len(err_bytes), dirty)).encode('ascii'))
+			    protocol_out.write(out_bytes)
+			    protocol_out.write(err_bytes)
+			    protocol_out.flush()
+			""";
+
+	private final Process process;
+
+	private final OutputStream requests;
+
+	private final InputStream responses;
+
+	private volatile boolean broken;
+
+	PythonWorkerSandbox(String executable, Path workspace, CodeExecutionConfig config) throws IOException {
+		super(workspace, Set.of());
+		long memoryLimitBytes = config.getMemoryLimit() * 1024L * 1024L;
+		this.process = new ProcessBuilder(executable, "-c", WORKER_SCRIPT, String.valueOf(memoryLimitBytes))
+			.directory(workspace.toFile())
+			.redirectError(ProcessBuilder.Redirect.DISCARD)
+			.start();
+		this.requests = process.getOutputStream();
+		this.responses = new BufferedInputStream(process.getInputStream());
+		String ready = readLine();
+		if (!"READY".equals(ready)) {
+			close();
+			throw new IOException("Python worker failed to start with " + executable);
+		}
+	}
+
+	@Override
+	public CodeExecutionResult execute(String code, CodeExecutionConfig config) throws Exception {
+		byte[] source = code.getBytes(StandardCharsets.UTF_8);
+		try (ExecutionWatchdog watchdog = ExecutionWatchdog.watch(process.toHandle(), config)) {
+			try {
+				requests.write((source.length + "\n").getBytes(StandardCharsets.US_ASCII));
+				requests.write(source);
+				requests.flush();
+				String header = readLine();
+				if (header == null) {
+					throw new EOFException("Python worker closed its output");
+				}
+				String[] parts = header.split(" ");
+				int exitCode = Integer.parseInt(parts[0]);
+				String stdout = readString(Integer.parseInt(parts[1]));
+				String stderr = readString(Integer.parseInt(parts[2]));
+				if (!"0".equals(parts[3]) || hasChildProcesses()) {
+					broken = true;
+				}
+				return exitCode == 0 ? new CodeExecutionResult(0, stdout.trim())
+						: new CodeExecutionResult(exitCode, stripWorkspace(stderr));
+			}
+			catch (IOException e) {
+				broken = true;
+				CodeExecutionResult breachResult = watchdog.breachResult(config);
+				if (breachResult != null) {
+					return breachResult;
+				}
+				throw new Exception("Python worker terminated unexpectedly", e);
+			}
+		}
+	}
+
+	@Override
+	public boolean reset() {
+		return !broken && process.isAlive() && resetWorkspace();
+	}
+
+	@Override
+	public void close() {
+		process.destroyForcibly();
+		deleteWorkspace();
+	}
+
+	private boolean hasChildProcesses() {
+		try (var children = process.children()) {
+			return children.anyMatch(ProcessHandle::isAlive);
+		}
+	}
+
+	private String readLine() throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = responses.read()) != -1 && b != '\n') {
+			line.write(b);
+		}
+		if (b == -1 && line.size() == 0) {
+			return null;
+		}
+		return line.toString(StandardCharsets.US_ASCII);
+	}
+
+	private String readString(int length) throws IOException {
+		byte[] bytes = responses.readNBytes(length);
+		if (bytes.length != length) {
+			throw new EOFException("Python worker output was truncated");
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -17,6 +17,10 @@ package com.alibaba.cloud.ai.graph.utils;
 
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -40,13 +44,21 @@ public class InMemoryFileStorage {
 
 		private final byte[] content;
 
+		private final Path path;
+
 		public FileRecord(String id, String fileKey, String name, String mimetype, long size, byte[] content) {
+			this(id, fileKey, name, mimetype, size, content, null);
+		}
+
+		public FileRecord(String id, String fileKey, String name, String mimetype, long size, byte[] content,
+				Path path) {
 			this.id = id;
 			this.fileKey = fileKey;
 			this.name = name;
 			this.mimetype = mimetype;
 			this.size = size;
 			this.content = content;
+			this.path = path;
 		}
 
 		public String getId() {
@@ -69,10 +81,28 @@ public class InMemoryFileStorage {
 			return size;
 		}
 
+		/**
+		 * Returns the file content, reading it from disk for records backed by a file.
+		 */
 		public byte[] getContent() {
+			if (content == null && path != null) {
+				try {
+					return Files.readAllBytes(path);
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
 			return content;
 		}
 
+		/**
+		 * @return the backing file, or {@code null} when the content is held in memory
+		 */
+		public Path getPath() {
+			return path;
+		}
+
 	}
 
 	public static FileRecord save(byte[] content, String mimetype, String originalFilename) {
@@ -86,16 +116,43 @@ public class InMemoryFileStorage {
 		return record;
 	}
 
+	/**
+	 * Registers a file that stays on disk; its content is only read when requested. The
+	 * file is deleted when the record is removed.
+	 */
+	public static FileRecord save(Path path, String mimetype, String originalFilename) throws IOException {
+		String id = UUID.randomUUID().toString();
+		String extension = Optional.of(org.springframework.http.MediaType.parseMediaType(mimetype).getSubtype())
+			.orElse("bin");
+		String filename = StringUtils.hasText(originalFilename) ? originalFilename : id + "." + extension;
+		String key = String.format("inmem://%s", id);
+		FileRecord record = new FileRecord(id, key, filename, mimetype, Files.size(path), null, path);
+		CACHE.put(id, record);
+		return record;
+	}
+
 	public static FileRecord get(String id) {
 		return CACHE.get(id);
 	}
 
 	public static void remove(String id) {
-		CACHE.remove(id);
+		deleteBackingFile(CACHE.remove(id));
 	}
 
 	public static void clear() {
+		CACHE.values().forEach(InMemoryFileStorage::deleteBackingFile);
 		CACHE.clear();
 	}
 
+	private static void deleteBackingFile(FileRecord record) {
+		if (record != null && record.getPath() != null) {
+			try {
+				Files.deleteIfExists(record.getPath());
+			}
+			catch (IOException ignored) {
+				// best effort cleanup
+			}
+		}
+	}
+
 }
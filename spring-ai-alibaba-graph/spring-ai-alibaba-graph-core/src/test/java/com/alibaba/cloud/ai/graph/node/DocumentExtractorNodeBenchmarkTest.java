@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node;
+
+import com.alibaba.cloud.ai.document.DocumentParser;
+import com.alibaba.cloud.ai.document.TextDocumentParser;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.parser.bshtml.BsHtmlDocumentParser;
+import com.alibaba.cloud.ai.parser.markdown.MarkdownDocumentParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Extracts a generated local corpus of text, Markdown and HTML files with a fresh parser
+ * per file (the previous behaviour) and with {@link DocumentExtractorNode}, cold and with
+ * a warm content cache. Run with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class DocumentExtractorNodeBenchmarkTest {
+
+	private static final int FILES = 300;
+
+	private static final int PARAGRAPHS = 200;
+
+	@TempDir
+	Path corpusDir;
+
+	@Test
+	public void benchmarkLocalCorpus() throws Exception {
+		List<String> files = createCorpus();
+
+		List<String> baseline = measure("fresh parser per file", () -> {
+			List<String> texts = new ArrayList<>();
+			for (String file : files) {
+				DocumentParser parser = switch (file.substring(file.lastIndexOf('.') + 1)) {
+					case "md" -> new MarkdownDocumentParser();
+					case "html" -> new BsHtmlDocumentParser();
+					default -> new TextDocumentParser();
+				};
+				try (InputStream inputStream = Files.newInputStream(Path.of(file))) {
+					texts.add(parser.parse(inputStream).get(0).getText());
+				}
+				catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			}
+			return texts;
+		});
+		List<String> cold = measure("pooled + parallel, no cache",
+				() -> extract(DocumentExtractorNode.builder().fileList(files).cacheSize(0).build()));
+		DocumentExtractorNode cachedNode = DocumentExtractorNode.builder().fileList(files).cacheSize(FILES).build();
+		extract(cachedNode);
+		List<String> warm = measure("pooled + parallel, warm cache", () -> extract(cachedNode));
+
+		assertEquals(baseline, cold);
+		assertEquals(baseline, warm);
+	}
+
+	private List<String> createCorpus() throws Exception {
+		List<String> files = new ArrayList<>(FILES);
+		for (int i = 0; i < FILES; i++) {
+			StringBuilder content = new StringBuilder();
+			String extension = switch (i % 3) {
+				case 0 -> "md";
+				case 1 -> "html";
+				default -> "txt";
+			};
+			for (int p = 0; p < PARAGRAPHS; p++) {
+				String paragraph = "Paragraph " + p + " of document " + i + " describing the local corpus.";
+				content.append(switch (extension) {
+					case "md" -> (p % 20 == 0 ? "## Section " + p + "\n\n" : "") + paragraph + "\n\n";
+					case "html" -> "<p>" + paragraph + "</p>\n";
+					default -> paragraph + "\n";
+				});
+			}
+			String text = "html".equals(extension) ? "<html><body>\n" + content + "</body></html>" : content.toString();
+			files.add(Files.writeString(corpusDir.resolve("doc-" + i + "." + extension), text).toString());
+		}
+		return files;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<String> extract(DocumentExtractorNode node) {
+		try {
+			return (List<String>) node.apply(new OverAllState()).get("text");
+		}
+		catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static <T> T measure(String name, Supplier<T> task) {
+		T result = task.get();
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			long start = System.nanoTime();
+			result = task.get();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		System.out.printf("%-32s best of 5: %d ms%n", name, TimeUnit.NANOSECONDS.toMillis(best));
+		return result;
+	}
+
+}
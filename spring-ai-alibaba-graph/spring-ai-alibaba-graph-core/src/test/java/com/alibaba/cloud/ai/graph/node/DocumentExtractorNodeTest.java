@@ -0,0 +1,150 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node;
+
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.OverAllStateFactory;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocumentExtractorNodeTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testExtractsFilesInParallelKeepingOrder() throws Exception {
+		DocumentExtractorNode node = DocumentExtractorNode.builder()
+			.outputKey("output")
+			.fileList(List.of("document-extractor/sample.txt", "document-extractor/sample.md",
+					"document-extractor/sample.html"))
+			.build();
+
+		List<String> texts = (List<String>) node.apply(new OverAllState()).get("output");
+
+		assertEquals(3, texts.size());
+		assertTrue(texts.get(0).contains("Second line of the text file."));
+		assertTrue(texts.get(1).contains("Markdown body paragraph."));
+		assertTrue(texts.get(2).contains("Html body paragraph."));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCacheIsInvalidatedWhenFileChanges() throws Exception {
+		Path file = Files.writeString(tempDir.resolve("notes.txt"), "first version");
+		DocumentExtractorNode node = DocumentExtractorNode.builder()
+			.outputKey("output")
+			.fileList(List.of(file.toString()))
+			.build();
+
+		assertEquals(List.of("first version"), node.apply(new OverAllState()).get("output"));
+		Files.writeString(file, "second version");
+		assertEquals(List.of("second version"), node.apply(new OverAllState()).get("output"));
+		// same size, newer modification time
+		FileTime modified = Files.getLastModifiedTime(file);
+		Files.writeString(file, "latest version");
+		Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 1000));
+		assertEquals(List.of("latest version"), node.apply(new OverAllState()).get("output"));
+	}
+
+	@Test
+	public void testUnsupportedExtension() throws Exception {
+		Path file = Files.writeString(tempDir.resolve("data.bin"), "binary");
+		DocumentExtractorNode node = DocumentExtractorNode.builder().fileList(List.of(file.toString())).build();
+
+		RuntimeException e = assertThrows(RuntimeException.class, () -> node.apply(new OverAllState()));
+		assertTrue(e.getCause().getMessage().contains("Unsupported Extension Type: bin"));
+	}
+
+	@Test
+	public void testStreamsTextInChunks() throws Exception {
+		String text = "0123456789".repeat(10);
+		Path file = Files.writeString(tempDir.resolve("long.txt"), text);
+		List<String> chunks = streamChunks(file.toString(), 16);
+
+		assertEquals(7, chunks.size());
+		assertTrue(chunks.stream().limit(6).allMatch(chunk -> chunk.length() == 16));
+		assertEquals(text, String.join("", chunks));
+	}
+
+	@Test
+	public void testClosedStreamStopsExtraction() throws Exception {
+		Path file = Files.writeString(tempDir.resolve("large.txt"), "0123456789".repeat(1000));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		DocumentExtractorNode node = DocumentExtractorNode.builder()
+			.outputKey("output")
+			.fileList(List.of(file.toString()))
+			.streamChunkSize(10)
+			.executor(executor)
+			.build();
+
+		AsyncGenerator<?> generator = (AsyncGenerator<?>) node.apply(new OverAllState()).get("output");
+		assertFalse(generator.next().isDone());
+		((AutoCloseable) generator).close();
+
+		// the producer is blocked on a full queue and has to notice the closed consumer
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		assertTrue(generator.next().isDone());
+	}
+
+	private List<String> streamChunks(String file, int chunkSize) throws Exception {
+		DocumentExtractorNode node = DocumentExtractorNode.builder()
+			.outputKey("output")
+			.fileList(List.of(file))
+			.streamChunkSize(chunkSize)
+			.build();
+		OverAllStateFactory stateFactory = () -> {
+			OverAllState state = new OverAllState();
+			state.registerKeyAndStrategy("output", new ReplaceStrategy());
+			return state;
+		};
+		CompiledGraph compiledGraph = new StateGraph("DocumentExtractorNode Streaming Demo", stateFactory)
+			.addNode("document_extractor", node_async(node))
+			.addEdge(START, "document_extractor")
+			.addEdge("document_extractor", END)
+			.compile();
+		return compiledGraph.stream(Map.of())
+			.stream()
+			.filter(StreamingOutput.class::isInstance)
+			.map(output -> ((StreamingOutput) output).chunk())
+			.toList();
+	}
+
+}
@@ -17,17 +17,23 @@ package com.alibaba.cloud.ai.graph.node;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.node.HttpNode.AuthConfig;
 import com.alibaba.cloud.ai.graph.node.HttpNode.BodyData;
 import com.alibaba.cloud.ai.graph.node.HttpNode.BodyType;
 import com.alibaba.cloud.ai.graph.node.HttpNode.HttpRequestNodeBody;
+import com.alibaba.cloud.ai.graph.node.HttpNode.ResponseCache;
 import com.alibaba.cloud.ai.graph.node.HttpNode.RetryConfig;
 import com.alibaba.cloud.ai.graph.utils.InMemoryFileStorage;
 import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -45,7 +51,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HttpNodeTest {
@@ -279,4 +287,152 @@ public class HttpNodeTest {
 		assertEquals(3, mockWebServer.getRequestCount());
 	}
 
+	@Test
+	void testApplyAsyncDoesNotBlockCaller() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		mockWebServer.setDispatcher(new Dispatcher() {
+			@Override
+			public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+				release.await(5, TimeUnit.SECONDS);
+				return new MockResponse().setBody("{\"message\":\"async\"}")
+					.setHeader(HttpHeaders.CONTENT_TYPE, "application/json");
+			}
+		});
+
+		String url = mockWebServer.url("/async").toString();
+		HttpNode node = HttpNode.builder().webClient(webClient).url(url).outputKey("result").build();
+
+		CompletableFuture<Map<String, Object>> future = node.applyAsync(new OverAllState());
+		// the server cannot answer before the latch is released, so a blocking call
+		// would not have returned yet
+		assertFalse(future.isDone());
+
+		release.countDown();
+		Map<String, Object> result = future.get(5, TimeUnit.SECONDS);
+
+		Map<String, Object> messages = (Map<String, Object>) result.get("result");
+		Map<String, Object> body = (Map<String, Object>) messages.get("body");
+		assertEquals("async", body.get("message"));
+	}
+
+	@Test
+	void testResponseCacheAcceptsJsonNullBody() throws Exception {
+		mockWebServer.enqueue(new MockResponse().setBody("null")
+			.setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+			.setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60"));
+
+		String url = mockWebServer.url("/null").toString();
+		ResponseCache cache = new ResponseCache(16, Duration.ZERO);
+		HttpNode node = HttpNode.builder().webClient(webClient).url(url).responseCache(cache).build();
+
+		Map<String, Object> first = (Map<String, Object>) node.apply(new OverAllState()).get("messages");
+		Map<String, Object> second = (Map<String, Object>) node.apply(new OverAllState()).get("messages");
+
+		assertEquals(200, first.get("status"));
+		assertNull(first.get("body"));
+		assertNull(second.get("body"));
+		assertEquals(1, mockWebServer.getRequestCount());
+	}
+
+	@Test
+	void testSharedClientIsUsedByDefault() throws Exception {
+		mockWebServer.enqueue(new MockResponse().setBody("OK").setHeader(HttpHeaders.CONTENT_TYPE, "text/plain"));
+		mockWebServer.enqueue(new MockResponse().setBody("OK").setHeader(HttpHeaders.CONTENT_TYPE, "text/plain"));
+
+		String url = mockWebServer.url("/shared").toString();
+		HttpNode first = HttpNode.builder().url(url).build();
+		HttpNode second = HttpNode.builder().url(url).build();
+
+		assertEquals("OK", ((Map<String, Object>) first.apply(new OverAllState()).get("messages")).get("body"));
+		assertEquals("OK", ((Map<String, Object>) second.apply(new OverAllState()).get("messages")).get("body"));
+		assertEquals(2, mockWebServer.getRequestCount());
+	}
+
+	@Test
+	void testResponseCacheHonorsMaxAge() throws Exception {
+		mockWebServer.enqueue(new MockResponse().setBody("{\"value\":1}")
+			.setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+			.setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60"));
+
+		String url = mockWebServer.url("/cached").toString();
+		ResponseCache cache = new ResponseCache(16, Duration.ZERO);
+		HttpNode node = HttpNode.builder().webClient(webClient).url(url).responseCache(cache).build();
+
+		Map<String, Object> first = (Map<String, Object>) node.apply(new OverAllState()).get("messages");
+		Map<String, Object> second = (Map<String, Object>) node.apply(new OverAllState()).get("messages");
+
+		assertEquals(first.get("body"), second.get("body"));
+		assertEquals(1, mockWebServer.getRequestCount());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void testResponseCacheRevalidatesWithEtag() throws Exception {
+		mockWebServer.enqueue(new MockResponse().setBody("{\"value\":1}")
+			.setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+			.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache")
+			.setHeader(HttpHeaders.ETAG, "\"v1\""));
+		mockWebServer.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, "\"v1\""));
+
+		String url = mockWebServer.url("/etag").toString();
+		HttpNode node = HttpNode.builder()
+			.webClient(webClient)
+			.url(url)
+			.responseCache(new ResponseCache(16, Duration.ZERO))
+			.build();
+
+		node.apply(new OverAllState());
+		Map<String, Object> messages = (Map<String, Object>) node.apply(new OverAllState()).get("messages");
+
+		assertEquals(200, messages.get("status"));
+		assertEquals(1, ((Map<String, Object>) messages.get("body")).get("value"));
+		mockWebServer.takeRequest();
+		RecordedRequest revalidation = mockWebServer.takeRequest();
+		assertEquals("\"v1\"", revalidation.getHeader(HttpHeaders.IF_NONE_MATCH));
+	}
+
+	@Test
+	void testResponseCacheSkipsNoStore() throws Exception {
+		mockWebServer.enqueue(new MockResponse().setBody("first").setHeader(HttpHeaders.CACHE_CONTROL, "no-store"));
+		mockWebServer.enqueue(new MockResponse().setBody("second"));
+
+		String url = mockWebServer.url("/no-store").toString();
+		HttpNode node = HttpNode.builder()
+			.webClient(webClient)
+			.url(url)
+			.responseCache(new ResponseCache(16, Duration.ofMinutes(1)))
+			.build();
+
+		node.apply(new OverAllState());
+		Map<String, Object> messages = (Map<String, Object>) node.apply(new OverAllState()).get("messages");
+
+		assertEquals("second", messages.get("body"));
+		assertEquals(2, mockWebServer.getRequestCount());
+	}
+
+	@Test
+	void testLargeFileResponseStaysOnDisk() throws Exception {
+		byte[] fileBytes = new byte[64 * 1024];
+		for (int i = 0; i < fileBytes.length; i++) {
+			fileBytes[i] = (byte) i;
+		}
+		mockWebServer
+			.enqueue(new MockResponse().addHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"large.bin\"")
+				.addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE)
+				.setBody(new okio.Buffer().write(fileBytes)));
+
+		String url = mockWebServer.url("/large.bin").toString();
+		HttpNode node = HttpNode.builder().webClient(webClient).url(url).inMemoryFileThreshold(1024).build();
+
+		Map<String, Object> messages = (Map<String, Object>) node.apply(new OverAllState()).get("messages");
+		String fileId = ((List<String>) messages.get("files")).get(0);
+
+		InMemoryFileStorage.FileRecord record = InMemoryFileStorage.get(fileId);
+		assertNotNull(record.getPath(), "大文件应保存在磁盘上");
+		assertEquals(fileBytes.length, record.getSize());
+		assertArrayEquals(fileBytes, record.getContent());
+		InMemoryFileStorage.clear();
+		assertNull(InMemoryFileStorage.get(fileId));
+	}
+
 }
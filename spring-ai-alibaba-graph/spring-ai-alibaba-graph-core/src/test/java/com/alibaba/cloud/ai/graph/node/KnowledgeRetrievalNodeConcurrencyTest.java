@@ -0,0 +1,216 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node;
+
+import com.alibaba.cloud.ai.document.DocumentWithScore;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.OverAllStateFactory;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import com.alibaba.cloud.ai.model.RerankModel;
+import com.alibaba.cloud.ai.model.RerankRequest;
+import com.alibaba.cloud.ai.model.RerankResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs one {@link KnowledgeRetrievalNode} instance from many concurrent graph executions
+ * with a deterministic local embedding model, so no remote service is required.
+ */
+public class KnowledgeRetrievalNodeConcurrencyTest {
+
+	private static final List<String> TOPICS = List.of("doc-a", "doc-b", "doc-c", "doc-d", "doc-e", "doc-f", "doc-g",
+			"doc-h", "doc-i", "doc-j");
+
+	private final SimpleVectorStore vectorStore = createVectorStore();
+
+	private static SimpleVectorStore createVectorStore() {
+		SimpleVectorStore store = SimpleVectorStore.builder(new HashingEmbeddingModel()).build();
+		store.add(TOPICS.stream().map(topic -> new Document(topic, topic, Map.of())).toList());
+		return store;
+	}
+
+	private CompiledGraph compile(KnowledgeRetrievalNode node) throws Exception {
+		OverAllStateFactory stateFactory = () -> {
+			OverAllState state = new OverAllState();
+			state.registerKeyAndStrategy("user_prompt", new ReplaceStrategy());
+			state.registerKeyAndStrategy("top_k", new ReplaceStrategy());
+			state.registerKeyAndStrategy("queries", new ReplaceStrategy());
+			return state;
+		};
+		return new StateGraph("KnowledgeRetrievalNode Concurrency Demo", stateFactory)
+			.addNode("knowledge_retrieval", node_async(node))
+			.addEdge(START, "knowledge_retrieval")
+			.addEdge("knowledge_retrieval", END)
+			.compile();
+	}
+
+	@Test
+	void concurrentExecutionsDoNotShareState() throws Exception {
+		KnowledgeRetrievalNode node = KnowledgeRetrievalNode.builder()
+			.userPromptKey("user_prompt")
+			.topKKey("top_k")
+			.vectorStore(vectorStore)
+			.enableRanker(true)
+			.rerankModel(new SlowIdentityRerankModel(Duration.ofMillis(5)))
+			.build();
+		CompiledGraph compiledGraph = compile(node);
+
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				String prompt = TOPICS.get(i % TOPICS.size());
+				int topK = 1 + i % 5;
+				futures.add(pool.submit(() -> {
+					String output = compiledGraph.invoke(Map.of("user_prompt", prompt, "top_k", topK))
+						.orElseThrow()
+						.value("user_prompt", String.class)
+						.orElseThrow();
+					assertTrue(output.startsWith(prompt + "Document: "), output);
+					String[] segments = output.split("Document: ", -1);
+					assertEquals(topK, segments.length - 1, output);
+					assertTrue(List.of(segments[1].split("\n")).contains(prompt), output);
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void mergesAdditionalQueries() throws Exception {
+		KnowledgeRetrievalNode node = KnowledgeRetrievalNode.builder()
+			.userPromptKey("user_prompt")
+			.queriesKey("queries")
+			.topK(1)
+			.vectorStore(vectorStore)
+			.build();
+		String output = userPrompt(compile(node),
+				Map.of("user_prompt", "doc-a", "queries", List.of("doc-b", "doc-a")));
+
+		String[] segments = output.split("Document: ", -1);
+		assertEquals(2, segments.length, output);
+		List<String> lines = List.of(segments[1].split("\n"));
+		assertTrue(lines.contains("doc-a") || lines.contains("doc-b"), output);
+	}
+
+	@Test
+	void rerankTimeoutKeepsVectorStoreOrder() throws Exception {
+		KnowledgeRetrievalNode node = KnowledgeRetrievalNode.builder()
+			.userPromptKey("user_prompt")
+			.topK(3)
+			.vectorStore(vectorStore)
+			.enableRanker(true)
+			.rerankModel(new SlowIdentityRerankModel(Duration.ofSeconds(5)))
+			.rerankTimeout(Duration.ofMillis(100))
+			.build();
+		long start = System.nanoTime();
+		String output = userPrompt(compile(node), Map.of("user_prompt", "doc-c"));
+
+		assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(3)) < 0);
+		String[] segments = output.split("Document: ", -1);
+		assertEquals(4, segments.length, output);
+		assertTrue(List.of(segments[1].split("\n")).contains("doc-c"), output);
+	}
+
+	private static String userPrompt(CompiledGraph compiledGraph, Map<String, Object> input) throws Exception {
+		return compiledGraph.invoke(input).orElseThrow().value("user_prompt", String.class).orElseThrow();
+	}
+
+	/**
+	 * Embeds text into character buckets; identical texts always have similarity 1.
+	 */
+	static class HashingEmbeddingModel implements EmbeddingModel {
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			List<Embedding> embeddings = new ArrayList<>();
+			for (int i = 0; i < request.getInstructions().size(); i++) {
+				embeddings.add(new Embedding(embed(request.getInstructions().get(i)), i));
+			}
+			return new EmbeddingResponse(embeddings);
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return embed(document.getText());
+		}
+
+		@Override
+		public float[] embed(String text) {
+			float[] vector = new float[16];
+			for (int i = 0; i < text.length(); i++) {
+				vector[text.charAt(i) % vector.length] += 1 + i;
+			}
+			return vector;
+		}
+
+	}
+
+	/**
+	 * Keeps the input order after a fixed delay.
+	 */
+	static class SlowIdentityRerankModel implements RerankModel {
+
+		private final Duration delay;
+
+		SlowIdentityRerankModel(Duration delay) {
+			this.delay = delay;
+		}
+
+		@Override
+		public RerankResponse call(RerankRequest request) {
+			try {
+				Thread.sleep(delay.toMillis());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new RerankResponse(request.getInstructions()
+				.stream()
+				.map(document -> DocumentWithScore.builder().withDocument(document).withScore(1.0).build())
+				.toList());
+		}
+
+	}
+
+}
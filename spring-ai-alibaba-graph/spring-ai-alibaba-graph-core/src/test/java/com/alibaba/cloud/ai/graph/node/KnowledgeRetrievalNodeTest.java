@@ -89,6 +89,10 @@ public class KnowledgeRetrievalNodeTest {
 		return modifiableMap;
 	}
 
+	static int documentCount(Map<String, Object> state) {
+		return ((String) state.get("user_prompt")).split("Document: ", -1).length - 1;
+	}
+
 	KnowledgeRetrievalNode initNode() {
 		return KnowledgeRetrievalNode.builder()
 			.userPromptKey("user_prompt")
@@ -113,12 +117,12 @@ public class KnowledgeRetrievalNodeTest {
 		// 原本topk为5
 		Map<String, Object> newState = node.apply(new OverAllState(stateMap));
 		logger.info("文档检索结果加入prompt为{}", newState.get("user_prompt"));
-		assertEquals(2, node.documents.size());
+		assertEquals(2, documentCount(newState));
 		// 修改topk
 		stateMap.put("top_k", 1);
 		newState = node.apply(new OverAllState(stateMap));
 		logger.info("文档检索结果加入prompt为{}", newState.get("user_prompt"));
-		assertEquals(1, node.documents.size());
+		assertEquals(1, documentCount(newState));
 
 	}
 
@@ -133,12 +137,12 @@ public class KnowledgeRetrievalNodeTest {
 		// 原本similarity_threshold为0，1
 		Map<String, Object> newState = node.apply(new OverAllState(stateMap));
 		logger.info("文档检索结果加入prompt为{}", newState.get("user_prompt"));
-		assertEquals(2, node.documents.size());
+		assertEquals(2, documentCount(newState));
 		// 修改为0.5
 		stateMap.put("similarity_threshold", 0.5);
 		newState = node.apply(new OverAllState(stateMap));
 		logger.info("文档检索结果加入prompt为{}", newState.get("user_prompt"));
-		assertEquals(1, node.documents.size());
+		assertEquals(1, documentCount(newState));
 
 	}
 
@@ -153,12 +157,12 @@ public class KnowledgeRetrievalNodeTest {
 		// 原本筛选条件是eq("type", "instruction")
 		Map<String, Object> newState = node.apply(new OverAllState(stateMap));
 		logger.info("文档检索结果加入prompt为{}", newState.get("user_prompt"));
-		assertEquals(2, node.documents.size());
+		assertEquals(2, documentCount(newState));
 		// 现修改为eq("type", "book")
 		stateMap.put("filter_expression", new FilterExpressionBuilder().eq("type", "book").build());
 		newState = node.apply(new OverAllState(stateMap));
 		logger.info("文档检索结果加入prompt为{}", newState.get("user_prompt"));
-		assertEquals(0, node.documents.size());
+		assertEquals(0, documentCount(newState));
 
 	}
 
@@ -174,18 +178,18 @@ public class KnowledgeRetrievalNodeTest {
 		// rerankOptions原本默认topN为3
 		Map<String, Object> newState = node.apply(new OverAllState(stateMap));
 		logger.info("文档检索结果加入prompt为{}", newState.get("user_prompt"));
-		assertEquals(2, node.documents.size());
+		assertEquals(2, documentCount(newState));
 		// 重设topN数量
 		rerankOptions.setTopN(1);
 		stateMap.put("rerank_options", rerankOptions);
 		newState = node.apply(new OverAllState(stateMap));
 		logger.info("文档检索结果加入prompt为{}", newState.get("user_prompt"));
-		assertEquals(1, node.documents.size());
+		assertEquals(1, documentCount(newState));
 		// 使重排序失效
 		stateMap.put("enable_ranker", false);
 		newState = node.apply(new OverAllState(stateMap));
 		logger.info("文档检索结果加入prompt为{}", newState.get("user_prompt"));
-		assertEquals(2, node.documents.size());
+		assertEquals(2, documentCount(newState));
 
 	}
 
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the streaming top-K evaluation of {@link ListOperatorNode} with a full
+ * deserialize-sort-limit pass over one million elements. Run with
+ * {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ListOperatorNodeBenchmarkTest {
+
+	private static final int SIZE = 1_000_000;
+
+	private static final int LIMIT = 10;
+
+	private static final int ROUNDS = 5;
+
+	@Test
+	public void benchmarkTopKOverOneMillionElements() throws Exception {
+		Random random = new Random(42);
+		List<Integer> numbers = new ArrayList<>(SIZE);
+		for (int i = 0; i < SIZE; i++) {
+			numbers.add(random.nextInt());
+		}
+		ObjectMapper objectMapper = new ObjectMapper();
+		String json = objectMapper.writeValueAsString(numbers);
+		ListOperatorNode<ListOperatorNode.NumberElement> node = ListOperatorNode.<ListOperatorNode.NumberElement>builder()
+			.elementClassType(ListOperatorNode.NumberElement.class)
+			.filter(x -> x.getValue().intValue() % 3 != 0)
+			.comparator(ListOperatorNode.NumberElement::compareToReverse)
+			.limitNumber(LIMIT)
+			.build();
+
+		String baseline = measure("full sort (JSON)", () -> {
+			try {
+				JavaType javaType = objectMapper.getTypeFactory()
+					.constructParametricType(List.class, ListOperatorNode.NumberElement.class);
+				List<ListOperatorNode.NumberElement> list = objectMapper.readValue(json, javaType);
+				return objectMapper.writeValueAsString(list.stream()
+					.filter(x -> x.getValue().intValue() % 3 != 0)
+					.sorted(ListOperatorNode.NumberElement::compareToReverse)
+					.limit(LIMIT)
+					.toList());
+			}
+			catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		String streaming = measure("streaming top-K (JSON)", () -> apply(node, json).get("output").toString());
+		List<ListOperatorNode.NumberElement> typed = numbers.stream().map(ListOperatorNode.NumberElement::new).toList();
+		String typedResult = measure("streaming top-K (typed list)", () -> apply(node, typed).get("output").toString());
+
+		assertEquals(baseline, streaming);
+		assertEquals(baseline, typedResult);
+	}
+
+	private static Map<String, Object> apply(ListOperatorNode<?> node, Object input) {
+		try {
+			OverAllState state = new OverAllState();
+			state.input(Map.of("input", input));
+			return node.apply(state);
+		}
+		catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String measure(String name, Supplier<String> task) {
+		String result = task.get();
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			result = task.get();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		System.out.printf("%-30s best of %d: %d ms%n", name, ROUNDS, TimeUnit.NANOSECONDS.toMillis(best));
+		return result;
+	}
+
+}
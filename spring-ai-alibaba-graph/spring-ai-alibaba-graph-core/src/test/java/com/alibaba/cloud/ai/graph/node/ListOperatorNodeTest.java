@@ -22,6 +22,8 @@ import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
 import org.junit.jupiter.api.Test;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 
 import static com.alibaba.cloud.ai.graph.StateGraph.END;
@@ -99,6 +101,45 @@ public class ListOperatorNodeTest {
 				node.apply(t).get("output").toString());
 	}
 
+	@Test
+	public void testTypedListInput() throws Exception {
+		OverAllState t = new OverAllState();
+		t.input(Map.of("input", List.of(1, 3, 4, 5.6, 2, 3.5, 1, 2, 0.3, 4, 5, 0.6, 7, 8, 9, 23)));
+		ListOperatorNode<ListOperatorNode.NumberElement> node = ListOperatorNode.<ListOperatorNode.NumberElement>builder()
+			.elementClassType(ListOperatorNode.NumberElement.class)
+			.filter(ListOperatorNode.NumberElement::isInteger)
+			.comparator(ListOperatorNode.NumberElement::compareToReverse)
+			.limitNumber(3)
+			.build();
+		// A collection input is evaluated without parsing, but the output is still JSON.
+		assertEquals("[23,9,8]", node.apply(t).get("output"));
+	}
+
+	@Test
+	public void testTopKKeepsInputOrderOfTies() throws Exception {
+		OverAllState t = new OverAllState();
+		t.input(Map.of("input", "[\"b1\", \"a1\", \"b2\", \"a2\", \"b3\", \"a3\"]"));
+		// Compare by the first character only, so elements with the same prefix tie.
+		ListOperatorNode<ListOperatorNode.StringElement> node = ListOperatorNode.<ListOperatorNode.StringElement>builder()
+			.elementClassType(ListOperatorNode.StringElement.class)
+			.comparator(Comparator.comparing(x -> x.getValue().charAt(0)))
+			.limitNumber(4)
+			.build();
+		assertEquals("[\"a1\",\"a2\",\"a3\",\"b1\"]", node.apply(t).get("output").toString());
+	}
+
+	@Test
+	public void testLimitWithoutComparatorKeepsFirstMatches() throws Exception {
+		OverAllState t = new OverAllState();
+		t.input(Map.of("input", "[\"x1\", \"y\", \"x2\", \"x3\", \"x4\"]"));
+		ListOperatorNode<ListOperatorNode.StringElement> node = ListOperatorNode.<ListOperatorNode.StringElement>builder()
+			.elementClassType(ListOperatorNode.StringElement.class)
+			.filter(x -> x.startWith("x"))
+			.limitNumber(2)
+			.build();
+		assertEquals("[\"x1\",\"x2\"]", node.apply(t).get("output").toString());
+	}
+
 	@Test
 	public void testNodeInGraph() throws Exception {
 		// Take NumberElement as an example.
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeBlock;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionResult;
+import com.alibaba.cloud.ai.graph.node.code.sandbox.LocalProcessSandboxFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledCodeExecutorTest {
+
+	@TempDir
+	Path tempDir;
+
+	private CodeExecutionConfig config;
+
+	private PooledCodeExecutor executor;
+
+	@BeforeEach
+	void setUp() {
+		config = new CodeExecutionConfig().setWorkDir(tempDir.toString()).setTimeout(30);
+		executor = new PooledCodeExecutor(new LocalProcessSandboxFactory(), 2, Duration.ofSeconds(30));
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.close();
+	}
+
+	private CodeExecutionResult run(String language, String code) throws Exception {
+		return executor.executeCodeBlocks(List.of(new CodeBlock(language, code)), config);
+	}
+
+	@Test
+	void reusesWarmPythonInterpreterWithFreshState() throws Exception {
+		CodeExecutionResult first = run("python3", """
+				import os
+				leaked = 1
+				open('scratch.txt', 'w').write('x')
+				print(os.getpid())
+				""");
+		CodeExecutionResult second = run("python3", """
+				import os
+				print(os.getpid(), 'leaked' in globals(), os.path.exists('scratch.txt'))
+				""");
+
+		assertEquals(0, first.exitCode(), first.logs());
+		assertEquals(0, second.exitCode(), second.logs());
+		assertEquals(first.logs().trim() + " False False", second.logs().trim());
+	}
+
+	@Test
+	void reportsPythonErrors() throws Exception {
+		CodeExecutionResult result = run("python3", "raise ValueError('boom')");
+
+		assertEquals(1, result.exitCode());
+		assertTrue(result.logs().contains("ValueError: boom"), result.logs());
+		assertEquals(0, run("python3", "print('ok')").exitCode());
+	}
+
+	@Test
+	void timeoutReplacesSandbox() throws Exception {
+		String pidCode = "import os\nprint(os.getpid())";
+		String pidBefore = run("python3", pidCode).logs();
+		config.setTimeout(1);
+
+		CodeExecutionResult result = run("python3", "while True:\n    pass");
+
+		assertNotEquals(0, result.exitCode());
+		assertTrue(result.logs().contains("timed out"), result.logs());
+		config.setTimeout(30);
+		CodeExecutionResult after = run("python3", pidCode);
+		assertEquals(0, after.exitCode(), after.logs());
+		assertNotEquals(pidBefore, after.logs());
+	}
+
+	@Test
+	void memoryLimitChangeUsesSeparateSandbox() throws Exception {
+		String pidCode = "import os\nprint(os.getpid())";
+		String unlimited = run("python3", pidCode).logs().trim();
+		config.setMemoryLimit(512);
+
+		String limited = run("python3", pidCode).logs().trim();
+		config.setMemoryLimit(0);
+
+		assertNotEquals(unlimited, limited);
+		assertEquals(unlimited, run("python3", pidCode).logs().trim());
+	}
+
+	@Test
+	void enforcesCpuTimeLimit() throws Exception {
+		config.setCpuTimeLimit(1);
+
+		CodeExecutionResult result = run("python3", "while True:\n    pass");
+
+		assertNotEquals(0, result.exitCode());
+		assertTrue(result.logs().contains("CPU time limit"), result.logs());
+	}
+
+	@Test
+	void capturesOutputWrittenToFileDescriptors() throws Exception {
+		CodeExecutionResult result = run("python3", """
+				import os, subprocess, sys
+				print('from print', flush=True)
+				os.write(1, b'from fd\\n')
+				subprocess.run([sys.executable, '-c', 'print("from child")'])
+				""");
+
+		assertEquals(0, result.exitCode(), result.logs());
+		assertEquals("from print\nfrom fd\nfrom child", result.logs().trim());
+	}
+
+	@Test
+	void leakedStateRecyclesPythonWorker() throws Exception {
+		String pidCode = "import os\nprint(os.getpid(), len('ab'))";
+		String pidBefore = run("python3", pidCode).logs().trim();
+
+		CodeExecutionResult patched = run("python3", "import builtins\nbuiltins.len = lambda value: 0");
+
+		assertEquals(0, patched.exitCode(), patched.logs());
+		String pidAfter = run("python3", pidCode).logs().trim();
+		assertTrue(pidAfter.endsWith(" 2"), pidAfter);
+		assertNotEquals(pidBefore, pidAfter);
+	}
+
+	@Test
+	void runsJavaWithCachedClassPath() throws Exception {
+		String javaCode = """
+				public static Object main(Object[] inputs) {
+					Map<String, Object> response = new HashMap<>();
+					response.put("text", ((String) inputs[0]).repeat((Integer) inputs[1]));
+					return response;
+				}
+				""";
+		Map<String, String> params = new LinkedHashMap<>();
+		params.put("text", "text");
+		params.put("count", "count");
+		NodeAction codeNode = CodeExecutorNodeAction.builder()
+			.codeExecutor(executor)
+			.code(javaCode)
+			.codeLanguage("java")
+			.config(config)
+			.params(params)
+			.build();
+
+		for (int count = 1; count <= 2; count++) {
+			Map<String, Object> initData = new LinkedHashMap<>();
+			initData.put("text", "ab");
+			initData.put("count", count);
+			assertEquals("ab".repeat(count), codeNode.apply(new OverAllState(initData)).get("text"));
+		}
+	}
+
+	@Test
+	void concurrentExecutionsShareBoundedPool() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(6);
+		try {
+			List<Future<CodeExecutionResult>> futures = new ArrayList<>();
+			for (int i = 0; i < 12; i++) {
+				int value = i;
+				futures.add(pool.submit(() -> run("python3", "print(" + value + " * 2)")));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				CodeExecutionResult result = futures.get(i).get(60, TimeUnit.SECONDS);
+				assertEquals(0, result.exitCode(), result.logs());
+				assertEquals(String.valueOf(i * 2), result.logs().trim());
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+}
@@ -65,6 +65,14 @@ public abstract class BaseAgent {
 
 	private String planId = null;
 
+	/**
+	 * 智能体记忆使用的会话ID。并行执行同一计划的多个步骤时，每个步骤需要独立的记忆，为null时使用planId
+	 */
+	private String memoryId = null;
+
+	/** 当前运行对应的智能体执行记录ID */
+	private Long agentExecutionId = null;
+
 	private AgentState state = AgentState.NOT_STARTED;
 
 	protected LlmService llmService;
@@ -184,7 +192,7 @@ public abstract class BaseAgent {
 		agentRecord.setStatus(state.toString());
 		// Record execution in recorder if we have a plan ID
 		if (planId != null && planExecutionRecorder != null) {
-			planExecutionRecorder.recordAgentExecution(planId, agentRecord);
+			agentExecutionId = planExecutionRecorder.recordAgentExecution(planId, agentRecord);
 		}
 		List<String> results = new ArrayList<>();
 		try {
@@ -242,7 +250,7 @@ public abstract class BaseAgent {
 			state = AgentState.COMPLETED; // Reset state after execution
 
 			agentRecord.setStatus(state.toString());
-			llmService.clearAgentMemory(planId);
+			llmService.clearAgentMemory(getMemoryId());
 		}
 		return results.isEmpty() ? "" : results.get(results.size() - 1);
 	}
@@ -275,7 +283,7 @@ public abstract class BaseAgent {
 	 */
 	protected boolean isStuck() {
 		// 目前判断是如果三次没有调用工具就认为是卡住了，就退出当前step。
-		List<Message> memoryEntries = llmService.getAgentMemory().get(getPlanId());
+		List<Message> memoryEntries = llmService.getAgentMemory().get(getMemoryId());
 		int zeroToolCallCount = 0;
 		for (Message msg : memoryEntries) {
 			if (msg instanceof AssistantMessage) {
@@ -300,6 +308,22 @@ public abstract class BaseAgent {
 		this.planId = planId;
 	}
 
+	/**
+	 * 获取当前运行对应的智能体执行记录ID，并行执行时不能依赖计划的当前步骤推断
+	 * @return 智能体执行记录ID，未记录时返回null
+	 */
+	public Long getAgentExecutionId() {
+		return agentExecutionId;
+	}
+
+	public String getMemoryId() {
+		return memoryId != null ? memoryId : planId;
+	}
+
+	public void setMemoryId(String memoryId) {
+		this.memoryId = memoryId;
+	}
+
 	public AgentState getState() {
 		return state;
 	}
@@ -198,4 +198,107 @@ public class ManusProperties {
 		this.userInputTimeout = userInputTimeout;
 	}
 
+	@ConfigProperty(group = "manus", subGroup = "agent", key = "maxConcurrentSteps",
+			path = "manus.agent.maxConcurrentSteps", description = "单个计划中可并行执行的最大步骤数(1表示顺序执行)", defaultValue = "1",
+			inputType = ConfigInputType.NUMBER)
+	private volatile Integer maxConcurrentSteps;
+
+	public Integer getMaxConcurrentSteps() {
+		String configPath = "manus.agent.maxConcurrentSteps";
+		String value = configService.getConfigValue(configPath);
+		if (value != null) {
+			maxConcurrentSteps = Integer.valueOf(value);
+		}
+		if (maxConcurrentSteps == null) {
+			maxConcurrentSteps = 1;
+		}
+		return maxConcurrentSteps;
+	}
+
+	public void setMaxConcurrentSteps(Integer maxConcurrentSteps) {
+		this.maxConcurrentSteps = maxConcurrentSteps;
+	}
+
+	@ConfigProperty(group = "manus", subGroup = "agent", key = "stepExecutorPoolSize",
+			path = "manus.agent.stepExecutorPoolSize", description = "所有计划共享的并行步骤执行线程数(重启后生效)", defaultValue = "16",
+			inputType = ConfigInputType.NUMBER)
+	private volatile Integer stepExecutorPoolSize;
+
+	public Integer getStepExecutorPoolSize() {
+		String configPath = "manus.agent.stepExecutorPoolSize";
+		String value = configService.getConfigValue(configPath);
+		if (value != null) {
+			stepExecutorPoolSize = Integer.valueOf(value);
+		}
+		if (stepExecutorPoolSize == null) {
+			stepExecutorPoolSize = 16;
+		}
+		return stepExecutorPoolSize;
+	}
+
+	public void setStepExecutorPoolSize(Integer stepExecutorPoolSize) {
+		this.stepExecutorPoolSize = stepExecutorPoolSize;
+	}
+
+	@ConfigProperty(group = "manus", subGroup = "browser", key = "poolSize", path = "manus.browser.poolSize",
+			description = "浏览器池中最多保留的浏览器进程数", defaultValue = "2", inputType = ConfigInputType.NUMBER)
+	private volatile Integer browserPoolSize;
+
+	public Integer getBrowserPoolSize() {
+		String configPath = "manus.browser.poolSize";
+		String value = configService.getConfigValue(configPath);
+		if (value != null) {
+			browserPoolSize = Integer.valueOf(value);
+		}
+		if (browserPoolSize == null) {
+			browserPoolSize = 2;
+		}
+		return browserPoolSize;
+	}
+
+	public void setBrowserPoolSize(Integer browserPoolSize) {
+		this.browserPoolSize = browserPoolSize;
+	}
+
+	@ConfigProperty(group = "manus", subGroup = "browser", key = "maxContextsPerBrowser",
+			path = "manus.browser.maxContextsPerBrowser", description = "单个浏览器进程最多服务的计划数(每个计划独立的BrowserContext)，池满后新计划等待空闲容量，超过浏览器请求超时时间则失败",
+			defaultValue = "4", inputType = ConfigInputType.NUMBER)
+	private volatile Integer browserMaxContextsPerBrowser;
+
+	public Integer getBrowserMaxContextsPerBrowser() {
+		String configPath = "manus.browser.maxContextsPerBrowser";
+		String value = configService.getConfigValue(configPath);
+		if (value != null) {
+			browserMaxContextsPerBrowser = Integer.valueOf(value);
+		}
+		if (browserMaxContextsPerBrowser == null) {
+			browserMaxContextsPerBrowser = 4;
+		}
+		return browserMaxContextsPerBrowser;
+	}
+
+	public void setBrowserMaxContextsPerBrowser(Integer browserMaxContextsPerBrowser) {
+		this.browserMaxContextsPerBrowser = browserMaxContextsPerBrowser;
+	}
+
+	@ConfigProperty(group = "manus", subGroup = "browser", key = "idleTimeout", path = "manus.browser.idleTimeout",
+			description = "空闲浏览器进程的回收时间(秒)，始终保留一个预热的浏览器", defaultValue = "300", inputType = ConfigInputType.NUMBER)
+	private volatile Integer browserIdleTimeout;
+
+	public Integer getBrowserIdleTimeout() {
+		String configPath = "manus.browser.idleTimeout";
+		String value = configService.getConfigValue(configPath);
+		if (value != null) {
+			browserIdleTimeout = Integer.valueOf(value);
+		}
+		if (browserIdleTimeout == null) {
+			browserIdleTimeout = 300;
+		}
+		return browserIdleTimeout;
+	}
+
+	public void setBrowserIdleTimeout(Integer browserIdleTimeout) {
+		this.browserIdleTimeout = browserIdleTimeout;
+	}
+
 }
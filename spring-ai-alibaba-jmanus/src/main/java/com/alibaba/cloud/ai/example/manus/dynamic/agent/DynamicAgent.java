@@ -119,10 +119,15 @@ public class DynamicAgent extends ReActAgent {
 	protected boolean think() {
 		collectAndSetEnvDataForTools();
 
-		AgentExecutionRecord planExecutionRecord = planExecutionRecorder.getCurrentAgentExecutionRecord(getPlanId());
-		thinkActRecord = new ThinkActRecord(planExecutionRecord.getId());
+		Long agentExecutionId = getAgentExecutionId();
+		if (agentExecutionId == null) {
+			AgentExecutionRecord planExecutionRecord = planExecutionRecorder
+				.getCurrentAgentExecutionRecord(getPlanId());
+			agentExecutionId = planExecutionRecord.getId();
+		}
+		thinkActRecord = new ThinkActRecord(agentExecutionId);
 		thinkActRecord.setActStartTime(LocalDateTime.now());
-		planExecutionRecorder.recordThinkActExecution(getPlanId(), planExecutionRecord.getId(), thinkActRecord);
+		planExecutionRecorder.recordThinkActExecution(getPlanId(), agentExecutionId, thinkActRecord);
 
 		try {
 			return executeWithRetry(3);
@@ -150,7 +155,7 @@ public class DynamicAgent extends ReActAgent {
 			List<Message> messages = new ArrayList<>(Collections.singletonList(systemMessage));
 			// Add history message.
 			ChatMemory chatMemory = llmService.getAgentMemory();
-			List<Message> historyMem = chatMemory.get(getPlanId());
+			List<Message> historyMem = chatMemory.get(getMemoryId());
 			messages.addAll(historyMem);
 			messages.add(currentStepEnvMessage);
 			// Call the LLM
@@ -278,7 +283,7 @@ public class DynamicAgent extends ReActAgent {
 			if (!StringUtils.isBlank(userInput)) {
 				// 将用户输入添加到内存中
 
-				llmService.getAgentMemory().add(getPlanId(), userMessage);
+				llmService.getAgentMemory().add(getMemoryId(), userMessage);
 
 			}
 		}
@@ -294,7 +299,7 @@ public class DynamicAgent extends ReActAgent {
 			return;
 		}
 		// clear current plan memory
-		llmService.getAgentMemory().clear(getPlanId());
+		llmService.getAgentMemory().clear(getMemoryId());
 		for (Message message : messages) {
 			// exclude all system message
 			if (message instanceof SystemMessage) {
@@ -306,7 +311,7 @@ public class DynamicAgent extends ReActAgent {
 				continue;
 			}
 			// only keep assistant message and tool_call message
-			llmService.getAgentMemory().add(getPlanId(), message);
+			llmService.getAgentMemory().add(getMemoryId(), message);
 		}
 	}
 
@@ -398,6 +403,20 @@ public class DynamicAgent extends ReActAgent {
 		this.toolCallbackProvider = toolCallbackProvider;
 	}
 
+	/**
+	 * 并行执行的步骤使用独立的记忆，同时把有状态工具（如文本文件的当前文件）切换到同一作用域，避免并行步骤互相覆盖
+	 */
+	@Override
+	public void setMemoryId(String memoryId) {
+		super.setMemoryId(memoryId);
+		if (toolCallbackProvider == null) {
+			return;
+		}
+		for (ToolCallBackContext toolCallBack : toolCallbackProvider.getToolCallBackContext().values()) {
+			toolCallBack.getFunctionInstance().setStateScope(memoryId);
+		}
+	}
+
 	protected String collectEnvData(String toolCallName) {
 		ToolCallBackContext context = toolCallbackProvider.getToolCallBackContext().get(toolCallName);
 		if (context != null) {
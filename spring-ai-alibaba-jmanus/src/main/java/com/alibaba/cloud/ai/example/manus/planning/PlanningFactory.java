@@ -66,7 +66,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PreDestroy;
 
 /**
  * @author yuluo
@@ -106,6 +112,11 @@ public class PlanningFactory {
 	@Autowired
 	private PromptLoader promptLoader;
 
+	/**
+	 * 所有计划共享的并行步骤执行线程池，首次使用时按配置创建
+	 */
+	private volatile ExecutorService stepExecutorService;
+
 	public PlanningFactory(ChromeDriverService chromeDriverService, PlanExecutionRecorder recorder,
 			ManusProperties manusProperties, TextFileService textFileService, McpService mcpService) {
 		this.chromeDriverService = chromeDriverService;
@@ -123,7 +134,9 @@ public class PlanningFactory {
 		PlanningTool planningTool = new PlanningTool();
 
 		PlanCreator planCreator = new PlanCreator(agentEntities, llmService, planningTool, recorder, promptLoader);
-		PlanExecutor planExecutor = new PlanExecutor(agentEntities, recorder, agentService, llmService);
+		PlanExecutor planExecutor = new PlanExecutor(agentEntities, recorder, agentService, llmService,
+				getStepExecutorService(), manusProperties.getMaxConcurrentSteps(),
+				chromeDriverService::closeDriverForPlan);
 		PlanFinalizer planFinalizer = new PlanFinalizer(llmService, recorder, promptLoader);
 
 		PlanningCoordinator planningCoordinator = new PlanningCoordinator(planCreator, planExecutor, planFinalizer);
@@ -131,6 +144,38 @@ public class PlanningFactory {
 		return planningCoordinator;
 	}
 
+	private ExecutorService getStepExecutorService() {
+		ExecutorService executorService = stepExecutorService;
+		if (executorService == null) {
+			synchronized (this) {
+				executorService = stepExecutorService;
+				if (executorService == null) {
+					int poolSize = Math.max(1, manusProperties.getStepExecutorPoolSize());
+					AtomicInteger threadCounter = new AtomicInteger();
+					ThreadPoolExecutor threadPool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+							new LinkedBlockingQueue<>(), runnable -> {
+								Thread thread = new Thread(runnable,
+										"plan-step-executor-" + threadCounter.incrementAndGet());
+								thread.setDaemon(true);
+								return thread;
+							});
+					threadPool.allowCoreThreadTimeOut(true);
+					executorService = threadPool;
+					stepExecutorService = executorService;
+				}
+			}
+		}
+		return executorService;
+	}
+
+	@PreDestroy
+	public void shutdownStepExecutor() {
+		ExecutorService executorService = stepExecutorService;
+		if (executorService != null) {
+			executorService.shutdownNow();
+		}
+	}
+
 	public static class ToolCallBackContext {
 
 		private final ToolCallback toolCallback;
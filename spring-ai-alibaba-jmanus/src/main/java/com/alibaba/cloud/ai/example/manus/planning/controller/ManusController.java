@@ -115,7 +115,7 @@ public class ManusController {
 	 * @return 执行记录的 JSON 表示
 	 */
 	@GetMapping("/details/{planId}")
-	public synchronized ResponseEntity<?> getExecutionDetails(@PathVariable("planId") String planId) {
+	public ResponseEntity<?> getExecutionDetails(@PathVariable("planId") String planId) {
 		PlanExecutionRecord planRecord = planExecutionRecorder.getExecutionRecord(planId);
 
 		if (planRecord == null) {
@@ -29,9 +29,19 @@ import com.alibaba.cloud.ai.example.manus.recorder.entity.PlanExecutionRecord;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,12 +60,32 @@ public class PlanExecutor {
 	// 匹配字符串开头的方括号，支持中文和其他字符
 	Pattern pattern = Pattern.compile("^\\s*\\[([^\\]]+)\\]");
 
+	/**
+	 * 浏览器工具名称。同一计划的浏览器工具共用一个页面，使用该工具的步骤不能并行执行
+	 */
+	private static final String BROWSER_TOOL_KEY = "browser_use";
+
 	private final List<DynamicAgentEntity> agents;
 
 	private final AgentService agentService;
 
 	private LlmService llmService;
 
+	/**
+	 * 并行执行步骤使用的共享线程池，为null时所有步骤顺序执行
+	 */
+	private final ExecutorService stepExecutorService;
+
+	/**
+	 * 计划未指定并发限制时使用的默认单计划最大并行步骤数
+	 */
+	private final int defaultMaxConcurrentSteps;
+
+	/**
+	 * 计划结束时释放计划级资源（如浏览器租约），无论计划成功与否都会调用，可以为null
+	 */
+	private final Consumer<String> planResourceReleaser;
+
 	// Define static final strings for the keys used in executorParams
 	public static final String PLAN_STATUS_KEY = "planStatus";
 
@@ -69,10 +99,24 @@ public class PlanExecutor {
 
 	public PlanExecutor(List<DynamicAgentEntity> agents, PlanExecutionRecorder recorder, AgentService agentService,
 			LlmService llmService) {
+		this(agents, recorder, agentService, llmService, null, 1);
+	}
+
+	public PlanExecutor(List<DynamicAgentEntity> agents, PlanExecutionRecorder recorder, AgentService agentService,
+			LlmService llmService, ExecutorService stepExecutorService, int defaultMaxConcurrentSteps) {
+		this(agents, recorder, agentService, llmService, stepExecutorService, defaultMaxConcurrentSteps, null);
+	}
+
+	public PlanExecutor(List<DynamicAgentEntity> agents, PlanExecutionRecorder recorder, AgentService agentService,
+			LlmService llmService, ExecutorService stepExecutorService, int defaultMaxConcurrentSteps,
+			Consumer<String> planResourceReleaser) {
 		this.agents = agents;
 		this.recorder = recorder;
 		this.agentService = agentService;
 		this.llmService = llmService;
+		this.stepExecutorService = stepExecutorService;
+		this.defaultMaxConcurrentSteps = Math.max(1, defaultMaxConcurrentSteps);
+		this.planResourceReleaser = planResourceReleaser;
 	}
 
 	/**
@@ -80,17 +124,20 @@ public class PlanExecutor {
 	 * @param context 执行上下文，包含用户请求和执行的过程信息
 	 */
 	public void executeAllSteps(ExecutionContext context) {
-		BaseAgent executor = null;
+		List<BaseAgent> executors = Collections.synchronizedList(new ArrayList<>());
 		try {
 			recordPlanExecutionStart(context);
 			ExecutionPlan plan = context.getPlan();
 			List<ExecutionStep> steps = plan.getSteps();
 
 			if (CollectionUtil.isNotEmpty(steps)) {
-				for (ExecutionStep step : steps) {
-					BaseAgent executorinStep = executeStep(step, context);
-					if (executorinStep != null) {
-						executor = executorinStep;
+				int maxConcurrentSteps = getMaxConcurrentSteps(plan);
+				if (maxConcurrentSteps > 1 && stepExecutorService != null) {
+					executeStepsConcurrently(steps, context, maxConcurrentSteps, executors);
+				}
+				else {
+					for (ExecutionStep step : steps) {
+						executeStep(step, context, null, executors);
 					}
 				}
 			}
@@ -100,19 +147,165 @@ public class PlanExecutor {
 		finally {
 			String planId = context.getPlanId();
 			llmService.clearAgentMemory(planId);
-			if (executor != null) {
-				executor.clearUp(planId);
+			// 每个步骤的执行器持有各自的工具实例，都需要清理
+			synchronized (executors) {
+				for (BaseAgent executor : executors) {
+					try {
+						executor.clearUp(planId);
+					}
+					catch (Exception e) {
+						logger.error("Error cleaning up executor {} for plan {}", executor.getName(), planId, e);
+					}
+				}
+			}
+			if (planResourceReleaser != null) {
+				try {
+					planResourceReleaser.accept(planId);
+				}
+				catch (Exception e) {
+					logger.error("Error releasing resources for plan {}", planId, e);
+				}
 			}
 		}
 	}
 
+	private int getMaxConcurrentSteps(ExecutionPlan plan) {
+		Integer planLimit = plan.getMaxConcurrentSteps();
+		return planLimit != null && planLimit > 0 ? planLimit : defaultMaxConcurrentSteps;
+	}
+
+	/**
+	 * 按步骤依赖关系并行执行计划，依赖全部完成的步骤会被提交到共享线程池，同时运行的步骤数不超过 maxConcurrentSteps。
+	 * 使用浏览器工具的步骤共用计划的浏览器页面，同一时间最多运行一个
+	 * @param steps 计划步骤
+	 * @param context 执行上下文
+	 * @param maxConcurrentSteps 当前计划允许的最大并行步骤数
+	 * @param executors 收集所有运行过的执行器
+	 */
+	private void executeStepsConcurrently(List<ExecutionStep> steps, ExecutionContext context,
+			int maxConcurrentSteps, List<BaseAgent> executors) {
+		Map<ExecutionStep, Set<Integer>> pending = new LinkedHashMap<>();
+		for (int i = 0; i < steps.size(); i++) {
+			pending.put(steps.get(i), resolveDependencies(steps, i));
+		}
+
+		CompletionService<BaseAgent> completionService = new ExecutorCompletionService<>(stepExecutorService);
+		Map<Future<BaseAgent>, ExecutionStep> running = new HashMap<>();
+		Set<Integer> finished = new HashSet<>();
+		boolean browserStepRunning = false;
+
+		try {
+			while (!pending.isEmpty() || !running.isEmpty()) {
+				List<ExecutionStep> ready = new ArrayList<>();
+				for (Map.Entry<ExecutionStep, Set<Integer>> entry : pending.entrySet()) {
+					if (running.size() + ready.size() >= maxConcurrentSteps) {
+						break;
+					}
+					if (finished.containsAll(entry.getValue())) {
+						if (usesBrowser(entry.getKey())) {
+							if (browserStepRunning) {
+								continue;
+							}
+							browserStepRunning = true;
+						}
+						ready.add(entry.getKey());
+					}
+				}
+
+				if (ready.isEmpty() && running.isEmpty()) {
+					// 依赖无法满足（循环依赖或引用了不存在的步骤），剩余步骤按顺序执行
+					logger.warn("Unresolvable step dependencies in plan {}, executing remaining {} steps sequentially",
+							context.getPlanId(), pending.size());
+					for (ExecutionStep step : new ArrayList<>(pending.keySet())) {
+						pending.remove(step);
+						executeStep(step, context, null, executors);
+					}
+					break;
+				}
+
+				for (ExecutionStep step : ready) {
+					pending.remove(step);
+					running.put(completionService.submit(() -> executeStepIsolated(step, context, executors)), step);
+				}
+
+				Future<BaseAgent> done = completionService.take();
+				ExecutionStep doneStep = running.remove(done);
+				finished.add(doneStep.getStepIndex());
+				if (usesBrowser(doneStep)) {
+					browserStepRunning = false;
+				}
+				done.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			running.keySet().forEach(future -> future.cancel(true));
+			throw new IllegalStateException("Plan execution interrupted: " + context.getPlanId(), e);
+		}
+		catch (ExecutionException e) {
+			running.keySet().forEach(future -> future.cancel(true));
+			throw new IllegalStateException("Step execution failed in plan: " + context.getPlanId(), e.getCause());
+		}
+	}
+
+	/**
+	 * 判断步骤对应的智能体是否使用浏览器工具
+	 */
+	private boolean usesBrowser(ExecutionStep step) {
+		String stepType = getStepFromStepReq(step.getStepRequirement());
+		for (DynamicAgentEntity agent : agents) {
+			if (agent.getAgentName().equalsIgnoreCase(stepType)) {
+				List<String> toolKeys = agent.getAvailableToolKeys();
+				return toolKeys != null && toolKeys.contains(BROWSER_TOOL_KEY);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 计算步骤的依赖集合。未声明依赖的步骤依赖其前面的所有步骤，保持与顺序执行一致的语义
+	 */
+	private Set<Integer> resolveDependencies(List<ExecutionStep> steps, int position) {
+		ExecutionStep step = steps.get(position);
+		Set<Integer> dependencies = new HashSet<>();
+		if (step.getDependsOn() == null) {
+			for (int i = 0; i < position; i++) {
+				dependencies.add(steps.get(i).getStepIndex());
+			}
+		}
+		else {
+			for (Integer dependency : step.getDependsOn()) {
+				if (dependency != null && !dependency.equals(step.getStepIndex())) {
+					dependencies.add(dependency);
+				}
+			}
+		}
+		return dependencies;
+	}
+
+	/**
+	 * 并行执行单个步骤，每个步骤使用独立的智能体记忆和工具状态作用域，避免与同一计划中其他并行步骤的对话历史及当前文件互相干扰
+	 */
+	private BaseAgent executeStepIsolated(ExecutionStep step, ExecutionContext context, List<BaseAgent> executors) {
+		String memoryId = context.getPlanId() + "_step_" + step.getStepIndex();
+		try {
+			return executeStep(step, context, memoryId, executors);
+		}
+		finally {
+			llmService.clearAgentMemory(memoryId);
+		}
+	}
+
 	/**
 	 * 执行单个步骤
-	 * @param executor 执行器
-	 * @param stepInfo 步骤信息
-	 * @return 步骤执行结果
+	 * @param step 步骤信息
+	 * @param context 执行上下文
+	 * @param memoryId 智能体记忆ID，为null时使用planId
+	 * @param executors 收集创建的执行器，用于计划结束时统一清理
+	 * @return 步骤执行器
 	 */
-	private BaseAgent executeStep(ExecutionStep step, ExecutionContext context) {
+	private BaseAgent executeStep(ExecutionStep step, ExecutionContext context, String memoryId,
+			List<BaseAgent> executors) {
 
 		try {
 			String stepType = getStepFromStepReq(step.getStepRequirement());
@@ -133,6 +326,10 @@ public class PlanExecutor {
 				step.setResult("No executor found for step type: " + stepType);
 				return null;
 			}
+			executors.add(executor);
+			if (memoryId != null) {
+				executor.setMemoryId(memoryId);
+			}
 			step.setAgent(executor);
 			executor.setState(AgentState.IN_PROGRESS);
 
@@ -215,13 +412,26 @@ public class PlanExecutor {
 
 	private void recordStepStart(ExecutionStep step, ExecutionContext context) {
 		// 更新 PlanExecutionRecord 中的当前步骤索引
-		PlanExecutionRecord record = getOrCreatePlanExecutionRecord(context);
-		if (record != null) {
-			int currentStepIndex = step.getStepIndex();
-			record.setCurrentStepIndex(currentStepIndex);
-			retrieveExecutionSteps(context, record);
-			getRecorder().recordPlanExecution(record);
+		synchronized (context) {
+			PlanExecutionRecord record = getOrCreatePlanExecutionRecord(context);
+			if (record != null) {
+				record.setCurrentStepIndex(getCurrentStepIndex(step, context));
+				retrieveExecutionSteps(context, record);
+				getRecorder().recordPlanExecution(record);
+			}
+		}
+	}
+
+	/**
+	 * 计算计划当前步骤索引：并行执行时取仍在执行中的最小步骤索引，保证索引不会因后续步骤先完成而回退
+	 */
+	private int getCurrentStepIndex(ExecutionStep step, ExecutionContext context) {
+		for (ExecutionStep planStep : context.getPlan().getSteps()) {
+			if (planStep.getStatus() == AgentState.IN_PROGRESS) {
+				return planStep.getStepIndex();
+			}
 		}
+		return step.getStepIndex();
 	}
 
 	/**
@@ -231,13 +441,14 @@ public class PlanExecutor {
 	 */
 	private void recordStepEnd(ExecutionStep step, ExecutionContext context) {
 		// 更新 PlanExecutionRecord 中的步骤状态
-		PlanExecutionRecord record = getOrCreatePlanExecutionRecord(context);
-		if (record != null) {
-			int currentStepIndex = step.getStepIndex();
-			record.setCurrentStepIndex(currentStepIndex);
-			// 重新获取所有步骤状态
-			retrieveExecutionSteps(context, record);
-			getRecorder().recordPlanExecution(record);
+		synchronized (context) {
+			PlanExecutionRecord record = getOrCreatePlanExecutionRecord(context);
+			if (record != null) {
+				record.setCurrentStepIndex(getCurrentStepIndex(step, context));
+				// 重新获取所有步骤状态
+				retrieveExecutionSteps(context, record);
+				getRecorder().recordPlanExecution(record);
+			}
 		}
 	}
 
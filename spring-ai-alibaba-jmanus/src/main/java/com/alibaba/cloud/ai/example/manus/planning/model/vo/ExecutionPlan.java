@@ -38,6 +38,11 @@ public class ExecutionPlan {
 
 	private List<ExecutionStep> steps;
 
+	/**
+	 * 当前计划允许同时执行的最大步骤数，为null时使用全局配置 manus.agent.maxConcurrentSteps
+	 */
+	private Integer maxConcurrentSteps;
+
 	public ExecutionPlan(String planId, String title) {
 		this.planId = planId;
 		this.title = title;
@@ -81,6 +86,14 @@ public class ExecutionPlan {
 		return steps.size();
 	}
 
+	public Integer getMaxConcurrentSteps() {
+		return maxConcurrentSteps;
+	}
+
+	public void setMaxConcurrentSteps(Integer maxConcurrentSteps) {
+		this.maxConcurrentSteps = maxConcurrentSteps;
+	}
+
 	public String getPlanningThinking() {
 		return planningThinking;
 	}
@@ -218,6 +231,9 @@ public class ExecutionPlan {
 		json.append("{\n");
 		json.append("  \"planId\": \"").append(planId).append("\",\n");
 		json.append("  \"title\": \"").append(title).append("\",\n");
+		if (maxConcurrentSteps != null) {
+			json.append("  \"maxConcurrentSteps\": ").append(maxConcurrentSteps).append(",\n");
+		}
 
 		// 添加步骤数组
 		json.append("  \"steps\": [\n");
@@ -255,6 +271,11 @@ public class ExecutionPlan {
 		// 创建新的ExecutionPlan对象
 		ExecutionPlan plan = new ExecutionPlan(planId, title);
 
+		// 计划级别的并发限制（可选）
+		if (rootNode.has("maxConcurrentSteps")) {
+			plan.setMaxConcurrentSteps(rootNode.get("maxConcurrentSteps").asInt());
+		}
+
 		// 如果有计划步骤，添加到计划中
 		if (rootNode.has("steps") && rootNode.get("steps").isArray()) {
 			com.fasterxml.jackson.databind.JsonNode stepsNode = rootNode.get("steps");
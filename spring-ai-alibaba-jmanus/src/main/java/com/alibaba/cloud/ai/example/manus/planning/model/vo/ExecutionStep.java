@@ -15,6 +15,9 @@
  */
 package com.alibaba.cloud.ai.example.manus.planning.model.vo;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.alibaba.cloud.ai.example.manus.agent.AgentState;
 import com.alibaba.cloud.ai.example.manus.agent.BaseAgent;
 
@@ -31,6 +34,11 @@ public class ExecutionStep {
 
 	private BaseAgent agent;
 
+	/**
+	 * 当前步骤依赖的步骤索引列表。为null时表示依赖前面所有步骤（即顺序执行），为空列表时表示可以与其他步骤并行执行
+	 */
+	private List<Integer> dependsOn;
+
 	public Integer getStepIndex() {
 		return stepIndex;
 	}
@@ -63,6 +71,14 @@ public class ExecutionStep {
 		this.stepRequirement = stepRequirement;
 	}
 
+	public List<Integer> getDependsOn() {
+		return dependsOn;
+	}
+
+	public void setDependsOn(List<Integer> dependsOn) {
+		this.dependsOn = dependsOn;
+	}
+
 	public String getStepInStr() {
 		String agentState = null;
 		if (agent != null) {
@@ -94,6 +110,10 @@ public class ExecutionStep {
 			json.append(", \"result\": \"").append(result.replace("\"", "\\\"").replace("\n", "\\n")).append("\"");
 		}
 
+		if (dependsOn != null) {
+			json.append(", \"dependsOn\": ").append(dependsOn);
+		}
+
 		json.append("}");
 		return json.toString();
 	}
@@ -120,6 +140,15 @@ public class ExecutionStep {
 			step.setResult(stepNode.get("result").asText());
 		}
 
+		// 设置步骤依赖（如果有）
+		if (stepNode.has("dependsOn") && stepNode.get("dependsOn").isArray()) {
+			List<Integer> dependsOn = new ArrayList<>();
+			for (com.fasterxml.jackson.databind.JsonNode dependNode : stepNode.get("dependsOn")) {
+				dependsOn.add(dependNode.asInt());
+			}
+			step.setDependsOn(dependsOn);
+		}
+
 		return step;
 	}
 
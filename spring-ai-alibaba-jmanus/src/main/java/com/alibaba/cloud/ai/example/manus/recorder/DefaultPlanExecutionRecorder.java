@@ -15,29 +15,125 @@
  */
 package com.alibaba.cloud.ai.example.manus.recorder;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 import com.alibaba.cloud.ai.example.manus.recorder.entity.AgentExecutionRecord;
 import com.alibaba.cloud.ai.example.manus.recorder.entity.PlanExecutionRecord;
+import com.alibaba.cloud.ai.example.manus.recorder.entity.PlanExecutionRecordEntity;
 import com.alibaba.cloud.ai.example.manus.recorder.entity.ThinkActRecord;
+import com.alibaba.cloud.ai.example.manus.recorder.repository.PlanExecutionRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
-import java.time.LocalDateTime;
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 默认的计划执行记录器。
+ *
+ * <p>
+ * 计划记录和智能体记录分别按ID建立索引，读操作不加锁；记录在最后一次更新30分钟后通过时间轮淘汰，淘汰和持久化都在后台线程中进行，
+ * 不会阻塞智能体执行线程和前端轮询接口。有变更的记录会被标记为脏数据，由后台线程批量写入 {@link PlanExecutionRecordRepository}。
+ */
 @Component
 public class DefaultPlanExecutionRecorder implements PlanExecutionRecorder {
 
+	private static final Logger logger = LoggerFactory.getLogger(DefaultPlanExecutionRecorder.class);
+
+	/** 计划记录在最后一次更新后保留在内存中的时间（分钟） */
+	private static final int EXPIRATION_MINUTES = 30;
+
+	/** 时间轮槽数，必须大于过期分钟数，每个槽对应一分钟 */
+	private static final int WHEEL_SLOTS = 64;
+
+	/** 批量持久化间隔（秒） */
+	private static final long FLUSH_INTERVAL_SECONDS = 5;
+
+	/** 单批次最多持久化的记录数 */
+	private static final int FLUSH_BATCH_SIZE = 100;
+
+	/** 数据库中不存在的计划ID的缓存时间（毫秒），期间对该ID的轮询不再访问数据库 */
+	private static final long MISSING_RECORD_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
 	private final Map<String, PlanExecutionRecord> planRecords = new ConcurrentHashMap<>();
 
-	private final AtomicLong agentExecutionIdGenerator = new AtomicLong(0);
+	/** 智能体记录索引，按 (计划ID, 智能体执行记录ID) 建立，避免不同计划的记录互相覆盖 */
+	private final Map<AgentRecordKey, AgentExecutionRecord> agentRecords = new ConcurrentHashMap<>();
+
+	private final Map<String, Long> lastActiveMinutes = new ConcurrentHashMap<>();
+
+	private final Queue<String>[] expirationWheel;
+
+	private final Set<String> dirtyPlanIds = ConcurrentHashMap.newKeySet();
+
+	private final Set<String> removedPlanIds = ConcurrentHashMap.newKeySet();
+
+	/** 在数据库中未找到的计划ID及其查询时间 */
+	private final Map<String, Long> missingPlanIds = new ConcurrentHashMap<>();
+
+	/**
+	 * 智能体执行记录ID生成器。以启动时间（毫秒）乘以1000作为起点，重启后生成的ID不会与持久化的历史记录重复，
+	 * 除非上一次运行平均每毫秒生成超过1000个ID
+	 */
+	private final AtomicLong agentExecutionIdGenerator = new AtomicLong(System.currentTimeMillis() * 1000);
+
+	private final PlanExecutionRecordRepository repository;
+
+	private final ObjectMapper objectMapper;
+
+	private final ScheduledExecutorService scheduler;
+
+	private volatile long processedMinute;
+
+	@SuppressWarnings("unchecked")
+	public DefaultPlanExecutionRecorder(ObjectProvider<PlanExecutionRecordRepository> repositoryProvider,
+			ObjectProvider<ObjectMapper> objectMapperProvider) {
+		this.repository = repositoryProvider.getIfAvailable();
+		this.objectMapper = objectMapperProvider
+			.getIfAvailable(() -> new ObjectMapper().registerModule(new JavaTimeModule())
+				.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+		this.expirationWheel = new Queue[WHEEL_SLOTS];
+		for (int i = 0; i < WHEEL_SLOTS; i++) {
+			expirationWheel[i] = new ConcurrentLinkedQueue<>();
+		}
+		this.processedMinute = currentMinute();
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "plan-execution-recorder");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduler.scheduleWithFixedDelay(this::safeAdvanceWheel, 1, 1, TimeUnit.MINUTES);
+		this.scheduler.scheduleWithFixedDelay(this::safeFlush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS,
+				TimeUnit.SECONDS);
+	}
 
 	@Override
 	public String recordPlanExecution(PlanExecutionRecord stepRecord) {
 		String planId = stepRecord.getPlanId();
-		planRecords.put(planId, stepRecord);
+		PlanExecutionRecord previous = planRecords.put(planId, stepRecord);
+		if (previous != stepRecord) {
+			indexAgentRecords(stepRecord);
+		}
+		removedPlanIds.remove(planId);
+		missingPlanIds.remove(planId);
+		touch(planId);
 		return planId;
 	}
 
@@ -48,20 +144,23 @@ public class DefaultPlanExecutionRecorder implements PlanExecutionRecorder {
 		PlanExecutionRecord planRecord = planRecords.get(planId);
 		if (planRecord != null) {
 			planRecord.addAgentExecutionRecord(agentRecord);
+			agentRecords.put(new AgentRecordKey(planId, agentExecutionId), agentRecord);
+			touch(planId);
 		}
 		return agentExecutionId;
 	}
 
 	@Override
 	public void recordThinkActExecution(String planId, Long agentExecutionId, ThinkActRecord thinkActRecord) {
-		PlanExecutionRecord planRecord = planRecords.get(planId);
-		if (planRecord != null) {
-			for (AgentExecutionRecord agentRecord : planRecord.getAgentExecutionSequence()) {
-				if (agentExecutionId.equals(agentRecord.getId())) {
-					agentRecord.addThinkActStep(thinkActRecord);
-					break;
-				}
-			}
+		AgentExecutionRecord agentRecord = agentRecords.get(new AgentRecordKey(planId, agentExecutionId));
+		if (agentRecord == null) {
+			logger.warn("Agent execution record {} not found in plan {}, think-act record dropped", agentExecutionId,
+					planId);
+			return;
+		}
+		if (planRecords.containsKey(planId)) {
+			agentRecord.addThinkActStep(thinkActRecord);
+			touch(planId);
 		}
 	}
 
@@ -70,17 +169,36 @@ public class DefaultPlanExecutionRecorder implements PlanExecutionRecorder {
 		PlanExecutionRecord record = planRecords.get(planId);
 		if (record != null) {
 			record.complete(summary);
+			touch(planId);
 		}
 	}
 
 	@Override
 	public PlanExecutionRecord getExecutionRecord(String planId) {
-		return planRecords.get(planId);
+		PlanExecutionRecord record = planRecords.get(planId);
+		if (record == null && repository != null && !removedPlanIds.contains(planId) && !isKnownMissing(planId)) {
+			record = loadFromRepository(planId);
+			if (record == null) {
+				missingPlanIds.put(planId, System.currentTimeMillis());
+			}
+			else {
+				// 重新加载的历史记录放回缓存，后续轮询不再访问数据库，过期后照常淘汰
+				PlanExecutionRecord existing = planRecords.putIfAbsent(planId, record);
+				if (existing != null) {
+					return existing;
+				}
+				indexAgentRecords(record);
+				if (lastActiveMinutes.putIfAbsent(planId, currentMinute()) == null) {
+					scheduleExpiration(planId, currentMinute() + EXPIRATION_MINUTES);
+				}
+			}
+		}
+		return record;
 	}
 
 	/**
 	 * 将指定计划ID的执行记录保存到持久化存储 此方法会递归调用 PlanExecutionRecord、AgentExecutionRecord 和
-	 * ThinkActRecord 的 save 方法
+	 * ThinkActRecord 的 save 方法，实际写入由后台线程批量异步完成
 	 * @param planId 要保存的计划ID
 	 * @return 如果找到并保存了记录则返回 true，否则返回 false
 	 */
@@ -93,60 +211,240 @@ public class DefaultPlanExecutionRecorder implements PlanExecutionRecorder {
 
 		// 调用 PlanExecutionRecord 的 save 方法，它会递归调用所有子记录的 save 方法
 		record.save();
+		dirtyPlanIds.add(planId);
 		return true;
 	}
 
 	/**
-	 * 将所有执行记录保存到持久化存储 此方法会遍历所有计划记录并调用它们的 save 方法
+	 * 将所有执行记录保存到持久化存储 此方法会遍历所有计划记录并调用它们的 save 方法，实际写入由后台线程批量异步完成
 	 */
 	@Override
 	public void saveAllExecutionRecords() {
 		for (Map.Entry<String, PlanExecutionRecord> entry : planRecords.entrySet()) {
 			entry.getValue().save();
+			dirtyPlanIds.add(entry.getKey());
 		}
 	}
 
 	@Override
 	public AgentExecutionRecord getCurrentAgentExecutionRecord(String planId) {
-		// 自动清理超过30分钟的计划记录
-		cleanOutdatedPlans(30);
-
 		PlanExecutionRecord planRecord = planRecords.get(planId);
 		if (planRecord != null) {
 			List<AgentExecutionRecord> agentExecutionSequence = planRecord.getAgentExecutionSequence();
-			int currentIndex = planRecord.getCurrentStepIndex();
-			if (!agentExecutionSequence.isEmpty()) {
-				return agentExecutionSequence.get(currentIndex);
+			Integer currentIndex = planRecord.getCurrentStepIndex();
+			if (!agentExecutionSequence.isEmpty() && currentIndex != null) {
+				return agentExecutionSequence.get(Math.min(currentIndex, agentExecutionSequence.size() - 1));
 			}
 		}
 		return null;
 	}
 
 	/**
-	 * 清理超过指定分钟数的过期计划记录
-	 * @param expirationMinutes 过期时间（分钟）
+	 * 删除指定计划ID的执行记录
+	 * @param planId 要删除的计划ID
 	 */
-	private void cleanOutdatedPlans(int expirationMinutes) {
-		LocalDateTime currentTime = LocalDateTime.now();
-
-		planRecords.entrySet().removeIf(entry -> {
-			PlanExecutionRecord record = entry.getValue();
-			// 检查记录创建时间是否超过了指定的过期时间
-			if (record != null && record.getStartTime() != null) {
-				LocalDateTime expirationTime = record.getStartTime().plusMinutes(expirationMinutes);
-				return currentTime.isAfter(expirationTime);
-			}
+	@Override
+	public void removeExecutionRecord(String planId) {
+		PlanExecutionRecord record = planRecords.remove(planId);
+		lastActiveMinutes.remove(planId);
+		dirtyPlanIds.remove(planId);
+		if (record != null) {
+			unindexAgentRecords(record);
+		}
+		if (repository != null) {
+			removedPlanIds.add(planId);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+		safeFlush();
+	}
+
+	private boolean isKnownMissing(String planId) {
+		Long missingSince = missingPlanIds.get(planId);
+		if (missingSince == null) {
 			return false;
-		});
+		}
+		if (System.currentTimeMillis() - missingSince < MISSING_RECORD_TTL_MILLIS) {
+			return true;
+		}
+		missingPlanIds.remove(planId, missingSince);
+		return false;
+	}
+
+	private void touch(String planId) {
+		long minute = currentMinute();
+		Long previous = lastActiveMinutes.put(planId, minute);
+		if (previous == null) {
+			scheduleExpiration(planId, minute + EXPIRATION_MINUTES);
+		}
+		dirtyPlanIds.add(planId);
+	}
+
+	private void scheduleExpiration(String planId, long expirationMinute) {
+		expirationWheel[(int) (expirationMinute % WHEEL_SLOTS)].add(planId);
+	}
+
+	private void indexAgentRecords(PlanExecutionRecord record) {
+		for (AgentExecutionRecord agentRecord : record.getAgentExecutionSequence()) {
+			if (agentRecord.getId() != null) {
+				agentRecords.put(new AgentRecordKey(record.getPlanId(), agentRecord.getId()), agentRecord);
+			}
+		}
+	}
+
+	private void unindexAgentRecords(PlanExecutionRecord record) {
+		for (AgentExecutionRecord agentRecord : record.getAgentExecutionSequence()) {
+			if (agentRecord.getId() != null) {
+				// 只移除仍指向该记录的索引，同一计划的新记录对象可能已经重新建立了索引
+				agentRecords.remove(new AgentRecordKey(record.getPlanId(), agentRecord.getId()), agentRecord);
+			}
+		}
 	}
 
 	/**
-	 * 删除指定计划ID的执行记录
-	 * @param planId 要删除的计划ID
+	 * 推进时间轮，处理自上次推进以来到期的所有槽。记录被更新过时按最后活跃时间重新放入时间轮，否则先持久化再从内存中淘汰
 	 */
-	@Override
-	public void removeExecutionRecord(String planId) {
-		planRecords.remove(planId);
+	private void advanceWheel() {
+		long now = currentMinute();
+		long from = Math.max(processedMinute + 1, now - WHEEL_SLOTS + 1);
+		for (long minute = from; minute <= now; minute++) {
+			Queue<String> slot = expirationWheel[(int) (minute % WHEEL_SLOTS)];
+			List<String> expired = new ArrayList<>();
+			for (Iterator<String> iterator = slot.iterator(); iterator.hasNext();) {
+				String planId = iterator.next();
+				iterator.remove();
+				Long lastActive = lastActiveMinutes.get(planId);
+				if (lastActive == null) {
+					continue;
+				}
+				long expirationMinute = lastActive + EXPIRATION_MINUTES;
+				if (expirationMinute > now) {
+					scheduleExpiration(planId, expirationMinute);
+				}
+				else {
+					expired.add(planId);
+				}
+			}
+			if (!expired.isEmpty()) {
+				try {
+					flush(expired);
+				}
+				catch (RuntimeException e) {
+					// 持久化失败时保留在内存中，下一分钟重试，避免未保存的记录被淘汰
+					logger.error("Failed to persist expired plan execution records, retrying later", e);
+					expired.forEach(planId -> scheduleExpiration(planId, now + 1));
+					continue;
+				}
+				for (String planId : expired) {
+					lastActiveMinutes.remove(planId);
+					PlanExecutionRecord record = planRecords.remove(planId);
+					if (record != null) {
+						unindexAgentRecords(record);
+					}
+				}
+			}
+		}
+		processedMinute = now;
+
+		long missingDeadline = System.currentTimeMillis() - MISSING_RECORD_TTL_MILLIS;
+		missingPlanIds.values().removeIf(missingSince -> missingSince < missingDeadline);
+	}
+
+	private void safeAdvanceWheel() {
+		try {
+			advanceWheel();
+		}
+		catch (Exception e) {
+			logger.error("Failed to evict expired plan execution records", e);
+		}
+	}
+
+	private void safeFlush() {
+		try {
+			if (repository != null && !removedPlanIds.isEmpty()) {
+				List<String> removed = new ArrayList<>(removedPlanIds);
+				repository.deleteAllById(removed);
+				removed.forEach(removedPlanIds::remove);
+			}
+			while (!dirtyPlanIds.isEmpty()) {
+				List<String> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+				for (String planId : dirtyPlanIds) {
+					batch.add(planId);
+					if (batch.size() >= FLUSH_BATCH_SIZE) {
+						break;
+					}
+				}
+				flush(batch);
+			}
+		}
+		catch (Exception e) {
+			logger.error("Failed to persist plan execution records", e);
+		}
+	}
+
+	/**
+	 * 批量持久化指定的计划记录，没有配置仓库时只清除脏标记。写入失败时恢复这些记录的脏标记并抛出异常，由下一次持久化重试
+	 */
+	private void flush(List<String> planIds) {
+		List<PlanExecutionRecordEntity> entities = new ArrayList<>(planIds.size());
+		List<String> flushed = new ArrayList<>(planIds.size());
+		for (String planId : planIds) {
+			// 序列化前先清除脏标记，快照之后的更新会重新标记
+			if (!dirtyPlanIds.remove(planId)) {
+				continue;
+			}
+			flushed.add(planId);
+			PlanExecutionRecord record = planRecords.get(planId);
+			if (record == null || repository == null) {
+				continue;
+			}
+			try {
+				// 智能体可能仍在更新记录，序列化前先复制一份快照
+				PlanExecutionRecord snapshot = record.snapshot();
+				entities.add(new PlanExecutionRecordEntity(planId, objectMapper.writeValueAsString(snapshot),
+						snapshot.isCompleted()));
+			}
+			catch (JsonProcessingException e) {
+				logger.warn("Failed to serialize plan execution record: {}", planId, e);
+			}
+		}
+		if (!entities.isEmpty()) {
+			try {
+				repository.saveAll(entities);
+			}
+			catch (RuntimeException e) {
+				dirtyPlanIds.addAll(flushed);
+				throw e;
+			}
+		}
+	}
+
+	private PlanExecutionRecord loadFromRepository(String planId) {
+		try {
+			return repository.findById(planId).map(entity -> {
+				try {
+					return objectMapper.readValue(entity.getRecordJson(), PlanExecutionRecord.class);
+				}
+				catch (JsonProcessingException e) {
+					logger.warn("Failed to deserialize plan execution record: {}", planId, e);
+					return null;
+				}
+			}).orElse(null);
+		}
+		catch (Exception e) {
+			logger.warn("Failed to load plan execution record: {}", planId, e);
+			return null;
+		}
+	}
+
+	private static long currentMinute() {
+		return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+	}
+
+	private record AgentRecordKey(String planId, Long agentExecutionId) {
 	}
 
 }
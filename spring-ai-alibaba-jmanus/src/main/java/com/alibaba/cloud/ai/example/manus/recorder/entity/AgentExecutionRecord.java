@@ -16,8 +16,8 @@
 package com.alibaba.cloud.ai.example.manus.recorder.entity;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 智能体执行记录类，用于跟踪和记录BaseAgent执行过程的详细信息。
@@ -87,7 +87,7 @@ public class AgentExecutionRecord {
 
 	// 默认构造函数
 	public AgentExecutionRecord() {
-		this.thinkActSteps = new ArrayList<>();
+		this.thinkActSteps = new CopyOnWriteArrayList<>();
 	}
 
 	// 带参数的构造函数
@@ -100,7 +100,7 @@ public class AgentExecutionRecord {
 		this.isCompleted = false;
 		this.isStuck = false;
 		this.currentStep = 0;
-		this.thinkActSteps = new ArrayList<>();
+		this.thinkActSteps = new CopyOnWriteArrayList<>();
 	}
 
 	/**
@@ -109,7 +109,7 @@ public class AgentExecutionRecord {
 	 */
 	public void addThinkActStep(ThinkActRecord record) {
 		if (this.thinkActSteps == null) {
-			this.thinkActSteps = new ArrayList<>();
+			this.thinkActSteps = new CopyOnWriteArrayList<>();
 		}
 		this.thinkActSteps.add(record);
 		this.currentStep = this.thinkActSteps.size();
@@ -202,8 +202,38 @@ public class AgentExecutionRecord {
 	}
 
 	public void setThinkActSteps(List<ThinkActRecord> thinkActSteps) {
-		this.thinkActSteps = thinkActSteps;
-		this.currentStep = thinkActSteps != null ? thinkActSteps.size() : 0;
+		// 反序列化得到的普通列表替换为线程安全的列表
+		this.thinkActSteps = thinkActSteps != null ? new CopyOnWriteArrayList<>(thinkActSteps)
+				: new CopyOnWriteArrayList<>();
+		this.currentStep = this.thinkActSteps.size();
+	}
+
+	/**
+	 * 创建当前记录的快照，用于在智能体仍在更新记录时进行序列化
+	 * @return 与当前记录互不影响的副本
+	 */
+	public AgentExecutionRecord snapshot() {
+		AgentExecutionRecord copy = new AgentExecutionRecord();
+		copy.id = id;
+		copy.conversationId = conversationId;
+		copy.agentName = agentName;
+		copy.agentDescription = agentDescription;
+		copy.startTime = startTime;
+		copy.endTime = endTime;
+		copy.maxSteps = maxSteps;
+		copy.status = status;
+		copy.isCompleted = isCompleted;
+		copy.isStuck = isStuck;
+		if (thinkActSteps != null) {
+			for (ThinkActRecord thinkActRecord : thinkActSteps) {
+				copy.thinkActSteps.add(thinkActRecord.snapshot());
+			}
+		}
+		copy.currentStep = currentStep;
+		copy.agentRequest = agentRequest;
+		copy.result = result;
+		copy.errorMessage = errorMessage;
+		return copy;
 	}
 
 	public String getAgentRequest() {
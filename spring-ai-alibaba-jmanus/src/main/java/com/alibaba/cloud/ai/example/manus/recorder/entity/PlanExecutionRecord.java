@@ -19,6 +19,7 @@ package com.alibaba.cloud.ai.example.manus.recorder.entity;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import com.alibaba.cloud.ai.example.manus.planning.model.vo.UserInputWaitState; // Added import
 
 /**
@@ -87,7 +88,7 @@ public class PlanExecutionRecord {
 		// this.startTime = LocalDateTime.now(); // Consider if this is appropriate for a
 		// default constructor
 		this.completed = false;
-		this.agentExecutionSequence = new ArrayList<>();
+		this.agentExecutionSequence = new CopyOnWriteArrayList<>();
 	}
 
 	/**
@@ -99,7 +100,7 @@ public class PlanExecutionRecord {
 		this.steps = new ArrayList<>();
 		this.startTime = LocalDateTime.now();
 		this.completed = false;
-		this.agentExecutionSequence = new ArrayList<>();
+		this.agentExecutionSequence = new CopyOnWriteArrayList<>();
 	}
 
 	/**
@@ -108,7 +109,9 @@ public class PlanExecutionRecord {
 	 * @param agentName 执行智能体名称
 	 */
 	public void addStep(String step, String agentName) {
-		this.steps.add(step);
+		synchronized (this.steps) {
+			this.steps.add(step);
+		}
 	}
 
 	/**
@@ -129,7 +132,37 @@ public class PlanExecutionRecord {
 	}
 
 	public void setAgentExecutionSequence(List<AgentExecutionRecord> agentExecutionSequence) {
-		this.agentExecutionSequence = agentExecutionSequence;
+		// 反序列化得到的普通列表替换为线程安全的列表，重新加载的记录仍可被并行步骤追加
+		this.agentExecutionSequence = agentExecutionSequence != null
+				? new CopyOnWriteArrayList<>(agentExecutionSequence) : new CopyOnWriteArrayList<>();
+	}
+
+	/**
+	 * 创建当前记录的快照，用于在智能体仍在更新记录时进行序列化
+	 * @return 与当前记录互不影响的副本
+	 */
+	public PlanExecutionRecord snapshot() {
+		PlanExecutionRecord copy = new PlanExecutionRecord();
+		copy.id = id;
+		copy.planId = planId;
+		copy.title = title;
+		copy.userRequest = userRequest;
+		copy.startTime = startTime;
+		copy.endTime = endTime;
+		List<String> currentSteps = steps;
+		if (currentSteps != null) {
+			synchronized (currentSteps) {
+				copy.steps = new ArrayList<>(currentSteps);
+			}
+		}
+		copy.currentStepIndex = currentStepIndex;
+		copy.completed = completed;
+		copy.summary = summary;
+		for (AgentExecutionRecord agentRecord : agentExecutionSequence) {
+			copy.agentExecutionSequence.add(agentRecord.snapshot());
+		}
+		copy.userInputWaitState = userInputWaitState;
+		return copy;
 	}
 
 	/**
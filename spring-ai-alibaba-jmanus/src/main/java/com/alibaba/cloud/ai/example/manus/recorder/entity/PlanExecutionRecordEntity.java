@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.example.manus.recorder.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * 计划执行记录的持久化实体，整个 {@link PlanExecutionRecord} 以JSON形式存储
+ */
+@Entity
+@Table(name = "plan_execution_record")
+public class PlanExecutionRecordEntity {
+
+	@Id
+	@Column(name = "plan_id", length = 50)
+	private String planId;
+
+	// 执行记录包含所有思考与工具调用结果，可能远超 TEXT 的 64KB 上限
+	@Lob
+	@Column(name = "record_json", nullable = false)
+	private String recordJson;
+
+	@Column(name = "completed", nullable = false)
+	private boolean completed;
+
+	@Column(name = "update_time", nullable = false)
+	private LocalDateTime updateTime;
+
+	public PlanExecutionRecordEntity() {
+	}
+
+	public PlanExecutionRecordEntity(String planId, String recordJson, boolean completed) {
+		this.planId = planId;
+		this.recordJson = recordJson;
+		this.completed = completed;
+		this.updateTime = LocalDateTime.now();
+	}
+
+	public String getPlanId() {
+		return planId;
+	}
+
+	public void setPlanId(String planId) {
+		this.planId = planId;
+	}
+
+	public String getRecordJson() {
+		return recordJson;
+	}
+
+	public void setRecordJson(String recordJson) {
+		this.recordJson = recordJson;
+	}
+
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	public void setCompleted(boolean completed) {
+		this.completed = completed;
+	}
+
+	public LocalDateTime getUpdateTime() {
+		return updateTime;
+	}
+
+	public void setUpdateTime(LocalDateTime updateTime) {
+		this.updateTime = updateTime;
+	}
+
+}
@@ -91,6 +91,30 @@ public class ThinkActRecord {
 		this.thinkStartTime = LocalDateTime.now();
 	}
 
+	/**
+	 * 创建当前记录的快照，用于在智能体仍在更新记录时进行序列化
+	 * @return 与当前记录互不影响的副本
+	 */
+	public ThinkActRecord snapshot() {
+		ThinkActRecord copy = new ThinkActRecord();
+		copy.id = id;
+		copy.parentExecutionId = parentExecutionId;
+		copy.thinkStartTime = thinkStartTime;
+		copy.thinkEndTime = thinkEndTime;
+		copy.actStartTime = actStartTime;
+		copy.actEndTime = actEndTime;
+		copy.thinkInput = thinkInput;
+		copy.thinkOutput = thinkOutput;
+		copy.actionNeeded = actionNeeded;
+		copy.actionDescription = actionDescription;
+		copy.actionResult = actionResult;
+		copy.status = status;
+		copy.errorMessage = errorMessage;
+		copy.toolName = toolName;
+		copy.toolParameters = toolParameters;
+		return copy;
+	}
+
 	/**
 	 * 记录思考阶段开始
 	 */
@@ -26,11 +26,16 @@ import org.springframework.ai.chat.model.ToolContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class PlanningTool implements ToolCallBiFunctionDef<PlanningTool.PlanningInput> {
 
 	private static final Logger log = LoggerFactory.getLogger(PlanningTool.class);
 
+	// 匹配步骤末尾的依赖声明，例如 "(depends_on: 0,1)"，空列表表示该步骤不依赖其他步骤
+	private static final Pattern DEPENDS_ON_PATTERN = Pattern.compile("\\(\\s*depends_on\\s*:\\s*([\\d,\\s]*)\\)\\s*$");
+
 	private ExecutionPlan currentPlan;
 
 	/**
@@ -114,7 +119,7 @@ public class PlanningTool implements ToolCallBiFunctionDef<PlanningTool.Planning
 			            "type": "string"
 			        },
 			        "steps": {
-			            "description": "List of plan steps",
+			            "description": "List of plan steps, a step may end with (depends_on: i,j) to declare the indexes of the steps it depends on",
 			            "type": "array",
 			            "items": {
 			                "type": "string"
@@ -175,10 +180,41 @@ public class PlanningTool implements ToolCallBiFunctionDef<PlanningTool.Planning
 	private ExecutionStep createExecutionStep(String step, int index) {
 		ExecutionStep executionStep = new ExecutionStep();
 		executionStep.setStepIndex(index);
+		Matcher matcher = DEPENDS_ON_PATTERN.matcher(step);
+		if (matcher.find()) {
+			executionStep.setDependsOn(parseDependsOn(matcher.group(1), index));
+			step = step.substring(0, matcher.start()).trim();
+		}
 		executionStep.setStepRequirement(step);
 		return executionStep;
 	}
 
+	/**
+	 * 解析模型输出的依赖步骤索引，只允许引用前面的步骤。解析失败时返回null，该步骤依赖前面所有步骤，即按顺序执行
+	 */
+	private List<Integer> parseDependsOn(String dependencies, int index) {
+		List<Integer> dependsOn = new ArrayList<>();
+		for (String dependency : dependencies.split(",")) {
+			if (dependency.isBlank()) {
+				continue;
+			}
+			try {
+				int dependencyIndex = Integer.parseInt(dependency.trim());
+				if (dependencyIndex < 0 || dependencyIndex >= index) {
+					log.warn("Invalid depends_on index {} in step {}, executing it sequentially", dependencyIndex,
+							index);
+					return null;
+				}
+				dependsOn.add(dependencyIndex);
+			}
+			catch (NumberFormatException e) {
+				log.warn("Invalid depends_on value '{}' in step {}, executing it sequentially", dependency, index);
+				return null;
+			}
+		}
+		return dependsOn;
+	}
+
 	public ToolExecuteResult createPlan(String planId, String title, List<String> steps) {
 		if (title == null || steps == null || steps.isEmpty()) {
 			log.info("创建计划时缺少必要参数: planId={}, title={}, steps={}", planId, title, steps);
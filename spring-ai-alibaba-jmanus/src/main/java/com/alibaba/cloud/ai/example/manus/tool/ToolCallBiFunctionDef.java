@@ -75,6 +75,14 @@ public interface ToolCallBiFunctionDef<I> extends BiFunction<I, ToolContext, Too
 	 */
 	String getCurrentToolStateString();
 
+	/**
+	 * 设置工具状态的作用域。计划中并行执行的步骤各自使用独立的作用域，避免共享同一份计划级工具状态；
+	 * 未设置时工具状态按 planId 保存
+	 * @param stateScope 状态作用域ID
+	 */
+	default void setStateScope(String stateScope) {
+	}
+
 	/**
 	 * 清理指定 planId 的所有相关资源
 	 * @param planId 计划ID
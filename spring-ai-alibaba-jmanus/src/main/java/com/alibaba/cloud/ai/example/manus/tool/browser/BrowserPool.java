@@ -0,0 +1,360 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.example.manus.tool.browser;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+
+/**
+ * 浏览器进程池。
+ *
+ * <p>
+ * 池中保留少量预热的浏览器进程，每个计划从中获取一个独立的 {@link BrowserContext}（cookie、缓存、标签页互相隔离）， 计划结束时只关闭自己的
+ * context，浏览器进程归还给池复用，从而避免每个计划都启动一次浏览器。 后台线程定期回收空闲超时或已断开连接的浏览器，但始终保留一个预热的浏览器。
+ *
+ * <p>
+ * 每个浏览器的 context 数量上限是硬限制：所有浏览器都已满且不能再启动新浏览器时，新计划等待其他计划释放 context，
+ * 超过等待时间仍没有空闲容量则获取失败，不会让超出上限的计划挤进同一个浏览器进程。
+ */
+public class BrowserPool {
+
+	private static final Logger log = LoggerFactory.getLogger(BrowserPool.class);
+
+	private static final long REAP_INTERVAL_SECONDS = 30;
+
+	private final Supplier<Settings> settingsSupplier;
+
+	private final List<PooledBrowser> browsers = new ArrayList<>();
+
+	private final ScheduledExecutorService reaper;
+
+	private int launching = 0;
+
+	private boolean closed = false;
+
+	public BrowserPool(Supplier<Settings> settingsSupplier) {
+		this.settingsSupplier = settingsSupplier;
+		this.reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "browser-pool-reaper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.reaper.scheduleWithFixedDelay(this::reapIdleBrowsers, REAP_INTERVAL_SECONDS, REAP_INTERVAL_SECONDS,
+				TimeUnit.SECONDS);
+	}
+
+	/**
+	 * 从池中获取一个新的浏览器上下文，没有空闲容量时最多等待 timeoutMillis 毫秒
+	 * @param contextOptions 新建 BrowserContext 的参数
+	 * @param timeoutMillis 最长等待时间
+	 * @return 浏览器租约，使用完毕后必须调用 {@link Lease#release()}
+	 */
+	public Lease acquire(Browser.NewContextOptions contextOptions, long timeoutMillis) {
+		PooledBrowser pooledBrowser = reserveBrowser(timeoutMillis);
+		try {
+			BrowserContext context = pooledBrowser.browser.newContext(contextOptions);
+			return new Lease(pooledBrowser, context);
+		}
+		catch (RuntimeException e) {
+			// 无法创建 context 的浏览器视为不健康，归还后由回收线程关闭
+			pooledBrowser.healthy = false;
+			release(pooledBrowser);
+			throw e;
+		}
+	}
+
+	private PooledBrowser reserveBrowser(long timeoutMillis) {
+		Settings settings = settingsSupplier.get();
+		List<PooledBrowser> unhealthy = new ArrayList<>();
+		try {
+			PooledBrowser reserved = reserveExistingOrLaunchSlot(settings, timeoutMillis, unhealthy);
+			if (reserved != null) {
+				return reserved;
+			}
+		}
+		finally {
+			unhealthy.forEach(PooledBrowser::close);
+		}
+
+		// 在锁外启动浏览器，避免阻塞其他计划获取已有的浏览器
+		PooledBrowser launched = null;
+		try {
+			launched = launch(settings);
+			return launched;
+		}
+		finally {
+			boolean poolClosed;
+			synchronized (this) {
+				launching--;
+				poolClosed = closed;
+				if (launched != null && !poolClosed) {
+					launched.activeContexts = 1;
+					browsers.add(launched);
+				}
+				notifyAll();
+			}
+			if (launched != null && poolClosed) {
+				launched.close();
+				throw new IllegalStateException("Browser pool is closed");
+			}
+		}
+	}
+
+	/**
+	 * 在未达到 context 上限的浏览器中选择负载最小的一个，或者预留一个启动新浏览器的名额，都没有时等待容量释放
+	 * @return 选中的浏览器；返回null表示已预留启动名额，需要调用方启动新浏览器
+	 */
+	private synchronized PooledBrowser reserveExistingOrLaunchSlot(Settings settings, long timeoutMillis,
+			List<PooledBrowser> unhealthy) {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		try {
+			while (true) {
+				if (closed) {
+					throw new IllegalStateException("Browser pool is closed");
+				}
+				PooledBrowser leastLoaded = null;
+				for (Iterator<PooledBrowser> iterator = browsers.iterator(); iterator.hasNext();) {
+					PooledBrowser pooledBrowser = iterator.next();
+					if (!pooledBrowser.isUsable(settings)) {
+						if (pooledBrowser.activeContexts == 0) {
+							iterator.remove();
+							unhealthy.add(pooledBrowser);
+						}
+						continue;
+					}
+					if (leastLoaded == null || pooledBrowser.activeContexts < leastLoaded.activeContexts) {
+						leastLoaded = pooledBrowser;
+					}
+				}
+				if (leastLoaded != null && leastLoaded.activeContexts < settings.maxContextsPerBrowser()) {
+					leastLoaded.activeContexts++;
+					return leastLoaded;
+				}
+				if (browsers.size() + launching < settings.maxBrowsers()) {
+					launching++;
+					return null;
+				}
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					throw new IllegalStateException("No browser context available in pool within " + timeoutMillis
+							+ " ms, all " + settings.maxBrowsers() + " browsers are at "
+							+ settings.maxContextsPerBrowser() + " contexts or launching");
+				}
+				wait(remaining);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a pooled browser", e);
+		}
+	}
+
+	private PooledBrowser launch(Settings settings) {
+		Playwright playwright = null;
+		try {
+			playwright = Playwright.create();
+			Browser browser = playwright.chromium().launch(settings.launchOptions());
+			log.info("Launched pooled Playwright browser, headless: {}", settings.headless());
+			return new PooledBrowser(playwright, browser, settings.headless());
+		}
+		catch (RuntimeException e) {
+			if (playwright != null) {
+				try {
+					playwright.close();
+				}
+				catch (Exception ex) {
+					log.warn("Failed to close failed Playwright instance", ex);
+				}
+			}
+			throw e;
+		}
+	}
+
+	private synchronized void release(PooledBrowser pooledBrowser) {
+		pooledBrowser.activeContexts--;
+		pooledBrowser.lastReleasedAt = System.currentTimeMillis();
+		notifyAll();
+	}
+
+	/**
+	 * 回收空闲超时、断开连接或配置已变更（如 headless 切换）的浏览器，保留第一个健康的空闲浏览器作为预热实例
+	 */
+	void reapIdleBrowsers() {
+		List<PooledBrowser> toClose = new ArrayList<>();
+		try {
+			Settings settings = settingsSupplier.get();
+			long now = System.currentTimeMillis();
+			synchronized (this) {
+				boolean warmKept = false;
+				for (Iterator<PooledBrowser> iterator = browsers.iterator(); iterator.hasNext();) {
+					PooledBrowser pooledBrowser = iterator.next();
+					if (pooledBrowser.activeContexts > 0) {
+						continue;
+					}
+					if (!pooledBrowser.isUsable(settings)) {
+						iterator.remove();
+						toClose.add(pooledBrowser);
+					}
+					else if (!warmKept) {
+						warmKept = true;
+					}
+					else if (now - pooledBrowser.lastReleasedAt > settings.idleTimeoutMillis()) {
+						iterator.remove();
+						toClose.add(pooledBrowser);
+					}
+				}
+			}
+		}
+		catch (Exception e) {
+			log.warn("Failed to reap idle browsers", e);
+		}
+		toClose.forEach(PooledBrowser::close);
+	}
+
+	/**
+	 * 当前池中的浏览器进程数
+	 */
+	public synchronized int size() {
+		return browsers.size();
+	}
+
+	/**
+	 * 关闭池中的所有浏览器
+	 */
+	public void shutdown() {
+		List<PooledBrowser> toClose;
+		synchronized (this) {
+			closed = true;
+			toClose = new ArrayList<>(browsers);
+			browsers.clear();
+			notifyAll();
+		}
+		reaper.shutdownNow();
+		toClose.forEach(PooledBrowser::close);
+	}
+
+	/**
+	 * 浏览器池配置，每次获取或回收浏览器时读取，以便配置修改后无需重启即可生效
+	 */
+	public record Settings(int maxBrowsers, int maxContextsPerBrowser, long idleTimeoutMillis, boolean headless,
+			BrowserType.LaunchOptions launchOptions) {
+	}
+
+	/**
+	 * 一个计划对池中浏览器的租约，持有该计划独占的 BrowserContext
+	 */
+	public class Lease {
+
+		private final PooledBrowser pooledBrowser;
+
+		private final BrowserContext context;
+
+		private boolean released = false;
+
+		private Lease(PooledBrowser pooledBrowser, BrowserContext context) {
+			this.pooledBrowser = pooledBrowser;
+			this.context = context;
+		}
+
+		public Playwright getPlaywright() {
+			return pooledBrowser.playwright;
+		}
+
+		public Browser getBrowser() {
+			return pooledBrowser.browser;
+		}
+
+		public BrowserContext getContext() {
+			return context;
+		}
+
+		/**
+		 * 关闭计划的 BrowserContext 并将浏览器归还给池，重复调用无副作用
+		 */
+		public void release() {
+			synchronized (this) {
+				if (released) {
+					return;
+				}
+				released = true;
+			}
+			try {
+				context.close();
+			}
+			catch (Exception e) {
+				log.info("Error closing browser context: {}", e.getMessage());
+				pooledBrowser.healthy = false;
+			}
+			BrowserPool.this.release(pooledBrowser);
+		}
+
+	}
+
+	private static class PooledBrowser {
+
+		private final Playwright playwright;
+
+		private final Browser browser;
+
+		private final boolean headless;
+
+		private int activeContexts = 0;
+
+		private long lastReleasedAt = System.currentTimeMillis();
+
+		private volatile boolean healthy = true;
+
+		private PooledBrowser(Playwright playwright, Browser browser, boolean headless) {
+			this.playwright = playwright;
+			this.browser = browser;
+			this.headless = headless;
+		}
+
+		private boolean isUsable(Settings settings) {
+			return healthy && headless == settings.headless() && browser.isConnected();
+		}
+
+		private void close() {
+			try {
+				browser.close();
+			}
+			catch (Exception e) {
+				log.info("Error closing pooled browser: {}", e.getMessage());
+			}
+			try {
+				playwright.close();
+			}
+			catch (Exception e) {
+				log.info("Error closing pooled Playwright: {}", e.getMessage());
+			}
+		}
+
+	}
+
+}
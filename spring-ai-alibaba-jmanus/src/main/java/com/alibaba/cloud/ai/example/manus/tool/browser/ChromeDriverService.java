@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -26,7 +27,6 @@ import com.alibaba.cloud.ai.example.manus.config.ManusProperties;
 import com.alibaba.cloud.ai.example.manus.tool.code.CodeUtils;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.microsoft.playwright.Playwright;
 import com.microsoft.playwright.Browser;
 import com.microsoft.playwright.BrowserType;
 
@@ -45,10 +45,15 @@ public class ChromeDriverService {
 
 	private final ConcurrentHashMap<String, DriverWrapper> drivers = new ConcurrentHashMap<>();
 
-	private final Lock driverLock = new ReentrantLock();
+	/**
+	 * 按计划区分的创建锁，一个计划等待浏览器池时不会阻塞其他计划
+	 */
+	private final ConcurrentHashMap<String, Lock> driverLocks = new ConcurrentHashMap<>();
 
 	private ManusProperties manusProperties;
 
+	private final BrowserPool browserPool;
+
 	// Initialize ObjectMapper instance
 	private static final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -118,6 +123,7 @@ public class ChromeDriverService {
 	public ChromeDriverService(ManusProperties manusProperties) {
 		this.manusProperties = manusProperties;
 		this.sharedDir = CodeUtils.getSharedDirectory(manusProperties.getBaseDir(), "playwright");
+		this.browserPool = new BrowserPool(this::getBrowserPoolSettings);
 		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
 			log.info("JVM shutting down - cleaning up Playwright processes");
 			cleanupAllPlaywrightProcesses();
@@ -134,6 +140,7 @@ public class ChromeDriverService {
 			return currentDriver;
 		}
 
+		Lock driverLock = driverLocks.computeIfAbsent(planId, key -> new ReentrantLock());
 		try {
 			driverLock.lock();
 			currentDriver = drivers.get(planId);
@@ -163,7 +170,10 @@ public class ChromeDriverService {
 
 	private void cleanupAllPlaywrightProcesses() {
 		try {
-			drivers.clear();
+			for (String planId : drivers.keySet()) {
+				closeDriverForPlan(planId);
+			}
+			browserPool.shutdown();
 			log.info("Successfully cleaned up all Playwright processes	");
 		}
 		catch (Exception e) {
@@ -172,6 +182,7 @@ public class ChromeDriverService {
 	}
 
 	public void closeDriverForPlan(String planId) {
+		driverLocks.remove(planId);
 		DriverWrapper driver = drivers.remove(planId);
 		if (driver != null) {
 			driver.close();
@@ -179,49 +190,54 @@ public class ChromeDriverService {
 	}
 
 	private DriverWrapper createNewDriver() {
-		Playwright playwright = null;
+		BrowserPool.Lease lease = null;
 		try {
-
-			if (playwright == null) {
-				playwright = Playwright.create();
-			}
-			BrowserType.LaunchOptions options = new BrowserType.LaunchOptions();
-
-			// 基础配置
-			options.setArgs(Arrays.asList("--remote-allow-origins=*", "--disable-blink-features=AutomationControlled",
-					"--disable-infobars", "--disable-notifications", "--disable-dev-shm-usage",
-					"--lang=zh-CN,zh,en-US,en", "--user-agent=" + getRandomUserAgent(), "--window-size=1920,1080" // 默认窗口大小
-			));
-
-			// 根据配置决定是否使用 headless 模式
-			if (manusProperties.getBrowserHeadless()) {
-				log.info("启用 Playwright headless 模式");
-				options.setHeadless(true);
-			}
-			else {
-				log.info("启用 Playwright 非 headless 模式");
-				options.setHeadless(false);
-			}
-
-			Browser browser = playwright.chromium().launch(options);
-			log.info("Created new Playwright Browser instance with anti-detection");
+			Browser.NewContextOptions contextOptions = new Browser.NewContextOptions()
+				.setUserAgent(getRandomUserAgent())
+				.setViewportSize(1920, 1080)
+				.setLocale("zh-CN");
+			lease = browserPool.acquire(contextOptions, getBrowserAcquireTimeoutMillis());
+			log.info("Acquired pooled Playwright browser context, pool size: {}", browserPool.size());
 			// Pass the sharedDir to the DriverWrapper constructor
-			return new DriverWrapper(playwright, browser, browser.newPage(), this.sharedDir);
+			return new DriverWrapper(lease, this.sharedDir);
 		}
 		catch (Exception e) {
-			if (playwright != null) {
-				try {
-					playwright.close();
-				}
-				catch (Exception ex) {
-					log.warn("Failed to close failed Playwright instance", ex);
-				}
+			if (lease != null) {
+				lease.release();
 			}
 			log.error("Failed to create Playwright Browser instance", e);
 			throw new RuntimeException("Failed to initialize Playwright Browser", e);
 		}
 	}
 
+	private long getBrowserAcquireTimeoutMillis() {
+		Integer timeoutSeconds = manusProperties.getBrowserRequestTimeout();
+		return TimeUnit.SECONDS.toMillis(timeoutSeconds != null ? timeoutSeconds : 180);
+	}
+
+	/**
+	 * 按当前配置构造浏览器池参数，浏览器启动参数中不再包含 user-agent，改为在每个计划的 BrowserContext 上随机设置
+	 */
+	private BrowserPool.Settings getBrowserPoolSettings() {
+		BrowserType.LaunchOptions options = new BrowserType.LaunchOptions();
+
+		// 基础配置
+		options.setArgs(Arrays.asList("--remote-allow-origins=*", "--disable-blink-features=AutomationControlled",
+				"--disable-infobars", "--disable-notifications", "--disable-dev-shm-usage", "--lang=zh-CN,zh,en-US,en",
+				"--window-size=1920,1080" // 默认窗口大小
+		));
+
+		// 根据配置决定是否使用 headless 模式
+		boolean headless = Boolean.TRUE.equals(manusProperties.getBrowserHeadless());
+		options.setHeadless(headless);
+
+		Integer poolSize = manusProperties.getBrowserPoolSize();
+		Integer maxContexts = manusProperties.getBrowserMaxContextsPerBrowser();
+		Integer idleTimeout = manusProperties.getBrowserIdleTimeout();
+		return new BrowserPool.Settings(Math.max(1, poolSize), Math.max(1, maxContexts),
+				TimeUnit.SECONDS.toMillis(idleTimeout), headless, options);
+	}
+
 	private String getRandomUserAgent() {
 		List<String> userAgents = Arrays.asList(
 				"Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
@@ -21,6 +21,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
 import com.microsoft.playwright.Page;
 import com.microsoft.playwright.Playwright;
 import com.microsoft.playwright.options.Cookie;
@@ -45,6 +46,11 @@ public class DriverWrapper {
 
 	private Browser browser;
 
+	/**
+	 * 从浏览器池获取的租约，不为null时关闭时只释放计划自己的 BrowserContext，浏览器进程归还给池
+	 */
+	private final BrowserPool.Lease browserLease;
+
 	private InteractiveElementRegistry interactiveElementRegistry;
 
 	private final Path cookiePath;
@@ -85,9 +91,20 @@ public class DriverWrapper {
 	}
 
 	public DriverWrapper(Playwright playwright, Browser browser, Page currentPage, String cookieDir) {
+		this(playwright, browser, null, currentPage, cookieDir);
+	}
+
+	public DriverWrapper(BrowserPool.Lease browserLease, String cookieDir) {
+		this(browserLease.getPlaywright(), browserLease.getBrowser(), browserLease, browserLease.getContext().newPage(),
+				cookieDir);
+	}
+
+	private DriverWrapper(Playwright playwright, Browser browser, BrowserPool.Lease browserLease, Page currentPage,
+			String cookieDir) {
 		this.playwright = playwright;
 		this.currentPage = currentPage;
 		this.browser = browser;
+		this.browserLease = browserLease;
 		this.interactiveElementRegistry = new InteractiveElementRegistry();
 
 		if (cookieDir == null || cookieDir.trim().isEmpty()) {
@@ -186,6 +203,10 @@ public class DriverWrapper {
 		// loadCookies();
 	}
 
+	public BrowserContext getBrowserContext() {
+		return browserLease != null ? browserLease.getContext() : currentPage.context();
+	}
+
 	public Browser getBrowser() {
 		return browser;
 	}
@@ -204,7 +225,10 @@ public class DriverWrapper {
 				log.info("Error closing current page: {}", e.getMessage());
 			}
 		}
-		if (this.browser != null) {
+		if (this.browserLease != null) {
+			this.browserLease.release();
+		}
+		else if (this.browser != null) {
 			try {
 				this.browser.close();
 			}
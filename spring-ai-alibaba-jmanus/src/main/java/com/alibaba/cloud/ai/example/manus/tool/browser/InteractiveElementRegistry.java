@@ -406,7 +406,31 @@ public class InteractiveElementRegistry {
 			}
 			})""";
 
-	// 移除了静态初始化块，直接使用字符串常量
+	/**
+	 * 在frame中安装MutationObserver并返回当前文档的DOM状态标识（文档随机token+变更计数）。
+	 * 页面导航后会生成新的token，DOM变化会增加计数；提取脚本写入的jmanus-id属性不计入变更。无法监听时返回null，表示每次都需要重新提取
+	 */
+	private static final String DOM_STATE_JS = """
+			() => {
+				if (!window.__jmanusDomState) {
+					const state = { token: Math.random().toString(36).slice(2) + "-" + Date.now(), version: 0 };
+					try {
+						new MutationObserver((mutations) => {
+							for (const mutation of mutations) {
+								if (mutation.type !== "attributes" || mutation.attributeName !== "jmanus-id") {
+									state.version++;
+									return;
+								}
+							}
+						}).observe(document, { childList: true, subtree: true, attributes: true, characterData: true });
+					} catch (e) {
+						state.version = -1;
+					}
+					window.__jmanusDomState = state;
+				}
+				const state = window.__jmanusDomState;
+				return state.version < 0 ? null : state.token + ":" + state.version;
+			}""";
 
 	/**
 	 * 存储所有交互元素的列表，按全局索引顺序排列
@@ -419,14 +443,32 @@ public class InteractiveElementRegistry {
 	private final Map<Integer, InteractiveElement> indexToElementMap = new HashMap<>();
 
 	/**
-	 * 刷新指定页面的所有交互元素
+	 * 每个frame最近一次提取的结果，DOM状态未变化的frame直接复用，无需重新执行提取脚本
+	 */
+	private final Map<Frame, FrameSnapshot> frameSnapshots = new HashMap<>();
+
+	/**
+	 * 生成当前快照时所在的页面和frame顺序
+	 */
+	private Page snapshotPage;
+
+	private List<Frame> snapshotFrames = new ArrayList<>();
+
+	/**
+	 * 当前快照对应的元素信息文本缓存，快照变化时置空
+	 */
+	private String elementsInfoText;
+
+	/**
+	 * 刷新指定页面的所有交互元素，只重新提取DOM发生变化的frame
 	 * @param page 要处理的页面
 	 */
-	public void refresh(Page page) {
-		clearCache();
+	public synchronized void refresh(Page page) {
 		waitForPageLoad(page);
-		processPageElements(page);
-		log.info("已加载 {} 个交互式元素", interactiveElements.size());
+		if (updateSnapshot(page)) {
+			rebuildIndex();
+			log.info("已加载 {} 个交互式元素", interactiveElements.size());
+		}
 	}
 
 	/**
@@ -435,6 +477,7 @@ public class InteractiveElementRegistry {
 	private void clearCache() {
 		interactiveElements.clear();
 		indexToElementMap.clear();
+		elementsInfoText = null;
 	}
 
 	/**
@@ -444,7 +487,7 @@ public class InteractiveElementRegistry {
 	private void waitForPageLoad(Page page) {
 		try {
 			page.waitForLoadState(LoadState.DOMCONTENTLOADED);
-			log.info("页面已加载完成");
+			log.debug("页面已加载完成");
 		}
 		catch (Exception e) {
 			log.warn("等待页面加载时出错: {}", e.getMessage());
@@ -452,28 +495,69 @@ public class InteractiveElementRegistry {
 	}
 
 	/**
-	 * 处理单个iframe中的交互元素
+	 * 按frame检查DOM状态并增量更新快照
 	 * @param page current browser page
+	 * @return 快照是否发生变化
 	 */
 	@SuppressWarnings("unchecked")
-	private void processPageElements(Page page) {
+	private boolean updateSnapshot(Page page) {
+		boolean changed = false;
+		if (page != snapshotPage) {
+			frameSnapshots.clear();
+			snapshotPage = page;
+			changed = true;
+		}
+		List<Frame> frames;
 		try {
-			int index = 0;
-			for (Frame frame : page.frames()) {
-				List<Map<String, Object>> elementMapList = (List<Map<String, Object>>) frame
-					.evaluate(EXTRACT_INTERACTIVE_ELEMENTS_JS, index);
-				for (Map<String, Object> elementMap : elementMapList) {
-					Integer globalIndex = (Integer) elementMap.get("index");
-					InteractiveElement element = new InteractiveElement(globalIndex, frame, elementMap);
-					interactiveElements.add(element);
-					indexToElementMap.put(globalIndex, element);
-				}
-				index = interactiveElements.size();
-			}
-
+			frames = page.frames();
 		}
 		catch (Exception e) {
 			log.warn("处理page元素时出错: {}", e.getMessage());
+			frames = List.of();
+		}
+		if (!frames.equals(snapshotFrames)) {
+			frameSnapshots.keySet().retainAll(frames);
+			snapshotFrames = new ArrayList<>(frames);
+			changed = true;
+		}
+		for (Frame frame : frames) {
+			try {
+				String domState = (String) frame.evaluate(DOM_STATE_JS);
+				FrameSnapshot cached = frameSnapshots.get(frame);
+				if (cached != null && domState != null && domState.equals(cached.domState())) {
+					continue;
+				}
+				List<Map<String, Object>> elementMapList = (List<Map<String, Object>>) frame
+					.evaluate(EXTRACT_INTERACTIVE_ELEMENTS_JS, 0);
+				frameSnapshots.put(frame, new FrameSnapshot(domState, elementMapList));
+				changed = true;
+			}
+			catch (Exception e) {
+				log.warn("处理frame元素时出错: {}", e.getMessage());
+				if (frameSnapshots.remove(frame) != null) {
+					changed = true;
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * 按frame顺序从快照重建全局索引，未变化frame的元素复用已提取的数据，只重新分配全局索引
+	 */
+	private void rebuildIndex() {
+		clearCache();
+		for (Frame frame : snapshotFrames) {
+			FrameSnapshot snapshot = frameSnapshots.get(frame);
+			if (snapshot == null) {
+				continue;
+			}
+			for (Map<String, Object> elementMap : snapshot.elements()) {
+				int globalIndex = interactiveElements.size();
+				InteractiveElement element = new InteractiveElement(globalIndex, frame, elementMap);
+				interactiveElements.add(element);
+				indexToElementMap.put(globalIndex, element);
+			}
 		}
 	}
 
@@ -481,17 +565,28 @@ public class InteractiveElementRegistry {
 	 * 获取所有交互元素列表
 	 * @return 交互元素列表
 	 */
-	public List<InteractiveElement> getAllElements(Page page) {
+	public synchronized List<InteractiveElement> getAllElements(Page page) {
 		refresh(page);
 		return new ArrayList<>(interactiveElements);
 	}
 
+	/**
+	 * 确认页面快照是最新的之后，根据全局索引获取交互元素。DOM未变化时不会重新执行提取脚本
+	 * @param page 当前页面
+	 * @param index 全局索引
+	 * @return 对应的交互元素，如果不存在则返回空
+	 */
+	public synchronized Optional<InteractiveElement> getElementById(Page page, int index) {
+		refresh(page);
+		return getElementById(index);
+	}
+
 	/**
 	 * 根据全局索引获取交互元素
 	 * @param index 全局索引
 	 * @return 对应的交互元素，如果不存在则返回空
 	 */
-	public Optional<InteractiveElement> getElementById(int index) {
+	public synchronized Optional<InteractiveElement> getElementById(int index) {
 		return Optional.ofNullable(indexToElementMap.get(index));
 	}
 
@@ -499,7 +594,7 @@ public class InteractiveElementRegistry {
 	 * 获取当前注册的元素数量
 	 * @return 元素数量
 	 */
-	public int size() {
+	public synchronized int size() {
 		return interactiveElements.size();
 	}
 
@@ -507,12 +602,16 @@ public class InteractiveElementRegistry {
 	 * 生成所有元素的详细信息文本
 	 * @return 格式化的元素信息字符串
 	 */
-	public String generateElementsInfoText(Page page) {
-		StringBuilder result = new StringBuilder();
-		for (InteractiveElement element : getAllElements(page)) {
-			result.append(element.toString().replace("\n", "")).append("\n");
+	public synchronized String generateElementsInfoText(Page page) {
+		refresh(page);
+		if (elementsInfoText == null) {
+			StringBuilder result = new StringBuilder();
+			for (InteractiveElement element : interactiveElements) {
+				result.append(element.toString().replace("\n", "")).append("\n");
+			}
+			elementsInfoText = result.toString();
 		}
-		return result.toString();
+		return elementsInfoText;
 	}
 
 	/**
@@ -539,6 +638,15 @@ public class InteractiveElementRegistry {
 		return false;
 	}
 
+	/**
+	 * 单个frame的提取结果
+	 *
+	 * @param domState 提取时frame的DOM状态标识，为null时表示无法跟踪变化
+	 * @param elements 提取脚本返回的元素数据
+	 */
+	private record FrameSnapshot(String domState, List<Map<String, Object>> elements) {
+	}
+
 	/**
 	 * 元素操作接口
 	 */
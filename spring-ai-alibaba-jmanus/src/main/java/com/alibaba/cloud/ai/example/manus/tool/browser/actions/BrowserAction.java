@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.example.manus.tool.browser.actions;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -108,6 +109,17 @@ public abstract class BrowserAction {
 		return driverWrapper.getInteractiveElementRegistry().getAllElements(page);
 	}
 
+	/**
+	 * 按全局索引获取可交互元素，页面DOM未变化时直接使用缓存的快照
+	 * @param page Playwright的Page实例
+	 * @param index 元素的全局索引
+	 * @return 对应的可交互元素
+	 */
+	protected Optional<InteractiveElement> getInteractiveElement(Page page, int index) {
+		DriverWrapper driverWrapper = browserUseTool.getDriver();
+		return driverWrapper.getInteractiveElementRegistry().getElementById(page, index);
+	}
+
 	protected String clickAndSwitchToNewTabIfOpened(Page pageToClickOn, Runnable clickLambda) {
 		Page newPageFromPopup = null;
 		String originalPageUrl = pageToClickOn.url();
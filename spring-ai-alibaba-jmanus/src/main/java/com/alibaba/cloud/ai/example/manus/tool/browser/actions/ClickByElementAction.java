@@ -15,7 +15,7 @@
  */
 package com.alibaba.cloud.ai.example.manus.tool.browser.actions;
 
-import java.util.List;
+import java.util.Optional;
 
 import com.microsoft.playwright.Page;
 import com.alibaba.cloud.ai.example.manus.tool.browser.BrowserUseTool;
@@ -40,13 +40,12 @@ public class ClickByElementAction extends BrowserAction {
 		Page page = getCurrentPage(); // 获取 Playwright 的 Page 实例
 
 		// 获取交互元素（InteractiveElement）
-		List<InteractiveElement> interactiveElements = getInteractiveElements(page);
-
-		if (index < 0 || index >= interactiveElements.size()) {
+		Optional<InteractiveElement> elementOpt = getInteractiveElement(page, index);
+		if (elementOpt.isEmpty()) {
 			return new ToolExecuteResult("Element with index " + index + " not found");
 		}
 
-		InteractiveElement element = interactiveElements.get(index);
+		InteractiveElement element = elementOpt.get();
 		log.info("Clicking element: {}", element.getText());
 
 		String clickResultMessage = clickAndSwitchToNewTabIfOpened(page, () -> {
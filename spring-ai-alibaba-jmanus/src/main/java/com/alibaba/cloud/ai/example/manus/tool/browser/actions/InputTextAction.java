@@ -15,7 +15,7 @@
  */
 package com.alibaba.cloud.ai.example.manus.tool.browser.actions;
 
-import java.util.List;
+import java.util.Optional;
 
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
@@ -40,13 +40,12 @@ public class InputTextAction extends BrowserAction {
 		}
 
 		// 获取交互元素（InteractiveElement），支持所有 frame（包括 iframe）
-		List<InteractiveElement> interactiveElements = getInteractiveElements(page); // 已支持递归
-																						// frame
-		if (index < 0 || index >= interactiveElements.size()) {
+		Optional<InteractiveElement> elementOpt = getInteractiveElement(page, index);
+		if (elementOpt.isEmpty()) {
 			return new ToolExecuteResult("Element with index " + index + " not found");
 		}
 
-		InteractiveElement inputElement = interactiveElements.get(index);
+		InteractiveElement inputElement = elementOpt.get();
 
 		String tagName = inputElement.getTagName();
 		if (!"input".equals(tagName) && !"textarea".equals(tagName)) {
@@ -39,7 +39,7 @@ public class KeyEnterAction extends BrowserAction {
 		var driverWrapper = getDriverWrapper();
 		var registry = driverWrapper.getInteractiveElementRegistry();
 		// 获取目标元素
-		var elementOpt = registry.getElementById(index);
+		var elementOpt = registry.getElementById(page, index);
 		if (elementOpt.isEmpty()) {
 			return new ToolExecuteResult("Element with index " + index + " not found");
 		}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.example.manus.tool.textOperator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 文本文件的行索引，记录每一行起始位置的字节偏移量。
+ * <p>
+ * 索引通过分块流式读取文件建立，不会把整个文件加载到内存中；按行范围读取时只读取对应的字节区间。
+ * 索引记录建立时文件的大小和修改时间，用于判断缓存是否仍然有效。实例不可变，追加内容后通过 {@link #extend(Path)} 或
+ * {@link #append(byte[], long)} 生成新的索引
+ */
+public final class TextFileLineIndex {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * 每一行的起始字节偏移量，最后一个元素可能等于文件大小（文件以换行符结尾时）
+	 */
+	private final long[] lineStarts;
+
+	private final int startCount;
+
+	private final long fileSize;
+
+	private final long lastModified;
+
+	private TextFileLineIndex(long[] lineStarts, int startCount, long fileSize, long lastModified) {
+		this.lineStarts = lineStarts;
+		this.startCount = startCount;
+		this.fileSize = fileSize;
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * 流式扫描文件并建立行索引
+	 * @param path 文件路径
+	 * @return 行索引
+	 * @throws IOException 读取文件失败
+	 */
+	public static TextFileLineIndex build(Path path) throws IOException {
+		long lastModified = Files.getLastModifiedTime(path).toMillis();
+		long[] starts = new long[1024];
+		starts[0] = 0;
+		return scan(path, starts, 1, 0, lastModified);
+	}
+
+	/**
+	 * 只扫描上次索引之后新追加的内容，生成新的行索引。如果文件被截断或改写则重新建立完整索引
+	 * @param path 文件路径
+	 * @return 新的行索引
+	 * @throws IOException 读取文件失败
+	 */
+	public TextFileLineIndex extend(Path path) throws IOException {
+		long currentSize = Files.size(path);
+		if (currentSize < fileSize) {
+			return build(path);
+		}
+		long currentModified = Files.getLastModifiedTime(path).toMillis();
+		return scan(path, Arrays.copyOf(lineStarts, Math.max(lineStarts.length, startCount + 1)), startCount, fileSize,
+				currentModified);
+	}
+
+	/**
+	 * 根据追加写入的字节生成新的行索引，不读取文件。调用方需保证追加前文件与当前索引一致
+	 * @param appended 追加到文件末尾的字节
+	 * @param lastModified 追加后文件的修改时间
+	 * @return 新的行索引
+	 */
+	public TextFileLineIndex append(byte[] appended, long lastModified) {
+		long[] starts = Arrays.copyOf(lineStarts, Math.max(lineStarts.length, startCount + 1));
+		int count = startCount;
+		long position = fileSize;
+		for (byte b : appended) {
+			position++;
+			if (b == '\n') {
+				if (count == starts.length) {
+					starts = Arrays.copyOf(starts, starts.length * 2);
+				}
+				starts[count++] = position;
+			}
+		}
+		return new TextFileLineIndex(starts, count, position, lastModified);
+	}
+
+	private static TextFileLineIndex scan(Path path, long[] starts, int count, long from, long lastModified)
+			throws IOException {
+		long position = from;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			channel.position(from);
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			while (channel.read(buffer) != -1) {
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					position++;
+					if (buffer.get() == '\n') {
+						if (count == starts.length) {
+							starts = Arrays.copyOf(starts, starts.length * 2);
+						}
+						starts[count++] = position;
+					}
+				}
+				buffer.clear();
+			}
+		}
+		return new TextFileLineIndex(starts, count, position, lastModified);
+	}
+
+	/**
+	 * 判断索引是否仍然对应磁盘上的文件（大小和修改时间均未变化）
+	 * @param path 文件路径
+	 * @return 索引是否有效
+	 */
+	public boolean isValid(Path path) {
+		try {
+			return Files.size(path) == fileSize && Files.getLastModifiedTime(path).toMillis() == lastModified;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return 文件的总行数，空文件为0
+	 */
+	public int getLineCount() {
+		if (fileSize == 0) {
+			return 0;
+		}
+		return lineStarts[startCount - 1] == fileSize ? startCount - 1 : startCount;
+	}
+
+	public long getFileSize() {
+		return fileSize;
+	}
+
+	/**
+	 * @param line 行号，从1开始
+	 * @return 该行起始字节偏移量
+	 */
+	public long getLineStart(int line) {
+		checkLine(line);
+		return lineStarts[line - 1];
+	}
+
+	/**
+	 * @param line 行号，从1开始
+	 * @return 该行结束字节偏移量（不包含），包含行尾换行符
+	 */
+	public long getLineEnd(int line) {
+		checkLine(line);
+		return line < startCount ? lineStarts[line] : fileSize;
+	}
+
+	/**
+	 * 读取指定行范围的内容，只读取对应的字节区间
+	 * @param path 文件路径
+	 * @param startLine 起始行号，从1开始
+	 * @param endLine 结束行号（包含）
+	 * @return 行范围内的文本，去掉末尾的换行符
+	 * @throws IOException 读取文件失败
+	 */
+	public String readLines(Path path, int startLine, int endLine) throws IOException {
+		long start = getLineStart(startLine);
+		long end = getLineEnd(endLine);
+		ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(end - start));
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) != -1) {
+				// 继续读取直到填满缓冲区
+			}
+		}
+		String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+		if (text.endsWith("\r\n")) {
+			return text.substring(0, text.length() - 2);
+		}
+		return text.endsWith("\n") ? text.substring(0, text.length() - 1) : text;
+	}
+
+	private void checkLine(int line) {
+		if (line < 1 || line > getLineCount()) {
+			throw new IllegalArgumentException("Line " + line + " is out of range (1-" + getLineCount() + ")");
+		}
+	}
+
+}
@@ -16,7 +16,11 @@
 package com.alibaba.cloud.ai.example.manus.tool.textOperator;
 
 import java.io.*;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.Map;
 
@@ -26,6 +30,7 @@ import com.alibaba.cloud.ai.example.manus.tool.code.CodeUtils;
 import com.alibaba.cloud.ai.example.manus.tool.code.ToolExecuteResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.io.ByteStreams;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +59,12 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 		@com.fasterxml.jackson.annotation.JsonProperty("target_text")
 		private String targetText;
 
+		@com.fasterxml.jackson.annotation.JsonProperty("start_line")
+		private Integer startLine;
+
+		@com.fasterxml.jackson.annotation.JsonProperty("end_line")
+		private Integer endLine;
+
 		public TextFileInput() {
 		}
 
@@ -97,6 +108,22 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 			this.targetText = targetText;
 		}
 
+		public Integer getStartLine() {
+			return startLine;
+		}
+
+		public void setStartLine(Integer startLine) {
+			this.startLine = startLine;
+		}
+
+		public Integer getEndLine() {
+			return endLine;
+		}
+
+		public void setEndLine(Integer endLine) {
+			this.endLine = endLine;
+		}
+
 	}
 
 	private final String workingDirectoryPath;
@@ -105,6 +132,11 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 
 	private String planId;
 
+	/**
+	 * 文件状态的作用域，并行执行的步骤各自持有一个当前文件，为null时使用planId
+	 */
+	private String stateScope;
+
 	public TextFileOperator(TextFileService textFileService) {
 		this.textFileService = textFileService;
 		ManusProperties manusProperties = textFileService.getManusProperties();
@@ -134,6 +166,14 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 			        "target_text": {
 			            "type": "string",
 			            "description": "(optional) The text to replace with when using 'replace' action"
+			        },
+			        "start_line": {
+			            "type": "integer",
+			            "description": "(optional) First line (1-based, inclusive) of the range used by 'get_text' and 'replace'"
+			        },
+			        "end_line": {
+			            "type": "integer",
+			            "description": "(optional) Last line (1-based, inclusive) of the range used by 'get_text' and 'replace'"
 			        }
 			    },
 			    "required": ["action", "file_path"]
@@ -145,8 +185,8 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 	private static final String TOOL_DESCRIPTION = """
 			对文本文件（包括 md、html、css、java 等）执行各种操作：
 			- open: 打开并读取文本文件，您必须先打开文件！
-			- replace: 替换文件中的特定文本
-			- get_text: 获取文件的当前内容
+			- replace: 替换文件中的特定文本，可通过 start_line/end_line 限定替换的行范围
+			- get_text: 获取文件的当前内容，可通过 start_line/end_line 只读取指定行范围（大文件必须指定行范围）
 			- save: 保存并关闭文件
 			- append: 向文件追加内容
 			- count_words: 统计当前文件中的单词数量
@@ -175,7 +215,7 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 			Map<String, Object> toolInputMap = new ObjectMapper().readValue(toolInput,
 					new TypeReference<Map<String, Object>>() {
 					});
-			String planId = this.planId;
+			String planId = getStateKey();
 
 			String action = (String) toolInputMap.get("action");
 			String filePath = (String) toolInputMap.get("file_path");
@@ -185,9 +225,11 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 				case "replace" -> {
 					String sourceText = (String) toolInputMap.get("source_text");
 					String targetText = (String) toolInputMap.get("target_text");
-					yield replaceText(planId, sourceText, targetText);
+					yield replaceText(planId, sourceText, targetText, toInteger(toolInputMap.get("start_line")),
+							toInteger(toolInputMap.get("end_line")));
 				}
-				case "get_text" -> getCurrentText(planId);
+				case "get_text" -> getCurrentText(planId, toInteger(toolInputMap.get("start_line")),
+						toInteger(toolInputMap.get("end_line")));
 				case "save" -> {
 					String content = (String) toolInputMap.get("content");
 					yield saveAndClose(planId, content);
@@ -205,7 +247,7 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 			};
 		}
 		catch (Exception e) {
-			String planId = this.planId;
+			String planId = getStateKey();
 			textFileService.updateFileState(planId, textFileService.getCurrentFilePath(planId),
 					"Error: " + e.getMessage());
 			return new ToolExecuteResult("Error: " + e.getMessage());
@@ -215,7 +257,7 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 	public ToolExecuteResult runTyped(TextFileInput input) {
 		log.info("TextFileOperator typed input: action={}, filePath={}", input.getAction(), input.getFilePath());
 		try {
-			String planId = this.planId;
+			String planId = getStateKey();
 			String action = input.getAction();
 			String filePath = input.getFilePath();
 
@@ -224,9 +266,9 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 				case "replace" -> {
 					String sourceText = input.getSourceText();
 					String targetText = input.getTargetText();
-					yield replaceText(planId, sourceText, targetText);
+					yield replaceText(planId, sourceText, targetText, input.getStartLine(), input.getEndLine());
 				}
-				case "get_text" -> getCurrentText(planId);
+				case "get_text" -> getCurrentText(planId, input.getStartLine(), input.getEndLine());
 				case "save" -> {
 					String content = input.getContent();
 					yield saveAndClose(planId, content);
@@ -244,7 +286,7 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 			};
 		}
 		catch (Exception e) {
-			String planId = this.planId;
+			String planId = getStateKey();
 			textFileService.updateFileState(planId, textFileService.getCurrentFilePath(planId),
 					"Error: " + e.getMessage());
 			return new ToolExecuteResult("Error: " + e.getMessage());
@@ -286,30 +328,46 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 		}
 	}
 
-	private ToolExecuteResult replaceText(String planId, String sourceText, String targetText) {
+	private ToolExecuteResult replaceText(String planId, String sourceText, String targetText, Integer startLine,
+			Integer endLine) {
 		try {
 			String currentFilePath = textFileService.getCurrentFilePath(planId);
 			if (currentFilePath.isEmpty()) {
 				textFileService.updateFileState(planId, "", "Error: No file is currently open");
 				return new ToolExecuteResult("Error: No file is currently open");
 			}
+			if (sourceText == null || sourceText.isEmpty()) {
+				textFileService.updateFileState(planId, currentFilePath, "Error: No source text to replace");
+				return new ToolExecuteResult("Error: source_text is required for 'replace' action");
+			}
 
 			Path absolutePath = Paths.get(workingDirectoryPath).resolve(currentFilePath);
-			String content = Files.readString(absolutePath);
-			String newContent = content.replace(sourceText, targetText);
-			Files.writeString(absolutePath, newContent);
+			long from = 0;
+			long to = Files.size(absolutePath);
+			if (startLine != null || endLine != null) {
+				TextFileLineIndex index = textFileService.getLineIndex(absolutePath);
+				int[] range = resolveLineRange(index, startLine, endLine);
+				from = index.getLineStart(range[0]);
+				to = index.getLineEnd(range[1]);
+			}
+
+			int replaced = replaceInRange(absolutePath, from, to, sourceText, targetText == null ? "" : targetText);
+			if (replaced == 0) {
+				textFileService.updateFileState(planId, currentFilePath, "Success: Source text not found");
+				return new ToolExecuteResult("Source text not found, file unchanged");
+			}
 
 			textFileService.updateFileState(planId, currentFilePath, "Success: Text replaced");
-			return new ToolExecuteResult("Text replaced successfully");
+			return new ToolExecuteResult("Text replaced successfully (" + replaced + " occurrences)");
 		}
-		catch (IOException e) {
+		catch (IOException | IllegalArgumentException e) {
 			textFileService.updateFileState(planId, textFileService.getCurrentFilePath(planId),
 					"Error: " + e.getMessage());
 			return new ToolExecuteResult("Error replacing text: " + e.getMessage());
 		}
 	}
 
-	private ToolExecuteResult getCurrentText(String planId) {
+	private ToolExecuteResult getCurrentText(String planId, Integer startLine, Integer endLine) {
 		try {
 			String currentFilePath = textFileService.getCurrentFilePath(planId);
 			if (currentFilePath.isEmpty()) {
@@ -318,12 +376,27 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 			}
 
 			Path absolutePath = Paths.get(workingDirectoryPath).resolve(currentFilePath);
-			String content = Files.readString(absolutePath);
+			if (startLine == null && endLine == null) {
+				textFileService.checkFullReadSize(absolutePath);
+				String content = Files.readString(absolutePath);
+				textFileService.updateFileState(planId, currentFilePath, "Success: Retrieved current text");
+				return new ToolExecuteResult(content);
+			}
 
-			textFileService.updateFileState(planId, currentFilePath, "Success: Retrieved current text");
-			return new ToolExecuteResult(content);
+			TextFileLineIndex index = textFileService.getLineIndex(absolutePath);
+			int[] range = resolveLineRange(index, startLine, endLine);
+			long rangeSize = index.getLineEnd(range[1]) - index.getLineStart(range[0]);
+			if (rangeSize > TextFileService.MAX_FULL_READ_SIZE) {
+				throw new IOException("Line range is too large (>10MB). Please request a smaller range.");
+			}
+			String content = index.readLines(absolutePath, range[0], range[1]);
+
+			textFileService.updateFileState(planId, currentFilePath,
+					"Success: Retrieved lines " + range[0] + "-" + range[1]);
+			return new ToolExecuteResult(
+					String.format("Lines %d-%d of %d:%n%s", range[0], range[1], index.getLineCount(), content));
 		}
-		catch (IOException e) {
+		catch (IOException | IllegalArgumentException e) {
 			textFileService.updateFileState(planId, textFileService.getCurrentFilePath(planId),
 					"Error: " + e.getMessage());
 			return new ToolExecuteResult("Error retrieving text: " + e.getMessage());
@@ -340,7 +413,7 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 			Path absolutePath = Paths.get(workingDirectoryPath).resolve(currentFilePath);
 
 			if (content != null) {
-				Files.writeString(absolutePath, content);
+				writeAtomically(absolutePath, tempFile -> Files.writeString(tempFile, content));
 			}
 
 			// 强制刷新到磁盘
@@ -348,6 +421,7 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 				channel.force(true);
 			}
 
+			textFileService.invalidateLineIndex(absolutePath);
 			textFileService.updateFileState(planId, "", "Success: File saved and closed");
 			textFileService.closeFileForPlan(planId);
 			return new ToolExecuteResult("File saved and closed successfully: " + absolutePath);
@@ -374,7 +448,13 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 			}
 
 			Path absolutePath = Paths.get(workingDirectoryPath).resolve(currentFilePath);
-			Files.writeString(absolutePath, "\n" + content, StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+			// 追加不需要行索引，只有已缓存索引时才根据追加的字节更新，避免为追加扫描整个文件
+			TextFileLineIndex index = textFileService.getCachedLineIndex(absolutePath);
+			byte[] appended = ("\n" + content).getBytes(StandardCharsets.UTF_8);
+			Files.write(absolutePath, appended, StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+			if (index != null) {
+				textFileService.updateLineIndexAfterAppend(absolutePath, index, appended);
+			}
 
 			textFileService.updateFileState(planId, currentFilePath, "Success: Content appended");
 			return new ToolExecuteResult("Content appended successfully");
@@ -395,8 +475,22 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 			}
 
 			Path absolutePath = Paths.get(workingDirectoryPath).resolve(currentFilePath);
-			String content = Files.readString(absolutePath);
-			int wordCount = content.isEmpty() ? 0 : content.split("\\s+").length;
+			// 流式统计，避免把整个文件读入内存
+			long wordCount = 0;
+			boolean inWord = false;
+			char[] buffer = new char[8192];
+			try (Reader reader = Files.newBufferedReader(absolutePath, StandardCharsets.UTF_8)) {
+				int read;
+				while ((read = reader.read(buffer)) != -1) {
+					for (int i = 0; i < read; i++) {
+						boolean whitespace = Character.isWhitespace(buffer[i]);
+						if (!whitespace && !inWord) {
+							wordCount++;
+						}
+						inWord = !whitespace;
+					}
+				}
+			}
 
 			textFileService.updateFileState(planId, currentFilePath, "Success: Counted words");
 			return new ToolExecuteResult(String.format("Total word count (including Markdown symbols): %d", wordCount));
@@ -408,14 +502,169 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 		}
 	}
 
+	/**
+	 * 将行号参数解析为有效的闭区间，缺省的起始行为1，缺省的结束行为最后一行
+	 */
+	private int[] resolveLineRange(TextFileLineIndex index, Integer startLine, Integer endLine) {
+		int lineCount = index.getLineCount();
+		if (lineCount == 0) {
+			throw new IllegalArgumentException("File is empty");
+		}
+		int start = startLine == null ? 1 : startLine;
+		int end = endLine == null ? lineCount : Math.min(endLine, lineCount);
+		if (start < 1 || start > lineCount || end < start) {
+			throw new IllegalArgumentException(
+					"Invalid line range " + start + "-" + end + ", file has " + lineCount + " lines");
+		}
+		return new int[] { start, end };
+	}
+
+	/**
+	 * 流式替换字节区间 [from, to) 内的文本：区间之前和之后的内容按字节直接复制，区间内容逐块替换后写入同目录的临时文件，最后原子替换原文件。
+	 * 区间内容必须是合法的 UTF-8，否则编辑失败且原文件保持不变，避免把无法解码的字节替换为 U+FFFD 后写回
+	 * @return 替换的次数，为0时原文件保持不变
+	 */
+	int replaceInRange(Path absolutePath, long from, long to, String sourceText, String targetText)
+			throws IOException {
+		int replaced;
+		Path tempFile = createSiblingTempFile(absolutePath);
+		try {
+			try (FileChannel in = FileChannel.open(absolutePath, StandardOpenOption.READ);
+					FileChannel out = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+				transferFully(in, 0, from, out);
+				Writer writer = new BufferedWriter(Channels.newWriter(out, StandardCharsets.UTF_8));
+				try (Reader reader = new InputStreamReader(
+						ByteStreams.limit(Channels.newInputStream(in.position(from)), to - from),
+						StandardCharsets.UTF_8.newDecoder()
+							.onMalformedInput(CodingErrorAction.REPORT)
+							.onUnmappableCharacter(CodingErrorAction.REPORT))) {
+					replaced = streamReplace(reader, writer, sourceText, targetText);
+				}
+				catch (CharacterCodingException e) {
+					throw new IOException("File content is not valid UTF-8 text, file unchanged", e);
+				}
+				writer.flush();
+				transferFully(in, to, in.size() - to, out);
+				out.force(true);
+			}
+			if (replaced > 0) {
+				moveAtomically(tempFile, absolutePath);
+				textFileService.invalidateLineIndex(absolutePath);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempFile);
+		}
+		return replaced;
+	}
+
+	/**
+	 * 分块读取并替换，保留 sourceText 长度减一的尾部字符以匹配跨越块边界的文本
+	 */
+	static int streamReplace(Reader reader, Writer writer, String sourceText, String targetText)
+			throws IOException {
+		int replaced = 0;
+		int tail = sourceText.length() - 1;
+		StringBuilder window = new StringBuilder();
+		char[] buffer = new char[64 * 1024];
+		int read;
+		while ((read = reader.read(buffer)) != -1) {
+			window.append(buffer, 0, read);
+			int from = 0;
+			int found;
+			while ((found = window.indexOf(sourceText, from)) >= 0) {
+				writer.append(window, from, found).write(targetText);
+				from = found + sourceText.length();
+				replaced++;
+			}
+			int keep = Math.max(from, window.length() - tail);
+			writer.append(window, from, keep);
+			window.delete(0, keep);
+		}
+		writer.append(window);
+		return replaced;
+	}
+
+	private static void transferFully(FileChannel in, long position, long count, FileChannel out) throws IOException {
+		long transferred = 0;
+		while (transferred < count) {
+			long n = in.transferTo(position + transferred, count - transferred, out);
+			if (n <= 0) {
+				break;
+			}
+			transferred += n;
+		}
+	}
+
+	/**
+	 * 先写入同目录的临时文件，再原子替换目标文件，避免写入中途失败导致文件损坏
+	 */
+	private void writeAtomically(Path absolutePath, TempFileWriter writer) throws IOException {
+		Path tempFile = createSiblingTempFile(absolutePath);
+		try {
+			writer.write(tempFile);
+			moveAtomically(tempFile, absolutePath);
+		}
+		finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private static Path createSiblingTempFile(Path absolutePath) throws IOException {
+		Path parent = absolutePath.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Path tempFile = Files.createTempFile(parent, "." + absolutePath.getFileName(), ".tmp");
+		// 临时文件默认权限较严格，替换后需要保留原文件的权限
+		if (Files.exists(absolutePath)
+				&& absolutePath.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			Files.setPosixFilePermissions(tempFile, Files.getPosixFilePermissions(absolutePath));
+		}
+		return tempFile;
+	}
+
+	private static void moveAtomically(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static Integer toInteger(Object value) {
+		if (value instanceof Number number) {
+			return number.intValue();
+		}
+		if (value instanceof String text && !text.isBlank()) {
+			return Integer.valueOf(text.trim());
+		}
+		return null;
+	}
+
+	@FunctionalInterface
+	private interface TempFileWriter {
+
+		void write(Path tempFile) throws IOException;
+
+	}
+
 	@Override
 	public void setPlanId(String planId) {
 		this.planId = planId;
 	}
 
+	@Override
+	public void setStateScope(String stateScope) {
+		this.stateScope = stateScope;
+	}
+
+	private String getStateKey() {
+		return stateScope != null ? stateScope : planId;
+	}
+
 	@Override
 	public String getCurrentToolStateString() {
-		String planId = this.planId;
+		String planId = getStateKey();
 		return String.format("""
 				Current Text File Operation State:
 				- Working Directory:
@@ -472,6 +721,9 @@ public class TextFileOperator implements ToolCallBiFunctionDef<TextFileOperator.
 			log.info("Cleaning up text file resources for plan: {}", planId);
 			textFileService.closeFileForPlan(planId);
 		}
+		if (stateScope != null && !stateScope.equals(planId)) {
+			textFileService.closeFileForPlan(stateScope);
+		}
 	}
 
 	// @Override
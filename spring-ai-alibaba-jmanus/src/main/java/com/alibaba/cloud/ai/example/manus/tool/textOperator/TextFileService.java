@@ -59,8 +59,23 @@ public class TextFileService implements ApplicationRunner {
 			".gradle", ".pom", ".mvn" // 构建工具
 	));
 
+	/**
+	 * 一次性读取全部内容时允许的最大文件大小，更大的文件需要按行范围读取
+	 */
+	public static final long MAX_FULL_READ_SIZE = 10 * 1024 * 1024; // 10MB
+
+	/**
+	 * 行索引缓存的最大文件数
+	 */
+	private static final int MAX_LINE_INDEX_ENTRIES = 64;
+
 	private final ConcurrentHashMap<String, FileState> fileStates = new ConcurrentHashMap<>();
 
+	/**
+	 * 按绝对路径缓存的行索引，读取前通过文件大小和修改时间校验
+	 */
+	private final ConcurrentHashMap<Path, TextFileLineIndex> lineIndexes = new ConcurrentHashMap<>();
+
 	@Override
 	public void run(ApplicationArguments args) {
 		log.info("TextFileService initialized");
@@ -103,11 +118,74 @@ public class TextFileService implements ApplicationRunner {
 			throw new IOException("Access denied: File path must be within working directory");
 		}
 
-		// 检查文件大小（如果文件存在）
-		if (Files.exists(absolutePath) && Files.size(absolutePath) > 10 * 1024 * 1024) { // 10MB
-																							// limit
-			throw new IOException("File is too large (>10MB). For safety reasons, please use a smaller file.");
+	}
+
+	/**
+	 * 检查文件是否可以一次性读取全部内容
+	 * @param absolutePath 文件绝对路径
+	 * @throws IOException 文件超过大小限制
+	 */
+	public void checkFullReadSize(Path absolutePath) throws IOException {
+		if (Files.exists(absolutePath) && Files.size(absolutePath) > MAX_FULL_READ_SIZE) {
+			throw new IOException(
+					"File is too large (>10MB) to read at once. Please use start_line and end_line to read a range of lines.");
+		}
+	}
+
+	/**
+	 * 获取文件的行索引，缓存失效（文件大小或修改时间变化）时重新建立
+	 * @param absolutePath 文件绝对路径
+	 * @return 行索引
+	 * @throws IOException 读取文件失败
+	 */
+	public TextFileLineIndex getLineIndex(Path absolutePath) throws IOException {
+		Path key = absolutePath.toAbsolutePath().normalize();
+		TextFileLineIndex index = lineIndexes.get(key);
+		if (index != null && index.isValid(key)) {
+			return index;
+		}
+		index = TextFileLineIndex.build(key);
+		if (lineIndexes.size() >= MAX_LINE_INDEX_ENTRIES && !lineIndexes.containsKey(key)) {
+			lineIndexes.keySet().stream().findAny().ifPresent(lineIndexes::remove);
+		}
+		lineIndexes.put(key, index);
+		return index;
+	}
+
+	/**
+	 * 获取已缓存且仍然有效的行索引，不会为未缓存的文件建立索引
+	 * @param absolutePath 文件绝对路径
+	 * @return 行索引，未缓存或已失效时返回null
+	 */
+	public TextFileLineIndex getCachedLineIndex(Path absolutePath) {
+		TextFileLineIndex index = lineIndexes.get(absolutePath.toAbsolutePath().normalize());
+		return index != null && index.isValid(absolutePath) ? index : null;
+	}
+
+	/**
+	 * 追加内容后根据追加的字节更新已缓存的行索引，不重新读取文件。追加期间文件被其他写入修改或索引已被移除时不更新
+	 * @param absolutePath 文件绝对路径
+	 * @param previous 追加前的行索引
+	 * @param appended 追加的字节
+	 * @throws IOException 读取文件属性失败
+	 */
+	public void updateLineIndexAfterAppend(Path absolutePath, TextFileLineIndex previous, byte[] appended)
+			throws IOException {
+		Path key = absolutePath.toAbsolutePath().normalize();
+		if (Files.size(key) != previous.getFileSize() + appended.length) {
+			lineIndexes.remove(key, previous);
+			return;
 		}
+		long lastModified = Files.getLastModifiedTime(key).toMillis();
+		lineIndexes.replace(key, previous, previous.append(appended, lastModified));
+	}
+
+	/**
+	 * 文件被改写后移除缓存的行索引
+	 * @param absolutePath 文件绝对路径
+	 */
+	public void invalidateLineIndex(Path absolutePath) {
+		lineIndexes.remove(absolutePath.toAbsolutePath().normalize());
 	}
 
 	public void updateFileState(String planId, String filePath, String operationResult) {
@@ -134,6 +212,7 @@ public class TextFileService implements ApplicationRunner {
 	public void cleanup() {
 		log.info("Cleaning up TextFileService resources");
 		fileStates.clear();
+		lineIndexes.clear();
 	}
 
 }
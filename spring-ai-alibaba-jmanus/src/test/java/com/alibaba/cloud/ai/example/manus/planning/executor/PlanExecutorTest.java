@@ -0,0 +1,256 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.example.manus.planning.executor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.alibaba.cloud.ai.example.manus.agent.AgentState;
+import com.alibaba.cloud.ai.example.manus.agent.BaseAgent;
+import com.alibaba.cloud.ai.example.manus.dynamic.agent.entity.DynamicAgentEntity;
+import com.alibaba.cloud.ai.example.manus.dynamic.agent.service.AgentService;
+import com.alibaba.cloud.ai.example.manus.llm.LlmService;
+import com.alibaba.cloud.ai.example.manus.planning.model.vo.ExecutionContext;
+import com.alibaba.cloud.ai.example.manus.planning.model.vo.ExecutionPlan;
+import com.alibaba.cloud.ai.example.manus.planning.model.vo.ExecutionStep;
+import com.alibaba.cloud.ai.example.manus.recorder.PlanExecutionRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlanExecutorTest {
+
+	private static final String PLAN_ID = "plan-1";
+
+	private ExecutorService stepExecutorService;
+
+	private AgentService agentService;
+
+	private LlmService llmService;
+
+	@SuppressWarnings("unchecked")
+	private final Consumer<String> planResourceReleaser = mock(Consumer.class);
+
+	private final Map<Integer, BaseAgent> agentsByStep = new ConcurrentHashMap<>();
+
+	private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeEach
+	void setUp() {
+		stepExecutorService = Executors.newFixedThreadPool(4);
+		agentService = mock(AgentService.class);
+		llmService = mock(LlmService.class);
+		when(agentService.createDynamicBaseAgent(anyString(), anyString(), anyMap())).thenAnswer(invocation -> {
+			Map<String, Object> initSettings = invocation.getArgument(2);
+			return agentsByStep.get(Integer.valueOf((String) initSettings.get(PlanExecutor.CURRENT_STEP_INDEX_KEY)));
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		stepExecutorService.shutdownNow();
+	}
+
+	@Test
+	void runsIndependentStepsConcurrentlyUpToTheCap() {
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		CountDownLatch firstPairStarted = new CountDownLatch(2);
+		ExecutionPlan plan = plan(2);
+		for (int i = 0; i < 4; i++) {
+			plan.addStep(step(i, List.of()));
+			agentsByStep.put(i, agent(() -> {
+				maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+				try {
+					// 只有前两个步骤真正并行运行时才能同时越过这里
+					firstPairStarted.countDown();
+					firstPairStarted.await(5, TimeUnit.SECONDS);
+					Thread.sleep(20);
+					return "done";
+				}
+				finally {
+					inFlight.decrementAndGet();
+				}
+			}));
+		}
+
+		executor().executeAllSteps(context(plan));
+
+		assertEquals(2, maxInFlight.get());
+		for (ExecutionStep step : plan.getSteps()) {
+			assertEquals("done", step.getResult());
+		}
+	}
+
+	@Test
+	void startsStepOnlyAfterItsDependenciesFinish() {
+		ExecutionPlan plan = plan(3);
+		plan.addStep(step(0, List.of()));
+		plan.addStep(step(1, List.of()));
+		plan.addStep(step(2, List.of(0, 1)));
+		// 未声明依赖的步骤依赖其前面的所有步骤
+		plan.addStep(step(3, null));
+		for (int i = 0; i < 4; i++) {
+			int stepIndex = i;
+			agentsByStep.put(i, agent(() -> {
+				events.add("start:" + stepIndex);
+				Thread.sleep(10);
+				events.add("end:" + stepIndex);
+				return "done";
+			}));
+		}
+
+		executor().executeAllSteps(context(plan));
+
+		assertTrue(events.indexOf("start:2") > events.indexOf("end:0"));
+		assertTrue(events.indexOf("start:2") > events.indexOf("end:1"));
+		assertTrue(events.indexOf("start:3") > events.indexOf("end:2"));
+	}
+
+	@Test
+	void recordsFailedStepAndContinuesWithDependents() {
+		ExecutionPlan plan = plan(2);
+		plan.addStep(step(0, List.of()));
+		plan.addStep(step(1, List.of(0)));
+		agentsByStep.put(0, agent(() -> {
+			throw new IllegalArgumentException("boom");
+		}));
+		agentsByStep.put(1, agent(() -> "done"));
+
+		executor().executeAllSteps(context(plan));
+
+		assertEquals("Execution failed: boom", plan.getSteps().get(0).getResult());
+		assertEquals("done", plan.getSteps().get(1).getResult());
+	}
+
+	@Test
+	void crashedStepAbortsPlanAndSkipsPendingSteps() {
+		StepCrash crash = new StepCrash();
+		ExecutionPlan plan = plan(2);
+		plan.addStep(step(0, List.of()));
+		plan.addStep(step(1, List.of(0)));
+		agentsByStep.put(0, agent(() -> {
+			throw crash;
+		}));
+		agentsByStep.put(1, agent(() -> "done"));
+
+		IllegalStateException failure = assertThrows(IllegalStateException.class,
+				() -> executor().executeAllSteps(context(plan)));
+
+		assertSame(crash, failure.getCause());
+		verify(agentsByStep.get(1), never()).run();
+		// 即使计划失败，已创建的执行器和计划级资源也要清理
+		verify(agentsByStep.get(0)).clearUp(PLAN_ID);
+		verify(planResourceReleaser).accept(PLAN_ID);
+	}
+
+	@Test
+	void givesEachConcurrentStepItsOwnMemory() {
+		ExecutionPlan plan = plan(2);
+		plan.addStep(step(0, List.of()));
+		plan.addStep(step(1, List.of()));
+		agentsByStep.put(0, agent(() -> "done"));
+		agentsByStep.put(1, agent(() -> "done"));
+
+		executor().executeAllSteps(context(plan));
+
+		verify(agentsByStep.get(0)).setMemoryId(PLAN_ID + "_step_0");
+		verify(agentsByStep.get(1)).setMemoryId(PLAN_ID + "_step_1");
+		verify(llmService).clearAgentMemory(PLAN_ID + "_step_0");
+		verify(llmService).clearAgentMemory(PLAN_ID + "_step_1");
+	}
+
+	private PlanExecutor executor() {
+		DynamicAgentEntity worker = new DynamicAgentEntity();
+		worker.setAgentName("worker");
+		worker.setAvailableToolKeys(List.of("text_file_operator"));
+		return new PlanExecutor(List.of(worker), mock(PlanExecutionRecorder.class), agentService, llmService,
+				stepExecutorService, 1, planResourceReleaser);
+	}
+
+	private static ExecutionPlan plan(int maxConcurrentSteps) {
+		ExecutionPlan plan = new ExecutionPlan(PLAN_ID, "test plan");
+		plan.setMaxConcurrentSteps(maxConcurrentSteps);
+		return plan;
+	}
+
+	private static ExecutionStep step(int stepIndex, List<Integer> dependsOn) {
+		ExecutionStep step = new ExecutionStep();
+		step.setStepIndex(stepIndex);
+		step.setStepRequirement("[worker] step " + stepIndex);
+		step.setDependsOn(dependsOn);
+		return step;
+	}
+
+	private static ExecutionContext context(ExecutionPlan plan) {
+		ExecutionContext context = new ExecutionContext();
+		context.setPlanId(PLAN_ID);
+		context.setPlan(plan);
+		return context;
+	}
+
+	private static BaseAgent agent(Callable<String> body) {
+		BaseAgent agent = mock(BaseAgent.class);
+		AtomicReference<AgentState> state = new AtomicReference<>(AgentState.NOT_STARTED);
+		doAnswer(invocation -> {
+			state.set(invocation.getArgument(0));
+			return null;
+		}).when(agent).setState(any());
+		when(agent.getState()).thenAnswer(invocation -> state.get());
+		when(agent.getName()).thenReturn("worker");
+		when(agent.run()).thenAnswer(invocation -> {
+			try {
+				return body.call();
+			}
+			finally {
+				state.set(AgentState.COMPLETED);
+			}
+		});
+		return agent;
+	}
+
+	/**
+	 * 不会被步骤执行捕获的错误，模拟执行线程崩溃
+	 */
+	private static final class StepCrash extends Error {
+
+	}
+
+}
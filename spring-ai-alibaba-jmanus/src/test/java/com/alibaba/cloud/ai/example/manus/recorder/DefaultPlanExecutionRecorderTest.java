@@ -0,0 +1,120 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.example.manus.recorder;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.alibaba.cloud.ai.example.manus.recorder.entity.AgentExecutionRecord;
+import com.alibaba.cloud.ai.example.manus.recorder.entity.PlanExecutionRecord;
+import com.alibaba.cloud.ai.example.manus.recorder.entity.ThinkActRecord;
+import com.alibaba.cloud.ai.example.manus.recorder.repository.PlanExecutionRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DefaultPlanExecutionRecorderTest {
+
+	private PlanExecutionRecordRepository repository;
+
+	private DefaultPlanExecutionRecorder recorder;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		repository = mock(PlanExecutionRecordRepository.class);
+		when(repository.findById(anyString())).thenReturn(Optional.empty());
+		ObjectProvider<PlanExecutionRecordRepository> repositoryProvider = mock(ObjectProvider.class);
+		when(repositoryProvider.getIfAvailable()).thenReturn(repository);
+		ObjectProvider<ObjectMapper> objectMapperProvider = mock(ObjectProvider.class);
+		when(objectMapperProvider.getIfAvailable(any()))
+			.thenReturn(new ObjectMapper().registerModule(new JavaTimeModule()));
+		recorder = new DefaultPlanExecutionRecorder(repositoryProvider, objectMapperProvider);
+	}
+
+	@AfterEach
+	void tearDown() {
+		recorder.shutdown();
+	}
+
+	@Test
+	void generatesIdsAboveThoseOfAPreviousRun() {
+		long before = System.currentTimeMillis() * 1000;
+		recorder.recordPlanExecution(new PlanExecutionRecord("plan-1"));
+
+		Long agentExecutionId = recorder.recordAgentExecution("plan-1", new AgentExecutionRecord());
+
+		assertTrue(agentExecutionId > before);
+	}
+
+	@Test
+	void ignoresThinkActRecordForAgentOfAnotherPlan() {
+		recorder.recordPlanExecution(new PlanExecutionRecord("plan-1"));
+		recorder.recordPlanExecution(new PlanExecutionRecord("plan-2"));
+		AgentExecutionRecord agentRecord = new AgentExecutionRecord();
+		Long agentExecutionId = recorder.recordAgentExecution("plan-1", agentRecord);
+
+		recorder.recordThinkActExecution("plan-2", agentExecutionId, new ThinkActRecord(agentExecutionId));
+		recorder.recordThinkActExecution("plan-1", agentExecutionId, new ThinkActRecord(agentExecutionId));
+
+		assertEquals(1, agentRecord.getThinkActSteps().size());
+	}
+
+	@Test
+	void keepsAgentIndexSeparatePerPlan() {
+		AgentExecutionRecord first = new AgentExecutionRecord();
+		first.setId(42L);
+		PlanExecutionRecord planOne = new PlanExecutionRecord("plan-1");
+		planOne.addAgentExecutionRecord(first);
+		AgentExecutionRecord second = new AgentExecutionRecord();
+		second.setId(42L);
+		PlanExecutionRecord planTwo = new PlanExecutionRecord("plan-2");
+		planTwo.addAgentExecutionRecord(second);
+		recorder.recordPlanExecution(planOne);
+		recorder.recordPlanExecution(planTwo);
+
+		recorder.recordThinkActExecution("plan-1", 42L, new ThinkActRecord(42L));
+
+		assertEquals(1, first.getThinkActSteps().size());
+		assertEquals(0, second.getThinkActSteps().size());
+	}
+
+	@Test
+	void retriesRecordsWhosePersistenceFailed() {
+		when(repository.saveAll(anyList())).thenThrow(new IllegalStateException("database down"))
+			.thenReturn(List.of());
+		recorder.recordPlanExecution(new PlanExecutionRecord("plan-1"));
+
+		recorder.shutdown();
+		recorder.shutdown();
+
+		verify(repository, times(2)).saveAll(anyList());
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.example.manus.tool.textOperator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextFileLineIndexTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void indexesLineOffsets() throws IOException {
+		Path file = write("first\r\n第二行\nthird");
+		TextFileLineIndex index = TextFileLineIndex.build(file);
+
+		assertEquals(3, index.getLineCount());
+		assertEquals(0, index.getLineStart(1));
+		assertEquals(7, index.getLineEnd(1));
+		assertEquals(7, index.getLineStart(2));
+		assertEquals(7 + "第二行\n".getBytes(StandardCharsets.UTF_8).length, index.getLineEnd(2));
+		assertEquals(Files.size(file), index.getLineEnd(3));
+		assertEquals("first", index.readLines(file, 1, 1));
+		assertEquals("第二行\nthird", index.readLines(file, 2, 3));
+		assertThrows(IllegalArgumentException.class, () -> index.getLineStart(4));
+	}
+
+	@Test
+	void trailingNewlineDoesNotAddLine() throws IOException {
+		assertEquals(2, TextFileLineIndex.build(write("a\nb\n")).getLineCount());
+		assertEquals(0, TextFileLineIndex.build(write("")).getLineCount());
+	}
+
+	@Test
+	void indexesLinesAcrossBufferBoundary() throws IOException {
+		String longLine = "x".repeat(64 * 1024 + 10);
+		Path file = write("short\n" + longLine + "\nlast\n");
+		TextFileLineIndex index = TextFileLineIndex.build(file);
+
+		assertEquals(3, index.getLineCount());
+		assertEquals(6 + longLine.length() + 1, index.getLineStart(3));
+		assertEquals("last", index.readLines(file, 3, 3));
+	}
+
+	@Test
+	void extendScansOnlyAppendedContent() throws IOException {
+		Path file = write("one\ntwo");
+		TextFileLineIndex index = TextFileLineIndex.build(file);
+		Files.writeString(file, "\nthree\n", StandardOpenOption.APPEND);
+
+		assertFalse(index.isValid(file));
+		TextFileLineIndex extended = index.extend(file);
+		assertTrue(extended.isValid(file));
+		assertEquals(3, extended.getLineCount());
+		assertEquals("two", extended.readLines(file, 2, 2));
+		assertEquals("three", extended.readLines(file, 3, 3));
+		// 原索引不可变
+		assertEquals(2, index.getLineCount());
+	}
+
+	@Test
+	void appendIndexesAppendedBytesWithoutReadingFile() throws IOException {
+		Path file = write("one\ntwo");
+		TextFileLineIndex index = TextFileLineIndex.build(file);
+		byte[] appended = "\n第三行\nfour\n".getBytes(StandardCharsets.UTF_8);
+		Files.write(file, appended, StandardOpenOption.APPEND);
+
+		TextFileLineIndex appendedIndex = index.append(appended, Files.getLastModifiedTime(file).toMillis());
+
+		assertTrue(appendedIndex.isValid(file));
+		assertEquals(4, appendedIndex.getLineCount());
+		assertEquals("第三行", appendedIndex.readLines(file, 3, 3));
+		assertEquals("four", appendedIndex.readLines(file, 4, 4));
+	}
+
+	@Test
+	void extendRebuildsTruncatedFile() throws IOException {
+		Path file = write("one\ntwo\nthree\n");
+		TextFileLineIndex index = TextFileLineIndex.build(file);
+		Files.writeString(file, "x\n");
+
+		TextFileLineIndex rebuilt = index.extend(file);
+		assertEquals(1, rebuilt.getLineCount());
+		assertEquals("x", rebuilt.readLines(file, 1, 1));
+	}
+
+	private Path write(String content) throws IOException {
+		Path file = Files.createTempFile(tempDir, "index", ".txt");
+		Files.writeString(file, content);
+		return file;
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.example.manus.tool.textOperator;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.alibaba.cloud.ai.example.manus.config.ManusProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TextFileOperatorTest {
+
+	/**
+	 * 与 streamReplace 的读取缓冲区大小一致
+	 */
+	private static final int CHUNK = 64 * 1024;
+
+	@TempDir
+	Path tempDir;
+
+	private TextFileService textFileService;
+
+	private TextFileOperator operator;
+
+	@BeforeEach
+	void setUp() {
+		ManusProperties properties = mock(ManusProperties.class);
+		when(properties.getBaseDir()).thenReturn(tempDir.toString());
+		textFileService = mock(TextFileService.class);
+		when(textFileService.getManusProperties()).thenReturn(properties);
+		operator = new TextFileOperator(textFileService);
+	}
+
+	@Test
+	void replacesMatchSpanningChunkBoundary() throws IOException {
+		String prefix = "a".repeat(CHUNK - 3);
+		String input = prefix + "NEEDLE" + "b".repeat(100) + "NEEDLE";
+		StringWriter out = new StringWriter();
+
+		int replaced = TextFileOperator.streamReplace(new StringReader(input), out, "NEEDLE", "pin");
+
+		assertEquals(2, replaced);
+		assertEquals(prefix + "pin" + "b".repeat(100) + "pin", out.toString());
+	}
+
+	@Test
+	void replacesOnlyWithinByteRange() throws IOException {
+		Path file = tempDir.resolve("range.txt");
+		Files.writeString(file, "foo\n中文 foo\nfoo\n");
+		TextFileLineIndex index = TextFileLineIndex.build(file);
+
+		int replaced = operator.replaceInRange(file, index.getLineStart(2), index.getLineEnd(2), "foo", "bar");
+
+		assertEquals(1, replaced);
+		assertEquals("foo\n中文 bar\nfoo\n", Files.readString(file));
+		verify(textFileService).invalidateLineIndex(file);
+	}
+
+	@Test
+	void rejectsMalformedUtf8AndLeavesFileUnchanged() throws IOException {
+		Path file = tempDir.resolve("binary.txt");
+		byte[] content = { 'f', 'o', 'o', ' ', (byte) 0xC3, '(', ' ', 'f', 'o', 'o', '\n' };
+		Files.write(file, content);
+
+		assertThrows(IOException.class, () -> operator.replaceInRange(file, 0, content.length, "foo", "bar"));
+
+		assertArrayEquals(content, Files.readAllBytes(file));
+		verify(textFileService, never()).invalidateLineIndex(file);
+		try (var files = Files.list(tempDir)) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	void appendsWithoutBuildingLineIndex() throws IOException {
+		Path file = tempDir.resolve("extensions").resolve("notes.txt");
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, "first");
+		operator.setPlanId("plan-1");
+		when(textFileService.getCurrentFilePath("plan-1")).thenReturn("notes.txt");
+
+		operator.run("{\"action\":\"append\",\"content\":\"second\"}");
+
+		assertEquals("first\nsecond", Files.readString(file));
+		verify(textFileService, never()).getLineIndex(any());
+	}
+
+	@Test
+	void keepsFileStateInStepScopeWhenSet() {
+		operator.setPlanId("plan-1");
+		operator.setStateScope("plan-1_step_2");
+		when(textFileService.getCurrentFilePath("plan-1_step_2")).thenReturn("");
+
+		operator.run("{\"action\":\"get_text\"}");
+		operator.cleanup("plan-1");
+
+		verify(textFileService).updateFileState("plan-1_step_2", "", "Error: No file is currently open");
+		verify(textFileService, never()).getCurrentFilePath("plan-1");
+		verify(textFileService).closeFileForPlan("plan-1");
+		verify(textFileService).closeFileForPlan("plan-1_step_2");
+	}
+
+}